@@ -0,0 +1,241 @@
+/**
+ * DogModel.java - the dog model as measured by the benchmarks
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - timed drawing through a stand-in which allocates nothing, counting the
+ *   calls through the recorder only once
+ *
+ * - added deforming the skins of a herd
+ *
+ * - added placing the paws
+ *
+ * - created for the JMH benchmarks
+ */
+
+import java.util.concurrent.ForkJoinPool;
+
+import javax.media.opengl.GL;
+
+/**
+ * The implementation of {@link bench.Model} for the benchmarks: a single dog
+ * drawn by the default camera, with every part selected so that rotating the
+ * joints moves the whole dog.
+ *
+ * The dog is initialized through a {@link RecordingGL}, which also counts the
+ * calls of one frame, but it is drawn in the benchmarks through a
+ * {@link SilentGL}, since the recorder is a proxy whose reflective dispatch
+ * and boxed arguments would cost more than the drawing itself.
+ */
+public class DogModel implements bench.Model {
+
+  /** The width and height of the viewport, as in a default window. */
+  private static final int VIEWPORT_SIZE = PA2.DEFAULT_WINDOW_WIDTH;
+  /** The steps every joint is rotated by in the pose of the skins. */
+  private static final int SKIN_POSE_STEPS = 4;
+
+  /** Records the calls made while drawing. */
+  private final RecordingGL recorder = new RecordingGL();
+  /** The stand-in for OpenGL through which the dog is set up. */
+  private final GL gl = this.recorder.gl();
+  /** The stand-in for OpenGL through which the dog is drawn. */
+  private final GL silent_gl = SilentGL.create();
+  /** The camera through which the dog is drawn. */
+  private final Camera camera = new Camera();
+  /** The dog. */
+  private final Dog dog = new Dog(new HeadlessGLUT());
+  /** The left operand of the quaternion operations. */
+  private final Quaternion a = new Quaternion(0.9f, 0.1f, 0.3f, 0.3f);
+  /** The right operand of the quaternion operations. */
+  private final Quaternion b = new Quaternion(0.7f, -0.2f, 0.5f, 0.46f);
+  /** The legs of the dog. */
+  private final Dog.BodyPartType legs[] = { Dog.BodyPartType.FRONT_LEFT_LEG,
+      Dog.BodyPartType.FRONT_RIGHT_LEG, Dog.BodyPartType.REAR_LEFT_LEG,
+      Dog.BodyPartType.REAR_RIGHT_LEG };
+  /** The positions of the paws at rest, x, y and z of each leg in turn. */
+  private final float paws[] = new float[12];
+  /** The skin of the dog. */
+  private final SkinnedMesh skin = Dog.buildSkin();
+  /** The world matrices of every dog of the herd, all in the same pose. */
+  private final float bones[] = new float[MAX_HERD * this.skin.boneCount()
+      * Matrix4.SIZE];
+  /** The dogs of the herd in the order in which they are deformed. */
+  private final int herd[] = new int[MAX_HERD];
+  /** The deformed vertices of every dog of the herd. */
+  private final float skins[] = new float[MAX_HERD * this.skin.vertexCount()
+      * SkinnedMesh.STRIDE];
+  /** The kernel which deforms the skins. */
+  private Skinning skinning = new ScalarSkinning();
+  /** The number of OpenGL calls made to draw the dog once. */
+  private final int draw_call_count;
+
+  /**
+   * Instantiates the dog, selects all of its parts and uploads its meshes.
+   */
+  public DogModel() {
+    this.camera.setViewport(VIEWPORT_SIZE, VIEWPORT_SIZE);
+    for (final Dog.BodyPartType part : Dog.BodyPartType.values()) {
+      this.dog.toggle_part(part);
+    }
+    this.dog.init(this.gl);
+    this.dog.update(this.gl);
+    final float paw[] = new float[3];
+    for (int i = 0; i < this.legs.length; ++i) {
+      this.dog.pawPosition(this.legs[i], paw);
+      System.arraycopy(paw, 0, this.paws, i * 3, 3);
+    }
+    // bend every joint a little, so that no skin is deformed at rest
+    for (int i = 0; i < SKIN_POSE_STEPS; ++i) {
+      this.dog.rotateActiveJointsForward();
+    }
+    this.dog.evaluate();
+    final float world[] = this.dog.worldMatrices();
+    for (int i = 0; i < MAX_HERD; ++i) {
+      System.arraycopy(world, 0, this.bones, i * world.length, world.length);
+      this.herd[i] = i;
+    }
+    this.dog.reset();
+
+    // draw once to build anything drawn lazily, then count a steady frame
+    this.dog.draw(this.gl, this.camera);
+    this.recorder.reset();
+    this.dog.draw(this.gl, this.camera);
+    this.draw_call_count = this.recorder.callCount();
+    this.recorder.reset();
+  }
+
+  /** {@inheritDoc} */
+  public void rotateForward() {
+    this.dog.rotateActiveJointsForward();
+  }
+
+  /** {@inheritDoc} */
+  public void rotateBackward() {
+    this.dog.rotateActiveJointsBackward();
+  }
+
+  /** {@inheritDoc} */
+  public void reset() {
+    this.dog.reset();
+  }
+
+  /** {@inheritDoc} */
+  public void nextTrick() {
+    this.dog.test();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @param seconds
+   *          {@inheritDoc}
+   */
+  public void advance(final float seconds) {
+    this.dog.advance(seconds);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return {@inheritDoc}
+   */
+  public int update() {
+    this.dog.update(this.gl);
+    return this.dog.movedPartCount();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @param lift
+   *          {@inheritDoc}
+   * @return {@inheritDoc}
+   */
+  public int placePaws(final float lift) {
+    for (int i = 0; i < this.legs.length; ++i) {
+      this.dog.placePaw(this.legs[i], this.paws[i * 3], this.paws[i * 3 + 1]
+          + lift, this.paws[i * 3 + 2]);
+    }
+    this.dog.evaluate();
+    return this.dog.solverIterationCount();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @param vector
+   *          {@inheritDoc}
+   * @return {@inheritDoc}
+   */
+  public String setSkinning(final boolean vector) {
+    this.skinning = vector ? Skinning.create() : new ScalarSkinning();
+    if (vector && this.skinning instanceof ScalarSkinning) {
+      throw new IllegalStateException("the vector kernel needs "
+          + "--add-modules jdk.incubator.vector");
+    }
+    return this.skinning.toString();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @param dogs
+   *          {@inheritDoc}
+   * @return {@inheritDoc}
+   */
+  public int skin(final int dogs) {
+    SkinTask.skin(ForkJoinPool.commonPool(), this.skinning, this.skin,
+        this.bones, this.herd, 0, dogs, this.skins);
+    return dogs * this.skin.vertexCount();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return {@inheritDoc}
+   */
+  public int draw() {
+    this.dog.draw(this.silent_gl, this.camera);
+    return this.draw_call_count;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return {@inheritDoc}
+   */
+  public Object multiply() {
+    return this.a.multiply(this.b);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return {@inheritDoc}
+   */
+  public Object normalize() {
+    this.a.normalize();
+    return this.a;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return {@inheritDoc}
+   */
+  public float[] toMatrix() {
+    return this.a.toMatrix();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @param matrix
+   *          {@inheritDoc}
+   */
+  public void toMatrix(final float[] matrix) {
+    this.a.toMatrix(matrix);
+  }
+}
@@ -0,0 +1,151 @@
+/**
+ * FrameBudgets.java - checks the OpenGL work of each kind of frame
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - created so that regressions in the cost of a frame fail the build
+ */
+
+import javax.media.opengl.GL;
+
+/**
+ * Draws the interactive scene headless through a {@link RecordingGL} and
+ * checks that each kind of frame stays within its budget of OpenGL work: a
+ * static frame, a frame after a joint has been rotated and the frames of a
+ * trick. The dog and the scene are the ones drawn by {@link PA2}, unmodified;
+ * only the window around them is missing.
+ *
+ * The work of every frame is printed, followed by the outcome of each check.
+ * The program exits with a non-zero status if any check fails, so it can
+ * gate a build.
+ */
+public class FrameBudgets {
+
+  /** The most OpenGL calls in a frame of the single interactive dog. */
+  public static final int MAX_FRAME_CALLS = 240;
+  /** The most state changes in a frame of the single interactive dog. */
+  public static final int MAX_FRAME_STATE_CHANGES = 160;
+  /** The number of frames drawn while a trick plays. */
+  public static final int TRICK_FRAMES = 30;
+
+  /** Records the calls made. */
+  private final RecordingGL recorder = new RecordingGL();
+  /** The stand-in for OpenGL. */
+  private final GL gl = this.recorder.gl();
+  /** The single interactive dog, as drawn by the simulator. */
+  private final Crowd crowd = new Crowd(new HeadlessGLUT(), 1, false);
+  /** The input to the dog. */
+  private final InputHandler input = new InputHandler(this.crowd.dog(0));
+  /** The scene of the dog. */
+  private final Scene scene = new Scene(this.crowd, this.input, null);
+  /** The time of the next simulation step, in nanoseconds. */
+  private long time = System.nanoTime();
+  /** The number of checks which failed. */
+  private int failures = 0;
+
+  /**
+   * Runs every check.
+   *
+   * @param args
+   *          This parameter is ignored.
+   */
+  public static void main(final String[] args) {
+    final FrameBudgets budgets = new FrameBudgets();
+    budgets.run();
+    if (budgets.failures > 0) {
+      System.out.println(budgets.failures + " check(s) failed");
+      System.exit(1);
+    }
+    System.out.println("every frame is within its budget");
+  }
+
+  /** Instantiates the checks of a scene with the default window size. */
+  public FrameBudgets() {
+    this.crowd.setInputHandler(this.input);
+    this.scene.camera().setViewport(PA2.DEFAULT_WINDOW_WIDTH,
+        PA2.DEFAULT_WINDOW_HEIGHT);
+  }
+
+  /** Draws each kind of frame and checks its work. */
+  public void run() {
+    this.recorder.reset();
+    this.scene.init(this.gl);
+    System.out.println("init: " + this.recorder.summary());
+    this.check("init", "compiles only the teapot",
+        this.recorder.count(RecordingGL.Work.LIST_COMPILES) == 1);
+
+    // the first frame may still find work to do; the second must not
+    this.frame();
+    this.frame();
+    this.checkFrame("static frame");
+
+    this.input.push(Command.togglePart(Dog.BodyPartType.HEAD));
+    this.input.push(Command.ROTATE_BACKWARD);
+    this.step();
+    this.frame();
+    this.checkFrame("frame after a rotation");
+
+    this.input.push(Command.NEXT_TRICK);
+    for (int i = 0; i < TRICK_FRAMES; ++i) {
+      this.step();
+      this.frame();
+      this.checkFrame("frame " + i + " of a trick");
+    }
+  }
+
+  /** Takes one step of the simulation, applying the queued input. */
+  private void step() {
+    this.crowd.simulate(this.time);
+    this.time += 1000000000L / Crowd.TICKS_PER_SECOND;
+  }
+
+  /** Draws one frame, recording only its work. */
+  private void frame() {
+    this.recorder.reset();
+    this.scene.display(this.gl);
+  }
+
+  /**
+   * Checks the work of the last frame drawn against the budget of every
+   * frame.
+   *
+   * @param name
+   *          The name of the frame.
+   */
+  private void checkFrame(final String name) {
+    final RecordingGL r = this.recorder;
+    System.out.println(name + ": " + r.summary());
+    this.check(name, "compiles no display lists",
+        r.count(RecordingGL.Work.LIST_COMPILES) == 0);
+    this.check(name, "uploads no buffers",
+        r.count(RecordingGL.Work.BUFFER_UPLOADS) == 0);
+    this.check(name, "pops every matrix it pushes",
+        r.count(RecordingGL.Work.MATRIX_PUSHES) == r
+            .count(RecordingGL.Work.MATRIX_POPS));
+    this.check(name, "makes at most " + MAX_FRAME_CALLS + " calls",
+        r.callCount() <= MAX_FRAME_CALLS);
+    this.check(name, "changes state at most " + MAX_FRAME_STATE_CHANGES
+        + " times",
+        r.count(RecordingGL.Work.STATE_CHANGES) <= MAX_FRAME_STATE_CHANGES);
+  }
+
+  /**
+   * Prints the outcome of a check, counting it if it failed.
+   *
+   * @param name
+   *          The name of the frame checked.
+   * @param budget
+   *          What the frame must do.
+   * @param passed
+   *          Whether it did.
+   */
+  private void check(final String name, final String budget,
+      final boolean passed) {
+    if (!passed) {
+      this.failures++;
+    }
+    System.out.println((passed ? "  ok   " : "  FAIL ") + name + " " + budget);
+  }
+}
@@ -0,0 +1,46 @@
+/**
+ * HeadlessGLUT.java - the utility toolkit without a current OpenGL context
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - created so that the dog can be drawn without a display
+ */
+
+import com.sun.opengl.util.GLUT;
+
+/**
+ * A {@link GLUT} which draws nothing.
+ *
+ * The shapes drawn by GLUT, such as the teapot used as the dog's head, are
+ * drawn through the OpenGL context current on the calling thread rather than
+ * through the {@code GL} object passed to the model, so without a display
+ * they would fail. Together with {@link RecordingGL} this lets the dog be
+ * built and drawn headless.
+ */
+public class HeadlessGLUT extends GLUT {
+
+  /** The number of teapots drawn. */
+  private int teapot_count = 0;
+
+  /**
+   * Counts the teapot instead of drawing it.
+   *
+   * @param scale
+   *          This parameter is ignored.
+   */
+  @Override
+  public void glutSolidTeapot(final double scale) {
+    this.teapot_count++;
+  }
+
+  /**
+   * Returns the number of teapots drawn.
+   *
+   * @return The number of calls to {@link #glutSolidTeapot(double)}.
+   */
+  public int teapotCount() {
+    return this.teapot_count;
+  }
+}
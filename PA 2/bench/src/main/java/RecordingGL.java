@@ -0,0 +1,306 @@
+/**
+ * RecordingGL.java - a stand-in for OpenGL which only counts the calls made
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - grouped the calls into the kinds of work which make up the cost of a
+ *   frame
+ *
+ * - created so that the dog can be drawn without a display
+ */
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import javax.media.opengl.GL;
+
+/**
+ * An implementation of {@link GL} which draws nothing and instead counts how
+ * many times each of its methods is called, so that models can be drawn and
+ * measured without a display or a GPU.
+ *
+ * The implementation is a dynamic proxy, since {@link GL} has far too many
+ * methods to write out. Calls which return something return zero, false or
+ * null, except that every extension is reported as available and that the
+ * names handed out by {@code glGenLists} and {@code glGenBuffers} are
+ * distinct, as they would be from a real context.
+ *
+ * Besides the calls to each method, the recorder tallies the kinds of work
+ * which make up the cost of a frame, such as matrix pushes or display lists
+ * compiled; calling {@link #reset()} at the start of each frame gives the
+ * cost of that frame.
+ */
+public class RecordingGL implements InvocationHandler {
+
+  /** The kinds of work tallied by the recorder. */
+  public enum Work {
+    /** Calls to {@code glPushMatrix}. */
+    MATRIX_PUSHES,
+    /** Calls to {@code glPopMatrix}. */
+    MATRIX_POPS,
+    /** Calls to {@code glRotate*}. */
+    ROTATIONS,
+    /** Display lists called. */
+    LIST_CALLS,
+    /** Display lists compiled with {@code glNewList}. */
+    LIST_COMPILES,
+    /** Buffers filled with {@code glBufferData} or {@code glBufferSubData}. */
+    BUFFER_UPLOADS,
+    /** Calls to {@code glDrawArrays} and {@code glDrawElements}. */
+    DRAW_CALLS,
+    /** Vertices submitted by {@code glVertex*} and the draw calls. */
+    VERTICES,
+    /** Changes of enabled state, bindings, colors, materials and lights. */
+    STATE_CHANGES
+  }
+
+  /** The prefixes of the names of the methods which change state. */
+  private static final String STATE_PREFIXES[] = { "glEnable", "glDisable",
+      "glBind", "glColor", "glMaterial", "glLight", "glShadeModel",
+      "glPolygonMode", "glVertexPointer", "glNormalPointer",
+      "glTexCoordPointer", "glUseProgram", "glBlendFunc", "glDepthFunc",
+      "glCullFace" };
+
+  /** The proxy through which the calls are recorded. */
+  private final GL gl;
+  /** The number of calls to each method since the last reset. */
+  private final Map<Method, int[]> counts =
+      new IdentityHashMap<Method, int[]>();
+  /** The kind of work done by each method, or null if none is tallied. */
+  private final Map<Method, Work> kinds = new IdentityHashMap<Method, Work>();
+  /** The amount of each kind of work since the last reset, by ordinal. */
+  private final long work[] = new long[Work.values().length];
+  /** The number of calls to any method since the last reset. */
+  private int call_count = 0;
+  /** The last name handed out for a display list or a buffer. */
+  private int last_name = 0;
+
+  /** Instantiates a recorder with no calls recorded. */
+  public RecordingGL() {
+    this.gl = (GL) Proxy.newProxyInstance(GL.class.getClassLoader(),
+        new Class<?>[] { GL.class }, this);
+  }
+
+  /**
+   * Returns the stand-in for OpenGL whose calls are recorded.
+   *
+   * @return The OpenGL object to draw with.
+   */
+  public GL gl() {
+    return this.gl;
+  }
+
+  /**
+   * Records a call to the stand-in.
+   *
+   * @param proxy
+   *          The stand-in.
+   * @param method
+   *          The method called.
+   * @param args
+   *          The arguments of the call, or null if there are none.
+   * @return The result of the call.
+   */
+  public Object invoke(final Object proxy, final Method method,
+      final Object[] args) {
+    if (method.getDeclaringClass() == Object.class) {
+      return this.invokeObjectMethod(proxy, method, args);
+    }
+
+    int count[] = this.counts.get(method);
+    if (count == null) {
+      count = new int[1];
+      this.counts.put(method, count);
+      this.kinds.put(method, kindOf(method.getName()));
+    }
+    count[0]++;
+    this.call_count++;
+
+    final String name = method.getName();
+    final Work kind = this.kinds.get(method);
+    if (kind != null) {
+      this.work[kind.ordinal()]++;
+    }
+    if (kind == Work.DRAW_CALLS) {
+      // glDrawArrays(mode, first, count), glDrawElements(mode, count, ...)
+      final int vertices = "glDrawArrays".equals(name) ? (Integer) args[2]
+          : (Integer) args[1];
+      this.work[Work.VERTICES.ordinal()] += vertices;
+    } else if (kind == Work.LIST_CALLS && "glCallLists".equals(name)) {
+      this.work[Work.LIST_CALLS.ordinal()] += (Integer) args[0] - 1;
+    }
+
+    if ("glGenLists".equals(name)) {
+      final int first = this.last_name + 1;
+      this.last_name += (Integer) args[0];
+      return first;
+    }
+    if ("glGenBuffers".equals(name) && args.length == 3
+        && args[1] instanceof int[]) {
+      final int names[] = (int[]) args[1];
+      final int offset = (Integer) args[2];
+      for (int i = 0; i < (Integer) args[0]; ++i) {
+        names[offset + i] = ++this.last_name;
+      }
+      return null;
+    }
+    if ("isFunctionAvailable".equals(name)
+        || "isExtensionAvailable".equals(name)) {
+      return Boolean.TRUE;
+    }
+    return defaultValue(method.getReturnType());
+  }
+
+  /**
+   * Returns the kind of work done by the OpenGL method of the specified name.
+   *
+   * @param name
+   *          The name of the method.
+   * @return The kind of work, or null if the method is not tallied.
+   */
+  private static Work kindOf(final String name) {
+    if ("glPushMatrix".equals(name)) {
+      return Work.MATRIX_PUSHES;
+    } else if ("glPopMatrix".equals(name)) {
+      return Work.MATRIX_POPS;
+    } else if (name.startsWith("glRotate")) {
+      return Work.ROTATIONS;
+    } else if ("glCallList".equals(name) || "glCallLists".equals(name)) {
+      return Work.LIST_CALLS;
+    } else if ("glNewList".equals(name)) {
+      return Work.LIST_COMPILES;
+    } else if ("glBufferData".equals(name) || "glBufferSubData".equals(name)) {
+      return Work.BUFFER_UPLOADS;
+    } else if ("glDrawArrays".equals(name) || "glDrawElements".equals(name)) {
+      return Work.DRAW_CALLS;
+    } else if (name.matches("glVertex[234][dfis]v?")) {
+      return Work.VERTICES;
+    }
+    for (final String prefix : STATE_PREFIXES) {
+      if (name.startsWith(prefix)) {
+        return Work.STATE_CHANGES;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Answers the methods of {@link Object} called on the stand-in.
+   *
+   * @param proxy
+   *          The stand-in.
+   * @param method
+   *          The method called.
+   * @param args
+   *          The arguments of the call, or null if there are none.
+   * @return The result of the call.
+   */
+  private Object invokeObjectMethod(final Object proxy, final Method method,
+      final Object[] args) {
+    if ("equals".equals(method.getName())) {
+      return proxy == args[0];
+    }
+    if ("hashCode".equals(method.getName())) {
+      return System.identityHashCode(proxy);
+    }
+    return "RecordingGL[" + this.call_count + " calls]";
+  }
+
+  /**
+   * Returns the value returned by a call to a method with the specified
+   * return type which has nothing better to return.
+   *
+   * @param type
+   *          The return type.
+   * @return Zero, false or null.
+   */
+  private static Object defaultValue(final Class<?> type) {
+    if (!type.isPrimitive() || type == void.class) {
+      return null;
+    } else if (type == boolean.class) {
+      return Boolean.FALSE;
+    } else if (type == char.class) {
+      return Character.valueOf((char) 0);
+    } else if (type == float.class) {
+      return Float.valueOf(0);
+    } else if (type == double.class) {
+      return Double.valueOf(0);
+    } else if (type == long.class) {
+      return Long.valueOf(0);
+    } else if (type == byte.class) {
+      return Byte.valueOf((byte) 0);
+    } else if (type == short.class) {
+      return Short.valueOf((short) 0);
+    }
+    return Integer.valueOf(0);
+  }
+
+  /**
+   * Returns the number of calls to the methods of the specified name since
+   * the last reset.
+   *
+   * @param name
+   *          The name of the method, such as {@code "glCallList"}.
+   * @return The number of calls to every overload of that method.
+   */
+  public int count(final String name) {
+    int total = 0;
+    for (final Map.Entry<Method, int[]> entry : this.counts.entrySet()) {
+      if (entry.getKey().getName().equals(name)) {
+        total += entry.getValue()[0];
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Returns the amount of the specified kind of work since the last reset.
+   *
+   * @param kind
+   *          The kind of work.
+   * @return The number of calls, lists or vertices, as the kind describes.
+   */
+  public long count(final Work kind) {
+    return this.work[kind.ordinal()];
+  }
+
+  /**
+   * Returns the number of calls to any method since the last reset.
+   *
+   * @return The number of calls recorded.
+   */
+  public int callCount() {
+    return this.call_count;
+  }
+
+  /** Forgets every call recorded so far. */
+  public void reset() {
+    for (final int count[] : this.counts.values()) {
+      count[0] = 0;
+    }
+    Arrays.fill(this.work, 0);
+    this.call_count = 0;
+  }
+
+  /**
+   * Returns the calls and the amount of each kind of work since the last
+   * reset, such as {@code "412 calls: 16 MATRIX_PUSHES, ..."}.
+   *
+   * @return A summary of the work recorded.
+   */
+  public String summary() {
+    final StringBuilder summary = new StringBuilder();
+    summary.append(this.call_count).append(" calls");
+    for (final Work kind : Work.values()) {
+      summary.append(kind.ordinal() == 0 ? ": " : ", ")
+          .append(this.work[kind.ordinal()]).append(' ').append(kind);
+    }
+    return summary.toString();
+  }
+}
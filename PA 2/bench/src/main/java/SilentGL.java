@@ -0,0 +1,144 @@
+/**
+ * SilentGL.java - a stand-in for OpenGL whose calls allocate nothing
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - created so that the allocations of a frame can be counted
+ */
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.media.opengl.GL;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+/**
+ * Creates implementations of {@link GL} which draw nothing and do nothing
+ * else, so that the allocations of drawing a frame are the model's alone.
+ *
+ * A {@link RecordingGL} is a dynamic proxy, which boxes the arguments of
+ * every call into a new array. Instead, the class created here is generated
+ * when first needed, with a method for each of those of {@link GL} which
+ * ignores its arguments and returns zero, false or null. Nothing is handed
+ * out by {@code glGenLists} or {@code glGenBuffers}, so the model should be
+ * initialized through a {@link RecordingGL} before it is drawn through this.
+ */
+public final class SilentGL {
+
+  /** The name of the generated class, in the package of this one. */
+  private static final String CLASS_NAME = "SilentGLImpl";
+
+  /** The generated class, or null if it has not been generated yet. */
+  private static Class<?> generated = null;
+
+  /** This class cannot be instantiated. */
+  private SilentGL() {
+  }
+
+  /**
+   * Returns a new stand-in for OpenGL which does nothing.
+   *
+   * @return The OpenGL object to draw with.
+   */
+  public static synchronized GL create() {
+    try {
+      if (generated == null) {
+        generated = MethodHandles.lookup().defineClass(generate());
+      }
+      return (GL) generated.getConstructor().newInstance();
+    } catch (final ReflectiveOperationException exception) {
+      throw new IllegalStateException("could not generate " + CLASS_NAME,
+          exception);
+    }
+  }
+
+  /**
+   * Returns the class file of an implementation of {@link GL} every method of
+   * which returns at once.
+   *
+   * @return The bytes of the class file.
+   */
+  private static byte[] generate() {
+    final ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+    writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL
+        | Opcodes.ACC_SUPER, CLASS_NAME, null, "java/lang/Object",
+        new String[] { Type.getInternalName(GL.class) });
+
+    final MethodVisitor constructor = writer.visitMethod(Opcodes.ACC_PUBLIC,
+        "<init>", "()V", null, null);
+    constructor.visitCode();
+    constructor.visitVarInsn(Opcodes.ALOAD, 0);
+    constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object",
+        "<init>", "()V", false);
+    constructor.visitInsn(Opcodes.RETURN);
+    constructor.visitMaxs(0, 0);
+    constructor.visitEnd();
+
+    // an interface may inherit the same method along several paths
+    final Set<String> written = new HashSet<String>();
+    for (final Method method : GL.class.getMethods()) {
+      final String descriptor = Type.getMethodDescriptor(method);
+      if (!Modifier.isAbstract(method.getModifiers())
+          || !written.add(method.getName() + descriptor)) {
+        continue;
+      }
+      final MethodVisitor visitor = writer.visitMethod(Opcodes.ACC_PUBLIC,
+          method.getName(), descriptor, null, null);
+      visitor.visitCode();
+      returnDefault(visitor, Type.getReturnType(method));
+      visitor.visitMaxs(0, 0);
+      visitor.visitEnd();
+    }
+
+    writer.visitEnd();
+    return writer.toByteArray();
+  }
+
+  /**
+   * Writes the instructions which return zero, false or null, or nothing.
+   *
+   * @param visitor
+   *          The method into which to write.
+   * @param type
+   *          The type returned by the method.
+   */
+  private static void returnDefault(final MethodVisitor visitor,
+      final Type type) {
+    switch (type.getSort()) {
+    case Type.VOID:
+      visitor.visitInsn(Opcodes.RETURN);
+      break;
+    case Type.LONG:
+      visitor.visitInsn(Opcodes.LCONST_0);
+      visitor.visitInsn(Opcodes.LRETURN);
+      break;
+    case Type.FLOAT:
+      visitor.visitInsn(Opcodes.FCONST_0);
+      visitor.visitInsn(Opcodes.FRETURN);
+      break;
+    case Type.DOUBLE:
+      visitor.visitInsn(Opcodes.DCONST_0);
+      visitor.visitInsn(Opcodes.DRETURN);
+      break;
+    case Type.ARRAY:
+    case Type.OBJECT:
+      visitor.visitInsn(Opcodes.ACONST_NULL);
+      visitor.visitInsn(Opcodes.ARETURN);
+      break;
+    default:
+      // boolean, char, byte, short and int
+      visitor.visitInsn(Opcodes.ICONST_0);
+      visitor.visitInsn(Opcodes.IRETURN);
+      break;
+    }
+  }
+}
@@ -0,0 +1,152 @@
+/**
+ * SteadyAllocations.java - checks that dragging the view allocates nothing
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - created so that garbage in the frames of a drag fails the build
+ */
+
+import java.lang.management.ManagementFactory;
+
+import javax.media.opengl.GL;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Drags the view of the interactive scene headless and checks that, once
+ * warmed up, queueing the drags and drawing the frames allocate nothing on
+ * the drawing thread, for the dog drawn as parts and as a skin. The dog and
+ * the scene are the ones drawn by {@link PA2}, unmodified, and the skin is
+ * deformed by the fastest kernel the JVM allows.
+ *
+ * The scene is initialized through a {@link RecordingGL} and then drawn
+ * through a {@link SilentGL}, since the proxy would allocate for every call.
+ * The bytes allocated by each drag are printed, followed by the outcome of
+ * each check. The program exits with a non-zero status if any check fails,
+ * so it can gate a build.
+ */
+public class SteadyAllocations {
+
+  /** The number of frames dragged before the allocations are counted. */
+  public static final int WARM_UP_FRAMES = 20000;
+  /** The number of frames dragged while the allocations are counted. */
+  public static final int MEASURED_FRAMES = 5000;
+
+  /** The allocations of each thread. */
+  private final ThreadMXBean threads = (ThreadMXBean) ManagementFactory
+      .getThreadMXBean();
+  /** The stand-in for OpenGL through which the scene is drawn. */
+  private final GL gl = SilentGL.create();
+  /** The single interactive dog, as drawn by the simulator. */
+  private final Crowd crowd = new Crowd(new HeadlessGLUT(), 1, false);
+  /** The input to the dog. */
+  private final InputHandler input = new InputHandler(this.crowd.dog(0));
+  /** The scene of the dog. */
+  private final Scene scene = new Scene(this.crowd, this.input, null);
+  /** The time of the next simulation step, in nanoseconds. */
+  private long time = System.nanoTime();
+  /** The number of checks which failed. */
+  private int failures = 0;
+
+  /**
+   * Runs every check.
+   *
+   * @param args
+   *          This parameter is ignored.
+   */
+  public static void main(final String[] args) {
+    final SteadyAllocations allocations = new SteadyAllocations();
+    allocations.run();
+    if (allocations.failures > 0) {
+      System.out.println(allocations.failures + " check(s) failed");
+      System.exit(1);
+    }
+    System.out.println("every drag is free of allocations");
+  }
+
+  /** Instantiates the checks of a scene with the default window size. */
+  public SteadyAllocations() {
+    this.crowd.setInputHandler(this.input);
+    this.scene.camera().setViewport(PA2.DEFAULT_WINDOW_WIDTH,
+        PA2.DEFAULT_WINDOW_HEIGHT);
+  }
+
+  /** Drags the view of each kind of dog and checks its allocations. */
+  public void run() {
+    if (!this.threads.isThreadAllocatedMemorySupported()) {
+      this.check("drag", "can be measured", false);
+      return;
+    }
+    this.threads.setThreadAllocatedMemoryEnabled(true);
+    this.scene.init(new RecordingGL().gl());
+
+    this.crowd.setSkinned(false);
+    this.step();
+    this.checkDrag("drag of the parts");
+
+    this.crowd.setSkinned(true);
+    this.step();
+    this.checkDrag("drag of the skin deformed by the "
+        + this.crowd.skinning() + " kernel");
+  }
+
+  /** Takes one step of the simulation, applying the queued input. */
+  private void step() {
+    this.crowd.simulate(this.time);
+    this.time += 1000000000L / Crowd.TICKS_PER_SECOND;
+  }
+
+  /**
+   * Drags the view back and forth, one motion per frame, for as many frames
+   * as the specified number.
+   *
+   * @param frames
+   *          The number of frames to drag.
+   */
+  private void drag(final int frames) {
+    for (int frame = 0; frame < frames; ++frame) {
+      final int dx = (frame & 1) == 0 ? 3 : -3;
+      this.input.push(Command.ROTATE_VIEW, dx, 1, System.nanoTime());
+      this.scene.display(this.gl);
+    }
+  }
+
+  /**
+   * Warms up a drag, then checks that dragging further allocates nothing on
+   * this thread.
+   *
+   * @param name
+   *          The name of the drag.
+   */
+  private void checkDrag(final String name) {
+    final long thread = Thread.currentThread().getId();
+    this.drag(WARM_UP_FRAMES);
+    final long before = this.threads.getThreadAllocatedBytes(thread);
+    this.drag(MEASURED_FRAMES);
+    final long allocated = this.threads.getThreadAllocatedBytes(thread)
+        - before;
+    System.out.println(name + ": " + allocated + " bytes in "
+        + MEASURED_FRAMES + " frames");
+    this.check(name, "allocates nothing", allocated == 0);
+  }
+
+  /**
+   * Prints the outcome of a check, counting it if it failed.
+   *
+   * @param name
+   *          The name of the drag checked.
+   * @param budget
+   *          What the drag must do.
+   * @param passed
+   *          Whether it did.
+   */
+  private void check(final String name, final String budget,
+      final boolean passed) {
+    if (!passed) {
+      this.failures++;
+    }
+    System.out.println((passed ? "  ok   " : "  FAIL ") + name + " " + budget);
+  }
+}
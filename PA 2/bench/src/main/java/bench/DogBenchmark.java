@@ -0,0 +1,141 @@
+/**
+ * DogBenchmark.java - benchmarks of posing, updating and drawing the dog
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - drew the dog through a stand-in which allocates nothing
+ *
+ * - added solving the legs for raised paws
+ *
+ * - created for the JMH benchmarks
+ */
+
+package bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the operations which the keyboard and the animator perform on one
+ * dog: rotating its joints, resetting it, starting a trick, updating its
+ * matrices and drawing it through a stand-in for OpenGL which does nothing,
+ * so that the time of a draw is that of submitting it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DogBenchmark {
+
+  /** The dog. */
+  private Model model;
+  /** Whether the paws are raised by the next call to placePaws. */
+  private boolean raise = true;
+  /** The standard output, which starting a trick prints to. */
+  private PrintStream out;
+
+  /** Creates the dog and silences what it prints. */
+  @Setup(Level.Trial)
+  public void setUp() {
+    this.model = Model.create();
+    this.out = System.out;
+    System.setOut(new PrintStream(new OutputStream() {
+      @Override
+      public void write(final int b) {
+        // discard the names of the tricks
+      }
+    }));
+  }
+
+  /** Restores the standard output. */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    System.setOut(this.out);
+  }
+
+  /**
+   * Rotates the selected joints one step forward and back again, so every
+   * call moves them however long the benchmark runs.
+   */
+  @Benchmark
+  public void rotateForwardAndBackward() {
+    this.model.rotateForward();
+    this.model.rotateBackward();
+  }
+
+  /** Returns every joint to its rest position. */
+  @Benchmark
+  public void reset() {
+    this.model.reset();
+  }
+
+  /** Starts the next trick, which sets up its transition. */
+  @Benchmark
+  public void nextTrick() {
+    this.model.nextTrick();
+  }
+
+  /**
+   * Updates the dog when nothing has changed.
+   *
+   * @return The number of parts recomputed.
+   */
+  @Benchmark
+  public int updateStatic() {
+    return this.model.update();
+  }
+
+  /**
+   * Rotates the selected joints and updates the dog, twice, so the pose is
+   * the same after every call.
+   *
+   * @return The number of parts recomputed.
+   */
+  @Benchmark
+  public int rotateAndUpdate() {
+    this.model.rotateForward();
+    final int moved = this.model.update();
+    this.model.rotateBackward();
+    return moved + this.model.update();
+  }
+
+  /**
+   * Raises the paws or lowers them back to the ground, alternately, so every
+   * call solves the legs for a target they are not already at.
+   *
+   * @return The number of iterations the solver took.
+   */
+  @Benchmark
+  public int placePaws() {
+    this.raise = !this.raise;
+    return this.model.placePaws(this.raise ? 0.02f : 0f);
+  }
+
+  /**
+   * Draws the dog.
+   *
+   * @return The number of OpenGL calls made.
+   */
+  @Benchmark
+  public int draw() {
+    return this.model.draw();
+  }
+}
@@ -0,0 +1,54 @@
+/**
+ * Main.java - runs the benchmarks and exports their results
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - created for the JMH benchmarks
+ */
+
+package bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks selected on the command line, or all of them, and
+ * writes their results as JSON so that they can be compared between
+ * releases.
+ */
+public class Main {
+
+  /** The file to which the results are written by default. */
+  public static final String RESULT_FILE = "jmh-result.json";
+
+  /**
+   * Runs the benchmarks.
+   *
+   * @param args
+   *          The usual JMH command line options; {@code -rf} and
+   *          {@code -rff} override the JSON output.
+   * @throws CommandLineOptionException
+   *           If the options cannot be parsed.
+   * @throws RunnerException
+   *           If a benchmark fails.
+   */
+  public static void main(final String[] args)
+      throws CommandLineOptionException, RunnerException {
+    final CommandLineOptions options = new CommandLineOptions(args);
+    final ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+    if (!options.getResultFormat().hasValue()) {
+      builder.resultFormat(ResultFormatType.JSON);
+    }
+    if (!options.getResult().hasValue()) {
+      builder.result(RESULT_FILE);
+    }
+    new Runner(builder.build()).run();
+  }
+}
@@ -0,0 +1,144 @@
+/**
+ * Model.java - the operations of the dog model measured by the benchmarks
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - drew the dog through a stand-in which allocates nothing
+ *
+ * - added deforming the skins of a herd
+ *
+ * - added placing the paws
+ *
+ * - created for the JMH benchmarks
+ */
+
+package bench;
+
+/**
+ * The operations of the dog model and of its quaternions measured by the
+ * benchmarks.
+ *
+ * The model lives in the default package, which JMH benchmarks cannot be in
+ * and other packages cannot refer to, so the benchmarks reach it through this
+ * interface; it is implemented by {@code DogModel} in the default package and
+ * loaded by name in {@link #create()}. Each benchmark only ever sees one
+ * implementation, so the calls are inlined by the JIT as if they were direct.
+ */
+public interface Model {
+
+  /** Rotates the selected joints one step forward. */
+  void rotateForward();
+
+  /** Rotates the selected joints one step backward. */
+  void rotateBackward();
+
+  /** Returns every joint to its rest position. */
+  void reset();
+
+  /** Moves the dog into its next trick. */
+  void nextTrick();
+
+  /**
+   * Advances the dog's current trick.
+   *
+   * @param seconds
+   *          The time elapsed, in seconds.
+   */
+  void advance(float seconds);
+
+  /**
+   * Updates the dog's matrices after a change of pose.
+   *
+   * @return The number of parts whose matrices were recomputed.
+   */
+  int update();
+
+  /**
+   * Holds every paw on a target raised by the specified height above where
+   * it stands at rest, and solves the legs to reach them.
+   *
+   * @param lift
+   *          The height of the targets above the resting paws.
+   * @return The number of iterations the solver took.
+   */
+  int placePaws(float lift);
+
+  /**
+   * Selects the kernel with which {@link #skin(int)} deforms the skins.
+   *
+   * @param vector
+   *          Whether to use the vector kernel rather than the scalar one.
+   * @return The name of the kernel.
+   * @throws IllegalStateException
+   *           If the vector kernel is asked for but the JVM was not started
+   *           with {@code --add-modules jdk.incubator.vector}.
+   */
+  String setSkinning(boolean vector);
+
+  /**
+   * Deforms the skin of the dog once for each dog of a herd, all in the
+   * pose of the dog, on the threads of the common pool.
+   *
+   * @param dogs
+   *          The number of dogs in the herd, at most {@link #MAX_HERD}.
+   * @return The number of vertices deformed.
+   */
+  int skin(int dogs);
+
+  /** The largest herd whose skins {@link #skin(int)} deforms. */
+  int MAX_HERD = 256;
+
+  /**
+   * Draws the dog through a stand-in for OpenGL which does nothing.
+   *
+   * @return The number of OpenGL calls made, as counted once by a recording
+   *         stand-in when the model was instantiated.
+   */
+  int draw();
+
+  /**
+   * Multiplies two quaternions into a new one.
+   *
+   * @return The product.
+   */
+  Object multiply();
+
+  /**
+   * Normalizes a quaternion in place.
+   *
+   * @return The quaternion.
+   */
+  Object normalize();
+
+  /**
+   * Converts a quaternion into a new rotation matrix.
+   *
+   * @return The matrix.
+   */
+  float[] toMatrix();
+
+  /**
+   * Converts a quaternion into a rotation matrix, reusing the destination.
+   *
+   * @param matrix
+   *          The destination of the matrix.
+   */
+  void toMatrix(float[] matrix);
+
+  /**
+   * Instantiates the dog model, selected with all of its parts, with its
+   * meshes already uploaded through a recording stand-in for OpenGL.
+   *
+   * @return The model.
+   */
+  static Model create() {
+    try {
+      return (Model) Class.forName("DogModel").getConstructor().newInstance();
+    } catch (final ReflectiveOperationException exception) {
+      throw new IllegalStateException("the dog model is not on the class path",
+          exception);
+    }
+  }
+}
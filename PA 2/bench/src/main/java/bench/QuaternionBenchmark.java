@@ -0,0 +1,90 @@
+/**
+ * QuaternionBenchmark.java - benchmarks of the quaternion operations
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - created for the JMH benchmarks
+ */
+
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the quaternion operations used to rotate the view with the mouse
+ * and to interpolate between poses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QuaternionBenchmark {
+
+  /** The owner of the quaternions. */
+  private Model model;
+  /** The destination of the conversions to a matrix. */
+  private final float matrix[] = new float[16];
+
+  /** Creates the quaternions. */
+  @Setup(Level.Trial)
+  public void setUp() {
+    this.model = Model.create();
+  }
+
+  /**
+   * Multiplies two quaternions into a new one.
+   *
+   * @return The product.
+   */
+  @Benchmark
+  public Object multiply() {
+    return this.model.multiply();
+  }
+
+  /**
+   * Normalizes a quaternion in place.
+   *
+   * @return The quaternion.
+   */
+  @Benchmark
+  public Object normalize() {
+    return this.model.normalize();
+  }
+
+  /**
+   * Converts a quaternion into a new matrix.
+   *
+   * @return The matrix.
+   */
+  @Benchmark
+  public float[] toMatrix() {
+    return this.model.toMatrix();
+  }
+
+  /**
+   * Converts a quaternion into a reused matrix.
+   *
+   * @return The matrix.
+   */
+  @Benchmark
+  public float[] toMatrixInPlace() {
+    this.model.toMatrix(this.matrix);
+    return this.matrix;
+  }
+}
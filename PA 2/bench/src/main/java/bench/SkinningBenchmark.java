@@ -0,0 +1,67 @@
+/**
+ * SkinningBenchmark.java - benchmarks of the kernels which deform the skins
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - created to compare the scalar and vector skinning kernels
+ */
+
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures deforming the skin of one dog and of a herd with the scalar and
+ * the vector kernel. The forked JVM is given the incubating vector API, so
+ * both kernels can be measured in the same run.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class SkinningBenchmark {
+
+  /** The kernel. */
+  @Param({ "scalar", "vector" })
+  private String kernel;
+  /** The number of dogs in the herd. */
+  @Param({ "1", "64", "256" })
+  private int dogs;
+
+  /** The dog. */
+  private Model model;
+
+  /** Creates the dog and selects the kernel. */
+  @Setup(Level.Trial)
+  public void setUp() {
+    this.model = Model.create();
+    this.model.setSkinning("vector".equals(this.kernel));
+  }
+
+  /**
+   * Deforms the skin of every dog of the herd.
+   *
+   * @return The number of vertices deformed.
+   */
+  @Benchmark
+  public int skin() {
+    return this.model.skin(this.dogs);
+  }
+}
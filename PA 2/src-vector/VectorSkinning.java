@@ -0,0 +1,201 @@
+/**
+ * VectorSkinning.java - deforms a skinned mesh with the vector API
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - kept the scratch lines of each thread between calls
+ *
+ * - moved to a source root of its own, so the model compiles without the
+ *   vector module
+ *
+ * - created as the fast kernel of the skinned mesh of the dog
+ */
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The {@link Skinning} kernel which deforms as many vertices at once as the
+ * processor has lanes, with the incubating vector API; it can only be loaded
+ * when the JVM runs with {@code --add-modules jdk.incubator.vector}.
+ *
+ * Since it can only be compiled with that module as well, it lives in the
+ * source root {@code src-vector} rather than in {@code src}, which compiles
+ * without it. Build it against the classes of the model with
+ *
+ * <pre>
+ * javac --add-modules jdk.incubator.vector -cp bin -d bin src-vector/*.java
+ * </pre>
+ *
+ * so that its class sits beside theirs; without it,
+ * {@link Skinning#create()} falls back to the scalar kernel.
+ *
+ * The structure of arrays of the mesh is read straight into vectors, one
+ * coordinate of one lane per vertex. Since the vertices are grouped into
+ * runs which follow the same two joints, the entries of the two matrices
+ * are broadcast to every lane, instead of being gathered lane by lane by the
+ * joints of each vertex. The deformed coordinates are stored line by line
+ * and then interleaved into the output, which is cheaper, and on JDK 17
+ * safer, than scattering them. The arithmetic is the same, in the same
+ * order, as that of {@link ScalarSkinning}, which also finishes the vertices
+ * of each run left over after its last full vector, so the two kernels
+ * agree to the bit.
+ */
+public class VectorSkinning implements Skinning {
+
+  /** The widest vectors of floats the processor supports. */
+  private static final VectorSpecies<Float> SPECIES =
+      FloatVector.SPECIES_PREFERRED;
+
+  /**
+   * The lines in which each thread stores a vector of deformed vertices
+   * before interleaving them; one kernel deforms on every thread of a pool,
+   * so each keeps its own lines rather than allocating them on every call.
+   */
+  private final ThreadLocal<float[]> lines = new ThreadLocal<float[]>() {
+    @Override
+    protected float[] initialValue() {
+      return new float[SkinnedMesh.STRIDE * SPECIES.length()];
+    }
+  };
+
+  /**
+   * {@inheritDoc}
+   *
+   * @param mesh
+   *          {@inheritDoc}
+   * @param first
+   *          {@inheritDoc}
+   * @param end
+   *          {@inheritDoc}
+   * @param bones
+   *          {@inheritDoc}
+   * @param bone_offset
+   *          {@inheritDoc}
+   * @param out
+   *          {@inheritDoc}
+   * @param out_offset
+   *          {@inheritDoc}
+   */
+  public void skin(final SkinnedMesh mesh, final int first, final int end,
+      final float[] bones, final int bone_offset, final float[] out,
+      final int out_offset) {
+    final float lines[] = this.lines.get();
+    int run_first = 0;
+    for (final int run_end : mesh.run_ends) {
+      final int from = Math.max(first, run_first);
+      final int to = Math.min(end, run_end);
+      if (from < to) {
+        this.skinRun(mesh, from, to, bones, bone_offset, out, out_offset,
+            lines);
+      }
+      run_first = run_end;
+    }
+  }
+
+  /**
+   * Deforms a range of vertices which all follow the same two joints.
+   *
+   * @param mesh
+   *          The mesh.
+   * @param first
+   *          The first vertex of the range.
+   * @param end
+   *          The vertex after the last of the range.
+   * @param bones
+   *          The array holding the world matrices of the instance.
+   * @param bone_offset
+   *          The index of the first matrix of the instance in the array.
+   * @param out
+   *          The array in which to store the deformed vertices.
+   * @param out_offset
+   *          The index in the output of the first float of vertex 0.
+   * @param lines
+   *          An array in which to store each coordinate of a vector of
+   *          deformed vertices, one line of lanes after another.
+   */
+  private void skinRun(final SkinnedMesh mesh, final int first,
+      final int end, final float[] bones, final int bone_offset,
+      final float[] out, final int out_offset, final float[] lines) {
+    final int a = bone_offset + mesh.first_bones[first];
+    final int b = bone_offset + mesh.second_bones[first];
+    final int lanes = SPECIES.length();
+    int v = first;
+    for (; v + lanes <= end; v += lanes) {
+      final FloatVector w = FloatVector.fromArray(SPECIES, mesh.weights, v);
+
+      final FloatVector m0 = blend(bones, a, b, w);
+      final FloatVector m1 = blend(bones, a + 1, b + 1, w);
+      final FloatVector m2 = blend(bones, a + 2, b + 2, w);
+      final FloatVector m4 = blend(bones, a + 4, b + 4, w);
+      final FloatVector m5 = blend(bones, a + 5, b + 5, w);
+      final FloatVector m6 = blend(bones, a + 6, b + 6, w);
+      final FloatVector m8 = blend(bones, a + 8, b + 8, w);
+      final FloatVector m9 = blend(bones, a + 9, b + 9, w);
+      final FloatVector m10 = blend(bones, a + 10, b + 10, w);
+      final FloatVector m12 = blend(bones, a + 12, b + 12, w);
+      final FloatVector m13 = blend(bones, a + 13, b + 13, w);
+      final FloatVector m14 = blend(bones, a + 14, b + 14, w);
+
+      final FloatVector x = FloatVector.fromArray(SPECIES, mesh.x, v);
+      final FloatVector y = FloatVector.fromArray(SPECIES, mesh.y, v);
+      final FloatVector z = FloatVector.fromArray(SPECIES, mesh.z, v);
+      m0.mul(x).add(m4.mul(y)).add(m8.mul(z)).add(m12).intoArray(lines, 0);
+      m1.mul(x).add(m5.mul(y)).add(m9.mul(z)).add(m13).intoArray(lines,
+          lanes);
+      m2.mul(x).add(m6.mul(y)).add(m10.mul(z)).add(m14).intoArray(lines,
+          2 * lanes);
+
+      final FloatVector nx = FloatVector.fromArray(SPECIES, mesh.nx, v);
+      final FloatVector ny = FloatVector.fromArray(SPECIES, mesh.ny, v);
+      final FloatVector nz = FloatVector.fromArray(SPECIES, mesh.nz, v);
+      m0.mul(nx).add(m4.mul(ny)).add(m8.mul(nz)).intoArray(lines, 3 * lanes);
+      m1.mul(nx).add(m5.mul(ny)).add(m9.mul(nz)).intoArray(lines, 4 * lanes);
+      m2.mul(nx).add(m6.mul(ny)).add(m10.mul(nz)).intoArray(lines, 5 * lanes);
+
+      // interleave the six lines into the output, vertex by vertex
+      int o = out_offset + v * SkinnedMesh.STRIDE;
+      for (int lane = 0; lane < lanes; ++lane) {
+        for (int k = 0; k < SkinnedMesh.STRIDE; ++k) {
+          out[o++] = lines[k * lanes + lane];
+        }
+      }
+    }
+    for (; v < end; ++v) {
+      ScalarSkinning.skinVertex(mesh, v, bones, bone_offset, out, out_offset);
+    }
+  }
+
+  /**
+   * Blends one entry of the two matrices of a run by the weights of a vector
+   * of its vertices.
+   *
+   * @param bones
+   *          The array holding the world matrices of the instance.
+   * @param a
+   *          The index of the entry of the matrix of the first joint.
+   * @param b
+   *          The index of the entry of the matrix of the second joint.
+   * @param w
+   *          The weight of the first joint of each vertex of the vector.
+   * @return The blended entry of each vertex, {@code b + w * (a - b)}.
+   */
+  private static FloatVector blend(final float[] bones, final int a,
+      final int b, final FloatVector w) {
+    final FloatVector second = FloatVector.broadcast(SPECIES, bones[b]);
+    return FloatVector.broadcast(SPECIES, bones[a]).sub(second).mul(w)
+        .add(second);
+  }
+
+  /**
+   * Returns the name of this kernel and the width of its vectors.
+   *
+   * @return The name.
+   */
+  @Override
+  public String toString() {
+    return "vector (" + SPECIES.length() + " lanes)";
+  }
+}
@@ -0,0 +1,41 @@
+/**
+ * AnimationTransitionEvent.java - a flight recorder event for each transition
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - created so that tricks show up in flight recordings
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A transition of a {@link PoseAnimation} into a keyframe, from its start to
+ * when it lands on the keyframe or is stopped.
+ */
+@Name("creature.AnimationTransition")
+@Label("Animation Transition")
+@Category({ "Creature", "Simulation" })
+@Description("Moving a dog from its pose into a keyframe")
+@StackTrace(false)
+public class AnimationTransitionEvent extends jdk.jfr.Event {
+
+  /** The name of the keyframe, such as the trick. */
+  @Label("Keyframe")
+  String keyframe;
+
+  /** The length of the transition in simulated time. */
+  @Label("Simulated Duration")
+  @Timespan(Timespan.NANOSECONDS)
+  long simulated_duration;
+
+  /** Whether the transition reached its keyframe rather than being stopped. */
+  @Label("Completed")
+  boolean completed;
+}
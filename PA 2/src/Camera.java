@@ -0,0 +1,207 @@
+/**
+ * Camera.java - the viewing parameters shared by the driver and the models
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - added the ray under a point of the viewport, for picking
+ *
+ * - added the depth of a point, for drawing front to back
+ *
+ * - added the viewing frustum for culling
+ *
+ * - created so that models can measure their size on screen
+ */
+
+/**
+ * The camera set up by {@code PA2.reshape}: a perspective projection looking
+ * down the negative z-axis from {@value #EYE_DISTANCE} units away, applied
+ * after the world has been rotated by the viewing matrix.
+ *
+ * This class mirrors that OpenGL state on the CPU so that models can, for
+ * example, compute how many pixels a part covers or whether it is in view
+ * without querying OpenGL.
+ */
+public class Camera {
+
+  /** The vertical field of view, in degrees. */
+  public static final double FIELD_OF_VIEW = 25;
+  /** The distance to the near clipping plane. */
+  public static final double NEAR = 0.1;
+  /** The distance to the far clipping plane. */
+  public static final double FAR = 100;
+  /** The distance from the camera to the origin of the world. */
+  public static final double EYE_DISTANCE = 12;
+
+  /** The width of the viewport in pixels. */
+  private int width = 1;
+  /** The height of the viewport in pixels. */
+  private int height = 1;
+  /** The number of pixels covered by one unit at a distance of one unit. */
+  private float focal_length = 1;
+  /** The rotation of the world, as a column-major matrix. */
+  private final float view[] = new float[Matrix4.SIZE];
+  /** The projection matrix set by {@code gluPerspective}. */
+  private final float projection[] = new float[Matrix4.SIZE];
+  /** The projection times the eye translation times the view rotation. */
+  private final float clip[] = new float[Matrix4.SIZE];
+  /** The viewing volume in world space. */
+  private final Frustum frustum = new Frustum();
+
+  /** Instantiates a camera with no rotation of the world. */
+  public Camera() {
+    Matrix4.identity(this.view);
+    this.setViewport(1, 1);
+  }
+
+  /**
+   * Sets the size of the viewport.
+   *
+   * @param width
+   *          The width of the viewport in pixels.
+   * @param height
+   *          The height of the viewport in pixels.
+   */
+  public void setViewport(final int width, final int height) {
+    this.width = Math.max(1, width);
+    this.height = Math.max(1, height);
+    this.focal_length = (float) (0.5 * this.height / Math.tan(Math
+        .toRadians(0.5 * FIELD_OF_VIEW)));
+
+    // the matrix built by gluPerspective
+    final float f = (float) (1 / Math.tan(Math.toRadians(0.5 * FIELD_OF_VIEW)));
+    Matrix4.identity(this.projection);
+    this.projection[0] = f * this.height / this.width;
+    this.projection[5] = f;
+    this.projection[10] = (float) ((FAR + NEAR) / (NEAR - FAR));
+    this.projection[11] = -1;
+    this.projection[14] = (float) (2 * FAR * NEAR / (NEAR - FAR));
+    this.projection[15] = 0;
+    this.updateFrustum();
+  }
+
+  /**
+   * Sets the rotation of the world.
+   *
+   * @param matrix
+   *          The rotation of the world as a column-major matrix.
+   */
+  public void setView(final float[] matrix) {
+    Matrix4.copy(this.view, matrix);
+    this.updateFrustum();
+  }
+
+  /** Recomputes the frustum from the projection and the view. */
+  private void updateFrustum() {
+    // gluLookAt from (0, 0, EYE_DISTANCE) towards the origin is a translation
+    Matrix4.copy(this.clip, this.projection);
+    Matrix4.translate(this.clip, 0, 0, (float) -EYE_DISTANCE);
+    Matrix4.multiply(this.clip, this.clip, this.view);
+    this.frustum.set(this.clip);
+  }
+
+  /**
+   * Returns the viewing volume of this camera in world space.
+   *
+   * @return The frustum of this camera.
+   */
+  public Frustum frustum() {
+    return this.frustum;
+  }
+
+  /**
+   * Returns the radius in pixels of the projection of a sphere.
+   *
+   * @param x
+   *          The x coordinate of the center of the sphere in world space.
+   * @param y
+   *          The y coordinate of the center of the sphere in world space.
+   * @param z
+   *          The z coordinate of the center of the sphere in world space.
+   * @param radius
+   *          The radius of the sphere.
+   * @return The approximate radius in pixels of the sphere on the screen.
+   */
+  public float projectedRadius(final float x, final float y, final float z,
+      final float radius) {
+    final float depth = this.depth(x, y, z);
+    if (depth <= NEAR) {
+      return Float.POSITIVE_INFINITY;
+    }
+    return radius * this.focal_length / depth;
+  }
+
+  /**
+   * Returns the distance of a point in front of the camera, along its line
+   * of sight.
+   *
+   * @param x
+   *          The x coordinate of the point in world space.
+   * @param y
+   *          The y coordinate of the point in world space.
+   * @param z
+   *          The z coordinate of the point in world space.
+   * @return The depth of the point, negative if it is behind the camera.
+   */
+  public float depth(final float x, final float y, final float z) {
+    final float eye_z = this.view[2] * x + this.view[6] * y + this.view[10]
+        * z + this.view[14];
+    return (float) EYE_DISTANCE - eye_z;
+  }
+
+  /**
+   * Computes the ray in world space from the eye through a pixel of the
+   * viewport, by undoing the projection and then the view.
+   *
+   * @param x
+   *          The horizontal position of the pixel, from the left.
+   * @param y
+   *          The vertical position of the pixel, from the top, as the mouse
+   *          reports it.
+   * @param origin
+   *          The array in which to store the position (x, y, z) of the eye.
+   * @param direction
+   *          The array in which to store the unit direction (x, y, z) of the
+   *          ray.
+   */
+  public void ray(final int x, final int y, final float[] origin,
+      final float[] direction) {
+    // the direction in eye space, through the center of the pixel
+    final float ex = (x + 0.5f - 0.5f * this.width) / this.focal_length;
+    final float ey = (0.5f * this.height - y - 0.5f) / this.focal_length;
+    final float ez = -1;
+
+    // the view is a rotation, so its transpose takes eye space to the world
+    final float[] v = this.view;
+    final float e = (float) EYE_DISTANCE;
+    origin[0] = v[2] * e;
+    origin[1] = v[6] * e;
+    origin[2] = v[10] * e;
+    final float dx = v[0] * ex + v[1] * ey + v[2] * ez;
+    final float dy = v[4] * ex + v[5] * ey + v[6] * ez;
+    final float dz = v[8] * ex + v[9] * ey + v[10] * ez;
+    final float length = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+    direction[0] = dx / length;
+    direction[1] = dy / length;
+    direction[2] = dz / length;
+  }
+
+  /**
+   * Returns the width of the viewport.
+   *
+   * @return The width of the viewport in pixels.
+   */
+  public int width() {
+    return this.width;
+  }
+
+  /**
+   * Returns the height of the viewport.
+   *
+   * @return The height of the viewport in pixels.
+   */
+  public int height() {
+    return this.height;
+  }
+}
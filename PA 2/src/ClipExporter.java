@@ -0,0 +1,65 @@
+/**
+ * ClipExporter.java - writes the built-in tricks of the dog to a clip library
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - created so that the tricks can be edited and extended as data
+ */
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Writes the five built-in tricks of the {@link Dog} to a
+ * {@link ClipLibrary} file, as clips of one frame each, and reads the file
+ * back to check it.
+ *
+ * The file can be given to {@link PA2} with {@code -clips FILE}, or used as
+ * the starting point of a library of new tricks.
+ */
+public class ClipExporter {
+
+  /**
+   * Writes the tricks to the file named on the command line.
+   *
+   * @param args
+   *          The command line arguments, {@code FILE}.
+   */
+  public static void main(final String[] args) {
+    if (args.length != 1) {
+      System.err.println("usage: java ClipExporter FILE");
+      System.exit(1);
+    }
+    final PoseClip tricks[] = Dog.trickClips();
+    try {
+      ClipLibrary.write(args[0], tricks);
+      final ClipLibrary library = ClipLibrary.open(args[0]);
+      final float expected[] = new float[tricks[0].jointCount()
+          * JointTable.AXES];
+      final float actual[] = new float[expected.length];
+      for (int i = 0; i < tricks.length; ++i) {
+        final PoseClip clip = library.clip(i);
+        if (clip.frameCount() != tricks[i].frameCount()) {
+          throw new IOException("clip " + tricks[i].name()
+              + " did not read back as written");
+        }
+        for (int frame = 0; frame < tricks[i].frameCount(); ++frame) {
+          tricks[i].frame(frame, expected);
+          clip.frame(frame, actual);
+          if (!Arrays.equals(expected, actual)
+              || !clip.name().equals(tricks[i].name())) {
+            throw new IOException("clip " + tricks[i].name()
+                + " did not read back as written");
+          }
+        }
+      }
+      System.out.println("wrote " + library.clipCount() + " clips to "
+          + args[0]);
+    } catch (final IOException exception) {
+      System.err.println(exception.getMessage());
+      System.exit(1);
+    }
+  }
+}
@@ -0,0 +1,280 @@
+/**
+ * ClipLibrary.java - a file of pose clips read through a memory mapping
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - kept the number of joints, so a library can be checked against a dog
+ *
+ * - created so that tricks can be added without recompiling the dog
+ */
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A read-only library of {@link PoseClip}s stored in one binary file.
+ *
+ * The file is mapped into memory rather than read, so opening a library only
+ * touches its header and table of clips, however many frames it holds, and
+ * the operating system shares its pages between every process which opens
+ * it. The frames of each clip are read straight out of the mapping.
+ *
+ * The file is little-endian and laid out as follows, with every offset a
+ * multiple of four:
+ *
+ * <pre>
+ * header, 16 bytes:
+ *   int   magic, "DOGC"
+ *   int   version, 1
+ *   int   number of joints in every frame
+ *   int   number of clips
+ * one entry per clip, 48 bytes each:
+ *   byte  name[32], UTF-8, padded with zeros
+ *   int   number of frames
+ *   float seconds taken to move into each frame
+ *   long  offset of the first frame from the start of the file
+ * the frames of each clip, one after another:
+ *   float angle[joints * 3], x, y and z of each joint in turn
+ * </pre>
+ */
+public class ClipLibrary {
+
+  /** The first four bytes of every library, "DOGC" read little-endian. */
+  public static final int MAGIC = 0x43474F44;
+  /** The version of the format written. */
+  public static final int VERSION = 1;
+  /** The size of the header in bytes. */
+  public static final int HEADER_BYTES = 16;
+  /** The size of each entry of the table of clips in bytes. */
+  public static final int ENTRY_BYTES = PoseClip.MAX_NAME_BYTES + 16;
+
+  /** The number of joints in every frame of every clip. */
+  private final int joint_count;
+  /** The clips, in the order in which they are stored. */
+  private final PoseClip clips[];
+
+  /**
+   * Instantiates a library of the specified clips.
+   *
+   * @param joint_count
+   *          The number of joints in every frame of every clip.
+   * @param clips
+   *          The clips.
+   */
+  private ClipLibrary(final int joint_count, final PoseClip[] clips) {
+    this.joint_count = joint_count;
+    this.clips = clips;
+  }
+
+  /**
+   * Opens the library in the specified file.
+   *
+   * @param path
+   *          The path of the file.
+   * @return The library.
+   * @throws IOException
+   *           If the file cannot be read or is not a library.
+   */
+  public static ClipLibrary open(final String path) throws IOException {
+    final MappedByteBuffer map;
+    final RandomAccessFile file = new RandomAccessFile(path, "r");
+    try {
+      // the mapping stays valid after the file has been closed
+      final FileChannel channel = file.getChannel();
+      map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    } finally {
+      file.close();
+    }
+    map.order(ByteOrder.LITTLE_ENDIAN);
+
+    if (map.capacity() < HEADER_BYTES || map.getInt(0) != MAGIC) {
+      throw new IOException(path + " is not a clip library");
+    }
+    if (map.getInt(4) != VERSION) {
+      throw new IOException(path + " is version " + map.getInt(4)
+          + " of the clip format, not " + VERSION);
+    }
+    final int joint_count = map.getInt(8);
+    final int clip_count = map.getInt(12);
+    if (clip_count < 0
+        || HEADER_BYTES + (long) clip_count * ENTRY_BYTES > map.capacity()) {
+      throw new IOException(path + " is shorter than its table of clips");
+    }
+
+    final PoseClip clips[] = new PoseClip[clip_count];
+    final byte name[] = new byte[PoseClip.MAX_NAME_BYTES];
+    for (int i = 0; i < clip_count; ++i) {
+      final int entry = HEADER_BYTES + i * ENTRY_BYTES;
+      map.position(entry);
+      map.get(name);
+      int length = 0;
+      while (length < name.length && name[length] != 0) {
+        length++;
+      }
+      final int frame_count = map.getInt(entry + PoseClip.MAX_NAME_BYTES);
+      final float seconds = map.getFloat(entry + PoseClip.MAX_NAME_BYTES + 4);
+      final long offset = map.getLong(entry + PoseClip.MAX_NAME_BYTES + 8);
+      final long end = offset + (long) frame_count * joint_count
+          * JointTable.AXES * 4;
+      if (offset < 0 || offset % 4 != 0 || end > map.capacity()) {
+        throw new IOException("clip " + i + " of " + path
+            + " lies outside of the file");
+      }
+
+      map.position((int) offset);
+      map.limit((int) end);
+      try {
+        clips[i] = new PoseClip(new String(name, 0, length,
+            StandardCharsets.UTF_8), joint_count, frame_count, seconds, map
+            .slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer());
+      } catch (final IllegalArgumentException exception) {
+        throw new IOException(path + ": " + exception.getMessage(), exception);
+      }
+      map.clear();
+    }
+    return new ClipLibrary(joint_count, clips);
+  }
+
+  /**
+   * Opens the library in the specified file, which must pose the specified
+   * number of joints.
+   *
+   * @param path
+   *          The path of the file.
+   * @param joint_count
+   *          The number of joints of the creature which will play the clips.
+   * @return The library.
+   * @throws IOException
+   *           If the file cannot be read, is not a library or poses a
+   *           different number of joints.
+   */
+  public static ClipLibrary open(final String path, final int joint_count)
+      throws IOException {
+    final ClipLibrary library = open(path);
+    if (library.clipCount() > 0 && library.joint_count != joint_count) {
+      throw new IOException(path + " poses " + library.joint_count
+          + " joints, not " + joint_count);
+    }
+    return library;
+  }
+
+  /**
+   * Writes a library of the specified clips, which must all have the same
+   * number of joints, to a file.
+   *
+   * @param path
+   *          The path of the file, which is replaced if it exists.
+   * @param clips
+   *          The clips to write.
+   * @throws IOException
+   *           If the file cannot be written.
+   */
+  public static void write(final String path, final PoseClip... clips)
+      throws IOException {
+    final int joint_count = (clips.length == 0) ? 0 : clips[0].jointCount();
+    final int stride = joint_count * JointTable.AXES;
+    long size = HEADER_BYTES + (long) clips.length * ENTRY_BYTES;
+    for (final PoseClip clip : clips) {
+      if (clip.jointCount() != joint_count) {
+        throw new IllegalArgumentException("clip " + clip.name() + " has "
+            + clip.jointCount() + " joints rather than " + joint_count);
+      }
+      size += (long) clip.frameCount() * stride * 4;
+    }
+    if (size > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("the clips do not fit in one file");
+    }
+
+    final ByteBuffer out = ByteBuffer.allocate((int) size).order(
+        ByteOrder.LITTLE_ENDIAN);
+    out.putInt(MAGIC).putInt(VERSION).putInt(joint_count).putInt(
+        clips.length);
+    long offset = HEADER_BYTES + (long) clips.length * ENTRY_BYTES;
+    for (final PoseClip clip : clips) {
+      final byte name[] = clip.name().getBytes(StandardCharsets.UTF_8);
+      if (name.length > PoseClip.MAX_NAME_BYTES) {
+        throw new IllegalArgumentException("the name of clip " + clip.name()
+            + " is longer than " + PoseClip.MAX_NAME_BYTES + " bytes");
+      }
+      out.put(Arrays.copyOf(name, PoseClip.MAX_NAME_BYTES));
+      out.putInt(clip.frameCount()).putFloat(clip.secondsPerFrame()).putLong(
+          offset);
+      offset += (long) clip.frameCount() * stride * 4;
+    }
+    final float angles[] = new float[stride];
+    for (final PoseClip clip : clips) {
+      for (int frame = 0; frame < clip.frameCount(); ++frame) {
+        clip.frame(frame, angles);
+        for (final float angle : angles) {
+          out.putFloat(angle);
+        }
+      }
+    }
+    out.flip();
+
+    final RandomAccessFile file = new RandomAccessFile(path, "rw");
+    try {
+      file.setLength(0);
+      final FileChannel channel = file.getChannel();
+      while (out.hasRemaining()) {
+        channel.write(out);
+      }
+    } finally {
+      file.close();
+    }
+  }
+
+  /**
+   * Returns the number of joints in every frame of every clip in this
+   * library.
+   *
+   * @return The number of joints.
+   */
+  public int jointCount() {
+    return this.joint_count;
+  }
+
+  /**
+   * Returns the number of clips in this library.
+   *
+   * @return The number of clips.
+   */
+  public int clipCount() {
+    return this.clips.length;
+  }
+
+  /**
+   * Returns a clip of this library.
+   *
+   * @param clip
+   *          The index of the clip.
+   * @return The clip.
+   */
+  public PoseClip clip(final int clip) {
+    return this.clips[clip];
+  }
+
+  /**
+   * Returns the clip of the specified name.
+   *
+   * @param name
+   *          The name of the clip.
+   * @return The first clip of that name, or null if there is none.
+   */
+  public PoseClip clip(final String name) {
+    for (final PoseClip clip : this.clips) {
+      if (clip.name().equals(name)) {
+        return clip;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,311 @@
+/**
+ * Command.java - an immutable request from the user to change the scene
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - shared the drag and click commands, whose numbers travel in the queue
+ *
+ * - added picking a joint with the mouse
+ *
+ * - encoded commands for the input log
+ *
+ * - created so that input is applied on the threads which own the state
+ */
+
+/**
+ * A single action requested through the keyboard or the mouse, such as
+ * rotating the selected joints or the view.
+ *
+ * Commands are immutable, so they can be created on the event thread and
+ * applied on another one without any synchronization beyond the queue which
+ * carries them. The commands without arguments, and those whose only argument
+ * is one of a handful of values, are shared constants, so most key presses do
+ * not allocate. A mouse drag or click is queued as the shared
+ * {@link #ROTATE_VIEW} or {@link #PICK} with its motion or position carried
+ * beside it in the queue, see {@link InputHandler#push(Command, int, int,
+ * long)}, so the mouse does not allocate either.
+ */
+public final class Command {
+
+  /** The kinds of command. */
+  enum Type {
+    /** Rotates the selected joints by a number of steps. */
+    ROTATE_JOINTS,
+    /** Toggles whether a part of the body is selected. */
+    TOGGLE_PART,
+    /** Selects the type of joint to rotate. */
+    SELECT_JOINT,
+    /** Selects the axis about which to rotate. */
+    SELECT_AXIS,
+    /** Puts the dog back in its rest pose. */
+    RESET,
+    /** Moves the dog into its next trick. */
+    NEXT_TRICK,
+    /** Rotates the view by a mouse drag. */
+    ROTATE_VIEW,
+    /** Puts the view back to no rotation. */
+    RESET_VIEW,
+    /** Picks whatever is under the mouse, through the view. */
+    PICK,
+    /** Selects one part of the body alone, and the type of joint to rotate. */
+    SELECT_PART;
+
+    /**
+     * Returns whether commands of this type change the view rather than the
+     * dog.
+     *
+     * @return Whether this type of command belongs to the renderer.
+     */
+    boolean isView() {
+      return this == ROTATE_VIEW || this == RESET_VIEW || this == PICK;
+    }
+  }
+
+  /** Increases the rotation of the selected joints by one step. */
+  public static final Command ROTATE_BACKWARD = new Command(
+      Type.ROTATE_JOINTS, null, null, null, 1, 0);
+  /** Decreases the rotation of the selected joints by one step. */
+  public static final Command ROTATE_FORWARD = new Command(
+      Type.ROTATE_JOINTS, null, null, null, -1, 0);
+  /** Puts the dog back in its rest pose. */
+  public static final Command RESET = new Command(Type.RESET, null, null,
+      null, 0, 0);
+  /** Moves the dog into its next trick. */
+  public static final Command NEXT_TRICK = new Command(Type.NEXT_TRICK, null,
+      null, null, 0, 0);
+  /** Puts the view back to no rotation. */
+  public static final Command RESET_VIEW = new Command(Type.RESET_VIEW, null,
+      null, null, 0, 0);
+  /** Rotates the view by a drag whose motion is queued beside it. */
+  public static final Command ROTATE_VIEW = new Command(Type.ROTATE_VIEW,
+      null, null, null, 0, 0);
+  /** Picks whatever is under a click whose position is queued beside it. */
+  public static final Command PICK = new Command(Type.PICK, null, null, null,
+      0, 0);
+
+  /** The toggle command of each part of the body, by ordinal. */
+  private static final Command TOGGLES[] = new Command[Dog.BodyPartType
+      .values().length];
+  /** The selection command of each type of joint, by ordinal. */
+  private static final Command JOINTS[] = new Command[Dog.JointType
+      .values().length];
+  /** The selection command of each axis, by ordinal. */
+  private static final Command AXES[] = new Command[Dog.AxisType
+      .values().length];
+  /**
+   * The command selecting each part of the body alone with each type of
+   * joint, by the ordinal of the part times the number of types of joint plus
+   * the ordinal of the joint.
+   */
+  private static final Command SELECTIONS[] = new Command[TOGGLES.length
+      * JOINTS.length];
+  static {
+    for (final Dog.BodyPartType part : Dog.BodyPartType.values()) {
+      TOGGLES[part.ordinal()] = new Command(Type.TOGGLE_PART, part, null,
+          null, 0, 0);
+    }
+    for (final Dog.JointType joint : Dog.JointType.values()) {
+      JOINTS[joint.ordinal()] = new Command(Type.SELECT_JOINT, null, joint,
+          null, 0, 0);
+    }
+    for (final Dog.AxisType axis : Dog.AxisType.values()) {
+      AXES[axis.ordinal()] = new Command(Type.SELECT_AXIS, null, null, axis,
+          0, 0);
+    }
+    for (final Dog.BodyPartType part : Dog.BodyPartType.values()) {
+      for (final Dog.JointType joint : Dog.JointType.values()) {
+        SELECTIONS[part.ordinal() * JOINTS.length + joint.ordinal()] =
+            new Command(Type.SELECT_PART, part, joint, null, 0, 0);
+      }
+    }
+  }
+
+  /** The kind of this command. */
+  final Type type;
+  /** The part of the body to toggle, or null. */
+  final Dog.BodyPartType part;
+  /** The type of joint to select, or null. */
+  final Dog.JointType joint;
+  /** The axis to select, or null. */
+  final Dog.AxisType axis;
+  /**
+   * The number of steps to rotate, the horizontal mouse motion, or the
+   * horizontal position of a click.
+   */
+  final int x;
+  /** The vertical mouse motion, or the vertical position of a click. */
+  final int y;
+
+  /**
+   * Instantiates a command.
+   *
+   * @param type
+   *          The kind of command.
+   * @param part
+   *          The part of the body to toggle, or null.
+   * @param joint
+   *          The type of joint to select, or null.
+   * @param axis
+   *          The axis to select, or null.
+   * @param x
+   *          The number of steps to rotate, the horizontal mouse motion, or
+   *          the horizontal position of a click.
+   * @param y
+   *          The vertical mouse motion, or the vertical position of a click.
+   */
+  private Command(final Type type, final Dog.BodyPartType part,
+      final Dog.JointType joint, final Dog.AxisType axis, final int x,
+      final int y) {
+    this.type = type;
+    this.part = part;
+    this.joint = joint;
+    this.axis = axis;
+    this.x = x;
+    this.y = y;
+  }
+
+  /**
+   * Returns the command toggling whether a part of the body is selected.
+   *
+   * @param part
+   *          The part of the body.
+   * @return The toggle command.
+   */
+  public static Command togglePart(final Dog.BodyPartType part) {
+    return TOGGLES[part.ordinal()];
+  }
+
+  /**
+   * Returns the command selecting a type of joint.
+   *
+   * @param joint
+   *          The type of joint.
+   * @return The selection command.
+   */
+  public static Command selectJoint(final Dog.JointType joint) {
+    return JOINTS[joint.ordinal()];
+  }
+
+  /**
+   * Returns the command selecting an axis of rotation.
+   *
+   * @param axis
+   *          The axis.
+   * @return The selection command.
+   */
+  public static Command selectAxis(final Dog.AxisType axis) {
+    return AXES[axis.ordinal()];
+  }
+
+  /**
+   * Returns a new command rotating the view by a mouse drag, such as one
+   * read from a log; input from the mouse queues {@link #ROTATE_VIEW} with
+   * the motion instead.
+   *
+   * @param dx
+   *          The horizontal motion of the mouse in pixels.
+   * @param dy
+   *          The vertical motion of the mouse in pixels.
+   * @return The rotation command.
+   */
+  public static Command rotateView(final int dx, final int dy) {
+    return new Command(Type.ROTATE_VIEW, null, null, null, dx, dy);
+  }
+
+  /**
+   * Returns a new command picking whatever is under a click of the mouse,
+   * such as one read from a log; input from the mouse queues {@link #PICK}
+   * with the position instead.
+   *
+   * @param x
+   *          The horizontal position of the click in pixels, from the left.
+   * @param y
+   *          The vertical position of the click in pixels, from the top.
+   * @return The pick command.
+   */
+  public static Command pick(final int x, final int y) {
+    return new Command(Type.PICK, null, null, null, x, y);
+  }
+
+  /**
+   * Returns the command selecting one part of the body alone, and the type of
+   * joint of it to rotate.
+   *
+   * @param part
+   *          The part of the body.
+   * @param joint
+   *          The type of joint.
+   * @return The selection command.
+   */
+  public static Command selectPart(final Dog.BodyPartType part,
+      final Dog.JointType joint) {
+    return SELECTIONS[part.ordinal() * JOINTS.length + joint.ordinal()];
+  }
+
+  /**
+   * Returns the ordinal of the part, joint or axis of this command, so that
+   * it can be written to a log; a selection of a part and a joint is
+   * numbered as in {@link #SELECTIONS}.
+   *
+   * @return The ordinal, or -1 if the command has none.
+   */
+  int argument() {
+    if (this.part != null && this.joint != null) {
+      return this.part.ordinal() * JOINTS.length + this.joint.ordinal();
+    } else if (this.part != null) {
+      return this.part.ordinal();
+    } else if (this.joint != null) {
+      return this.joint.ordinal();
+    } else if (this.axis != null) {
+      return this.axis.ordinal();
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the command read from a log, sharing the constant commands.
+   *
+   * @param type
+   *          The kind of command.
+   * @param argument
+   *          The ordinal of its part, joint or axis, or -1.
+   * @param x
+   *          The number of steps to rotate, the horizontal mouse motion, or
+   *          the horizontal position of a click.
+   * @param y
+   *          The vertical mouse motion, or the vertical position of a click.
+   * @return The command.
+   */
+  static Command decode(final Type type, final int argument, final int x,
+      final int y) {
+    switch (type) {
+    case ROTATE_JOINTS:
+      if (x == 1) {
+        return ROTATE_BACKWARD;
+      } else if (x == -1) {
+        return ROTATE_FORWARD;
+      }
+      return new Command(type, null, null, null, x, 0);
+    case TOGGLE_PART:
+      return TOGGLES[argument];
+    case SELECT_JOINT:
+      return JOINTS[argument];
+    case SELECT_AXIS:
+      return AXES[argument];
+    case RESET:
+      return RESET;
+    case NEXT_TRICK:
+      return NEXT_TRICK;
+    case RESET_VIEW:
+      return RESET_VIEW;
+    case PICK:
+      return pick(x, y);
+    case SELECT_PART:
+      return SELECTIONS[argument];
+    default:
+      return rotateView(x, y);
+    }
+  }
+}
@@ -0,0 +1,1080 @@
+/**
+ * Crowd.java - a herd of independently posed dogs drawn from shared meshes
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - waited for the simulation thread to end when stopping it, so that a
+ *   restarted simulation never overlaps the last one
+ *
+ * - compared deadlines by difference, so that long budgets cannot wrap
+ *
+ * - woke the simulation on a monitor of its own, never held while stepping
+ *
+ * - picked the part under the mouse through a bounding volume hierarchy
+ *
+ * - drew the parts through a render queue sorted by the state they need
+ *
+ * - placed and lit the parts with a shader where one is given
+ *
+ * - drew the dogs as continuous skins, deformed on several cores
+ *
+ * - shared a budget of time per step among the solvers placing the paws
+ *
+ * - recorded a checksum of the dogs after each step, for replaying sessions
+ *
+ * - emitted a flight recorder event for each step
+ *
+ * - passed the time of the input shown in each frame to the renderer
+ *
+ * - applied queued input to the dogs on the simulation thread
+ *
+ * - let the simulation sleep while nothing moves
+ *
+ * - stepped the simulation at a fixed rate and interpolated between steps
+ *
+ * - evaluated the dogs in parallel on a simulation thread
+ *
+ * - skipped dogs and parts outside of the view
+ *
+ * - created for the herd visualisation
+ */
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import javax.media.opengl.GL;
+
+import com.sun.opengl.util.GLUT;
+
+/**
+ * A herd of dogs standing on a square grid, each with its own pose, heading
+ * and trick, all drawn from the same {@link GeometryCache}.
+ *
+ * The matrix of every part of every dog (its placement in the herd times its
+ * model matrix) is kept in one flat array laid out part by part, so the
+ * matrices of the same part of consecutive dogs are contiguous. The visible
+ * parts are not drawn as they are visited but added to a {@link RenderQueue},
+ * which sorts them by program, material and mesh before drawing them: each
+ * mesh is bound once per frame for every part and dog drawn from it, which
+ * removes all of the redundant binding and state changes from drawing
+ * thousands of dogs, and the parts sharing a mesh are drawn front to back.
+ *
+ * Dogs whose bounding spheres are outside of the camera's frustum are skipped
+ * entirely, and so are the individual parts of visible dogs which are.
+ *
+ * The dogs can instead be drawn skinned: each visible dog deforms the one
+ * continuous {@link SkinnedMesh} of the cache by the matrices of its joints,
+ * in batches of {@value #SKIN_BATCH} dogs shared out among the threads of
+ * the pool, and only the parts which the skin does not cover are drawn as
+ * meshes of their own.
+ *
+ * With a {@link PartShader}, the matrix of each instance is handed to the
+ * shader as a uniform instead of being multiplied onto the model view
+ * matrix, which also spares the push and pop around each instance.
+ *
+ * The dogs are animated on a simulation thread of their own, which steps
+ * {@value #TICKS_PER_SECOND} times per second of real time by exactly
+ * {@code 1 / }{@value #TICKS_PER_SECOND} seconds, so the animation runs at the
+ * same speed and produces the same poses however fast the scene is drawn.
+ * Each step splits the herd into ranges of dogs evaluated in parallel on a
+ * {@link ForkJoinPool} and writes the results into the back frame of a
+ * {@link CrowdFrames}. The renderer only ever reads finished frames, so it
+ * never waits for the pose math, and it draws the herd one tick in the past,
+ * interpolating between the two latest frames so that motion stays smooth at
+ * any frame rate.
+ *
+ * A click is picked on the rendering thread by casting its ray through the
+ * herd with a {@link Picker}, against the latest frame taken, which is at
+ * most a tick ahead of the frame on the screen.
+ *
+ * Keyboard input reaches the dogs through an {@link InputHandler}, whose
+ * commands are applied at the start of each step on the simulation thread,
+ * which is the only thread to change a dog. Whatever queues a command then
+ * calls {@link #wake()}: when no dog is moving, the simulation thread sleeps
+ * until it is woken rather than stepping a motionless herd. Waking takes a
+ * monitor which is never held while stepping, so neither the event thread
+ * nor the renderer ever waits for a step to finish.
+ */
+public class Crowd {
+
+  /** The distance between neighbouring dogs, in the units of one dog. */
+  public static final float SPACING = 3;
+  /** The width in world units into which a large herd is scaled to fit. */
+  public static final float EXTENT = 8;
+  /** The longest time in seconds a dog holds a trick before the next one. */
+  public static final float IDLE_SECONDS = 2;
+  /** The largest number of dogs evaluated by one task. */
+  private static final int DOGS_PER_TASK = 64;
+  /** The largest number of skinned dogs deformed before they are drawn. */
+  private static final int SKIN_BATCH = 64;
+  /** The number of simulation steps per second. */
+  public static final int TICKS_PER_SECOND = 120;
+  /** The time simulated by each step, in seconds. */
+  public static final float TICK_SECONDS = 1f / TICKS_PER_SECOND;
+  /** The time simulated by each step, in nanoseconds. */
+  private static final long TICK_NANOSECONDS = 1000000000L / TICKS_PER_SECOND;
+  /**
+   * The most steps taken to catch up after the simulation thread falls
+   * behind; beyond this, the lost time is dropped rather than simulated.
+   */
+  private static final int MAX_CATCH_UP_STEPS = 8;
+  /** The level of an instance which is outside of the view. */
+  private static final int CULLED = -1;
+  /** The seed from which the headings and tricks of the dogs are chosen. */
+  private static final long SEED = 480;
+  /**
+   * The default time per step, in nanoseconds, within which the solvers of
+   * all of the dogs may start placing paws; a quarter of a step.
+   */
+  public static final long DEFAULT_SOLVER_NANOSECONDS = TICK_NANOSECONDS / 4;
+
+  /** Every part of a dog, in the order in which they are drawn. */
+  private static final Dog.PartType PARTS[] = Dog.PartType.values();
+  /** Every trick a dog can perform. */
+  private static final Dog.TrickType TRICKS[] = Dog.TrickType.values();
+  /** The red, green and blue of the coat of every dog. */
+  private static final float COAT[] = { 0.05f, .58f, .78f };
+  /** The number of parts of a dog which are covered by its skin. */
+  private static final int SKINNED_PART_COUNT;
+  static {
+    int count = 0;
+    for (final Dog.PartType part : PARTS) {
+      if (Dog.isSkinned(part)) {
+        count++;
+      }
+    }
+    SKINNED_PART_COUNT = count;
+  }
+
+  /** The meshes shared by every dog. */
+  private final GeometryCache geometry;
+  /** The dogs in the herd. */
+  private final Dog dogs[];
+  /** The matrix placing each dog in the herd, 16 floats per dog. */
+  private final float placements[];
+  /** The frames exchanged between the simulation and the renderer. */
+  private final CrowdFrames frames;
+  /** The latest frame taken by the renderer. */
+  private CrowdFrame frame;
+  /** The frame before the latest taken by the renderer. */
+  private CrowdFrame previous_frame;
+  /** The parts to draw in the current frame, sorted by state. */
+  private final RenderQueue queue = new RenderQueue();
+  /** Scratch space for an interpolated instance matrix. */
+  private final float blended[] = new float[Matrix4.SIZE];
+  /** Scratch space for an interpolated bounding sphere. */
+  private final float blended_bound[] = new float[4];
+  /** The threads among which the dogs are evaluated and skinned. */
+  private final ForkJoinPool pool = new ForkJoinPool();
+  /** The kernel which deforms the skins of the dogs. */
+  private final Skinning skinning = Skinning.create();
+  /** Whether the dogs are drawn skinned. */
+  private volatile boolean skinned = false;
+  /** Whether the last frame published was skinned. */
+  private boolean published_skinned = false;
+  /** The interpolated bones of the dogs, allocated when first skinned. */
+  private float skin_bones[] = null;
+  /** The visible dogs, in the order in which they are skinned. */
+  private int skin_list[] = null;
+  /** The deformed vertices of a batch of dogs. */
+  private float skin_vertices[] = null;
+  /** The number of simulation steps taken so far. */
+  private volatile long sequence = 0;
+  /** The thread running the simulation, or null if it is not running. */
+  private Thread simulation = null;
+  /** The monitor on which the idle simulation thread waits to be woken. */
+  private final Object wake_monitor = new Object();
+  /** Called after each step in which a dog moved, or null. */
+  private volatile Runnable step_listener = null;
+  /** The input applied to the dogs at the start of each step, or null. */
+  private volatile InputHandler input = null;
+  /**
+   * The time of the earliest input applied by a step which the renderer has
+   * not yet taken, or 0; written by the simulation only while it is 0, and
+   * reset to 0 by the renderer.
+   */
+  private volatile long input_time = 0;
+  /** The number of the step which applied the input at input_time. */
+  private volatile long input_sequence = 0;
+  /** Whether the last frame drawn showed the latest step in full. */
+  private boolean settled = true;
+  /**
+   * The level of detail of each instance, indexed like the instances, or
+   * {@value #CULLED} if the instance was outside of the view.
+   */
+  private final int levels[];
+  /** Whether each dog was inside the view in the last frame. */
+  private final boolean visible[];
+  /** The time each dog has left to hold its current trick, in seconds. */
+  private final float idle[];
+  /** Whether the dogs choose tricks on their own. */
+  private final boolean autonomous;
+  /** The scale factor applied to every dog so the herd fits in view. */
+  private final float scale;
+  /** Chooses the tricks of the dogs. */
+  private final Random random = new Random(SEED);
+  /** The number of dogs currently updated and drawn. */
+  private volatile int count;
+  /** The time per step within which the dogs' solvers may start. */
+  private volatile long solver_nanoseconds = DEFAULT_SOLVER_NANOSECONDS;
+  /** Finds the parts under the mouse; used by the renderer. */
+  private final Picker picker;
+  /** The start of the ray last picked. */
+  private final float ray_origin[] = new float[3];
+  /** The direction of the ray last picked. */
+  private final float ray_direction[] = new float[3];
+  /** The number of triangles submitted by the last call to draw(). */
+  private int triangle_count = 0;
+  /** The number of meshes bound by the last call to draw(). */
+  private int bind_count = 0;
+  /** The number of parts drawn by the last call to draw(). */
+  private int submitted_count = 0;
+  /** The number of parts skipped as invisible by the last call to draw(). */
+  private int culled_count = 0;
+
+  /**
+   * Instantiates a herd of the specified number of dogs which choose tricks
+   * on their own.
+   *
+   * @param glut
+   *          The OpenGL utility toolkit object.
+   * @param capacity
+   *          The number of dogs in the herd.
+   */
+  public Crowd(final GLUT glut, final int capacity) {
+    this(glut, capacity, true);
+  }
+
+  /**
+   * Instantiates a herd of the specified number of dogs.
+   *
+   * @param glut
+   *          The OpenGL utility toolkit object.
+   * @param capacity
+   *          The number of dogs in the herd.
+   * @param autonomous
+   *          Whether the dogs choose tricks on their own, rather than only
+   *          when told to.
+   */
+  public Crowd(final GLUT glut, final int capacity, final boolean autonomous) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("a crowd needs at least one dog, not "
+          + capacity);
+    }
+
+    this.geometry = new GeometryCache(glut);
+    this.dogs = new Dog[capacity];
+    this.placements = new float[capacity * Matrix4.SIZE];
+    this.frames = new CrowdFrames(capacity, PARTS.length);
+    this.levels = new int[capacity * PARTS.length];
+    this.visible = new boolean[capacity];
+    this.idle = new float[capacity];
+    this.count = capacity;
+    this.autonomous = autonomous;
+
+    final int side = (int) Math.ceil(Math.sqrt(capacity));
+    this.scale = Math.min(1, EXTENT / (side * SPACING));
+    this.picker = new Picker(capacity);
+    final float step = SPACING * this.scale;
+    final float placement[] = new float[Matrix4.SIZE];
+    for (int dog = 0; dog < capacity; ++dog) {
+      this.dogs[dog] = new Dog(glut, this.geometry);
+      this.idle[dog] = this.random.nextFloat() * IDLE_SECONDS;
+
+      final float x = (dog % side - 0.5f * (side - 1)) * step;
+      final float z = (dog / side - 0.5f * (side - 1)) * step;
+      final float heading = (capacity == 1) ? 0 : this.random.nextFloat() * 360;
+      Matrix4.identity(placement);
+      Matrix4.translate(placement, x, 0, z);
+      Matrix4.rotate(placement, heading, 0, 1, 0);
+      Matrix4.scale(placement, this.scale, this.scale, this.scale);
+      System.arraycopy(placement, 0, this.placements, dog * Matrix4.SIZE,
+          Matrix4.SIZE);
+    }
+
+    // so that there is something to draw before the simulation starts
+    this.simulate(System.nanoTime());
+    this.frame = this.frames.acquire();
+    this.previous_frame = this.frames.previous();
+  }
+
+  /**
+   * Returns one of the dogs in the herd.
+   *
+   * @param dog
+   *          The index of the dog.
+   * @return The dog.
+   */
+  public Dog dog(final int dog) {
+    return this.dogs[dog];
+  }
+
+  /**
+   * Uploads the meshes shared by the dogs.
+   *
+   * @param gl
+   *          The OpenGL object with which to upload the meshes.
+   */
+  public void init(final GL gl) {
+    this.geometry.invalidate();
+    this.geometry.build(gl);
+  }
+
+  /**
+   * Sets the number of dogs which are updated and drawn, which may be at most
+   * the number of dogs in the herd; the rest keep their poses. This takes
+   * effect from the next simulation step.
+   *
+   * @param count
+   *          The number of dogs to update and draw.
+   */
+  public void setCount(final int count) {
+    this.count = Math.max(0, Math.min(count, this.dogs.length));
+  }
+
+  /**
+   * Returns the number of dogs which are updated and drawn.
+   *
+   * @return The number of dogs in use.
+   */
+  public int count() {
+    return this.count;
+  }
+
+  /**
+   * Returns the number of dogs in the herd.
+   *
+   * @return The largest number of dogs which can be drawn.
+   */
+  public int capacity() {
+    return this.dogs.length;
+  }
+
+  /**
+   * Sets the time per step within which the solvers placing the paws of all
+   * of the dogs may start iterations; placements which run out of time carry
+   * on in the next step. With {@link LimbSolver#UNLIMITED_NANOSECONDS} the
+   * solvers are bounded by their iterations alone, so every step depends
+   * only on the steps and input before it, as replaying a session needs.
+   *
+   * @param nanoseconds
+   *          The budget of each step, in nanoseconds; a negative budget
+   *          counts as none.
+   */
+  public void setSolverBudget(final long nanoseconds) {
+    this.solver_nanoseconds = Math.max(0, nanoseconds);
+  }
+
+  /**
+   * Draws the dogs as continuous skins over their joints, or as separate
+   * parts; this takes effect from the next simulation step, which is taken
+   * even if no dog is moving.
+   *
+   * @param skinned
+   *          Whether to draw the dogs skinned.
+   */
+  public void setSkinned(final boolean skinned) {
+    this.skinned = skinned;
+    this.wake();
+  }
+
+  /**
+   * Returns whether the dogs are drawn as continuous skins.
+   *
+   * @return Whether the dogs are skinned.
+   */
+  public boolean isSkinned() {
+    return this.skinned;
+  }
+
+  /**
+   * Returns the kernel which deforms the skins of the dogs.
+   *
+   * @return The kernel.
+   */
+  public Skinning skinning() {
+    return this.skinning;
+  }
+
+  /**
+   * Starts the simulation thread, which takes one step every
+   * {@code 1 / }{@value #TICKS_PER_SECOND} seconds of real time.
+   */
+  public synchronized void start() {
+    if (this.simulation != null) {
+      return;
+    }
+    this.simulation = new Thread("crowd simulation") {
+      @Override
+      public void run() {
+        long next = System.nanoTime();
+        while (!this.isInterrupted()) {
+          // take every step which is due, within reason, unless stopped
+          int steps = 0;
+          while (!this.isInterrupted() && System.nanoTime() - next >= 0
+              && steps < MAX_CATCH_UP_STEPS) {
+            Crowd.this.simulate(next);
+            next += TICK_NANOSECONDS;
+            steps++;
+          }
+          if (steps == MAX_CATCH_UP_STEPS) {
+            next = System.nanoTime();
+          }
+
+          // sleep without a timeout until something changes a dog
+          synchronized (Crowd.this.wake_monitor) {
+            if (Crowd.this.isIdle()) {
+              try {
+                while (Crowd.this.isIdle()) {
+                  Crowd.this.wake_monitor.wait();
+                }
+              } catch (final InterruptedException exception) {
+                return;
+              }
+              next = System.nanoTime();
+            }
+          }
+
+          final long wait = next - System.nanoTime();
+          if (wait > 0) {
+            try {
+              Thread.sleep(wait / 1000000, (int) (wait % 1000000));
+            } catch (final InterruptedException exception) {
+              return;
+            }
+          }
+        }
+      }
+    };
+    this.simulation.setDaemon(true);
+    this.simulation.start();
+  }
+
+  /**
+   * Wakes the simulation thread after a dog has been changed from another
+   * thread, or after a command has been queued for one; this never waits
+   * for a step in progress.
+   */
+  public void wake() {
+    synchronized (this.wake_monitor) {
+      this.wake_monitor.notifyAll();
+    }
+  }
+
+  /**
+   * Returns whether stepping the simulation would change nothing, because no
+   * dog is moving or has been changed since the last step.
+   *
+   * @return Whether the herd is at rest.
+   */
+  private boolean isIdle() {
+    if (this.autonomous || this.skinned != this.published_skinned) {
+      return false;
+    }
+    final InputHandler input = this.input;
+    if (input != null && input.hasDogCommands()) {
+      return false;
+    }
+    for (int dog = 0; dog < this.count; ++dog) {
+      if (this.dogs[dog].isAnimating() || this.dogs[dog].hasChanged()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Sets the function called on the simulation thread after each step in
+   * which a dog moved, for example to ask for the new frame to be drawn.
+   *
+   * @param listener
+   *          The function to call, or null.
+   */
+  public void setStepListener(final Runnable listener) {
+    this.step_listener = listener;
+  }
+
+  /**
+   * Sets the handler whose queued commands are applied to the dogs at the
+   * start of each step of the simulation.
+   *
+   * @param input
+   *          The handler of the input, or null.
+   */
+  public void setInputHandler(final InputHandler input) {
+    this.input = input;
+  }
+
+  /**
+   * Returns whether the last call to {@link #draw(GL, Camera)} showed the
+   * latest step of the simulation in full, rather than part of the way from
+   * the step before.
+   *
+   * @return Whether drawing again would show nothing new.
+   */
+  public boolean isSettled() {
+    return this.settled;
+  }
+
+  /**
+   * Stops the simulation thread and waits for it to end, which it does within
+   * one step, so that a thread started afterwards never steps the herd at the
+   * same time and sees everything the stopped one wrote.
+   */
+  public synchronized void stop() {
+    final Thread simulation = this.simulation;
+    if (simulation == null) {
+      return;
+    }
+    this.simulation = null;
+    simulation.interrupt();
+    if (simulation == Thread.currentThread()) {
+      return;
+    }
+    boolean interrupted = false;
+    while (simulation.isAlive()) {
+      try {
+        simulation.join();
+      } catch (final InterruptedException exception) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Advances the herd by one tick of {@link #TICK_SECONDS}: applies the queued
+   * input, starts new tricks for the dogs which have held their last one for
+   * long enough, evaluates the herd in parallel into the back frame and
+   * publishes it to the renderer.
+   *
+   * The result depends only on the number of steps taken so far, never on
+   * when they are taken. Only one thread at a time may call this.
+   *
+   * @param time
+   *          The time at which the step is due, as given by
+   *          {@link System#nanoTime()}, with which the renderer interpolates.
+   */
+  public void simulate(final long time) {
+    final SimulationStepEvent event = new SimulationStepEvent();
+    event.begin();
+    final InputHandler input = this.input;
+    long applied_input_time = 0;
+    final int commands = (input == null) ? 0 : input
+        .applyDogCommands(this.sequence + 1);
+    if (commands > 0) {
+      applied_input_time = input.takeDogInputTime();
+    }
+    final int count = this.count;
+    final boolean moving = !this.isIdle();
+
+    // choosing tricks uses the shared random numbers, so it stays serial
+    for (int dog = 0; this.autonomous && dog < count; ++dog) {
+      if (!this.dogs[dog].isAnimating()) {
+        this.idle[dog] -= TICK_SECONDS;
+        if (this.idle[dog] <= 0) {
+          this.dogs[dog].perform(TRICKS[this.random.nextInt(TRICKS.length)]);
+          this.idle[dog] = this.random.nextFloat() * IDLE_SECONDS;
+        }
+      }
+    }
+
+    final CrowdFrame back = this.frames.back();
+    back.skinned = this.skinned;
+    final long deadline = LimbSolver.deadline(this.solver_nanoseconds);
+    this.pool.invoke(new EvaluateTask(back, 0, count, TICK_SECONDS,
+        deadline));
+    back.count = count;
+    back.time = time;
+    this.frames.publish(++this.sequence);
+    this.published_skinned = back.skinned;
+    final InputRecorder recorder = (input == null) ? null : input.recorder();
+    if (moving && recorder != null) {
+      recorder.checksum(InputRecorder.DOG_CHECKSUM, this.sequence, this
+          .checksum());
+    }
+    if (applied_input_time != 0 && this.input_time == 0) {
+      // while an earlier input is still on its way, later ones go unmeasured
+      this.input_sequence = this.sequence;
+      this.input_time = applied_input_time;
+    }
+    if (event.shouldCommit()) {
+      event.sequence = this.sequence;
+      event.dogs = count;
+      event.commands = commands;
+      event.commit();
+    }
+    final Runnable listener = this.step_listener;
+    if (moving && listener != null) {
+      listener.run();
+    }
+  }
+
+  /**
+   * Returns the number of simulation steps taken so far, including the one
+   * taken when the herd was created.
+   *
+   * @return The number of the latest step.
+   */
+  public long stepCount() {
+    return this.sequence;
+  }
+
+  /**
+   * Returns a checksum of the model matrices of every dog in use, which
+   * changes with any difference in their poses; only the thread stepping the
+   * simulation may call this.
+   *
+   * @return The checksum.
+   */
+  public long checksum() {
+    long checksum = InputRecorder.CHECKSUM_BASIS;
+    for (int dog = 0; dog < this.count; ++dog) {
+      final float models[] = this.dogs[dog].modelMatrices();
+      checksum = InputRecorder.checksum(checksum, models, 0, models.length);
+    }
+    return checksum;
+  }
+
+  /**
+   * Advances and evaluates the dogs in a range, and writes their instance
+   * matrices and bounds into a frame; ranges larger than
+   * {@value Crowd#DOGS_PER_TASK} dogs are split in two.
+   */
+  private class EvaluateTask extends RecursiveAction {
+    /** Randomly generated serial version UID. */
+    private static final long serialVersionUID = 3305290418523218371L;
+
+    /** The frame into which to write. */
+    private final CrowdFrame frame;
+    /** The first dog in the range. */
+    private final int first;
+    /** The dog after the last in the range. */
+    private final int end;
+    /** The time by which to advance the dogs, in seconds. */
+    private final float seconds;
+    /** The time after which the solvers start no further iteration. */
+    private final long deadline;
+
+    /**
+     * Instantiates a task evaluating a range of dogs.
+     *
+     * @param frame
+     *          The frame into which to write.
+     * @param first
+     *          The first dog in the range.
+     * @param end
+     *          The dog after the last in the range.
+     * @param seconds
+     *          The time by which to advance the dogs, in seconds.
+     * @param deadline
+     *          The time after which the solvers start no further iteration,
+     *          as given by {@link System#nanoTime()}.
+     */
+    EvaluateTask(final CrowdFrame frame, final int first, final int end,
+        final float seconds, final long deadline) {
+      this.frame = frame;
+      this.first = first;
+      this.end = end;
+      this.seconds = seconds;
+      this.deadline = deadline;
+    }
+
+    @Override
+    protected void compute() {
+      if (this.end - this.first > DOGS_PER_TASK) {
+        final int middle = (this.first + this.end) >>> 1;
+        invokeAll(new EvaluateTask(this.frame, this.first, middle,
+            this.seconds, this.deadline), new EvaluateTask(this.frame, middle,
+            this.end, this.seconds, this.deadline));
+        return;
+      }
+      for (int dog = this.first; dog < this.end; ++dog) {
+        Crowd.this.evaluate(dog, this.seconds, this.frame, this.deadline);
+      }
+    }
+  }
+
+  /**
+   * Advances and evaluates one dog and writes its instance matrices and bound
+   * into a frame.
+   *
+   * Every frame is rewritten in full, since the frame handed back by the
+   * renderer may be several steps old.
+   *
+   * @param dog
+   *          The dog.
+   * @param seconds
+   *          The time by which to advance the dog, in seconds.
+   * @param frame
+   *          The frame into which to write.
+   * @param deadline
+   *          The time after which the dog's solver starts no further
+   *          iteration, as given by {@link System#nanoTime()}.
+   */
+  private void evaluate(final int dog, final float seconds,
+      final CrowdFrame frame, final long deadline) {
+    final Dog d = this.dogs[dog];
+    d.advance(seconds);
+    d.evaluate(deadline);
+
+    final float models[] = d.modelMatrices();
+    final int stride = this.dogs.length * Matrix4.SIZE;
+    final int placement = dog * Matrix4.SIZE;
+    for (int part = 0; part < PARTS.length; ++part) {
+      Matrix4.multiply(frame.instances, part * stride + placement,
+          this.placements, placement, models, part * Matrix4.SIZE);
+    }
+    if (frame.skinned) {
+      final float worlds[] = d.worldMatrices();
+      final int bones = dog * PARTS.length * Matrix4.SIZE;
+      for (int part = 0; part < PARTS.length; ++part) {
+        Matrix4.multiply(frame.bones, bones + part * Matrix4.SIZE,
+            this.placements, placement, worlds, part * Matrix4.SIZE);
+      }
+    }
+
+    // move the bounding sphere of the dog to its place in the herd
+    final float bound[] = d.bound();
+    final float p[] = this.placements;
+    for (int i = 0; i < 3; ++i) {
+      frame.bounds[dog * 4 + i] = p[placement + i] * bound[0]
+          + p[placement + 4 + i] * bound[1] + p[placement + 8 + i] * bound[2]
+          + p[placement + 12 + i];
+    }
+    frame.bounds[dog * 4 + 3] = bound[3] * this.scale;
+  }
+
+  /**
+   * Makes sure the shared meshes are uploaded and takes the most recently
+   * finished frame of the simulation to draw.
+   *
+   * @param gl
+   *          The OpenGL object with which the dogs are drawn.
+   */
+  public void update(final GL gl) {
+    this.geometry.build(gl);
+    this.frame = this.frames.acquire();
+    this.previous_frame = this.frames.previous();
+  }
+
+  /**
+   * Returns and forgets the time of the input applied by the simulation, once
+   * the frame taken by the last call to {@link #update(GL)} shows it; only the
+   * renderer may call this.
+   *
+   * @return The time of the input, as given by {@link System#nanoTime()}, or
+   *         0 if there is none or it is not shown yet.
+   */
+  public long takeShownInputTime() {
+    final long time = this.input_time;
+    if (time != 0 && this.frame.sequence >= this.input_sequence) {
+      this.input_time = 0;
+      return time;
+    }
+    return 0;
+  }
+
+  /**
+   * Draws every dog in the last frame taken by {@link #update(GL)} with the
+   * fixed-function pipeline.
+   *
+   * @param gl
+   *          The OpenGL object with which to draw the dogs.
+   * @param camera
+   *          The camera through which the dogs are seen.
+   */
+  public void draw(final GL gl, final Camera camera) {
+    this.draw(gl, camera, null);
+  }
+
+  /**
+   * Draws every dog in the last frame taken by {@link #update(GL)}, choosing
+   * the level of detail of each part of each dog from its size on the screen
+   * and skipping the dogs and parts which are outside of the view; the parts
+   * are then drawn through the render queue. If the frame is skinned, the
+   * skins of the visible dogs are drawn first, at a single level of detail,
+   * and then only the parts they do not cover.
+   *
+   * @param gl
+   *          The OpenGL object with which to draw the dogs.
+   * @param camera
+   *          The camera through which the dogs are seen.
+   * @param shader
+   *          The shader with which to place and light the dogs, or null to
+   *          draw them with the fixed-function pipeline, which is in use
+   *          before and after.
+   */
+  public void draw(final GL gl, final Camera camera, final PartShader shader) {
+    this.triangle_count = 0;
+    this.bind_count = 0;
+    this.submitted_count = 0;
+    this.culled_count = 0;
+
+    // draw the herd as it was one tick ago, between the two latest frames
+    final CrowdFrame from = this.previous_frame, to = this.frame;
+    final int count = to.count;
+    float alpha = 1;
+    if (from.count == count && to.time > from.time) {
+      final long time = System.nanoTime() - TICK_NANOSECONDS;
+      alpha = (float) (time - from.time) / (to.time - from.time);
+      alpha = Math.max(0, Math.min(alpha, 1));
+    }
+    this.settled = (alpha >= 1);
+
+    // skip whole dogs first, so their parts need not be tested
+    final Frustum frustum = camera.frustum();
+    final float sphere[] = this.blended_bound;
+    for (int dog = 0; dog < count; ++dog) {
+      blend(sphere, 0, from.bounds, to.bounds, dog * 4, 4, alpha);
+      this.visible[dog] = frustum.intersectsSphere(sphere[0], sphere[1],
+          sphere[2], sphere[3]);
+    }
+
+    if (to.skinned) {
+      this.drawSkins(gl, from, to, alpha, shader);
+    }
+
+    // queue the visible parts, to be drawn sorted by the state they need
+    this.queue.clear();
+    final int program = this.queue.program(shader);
+    final int material = this.queue.material(COAT[0], COAT[1], COAT[2]);
+    final int capacity = this.dogs.length;
+    for (final Dog.PartType part : PARTS) {
+      if (to.skinned && Dog.isSkinned(part)) {
+        continue;
+      }
+      final int first = part.ordinal() * capacity;
+      final int level_count = this.geometry.levelCount(part.mesh);
+      final float radius = Dog.partRadius(part) * this.scale;
+
+      for (int dog = 0; dog < count; ++dog) {
+        blend(sphere, 0, from.instances, to.instances, (first + dog)
+            * Matrix4.SIZE + 12, 3, alpha);
+        final float x = sphere[0], y = sphere[1], z = sphere[2];
+        if (!this.visible[dog] || !frustum.intersectsSphere(x, y, z, radius)) {
+          this.levels[first + dog] = CULLED;
+          this.culled_count++;
+          continue;
+        }
+
+        // a part coming back into view starts from the finest level
+        final int previous = Math.max(0, this.levels[first + dog]);
+        final int level = Math.min(level_count - 1, LevelOfDetail.select(
+            previous, camera.projectedRadius(x, y, z, radius)));
+        this.levels[first + dog] = level;
+        this.submitted_count++;
+
+        blend(this.blended, 0, from.instances, to.instances, (first + dog)
+            * Matrix4.SIZE, Matrix4.SIZE, alpha);
+        this.queue.add(program, material, this.queue.mesh(this.geometry.mesh(
+            part.mesh, level)), this.blended, 0, camera.depth(x, y, z));
+      }
+    }
+    this.queue.submit(gl);
+    this.triangle_count += this.queue.triangleCount();
+    this.bind_count += this.queue.bindCount();
+  }
+
+  /**
+   * Deforms and draws the skins of the visible dogs of a frame, in batches
+   * deformed in parallel.
+   *
+   * @param gl
+   *          The OpenGL object with which to draw the dogs.
+   * @param from
+   *          The frame before the one drawn.
+   * @param to
+   *          The frame drawn, which must be skinned.
+   * @param alpha
+   *          The fraction of the way from the frame before to the frame
+   *          drawn.
+   * @param shader
+   *          The shader with which to draw the skins, or null.
+   */
+  private void drawSkins(final GL gl, final CrowdFrame from,
+      final CrowdFrame to, final float alpha, final PartShader shader) {
+    final SkinnedMesh skin = this.geometry.skin();
+    final int stride = PARTS.length * Matrix4.SIZE;
+    final int vertices = skin.vertexCount() * SkinnedMesh.STRIDE;
+    if (this.skin_bones == null) {
+      this.skin_bones = new float[this.dogs.length * stride];
+      this.skin_list = new int[this.dogs.length];
+      this.skin_vertices = new float[SKIN_BATCH * vertices];
+    }
+
+    // interpolate the bones of the visible dogs
+    final CrowdFrame start = from.skinned ? from : to;
+    int count = 0;
+    for (int dog = 0; dog < to.count; ++dog) {
+      if (!this.visible[dog]) {
+        this.culled_count += SKINNED_PART_COUNT;
+        continue;
+      }
+      blend(this.skin_bones, dog * stride, start.bones, to.bones,
+          dog * stride, stride, alpha);
+      this.skin_list[count++] = dog;
+    }
+    if (count == 0) {
+      return;
+    }
+    this.submitted_count += count * SKINNED_PART_COUNT;
+
+    // the bones already place each dog, so the skins are drawn unmoved
+    if (shader != null) {
+      shader.begin(gl);
+      shader.setIdentity(gl);
+    }
+    gl.glColor3f(COAT[0], COAT[1], COAT[2]);
+    skin.bind(gl);
+    this.bind_count++;
+    for (int first = 0; first < count; first += SKIN_BATCH) {
+      final int batch = Math.min(SKIN_BATCH, count - first);
+      SkinTask.skin(this.pool, this.skinning, skin, this.skin_bones,
+          this.skin_list, first, batch, this.skin_vertices);
+      for (int k = 0; k < batch; ++k) {
+        skin.draw(gl, this.skin_vertices, k * vertices);
+        this.triangle_count += skin.triangleCount();
+      }
+    }
+    skin.unbind(gl);
+    if (shader != null) {
+      shader.end(gl);
+    }
+  }
+
+  /**
+   * Linearly interpolates between runs of floats in two arrays.
+   *
+   * Between consecutive ticks the joints turn by at most a few degrees, so
+   * blending matrices entry by entry stays visually indistinguishable from
+   * interpolating the rotations themselves.
+   *
+   * @param dst
+   *          The array in which to store the result.
+   * @param dst_offset
+   *          The index of the first element of the result.
+   * @param a
+   *          The values at {@code alpha = 0}.
+   * @param b
+   *          The values at {@code alpha = 1}.
+   * @param offset
+   *          The index of the first value in both arrays.
+   * @param length
+   *          The number of values.
+   * @param alpha
+   *          The fraction of the way from {@code a} to {@code b}.
+   */
+  private static void blend(final float[] dst, final int dst_offset,
+      final float[] a, final float[] b, final int offset, final int length,
+      final float alpha) {
+    for (int i = 0; i < length; ++i) {
+      final float value = a[offset + i];
+      dst[dst_offset + i] = value + alpha * (b[offset + i] - value);
+    }
+  }
+
+  /**
+   * Finds the nearest part of any dog under a pixel of the viewport, in the
+   * latest frame taken by {@link #update(GL)}; only the rendering thread may
+   * call this.
+   *
+   * @param camera
+   *          The camera through which the dogs are seen.
+   * @param x
+   *          The horizontal position of the pixel, from the left.
+   * @param y
+   *          The vertical position of the pixel, from the top.
+   * @return Whether a part is under the pixel; if so,
+   *         {@link #pickedDog()} and {@link #pickedPart()} say which.
+   */
+  public boolean pick(final Camera camera, final int x, final int y) {
+    camera.ray(x, y, this.ray_origin, this.ray_direction);
+    return this.picker.pick(this.frame, this.ray_origin, this.ray_direction);
+  }
+
+  /**
+   * Returns the dog hit by the last call to {@link #pick(Camera, int, int)}.
+   *
+   * @return The index of the dog, or -1 if nothing was hit.
+   */
+  public int pickedDog() {
+    return this.picker.dog();
+  }
+
+  /**
+   * Returns the part hit by the last call to {@link #pick(Camera, int, int)}.
+   *
+   * @return The part, or null if nothing was hit.
+   */
+  public Dog.PartType pickedPart() {
+    return this.picker.part();
+  }
+
+  /**
+   * Returns the number of triangles submitted by the last call to
+   * {@link #draw(GL, Camera)}.
+   *
+   * @return The number of triangles in the last frame.
+   */
+  public int triangleCount() {
+    return this.triangle_count;
+  }
+
+  /**
+   * Returns the number of parts drawn by the last call to
+   * {@link #draw(GL, Camera)}.
+   *
+   * @return The number of parts submitted in the last frame.
+   */
+  public int submittedPartCount() {
+    return this.submitted_count;
+  }
+
+  /**
+   * Returns the number of parts skipped by the last call to
+   * {@link #draw(GL, Camera)} because they, or their dogs, were outside of the
+   * view.
+   *
+   * @return The number of parts culled in the last frame.
+   */
+  public int culledPartCount() {
+    return this.culled_count;
+  }
+
+  /**
+   * Returns the number of times a mesh was bound by the last call to
+   * {@link #draw(GL, Camera)}, which is at most one per mesh and level of
+   * detail regardless of the number of dogs.
+   *
+   * @return The number of mesh binds in the last frame.
+   */
+  public int bindCount() {
+    return this.bind_count;
+  }
+
+  /**
+   * Returns the number of state changes made to draw the parts in the last
+   * call to {@link #draw(GL, Camera)}.
+   *
+   * @return The number of state changes in the last frame.
+   */
+  public int stateChangeCount() {
+    return this.queue.stateChangeCount();
+  }
+
+  /**
+   * Returns the number of state changes which sorting the parts saved in the
+   * last call to {@link #draw(GL, Camera)}.
+   *
+   * @return The number of state changes saved in the last frame.
+   */
+  public int savedStateChangeCount() {
+    return this.queue.savedStateChangeCount();
+  }
+}
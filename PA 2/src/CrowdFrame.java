@@ -0,0 +1,60 @@
+/**
+ * CrowdFrame.java - the evaluated pose of a herd, handed to the renderer
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - carried the world matrices of the joints of skinned dogs
+ *
+ * - recorded the time of each frame for interpolation
+ *
+ * - created for the hand-off from the simulation to the renderer
+ */
+
+/**
+ * Everything the renderer needs to draw one frame of a {@link Crowd}: the
+ * matrix of every part of every dog, the matrices of the joints of every dog
+ * if they are skinned, and the bounding sphere of every dog.
+ *
+ * A frame is written by the simulation and read by the renderer, but never by
+ * both at once; {@link CrowdFrames} decides who owns which frame.
+ */
+public class CrowdFrame {
+
+  /**
+   * The matrix of each part of each dog, 16 floats per instance, indexed by
+   * {@code (part * capacity + dog) * 16}.
+   */
+  final float instances[];
+  /**
+   * The placement of each dog times the world matrix of each of its joints,
+   * 16 floats per joint, indexed by {@code (dog * parts + joint) * 16}; only
+   * written when the dogs are skinned.
+   */
+  final float bones[];
+  /** Whether the bones of this frame were written. */
+  boolean skinned = false;
+  /** The bounding sphere (x, y, z, radius) of each dog. */
+  final float bounds[];
+  /** The number of dogs evaluated in this frame. */
+  int count = 0;
+  /** The number of the simulation step which produced this frame. */
+  long sequence = 0;
+  /** The time at which the step was due, as given by System.nanoTime(). */
+  long time = 0;
+
+  /**
+   * Instantiates an empty frame.
+   *
+   * @param capacity
+   *          The largest number of dogs in the frame.
+   * @param parts
+   *          The number of parts of each dog.
+   */
+  public CrowdFrame(final int capacity, final int parts) {
+    this.instances = new float[capacity * parts * Matrix4.SIZE];
+    this.bones = new float[capacity * parts * Matrix4.SIZE];
+    this.bounds = new float[capacity * 4];
+  }
+}
@@ -0,0 +1,103 @@
+/**
+ * CrowdFrames.java - lock-free hand-off of crowd frames between threads
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - kept the two latest frames on the reader's side for interpolation
+ *
+ * - created so that the renderer never waits for the simulation
+ */
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Four {@link CrowdFrame}s shared by one writer (the simulation) and one
+ * reader (the renderer).
+ *
+ * The writer owns the back frame and the reader owns the front frame and the
+ * one before it, between which it interpolates; the fourth frame is the most
+ * recently published one, held in an atomic reference. Publishing and
+ * acquiring are each a single atomic exchange, so neither side ever blocks:
+ * the writer can always start on a new frame, and the reader always draws
+ * complete ones.
+ */
+public class CrowdFrames {
+
+  /** The frame being written by the simulation. */
+  private CrowdFrame back;
+  /** The latest frame taken by the renderer. */
+  private CrowdFrame front;
+  /** The frame taken by the renderer before the front frame. */
+  private CrowdFrame previous;
+  /** The frame exchanged between the two. */
+  private final AtomicReference<CrowdFrame> ready;
+
+  /**
+   * Instantiates the four frames.
+   *
+   * @param capacity
+   *          The largest number of dogs in a frame.
+   * @param parts
+   *          The number of parts of each dog.
+   */
+  public CrowdFrames(final int capacity, final int parts) {
+    this.back = new CrowdFrame(capacity, parts);
+    this.front = new CrowdFrame(capacity, parts);
+    this.previous = new CrowdFrame(capacity, parts);
+    this.ready = new AtomicReference<CrowdFrame>(new CrowdFrame(capacity,
+        parts));
+  }
+
+  /**
+   * Returns the frame into which the simulation should write; only the
+   * writer may call this.
+   *
+   * @return The back frame.
+   */
+  public CrowdFrame back() {
+    return this.back;
+  }
+
+  /**
+   * Publishes the back frame to the renderer and takes another one to write
+   * into next; only the writer may call this.
+   *
+   * @param sequence
+   *          The number of the step which produced the frame, which must
+   *          increase with every call.
+   */
+  public void publish(final long sequence) {
+    this.back.sequence = sequence;
+    this.back = this.ready.getAndSet(this.back);
+  }
+
+  /**
+   * Takes the most recently published frame if it is newer than the front
+   * frame, which then becomes the previous frame; only the reader may call
+   * this.
+   *
+   * @return The front frame.
+   */
+  public CrowdFrame acquire() {
+    // the writer only ever replaces the ready frame with a newer one, so it
+    // cannot become older between the test and the exchange
+    if (this.ready.get().sequence > this.front.sequence) {
+      final CrowdFrame newest = this.ready.getAndSet(this.previous);
+      this.previous = this.front;
+      this.front = newest;
+    }
+    return this.front;
+  }
+
+  /**
+   * Returns the frame taken before the front frame; only the reader may call
+   * this.
+   *
+   * @return The previous frame.
+   */
+  public CrowdFrame previous() {
+    return this.previous;
+  }
+}
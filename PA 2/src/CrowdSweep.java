@@ -0,0 +1,135 @@
+/**
+ * CrowdSweep.java - measures the frame rate of a crowd at several sizes
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - reported the state changes made and saved per frame
+ *
+ * - reported the parts submitted and culled per frame
+ *
+ * - created to report frames per second against the number of dogs
+ */
+
+/**
+ * Steps a {@link Crowd} through a list of sizes, measuring the frame rate at
+ * each one and printing the results as comma-separated lines of the number of
+ * dogs, frames per second, triangles per frame, parts submitted and culled
+ * per frame, and state changes made and saved by sorting per frame.
+ *
+ * Each size is first drawn for {@value #WARMUP_SECONDS} second(s) so that the
+ * just-in-time compiler and the driver settle, and then measured for
+ * {@value #MEASURE_SECONDS} seconds. After the last size the crowd stays at
+ * that size.
+ */
+public class CrowdSweep {
+
+  /** The sizes measured by default. */
+  public static final int DEFAULT_COUNTS[] = { 1, 10, 100, 1000, 2500, 5000,
+      10000 };
+  /** The time in seconds each size is drawn before it is measured. */
+  public static final int WARMUP_SECONDS = 1;
+  /** The time in seconds over which each size is measured. */
+  public static final int MEASURE_SECONDS = 3;
+  /** The number of nanoseconds in a second. */
+  private static final long NANOSECONDS = 1000000000L;
+
+  /** The crowd being measured. */
+  private final Crowd crowd;
+  /** The sizes to measure, in order. */
+  private final int counts[];
+  /** The index of the size being measured. */
+  private int step = 0;
+  /** The time at which the current size was first drawn, in nanoseconds. */
+  private long step_start = -1;
+  /** The number of frames drawn since measuring started. */
+  private int frames = 0;
+  /** The number of triangles drawn since measuring started. */
+  private long triangles = 0;
+  /** The number of parts drawn since measuring started. */
+  private long submitted = 0;
+  /** The number of parts culled since measuring started. */
+  private long culled = 0;
+  /** The number of state changes made since measuring started. */
+  private long state_changes = 0;
+  /** The number of state changes saved since measuring started. */
+  private long saved_state_changes = 0;
+
+  /**
+   * Instantiates a sweep of the specified crowd over the specified sizes.
+   *
+   * @param crowd
+   *          The crowd to measure.
+   * @param counts
+   *          The numbers of dogs to measure, each at most the capacity of the
+   *          crowd.
+   */
+  public CrowdSweep(final Crowd crowd, final int[] counts) {
+    this.crowd = crowd;
+    this.counts = counts.clone();
+    this.crowd.setCount(this.counts[0]);
+    System.out.println("dogs,fps,triangles,submitted,culled,state_changes,"
+        + "saved_state_changes");
+  }
+
+  /**
+   * Records that a frame has been drawn, printing a result and moving to the
+   * next size when the current one has been measured for long enough.
+   *
+   * @param now
+   *          The time at which the frame was drawn, as given by
+   *          {@link System#nanoTime()}.
+   */
+  public void frameDrawn(final long now) {
+    if (this.isDone()) {
+      return;
+    }
+    if (this.step_start < 0) {
+      this.step_start = now;
+      return;
+    }
+
+    final long measure_start = this.step_start + WARMUP_SECONDS * NANOSECONDS;
+    if (now < measure_start) {
+      return;
+    }
+    this.frames++;
+    this.triangles += this.crowd.triangleCount();
+    this.submitted += this.crowd.submittedPartCount();
+    this.culled += this.crowd.culledPartCount();
+    this.state_changes += this.crowd.stateChangeCount();
+    this.saved_state_changes += this.crowd.savedStateChangeCount();
+
+    final long elapsed = now - measure_start;
+    if (elapsed >= MEASURE_SECONDS * NANOSECONDS) {
+      final double fps = this.frames * (double) NANOSECONDS / elapsed;
+      System.out.println(this.crowd.count() + "," + String.format("%.1f", fps)
+          + "," + this.triangles / this.frames + "," + this.submitted
+          / this.frames + "," + this.culled / this.frames + ","
+          + this.state_changes / this.frames + ","
+          + this.saved_state_changes / this.frames);
+
+      this.step++;
+      this.step_start = -1;
+      this.frames = 0;
+      this.triangles = 0;
+      this.submitted = 0;
+      this.culled = 0;
+      this.state_changes = 0;
+      this.saved_state_changes = 0;
+      if (!this.isDone()) {
+        this.crowd.setCount(this.counts[this.step]);
+      }
+    }
+  }
+
+  /**
+   * Returns whether every size has been measured.
+   *
+   * @return Whether the sweep is finished.
+   */
+  public boolean isDone() {
+    return this.step >= this.counts.length;
+  }
+}
@@ -3,6 +3,46 @@
  * 
  * History:
  * 
+ * 18 October 2026
+ *
+ * - selected the joint of a part picked by a click
+ *
+ * - lit the parts through a shader where one is given
+ *
+ * - built a continuous skin from the parts, weighted to the joints
+ *
+ * - placed the paws on targets with a limb solver under a deadline
+ *
+ * - clamped every pose to the limits of the joints before evaluating it
+ *
+ * - played tricks from a library of pose clips with as many joints
+ *
+ * - emitted a flight recorder event for each evaluation of the pose
+ *
+ * - rotated the selected joints by any number of steps at once, for runs of
+ *   queued commands
+ *
+ * - reported whether the dog has changed, so that nothing is drawn again
+ *   until it does
+ *
+ * - evaluated the dog apart from drawing it, on any thread
+ *
+ * - culled the parts outside the view frustum by their bounding spheres
+ *
+ * - shared the meshes of the parts among the dogs of a herd
+ *
+ * - moved into each trick by slerping the joints over a set time
+ *
+ * - evaluated the parts by hierarchical forward kinematics
+ *
+ * - held the pose in an array-backed table of the joints
+ *
+ * - tessellated each part by its size on screen
+ *
+ * - drew every ellipsoid part from one shared unit-sphere mesh
+ *
+ * - compiled the geometry of the parts once rather than on every pose
+ *
  * 18 February 2011
  * 
  * - added documentation
@@ -47,11 +87,59 @@ public class Dog {
     PAW, UPPER, LOWER
   }
 
+  /** The tricks the dog can perform, in the order in which it performs them. */
+  enum TrickType {
+    SIT("sit"), ROLL_OVER("roll over"), SHAKE_HANDS("shake hands"),
+    BEG("beg"), JUMP("jump");
+
+    /** The name of the trick. */
+    final String label;
+
+    /**
+     * Instantiates a trick with the specified name.
+     * 
+     * @param label
+     *          The name of the trick.
+     */
+    TrickType(final String label) {
+      this.label = label;
+    }
+  }
+
+  /** The rigid parts from which the dog is assembled. */
+  enum PartType {
+    BODY, FRONT_LEFT_UPPER, FRONT_LEFT_LOWER, FRONT_LEFT_PAW,
+    FRONT_RIGHT_UPPER, FRONT_RIGHT_LOWER, FRONT_RIGHT_PAW, REAR_LEFT_UPPER,
+    REAR_LEFT_LOWER, REAR_LEFT_PAW, REAR_RIGHT_UPPER, REAR_RIGHT_LOWER,
+    REAR_RIGHT_PAW, NECK, HEAD(GeometryCache.MeshType.TEAPOT), TAIL;
+
+    /** The mesh from which this part is drawn. */
+    final GeometryCache.MeshType mesh;
+
+    /** Instantiates a part drawn from the unit sphere. */
+    PartType() {
+      this(GeometryCache.MeshType.SPHERE);
+    }
+
+    /**
+     * Instantiates a part drawn from the specified mesh.
+     * 
+     * @param mesh
+     *          The mesh from which the part is drawn.
+     */
+    PartType(final GeometryCache.MeshType mesh) {
+      this.mesh = mesh;
+    }
+  }
+
   /**
    * The change in rotation angle (in degrees) to apply on each rotation update.
    */
   private static final double DELTA_ANGLE = 1.0;
 
+  /** The time in seconds the dog takes to move into a trick. */
+  private static final float TRICK_SECONDS = 0.6f;
+
   /** The currently active parts. */
   private final boolean active_parts[] = new boolean[] { false, false,
       false, false, false, false, false };
@@ -59,111 +147,234 @@ public class Dog {
   private JointType active_joint = JointType.PAW;
   /** The currently active axis of rotation. */
   private AxisType active_rotation_axis = AxisType.X;
-  /** The OpenGL handle (integer) for the OpenGL call list object. */
-  private int dog_object;
-  private int front_left_upper;
-  private int front_left_lower;
-  private int front_left_paw;
-  private int front_right_upper;
-  private int front_right_lower;
-  private int front_right_paw;
-  private int rear_left_upper;
-  private int rear_left_lower;
-  private int rear_left_paw;
-  private int rear_right_upper;
-  private int rear_right_lower;
-  private int rear_right_paw;
-  private int neck;
-  private int head;
-  private int tail;
-  
-  private float body_anglex;
-  private float body_angley;
-  private float body_anglez;
-  private int front_left_upper_anglex;
-  private int front_left_upper_angley;
-  private int front_left_upper_anglez;
-  private int front_left_lower_anglex;
-  private int front_left_lower_angley;
-  private int front_left_lower_anglez;
-  private int front_left_paw_anglex;
-  private int front_left_paw_angley;
-  private int front_left_paw_anglez;
-  private int front_right_upper_anglex;
-  private int front_right_upper_angley;
-  private int front_right_upper_anglez;
-  private int front_right_lower_anglex;
-  private int front_right_lower_angley;
-  private int front_right_lower_anglez;
-  private int front_right_paw_anglex;
-  private int front_right_paw_angley;
-  private int front_right_paw_anglez;
-  private int rear_left_upper_anglex;
-  private int rear_left_upper_angley;
-  private int rear_left_upper_anglez;
-  private int rear_left_lower_anglex;
-  private int rear_left_lower_angley;
-  private int rear_left_lower_anglez;
-  private int rear_left_paw_anglex;
-  private int rear_left_paw_angley;
-  private int rear_left_paw_anglez;
-  private int rear_right_upper_anglex;
-  private int rear_right_upper_angley;
-  private int rear_right_upper_anglez;
-  private int rear_right_lower_anglex;
-  private int rear_right_lower_angley;
-  private int rear_right_lower_anglez;
-  private int rear_right_paw_anglex;
-  private int rear_right_paw_angley;
-  private int rear_right_paw_anglez;
-  private int neck_anglex;
-  private int neck_angley;
-  private int neck_anglez;
-  private int head_anglex;
-  private int head_angley;
-  private int head_anglez;
-  private int tail_anglex;
-  private int tail_angley;
-  private int tail_anglez;
-  
-  private int command;
-  
   /**
-   * Whether the state of the dog model has changed since the last update.
-   * 
-   * This is initially true so that the dog will show up initially.
+   * The matrix which places the mesh of each part on the body at rest, 16
+   * floats per part in the order of their ordinals.
    */
-  private boolean state_has_changed = true;
+  private static final float PART_SHAPES[] = new float[PartType.values().length
+      * Matrix4.SIZE];
+  /** The radius of the bounding sphere of each part, indexed by ordinal. */
+  private static final float PART_RADII[] = new float[PartType.values().length];
+  static {
+    for (final PartType part : PartType.values()) {
+      final float m[] = partShape(part);
+      System.arraycopy(m, 0, PART_SHAPES, part.ordinal() * Matrix4.SIZE,
+          Matrix4.SIZE);
 
-  private final GLUT glut;
-
-  private float head_translatex;
+      // the unit sphere is stretched by at most the longest column of m
+      float radius = 0;
+      for (int column = 0; column < 12; column += 4) {
+        radius = Math.max(radius, (float) Math.sqrt(m[column] * m[column]
+            + m[column + 1] * m[column + 1] + m[column + 2] * m[column + 2]));
+      }
+      if (part.mesh == GeometryCache.MeshType.TEAPOT) {
+        radius = (float) (1.5 * GeometryCache.TEAPOT_SIZE);
+      }
+      PART_RADII[part.ordinal()] = radius;
+    }
+  }
 
-  private float head_translatey;
+  /**
+   * The point (x, y, z) about which each joint rotates, in the coordinate
+   * system of the body at rest, in the order of the ordinals of the parts they
+   * move: the hips, knees and ankles of the legs, the base of the neck, the
+   * top of the neck and the base of the tail.
+   */
+  private static final float PIVOTS[] = {
+      /* BODY */0, 0, 0,
+      /* FRONT_LEFT_UPPER */0.6f, 0, -0.2f,
+      /* FRONT_LEFT_LOWER */0.6f, -0.75f, -0.22f,
+      /* FRONT_LEFT_PAW */0.66f, -1.02f, -0.21f,
+      /* FRONT_RIGHT_UPPER */0.6f, 0, 0.2f,
+      /* FRONT_RIGHT_LOWER */0.6f, -0.75f, 0.22f,
+      /* FRONT_RIGHT_PAW */0.66f, -1.02f, 0.21f,
+      /* REAR_LEFT_UPPER */-0.725f, 0, -0.29f,
+      /* REAR_LEFT_LOWER */-0.72f, -0.5f, -0.27f,
+      /* REAR_LEFT_PAW */-0.65f, -1.02f, -0.28f,
+      /* REAR_RIGHT_UPPER */-0.725f, 0, 0.29f,
+      /* REAR_RIGHT_LOWER */-0.72f, -0.5f, 0.27f,
+      /* REAR_RIGHT_PAW */-0.65f, -1.02f, 0.28f,
+      /* NECK */0.85f, 0.1f, 0,
+      /* HEAD */1.2f, 0.35f, 0,
+      /* TAIL */-1.0f, 0.2f, 0 };
 
-private float rear_upper_translatex;
+  /** Every part of the dog, in the order in which they are drawn. */
+  private static final PartType PARTS[] = PartType.values();
 
-private float rear_upper_translatey;
+  /**
+   * The parent of each joint, indexed by the ordinal of the part it moves; the
+   * body is the root.
+   */
+  private static final int PARENTS[] = new int[PARTS.length];
+  static {
+    for (final PartType part : PARTS) {
+      final PartType parent = parentOf(part);
+      PARENTS[part.ordinal()] = (parent == null) ? JointTable.NO_PARENT
+          : parent.ordinal();
+    }
+  }
 
-private float rear_lower_translatex;
+  /**
+   * The range (min x, max x, min y, max y, min z, max z) in degrees within
+   * which each joint may be rotated, indexed by the ordinal of the part it
+   * moves. This is the only place the limits are declared: the keys stop at
+   * them, and every pose, however it was reached, is clamped to them before
+   * it is evaluated, so the tricks must lie within them too.
+   */
+  private static final float JOINT_LIMITS[][] = {
+      /* BODY */{ -180, 180, -180, 180, -180, 180 },
+      /* FRONT_LEFT_UPPER */{ -12, 12, -5, 5, -40, 60 },
+      /* FRONT_LEFT_LOWER */{ -3, 3, -10, 5, -5, 60 },
+      /* FRONT_LEFT_PAW */{ -5, 5, -5, 5, -100, 1 },
+      /* FRONT_RIGHT_UPPER */{ -12, 12, -5, 5, -40, 60 },
+      /* FRONT_RIGHT_LOWER */{ -3, 3, -10, 5, -5, 60 },
+      /* FRONT_RIGHT_PAW */{ -5, 5, -5, 5, -100, 1 },
+      /* REAR_LEFT_UPPER */{ -12, 12, -5, 5, -70, 25 },
+      /* REAR_LEFT_LOWER */{ -3, 3, -10, 5, -125, 30 },
+      /* REAR_LEFT_PAW */{ -5, 5, -5, 5, -25, 80 },
+      /* REAR_RIGHT_UPPER */{ -12, 12, -5, 5, -70, 25 },
+      /* REAR_RIGHT_LOWER */{ -3, 3, -10, 5, -125, 30 },
+      /* REAR_RIGHT_PAW */{ -5, 5, -5, 5, -25, 80 },
+      /* NECK */{ -10, 10, -10, 10, -10, 10 },
+      /* HEAD */{ -20, 20, -15, 15, -30, 5 },
+      /* TAIL */{ -20, 20, -10, 10, -15, 20 } };
 
-private float rear_lower_translatey;
+  /**
+   * The keyframe pose of each trick, indexed by the ordinal of the trick; each
+   * pose holds the angles of every joint indexed by
+   * {@code joint * JointTable.AXES + axis}.
+   */
+  private static final float TRICK_POSES[][] = new float[TrickType.values()
+      .length][];
+  static {
+    for (final TrickType trick : TrickType.values()) {
+      TRICK_POSES[trick.ordinal()] = trickPose(trick);
+    }
+  }
 
-private float front_upper_translatex;
+  /**
+   * The joints of each leg from the hip to the paw, indexed by the ordinal of
+   * the leg in BodyPartType.
+   */
+  private static final int LEGS[][] = {
+      { PartType.FRONT_LEFT_UPPER.ordinal(),
+          PartType.FRONT_LEFT_LOWER.ordinal(),
+          PartType.FRONT_LEFT_PAW.ordinal() },
+      { PartType.FRONT_RIGHT_UPPER.ordinal(),
+          PartType.FRONT_RIGHT_LOWER.ordinal(),
+          PartType.FRONT_RIGHT_PAW.ordinal() },
+      { PartType.REAR_LEFT_UPPER.ordinal(),
+          PartType.REAR_LEFT_LOWER.ordinal(),
+          PartType.REAR_LEFT_PAW.ordinal() },
+      { PartType.REAR_RIGHT_UPPER.ordinal(),
+          PartType.REAR_RIGHT_LOWER.ordinal(),
+          PartType.REAR_RIGHT_PAW.ordinal() } };
+  /**
+   * The bottom of the paw of each leg (x, y, z) in the coordinate system of
+   * the body at rest, 3 floats per leg in the order of LEGS; this is the point
+   * placed on a target by {@link #placePaw(BodyPartType, float, float, float)}.
+   */
+  private static final float SOLES[] = new float[LEGS.length * 3];
+  static {
+    final float sole[] = new float[3];
+    for (int leg = 0; leg < LEGS.length; ++leg) {
+      final int paw = LEGS[leg][LEGS[leg].length - 1];
+      Matrix4.transformPoint(sole, PART_SHAPES, paw * Matrix4.SIZE, 0, -1, 0);
+      System.arraycopy(sole, 0, SOLES, leg * 3, 3);
+    }
+  }
 
-private float front_upper_translatey;
+  /** The number of slices and stacks of the body in the skin. */
+  private static final int SKIN_BODY_SLICES = 24, SKIN_BODY_STACKS = 16;
+  /** The number of vertices around each ring of the limbs of the skin. */
+  private static final int SKIN_SIDES = 12;
+  /** The number of rings between neighbouring nodes of a limb of the skin. */
+  private static final int SKIN_RINGS = 4;
 
-private float front_lower_translatex;
+  /**
+   * The part moved for each entry of active_parts (by row) and each type of
+   * joint (by column, in the order PAW, UPPER, LOWER).
+   */
+  private static final PartType ACTIVE_JOINTS[][] = {
+      { PartType.REAR_LEFT_PAW, PartType.REAR_LEFT_UPPER,
+          PartType.REAR_LEFT_LOWER },
+      { PartType.REAR_RIGHT_PAW, PartType.REAR_RIGHT_UPPER,
+          PartType.REAR_RIGHT_LOWER },
+      { PartType.FRONT_LEFT_PAW, PartType.FRONT_LEFT_UPPER,
+          PartType.FRONT_LEFT_LOWER },
+      { PartType.FRONT_RIGHT_PAW, PartType.FRONT_RIGHT_UPPER,
+          PartType.FRONT_RIGHT_LOWER },
+      { PartType.HEAD, PartType.HEAD, PartType.HEAD },
+      { PartType.TAIL, PartType.TAIL, PartType.TAIL },
+      { PartType.NECK, PartType.NECK, PartType.NECK } };
 
-private float front_lower_translatey;
+  /** The part of the body which each row of ACTIVE_JOINTS moves. */
+  private static final BodyPartType ACTIVE_BODY_PARTS[] = {
+      BodyPartType.REAR_LEFT_LEG, BodyPartType.REAR_RIGHT_LEG,
+      BodyPartType.FRONT_LEFT_LEG, BodyPartType.FRONT_RIGHT_LEG,
+      BodyPartType.HEAD, BodyPartType.TAIL, BodyPartType.NECK };
 
-private float front_paw_translatex;
+  /** The meshes from which the parts of the dog are drawn. */
+  private final GeometryCache geometry;
+  /** The mesh currently bound while drawing, or null if there is none. */
+  private Mesh bound_mesh = null;
+  /** The camera through which the dog is currently being drawn. */
+  private Camera camera = null;
+  /** The level of detail each part was last drawn at. */
+  private final int part_levels[] = new int[PartType.values().length];
+  /** The number of triangles submitted by the last call to draw(). */
+  private int triangle_count = 0;
+  /** The number of angles clamped to their limits since creation. */
+  private int limit_violation_count = 0;
+  /** The number of parts drawn by the last call to draw(). */
+  private int submitted_count = 0;
+  /** The number of parts skipped as invisible by the last call to draw(). */
+  private int culled_count = 0;
+  /**
+   * The bounding sphere (x, y, z, radius) of each part in the coordinate
+   * system of the dog, 4 floats per part in the order of their ordinals.
+   */
+  private final float part_bounds[] = new float[PartType.values().length * 4];
+  /** The bounding sphere (x, y, z, radius) of the whole dog. */
+  private final float bound[] = new float[4];
 
-private float front_paw_translatey;
+  private int command;
+  
+  /**
+   * Whether the state of the dog model has changed since the last update.
+   * 
+   * This is initially true so that the dog will show up initially.
+   */
+  private boolean state_has_changed = true;
 
-private float rear_paw_translatex;
+  private final GLUT glut;
 
-private float rear_paw_translatey;
+  /** The angle of every joint of the dog relative to its parent. */
+  private final JointTable pose = new JointTable(PARENTS);
+  /** The matrices of every part, evaluated from the pose. */
+  private final Skeleton skeleton = new Skeleton(this.pose, PIVOTS,
+      PART_SHAPES);
+  /** The transition into the current trick. */
+  private final PoseAnimation animation = new PoseAnimation(this.pose);
+  /** The solver which places the paws on their targets. */
+  private final LimbSolver solver = new LimbSolver(this.pose, this.skeleton);
+  /** The target (x, y, z) of each paw, 3 floats per leg in LEGS order. */
+  private final float paw_targets[] = new float[LEGS.length * 3];
+  /** Whether each paw is held on its target. */
+  private final boolean paw_placed[] = new boolean[LEGS.length];
+  /** The number of solver iterations in the last evaluation. */
+  private int solver_iteration_count = 0;
+  /** The number of parts whose matrices changed in the last evaluation. */
+  private int moved_part_count = 0;
+  /** The clip being played, or null if there is none. */
+  private PoseClip clip = null;
+  /** The index of the next frame of the clip being played. */
+  private int clip_frame = 0;
+  /** The frame of the clip being played which the dog is moving into. */
+  private final float clip_keyframe[] = new float[PartType.values().length
+      * JointTable.AXES];
+  /** The clips performed by test() instead of the tricks, or null. */
+  private ClipLibrary clips = null;
 
   /**
    * Instantiates this dog with access to the specified OpenGL utility toolkit
@@ -173,7 +384,29 @@ private float rear_paw_translatey;
    *          The OpenGL utility toolkit object.
    */
   public Dog(final GLUT glut) {
+    this(glut, new GeometryCache(glut));
+  }
+
+  /**
+   * Instantiates this dog drawn from the specified meshes, which may be shared
+   * with other dogs.
+   * 
+   * @param glut
+   *          The OpenGL utility toolkit object.
+   * @param geometry
+   *          The meshes from which the parts of the dog are drawn.
+   */
+  public Dog(final GLUT glut, final GeometryCache geometry) {
     this.glut = glut;
+    this.geometry = geometry;
+
+    for (final PartType part : PARTS) {
+      final float limits[] = JOINT_LIMITS[part.ordinal()];
+      for (int axis = 0; axis < JointTable.AXES; ++axis) {
+        this.pose.setLimits(part.ordinal(), axis, limits[2 * axis],
+            limits[2 * axis + 1]);
+      }
+    }
   }
 
   /**
@@ -181,184 +414,7 @@ private float rear_paw_translatey;
    * selected body parts by {@value #DELTA_ANGLE} degrees.
    */
   public void rotateActiveJointsForward() {
-    this.state_has_changed = true; // flag to recreate the display list
-
-    // you will need to rewrite this function
-    //System.out.println("Dog::decrement_rotation_angle()");    
-
-    if (active_parts[0]) {
-    	if (active_joint == JointType.PAW) {
-    		if (rear_left_paw_anglex > -5 && rear_left_paw_anglex <= 5) {
-    			if (active_rotation_axis == AxisType.X) rear_left_paw_anglex--; 
-    		}
-    		if (rear_left_paw_angley > -5 && rear_left_paw_angley <= 5) {
-    			if (active_rotation_axis == AxisType.Y) rear_left_paw_angley--;
-    		}
-    		if (rear_left_paw_anglez > -3 && rear_left_paw_anglez <= 1) {
-            	if (active_rotation_axis == AxisType.Z) rear_left_paw_anglez--;
-    		}
-    	}
-        if (active_joint == JointType.LOWER) {
-        	if (rear_left_lower_anglex > -3 && rear_left_lower_anglex <= 3) {
-    			if (active_rotation_axis == AxisType.X) { rear_left_lower_anglex--; rear_left_paw_anglex--; }
-        	}
-        	if (rear_left_lower_angley > -10 && rear_left_lower_angley <= 5) {
-        	    if (active_rotation_axis == AxisType.Y) { rear_left_lower_angley--; rear_left_paw_angley--; }
-        	}
-        	if (rear_left_lower_anglez > -5 && rear_left_lower_anglez <= 3) {
-        		if (active_rotation_axis == AxisType.Z) { rear_left_lower_anglez--; rear_left_paw_anglez--; }
-        	}
-        }
-        if (active_joint == JointType.UPPER) {
-        	if (rear_left_upper_anglex > -12 && rear_left_upper_anglex <= 12) {
-        		if (active_rotation_axis == AxisType.X) { rear_left_upper_anglex--; rear_left_lower_anglex--; rear_left_paw_anglex--; }
-        	}
-        	if (rear_left_upper_angley > -5 && rear_left_upper_angley <= 5) {
-        		if (active_rotation_axis == AxisType.Y) { rear_left_upper_angley--; rear_left_lower_angley--; rear_left_paw_angley--; }
-        	}
-        	if (rear_left_upper_anglez > -12 && rear_left_upper_anglez <= 20) {
-        		if (active_rotation_axis == AxisType.Z) { rear_left_upper_anglez--; rear_left_lower_anglez--; rear_left_paw_anglez--; }
-        	}
-        }
-    }
-    if (active_parts[1]) {
-    	if (active_joint == JointType.PAW) {
-    		if (rear_right_paw_anglex > -5 && rear_right_paw_anglex <= 5) {
-    			if (active_rotation_axis == AxisType.X) rear_right_paw_anglex--; 
-    		}
-    		if (rear_right_paw_angley > -5 && rear_right_paw_angley <= 5) {
-    			if (active_rotation_axis == AxisType.Y) rear_right_paw_angley--;
-    		}
-    		if (rear_right_upper_anglez > -3 && rear_right_paw_anglez <= 1) {
-            	if (active_rotation_axis == AxisType.Z) rear_right_paw_anglez--;
-    		}
-    	}
-        if (active_joint == JointType.LOWER) {
-        	if (rear_right_lower_anglex > -3 && rear_right_lower_anglex <= 3) {
-    			if (active_rotation_axis == AxisType.X) { rear_right_lower_anglex--; rear_right_paw_anglex--; }
-        	}
-        	if (rear_right_lower_angley > -10 && rear_right_lower_angley <= 5) {
-        	    if (active_rotation_axis == AxisType.Y) { rear_right_lower_angley--; rear_right_paw_angley--; }
-        	}
-        	if (rear_right_lower_anglez > -5 && rear_right_lower_anglez <= 3) {
-        		if (active_rotation_axis == AxisType.Z) { rear_right_lower_anglez--; rear_right_paw_anglez--; }
-        	}
-        }
-        if (active_joint == JointType.UPPER) {
-        	if (rear_right_upper_anglex > -12 && rear_right_upper_anglex <= 12) {
-        		if (active_rotation_axis == AxisType.X) { rear_right_upper_anglex--; rear_right_lower_anglex--; rear_right_paw_anglex--; }
-        	}
-        	if (rear_right_upper_angley > -5 && rear_right_upper_angley <= 5) {
-        		if (active_rotation_axis == AxisType.Y) { rear_right_upper_angley--; rear_right_lower_angley--; rear_right_paw_angley--; }
-        	}
-        	if (rear_right_upper_anglez > -12 && rear_right_upper_anglez <= 20) {
-        		if (active_rotation_axis == AxisType.Z) { rear_right_upper_anglez--; rear_right_lower_anglez--; rear_right_paw_anglez--; }
-        	}
-        }
-    }
-    if (active_parts[2]) {
-    	if (active_joint == JointType.PAW) {
-    		if (front_left_paw_anglex > -5 && front_left_paw_anglex <= 5) {
-    			if (active_rotation_axis == AxisType.X) front_left_paw_anglex--;
-    		}
-    		if (front_left_paw_angley > -5 && front_left_paw_angley <= 5) {
-    			if (active_rotation_axis == AxisType.Y) front_left_paw_angley--;
-    		}
-    		if (front_left_paw_anglez > -3 && front_left_paw_anglez <= 1) {
-    			if (active_rotation_axis == AxisType.Z) front_left_paw_anglez--;
-    		}
-    	}
-        if (active_joint == JointType.LOWER) {
-        	if (front_left_lower_anglex > -3 && front_left_lower_anglex <= 3) {
-        		if (active_rotation_axis == AxisType.X) { front_left_lower_anglex--; front_left_paw_anglex--; }
-        	}
-	        if (front_left_lower_angley > -10 && front_left_lower_angley <= 5) {
-				if (active_rotation_axis == AxisType.Y) { front_left_paw_angley--; front_left_paw_angley--; }
-			}
-			if (front_left_lower_anglez > -5 && front_left_lower_anglez <= 3) {
-				if (active_rotation_axis == AxisType.Z) { front_left_paw_anglez--; front_left_paw_anglez--; }
-			}
-        }
-        if (active_joint == JointType.UPPER) {
-        	if (front_left_upper_anglex > -8 && front_left_upper_anglex <= 8) {
-    			if (active_rotation_axis == AxisType.X) { front_left_upper_anglex--; front_left_lower_anglex--; front_left_paw_anglex--; }
-    		}
-        	if (front_left_upper_angley > -5 && front_left_upper_angley <= 5) {
-				if (active_rotation_axis == AxisType.Y) { front_left_upper_angley--; front_left_paw_angley--; front_left_paw_angley--; }
-			}
-        	if (front_left_upper_anglez > -10 && front_left_upper_anglez <= 15) {
-        		if (active_rotation_axis == AxisType.Z) { front_left_upper_anglez--; front_left_paw_anglez--; front_left_paw_anglez--; }
-        	}
-        }
-    }
-    if (active_parts[3]) {
-    	if (active_joint == JointType.PAW) {
-    		if (front_right_paw_anglex > -5 && front_right_paw_anglex <= 5) {
-    			if (active_rotation_axis == AxisType.X) front_right_paw_anglex--;
-    		}
-    		if (front_right_paw_angley > -5 && front_right_paw_angley <= 5) {
-    			if (active_rotation_axis == AxisType.Y) front_right_paw_angley--;
-    		}
-    		if (front_right_paw_anglez > -3 && front_right_paw_anglez <= 1) {
-    			if (active_rotation_axis == AxisType.Z) front_right_paw_anglez--;
-    		}
-    	}
-        if (active_joint == JointType.LOWER) {
-        	if (front_right_lower_anglex > -3 && front_right_lower_anglex <= 3) {
-        		if (active_rotation_axis == AxisType.X) { front_right_lower_anglex--; front_right_paw_anglex--; }
-        	}
-	        if (front_right_lower_angley > -10 && front_right_lower_angley <= 5) {
-				if (active_rotation_axis == AxisType.Y) { front_right_lower_angley--; front_right_paw_angley--; }
-	        }
-			if (front_right_lower_anglez > -5 && front_right_lower_anglez <= 3) {
-				if (active_rotation_axis == AxisType.Z) { front_right_lower_anglez--; front_right_paw_anglez--; }
-			}
-        }
-        if (active_joint == JointType.UPPER) {
-        	if (front_right_upper_anglex > -12 && front_right_upper_anglex <= 12) {
-    			if (active_rotation_axis == AxisType.X) { front_right_upper_anglex--; front_right_lower_anglex--; front_right_paw_anglex--; }
-    		}
-        	if (front_right_upper_angley > -5 && front_right_upper_angley <= 5) {
-				if (active_rotation_axis == AxisType.Y) { front_right_upper_angley--; front_right_lower_angley--; front_right_paw_angley--; }
-        	}
-        	if (front_right_upper_anglez > -12 && front_right_upper_anglez <= 20) {
-        		if (active_rotation_axis == AxisType.Z) { front_right_upper_anglez--; front_right_lower_anglez--; front_right_paw_anglez--; }
-        	} 
-        }
-    }
-    if (active_parts[4]) {
-    	if (head_anglex > -20 && head_anglex <= 20) {
-    		if (active_rotation_axis == AxisType.X) head_anglex--;
-    	}
-        if (head_angley > -15 && head_angley <= 15) {
-    		if (active_rotation_axis == AxisType.Y) head_angley--;
-		}
-        if (head_anglez > -15 && head_anglez <= 5) {
-    		if (active_rotation_axis == AxisType.Z)	head_anglez--;
-		}
-    }
-    if (active_parts[5]) {
-    	if (tail_anglex > -20 && tail_anglex <= 20) {
-    		if (active_rotation_axis == AxisType.X) tail_anglex--;
-    	}	
-    	if (tail_angley > -10 && tail_angley <= 10) {
-    		if (active_rotation_axis == AxisType.Y) tail_angley--;
-    	}
-    	if (tail_anglez > -15 && tail_anglez <= 15) {
-    		if (active_rotation_axis == AxisType.Z)	tail_anglez--;
-    	}
-    }
-    if (active_parts[6]) {
-    	if (neck_anglex > -10 && neck_anglex <= 10) {
-    		if (active_rotation_axis == AxisType.X) neck_anglex--;
-		}
-    	if (neck_angley > -10 && neck_angley <= 10) {
-    		if (active_rotation_axis == AxisType.Y) neck_angley--;
-		}
-    	if (neck_anglez > -10 && neck_anglez <= 10) {
-    		if (active_rotation_axis == AxisType.Z)	neck_anglez--;
-		}
-    }
+    this.rotateActiveJoints(-1);
   }
 
   /**
@@ -366,344 +422,446 @@ private float rear_paw_translatey;
    * selected body parts by {@value #DELTA_ANGLE} degrees.
    */
   public void rotateActiveJointsBackward() {
-    this.state_has_changed = true; // flag to recreate the display list
-
-    // you will need to rewrite this function
-    //System.out.println("Dog::increment_rotation_angle()");
-    
-    if (active_parts[0]) {
-    	if (active_joint == JointType.PAW) {
-    		if (rear_left_paw_anglex >= -5 && rear_left_paw_anglex < 5) {
-    			if (active_rotation_axis == AxisType.X) rear_left_paw_anglex++; 
-    		}
-    		if (rear_left_paw_angley >= -5 && rear_left_paw_angley < 5) {
-    			if (active_rotation_axis == AxisType.Y) rear_left_paw_angley++;
-    		}
-    		if (rear_left_paw_anglez >= -3 && rear_left_paw_anglez < 1) {
-            	if (active_rotation_axis == AxisType.Z) rear_left_paw_anglez++;
-    		}
-    	}
-        if (active_joint == JointType.LOWER) {
-        	if (rear_left_lower_anglex >= -3 && rear_left_lower_anglex < 3) {
-    			if (active_rotation_axis == AxisType.X) { rear_left_lower_anglex++; rear_left_paw_anglex++; }
-        	}
-        	if (rear_left_lower_angley >= -10 && rear_left_lower_angley < 5) {
-        	    if (active_rotation_axis == AxisType.Y) { rear_left_lower_angley++; rear_left_paw_angley++; }
-        	}
-        	if (rear_left_lower_anglez >= -5 && rear_left_lower_anglez < 3) {
-        		if (active_rotation_axis == AxisType.Z) { rear_left_lower_anglez++; rear_left_paw_anglez++; }
-        	}
-        }
-        if (active_joint == JointType.UPPER) {
-        	if (rear_left_upper_anglex >= -12 && rear_left_upper_anglex < 12) {
-        		if (active_rotation_axis == AxisType.X) { rear_left_upper_anglex++; rear_left_lower_anglex++; rear_left_paw_anglex++; }
-        	}
-        	if (rear_left_upper_angley >= -5 && rear_left_upper_angley < 5) {
-        		if (active_rotation_axis == AxisType.Y) { rear_left_upper_angley++; rear_left_lower_angley++; rear_left_paw_angley++; }	
-        	}
-        	if (rear_left_upper_anglez >= -12 && rear_left_upper_anglez < 20) {
-        		if (active_rotation_axis == AxisType.Z) { rear_left_upper_anglez++; rear_left_lower_anglez++; rear_left_paw_anglez++; }
-        	}
-        }
-    }
-    if (active_parts[1]) {
-    	if (active_joint == JointType.PAW) {
-    		if (rear_right_paw_anglex >= -5 && rear_right_paw_anglex < 5) {
-    			if (active_rotation_axis == AxisType.X) rear_right_paw_anglex++; 
-    		}
-    		if (rear_right_paw_angley >= -5 && rear_right_paw_angley < 5) {
-    			if (active_rotation_axis == AxisType.Y) rear_right_paw_angley++;
-    		}
-    		if (rear_right_upper_anglez >= -3 && rear_right_paw_anglez < 1) {
-            	if (active_rotation_axis == AxisType.Z) rear_right_paw_anglez++;
-    		}
-    	}
-        if (active_joint == JointType.LOWER) {
-        	if (rear_right_lower_anglex >= -3 && rear_right_lower_anglex < 3) {
-    			if (active_rotation_axis == AxisType.X) { rear_right_lower_anglex++; rear_right_paw_anglex++; }
-        	}
-        	if (rear_right_lower_angley >= -10 && rear_right_lower_angley < 5) {
-        	    if (active_rotation_axis == AxisType.Y) { rear_right_lower_angley++; rear_right_paw_angley++; }
-        	}
-        	if (rear_right_lower_anglez >= -5 && rear_right_lower_anglez < 3) {
-        		if (active_rotation_axis == AxisType.Z) { rear_right_lower_anglez++; rear_right_paw_anglez++; }
-        	}
-        }
-        if (active_joint == JointType.UPPER) {
-        	if (rear_right_upper_anglex >= -12 && rear_right_upper_anglex < 12) {
-        		if (active_rotation_axis == AxisType.X) { rear_right_upper_anglex++; rear_right_lower_anglex++; rear_right_paw_anglex++; }
-        	}
-        	if (rear_right_upper_angley >= -5 && rear_right_upper_angley < 5) {
-        		if (active_rotation_axis == AxisType.Y) { rear_right_upper_angley++; rear_right_lower_angley++; rear_right_paw_angley++; }
-        	}
-        	if (rear_right_upper_anglez >= -12 && rear_right_upper_anglez < 20) {
-        		if (active_rotation_axis == AxisType.Z) { rear_right_upper_anglez++; rear_right_lower_anglez++; rear_right_paw_anglez++; }
-        	}
-        }
-    }
-    if (active_parts[2]) {
-    	if (active_joint == JointType.PAW) {
-    		if (front_left_paw_anglex >= -5 && front_left_paw_anglex < 5) {
-    			if (active_rotation_axis == AxisType.X) front_left_paw_anglex++;
-    		}
-    		if (front_left_paw_angley >= -5 && front_left_paw_angley < 5) {
-    			if (active_rotation_axis == AxisType.Y) front_left_paw_angley++;
-    		}
-    		if (front_left_paw_anglez >= -3 && front_left_paw_anglez < 1) {
-    			if (active_rotation_axis == AxisType.Z) front_left_paw_anglez++;
-    		}
-    	}
-        if (active_joint == JointType.LOWER) {
-        	if (front_left_lower_anglex >= -3 && front_left_lower_anglex < 3) {
-        		if (active_rotation_axis == AxisType.X) { front_left_lower_anglex++; front_left_paw_anglex++; }
-        	}
-	        if (front_left_lower_angley >= -10 && front_left_lower_angley < 5) {
-				if (active_rotation_axis == AxisType.Y) { front_left_paw_angley++; front_left_paw_angley++; }
-			}
-			if (front_left_lower_anglez  >= -5 && front_left_lower_anglez < 3) {
-				if (active_rotation_axis == AxisType.Z) { front_left_paw_anglez++; front_left_paw_anglez++; }
-			}
-        }
-        if (active_joint == JointType.UPPER) {
-        	if (front_left_upper_anglex >= -12 && front_left_upper_anglex < 12) {
-    			if (active_rotation_axis == AxisType.X) { front_left_upper_anglex++; front_left_lower_anglex++; front_left_paw_anglex++; }
-    		}
-        	if (front_left_upper_angley >= -5 && front_left_upper_angley < 5) {
-				if (active_rotation_axis == AxisType.Y) { front_left_upper_angley++; front_left_paw_angley++; front_left_paw_angley++; }
-			}
-        	if (front_left_upper_anglez >= -12 && front_left_upper_anglez < 20) {
-        		if (active_rotation_axis == AxisType.Z) { front_left_upper_anglez++; front_left_paw_anglez++; front_left_paw_anglez++; }
-        	}
-        }
+    this.rotateActiveJoints(1);
+  }
+
+  /**
+   * Rotates the currently selected joint on the currently selected body parts
+   * about the currently selected axis by the specified number of steps of
+   * {@value #DELTA_ANGLE} degrees, within the limits of each joint.
+   * 
+   * Each joint ends up exactly where as many single steps would have left it,
+   * so repeated key presses can be applied at once.
+   * 
+   * @param steps
+   *          The number of steps, negative to decrease the rotation.
+   */
+  public void rotateActiveJoints(final int steps) {
+    this.state_has_changed = true; // flag that the pose has changed
+    this.animation.stop();
+    this.clip = null;
+
+    final int axis = this.active_rotation_axis.ordinal();
+    for (int i = 0; i < this.active_parts.length; ++i) {
+      if (this.active_parts[i]) {
+        final PartType joint = ACTIVE_JOINTS[i][this.active_joint.ordinal()];
+        this.pose.rotate(joint.ordinal(), axis, (float) DELTA_ANGLE, steps);
+      }
     }
-    if (active_parts[3]) {
-    	if (active_joint == JointType.PAW) {
-    		if (front_right_paw_anglex >= -5 && front_right_paw_anglex < 5) {
-    			if (active_rotation_axis == AxisType.X) front_right_paw_anglex++;
-    		}
-    		if (front_right_paw_angley >= -5 && front_right_paw_angley < 5) {
-    			if (active_rotation_axis == AxisType.Y) front_right_paw_angley++;
-    		}
-    		if (front_right_paw_anglez >= -3 && front_right_paw_anglez < 1) {
-    			if (active_rotation_axis == AxisType.Z) front_right_paw_anglez++;
-    		}
-    	}
-        if (active_joint == JointType.LOWER) {
-        	if (front_right_lower_anglex >= -3 && front_right_lower_anglex < 3) {
-        		if (active_rotation_axis == AxisType.X) { front_right_lower_anglex++; front_right_paw_anglex++; }
-        	}
-	        if (front_right_lower_angley >= -10 && front_right_lower_angley < 5) {
-				if (active_rotation_axis == AxisType.Y) { front_right_lower_angley++; front_right_paw_angley++; }
-	        }
-			if (front_right_lower_anglez >= -5 && front_right_lower_anglez < 3) {
-				if (active_rotation_axis == AxisType.Z) { front_right_lower_anglez++; front_right_paw_anglez++; }
-			}
-        }
-        if (active_joint == JointType.UPPER) {
-        	if (front_right_upper_anglex >= -12 && front_right_upper_anglex < 12) {
-    			if (active_rotation_axis == AxisType.X) { front_right_upper_anglex++; front_right_lower_anglex++; front_right_paw_anglex++; }
-    		}
-        	if (front_right_upper_angley >= -5 && front_right_upper_angley < 5) {
-				if (active_rotation_axis == AxisType.Y) { front_right_upper_angley++; front_right_lower_angley++; front_right_paw_angley++; }
-        	} 
-        	if (front_right_upper_anglez >= -12 && front_right_upper_anglez < 20) {
-        		if (active_rotation_axis == AxisType.Z) { front_right_upper_anglez++; front_right_lower_anglez++; front_right_paw_anglez++; }
-        	}
-        }
+  }
+
+  /**
+   * Draws the dog on the specified OpenGL object based on the current state,
+   * with the fixed-function pipeline.
+   * 
+   * @param gl
+   *          The GL object with which to draw the dog.
+   * @param camera
+   *          The camera through which the dog is seen.
+   */
+  public void draw(final GL gl, final Camera camera) {
+    this.draw(gl, camera, null);
+  }
+
+  /**
+   * Draws the dog on the specified OpenGL object based on the current state.
+   * 
+   * Each part is drawn at a level of detail chosen from its size on the screen
+   * as seen through the specified camera. Parts whose bounding spheres are
+   * outside of the camera's frustum are skipped, as is the whole dog when its
+   * own bounding sphere is.
+   * 
+   * With a shader, the model matrices of every part are uploaded at once and
+   * each part selects its own, instead of multiplying it onto the model view
+   * matrix.
+   * 
+   * @param gl
+   *          The GL object with which to draw the dog.
+   * @param camera
+   *          The camera through which the dog is seen.
+   * @param shader
+   *          The shader in use, or null to draw with the fixed-function
+   *          pipeline.
+   */
+  public void draw(final GL gl, final Camera camera, final PartShader shader) {
+    this.camera = camera;
+    this.triangle_count = 0;
+    this.submitted_count = 0;
+    this.culled_count = 0;
+
+    final Frustum frustum = camera.frustum();
+    if (!frustum.intersectsSphere(this.bound[0], this.bound[1], this.bound[2],
+        this.bound[3])) {
+      this.culled_count = PARTS.length;
+      return;
     }
-    if (active_parts[4]) {
-    	if (head_anglex >= -20 && head_anglex < 20) {
-    		if (active_rotation_axis == AxisType.X) head_anglex++;
-    	}
-        if (head_angley >= -15 && head_angley < 15) {
-    		if (active_rotation_axis == AxisType.Y) head_angley++;
-		}
-        if (head_anglez >= -15 && head_anglez < 5) {
-    		if (active_rotation_axis == AxisType.Z)	head_anglez++;
-		}
+
+    gl.glColor3f(0.05f, .58f, .78f);
+    final float models[] = this.skeleton.modelMatrices();
+    if (shader != null) {
+      shader.setMatrices(gl, models, 0, PARTS.length);
     }
-    if (active_parts[5]) {
-    	if (tail_anglex >= -20 && tail_anglex < 20) {
-    		if (active_rotation_axis == AxisType.X) tail_anglex++;
-    	}	
-    	if (tail_angley >= -10 && tail_angley < 10) {
-    		if (active_rotation_axis == AxisType.Y) tail_angley++;
-    	}
-    	if (tail_anglez >= -15 && tail_anglez < 15) {
-    		if (active_rotation_axis == AxisType.Z)	tail_anglez++;
-    	}
+    for (final PartType part : PARTS) {
+      final int b = part.ordinal() * 4;
+      if (!frustum.intersectsSphere(this.part_bounds[b],
+          this.part_bounds[b + 1], this.part_bounds[b + 2],
+          this.part_bounds[b + 3])) {
+        this.culled_count++;
+        continue;
+      }
+      this.submitted_count++;
+      if (shader != null) {
+        shader.selectPart(gl, part.ordinal());
+        this.drawPart(gl, part);
+        continue;
+      }
+      gl.glPushMatrix();
+        gl.glMultMatrixf(models, part.ordinal() * Matrix4.SIZE);
+        this.drawPart(gl, part);
+      gl.glPopMatrix();
     }
-    if (active_parts[6]) {
-    	if (neck_anglex >= -10 && neck_anglex < 10) {
-    		if (active_rotation_axis == AxisType.X) neck_anglex++;
-		}
-    	if (neck_angley >= -10 && neck_angley < 10) {
-    		if (active_rotation_axis == AxisType.Y) neck_angley++;
-		}
-    	if (neck_anglez >= -10 && neck_anglez < 10) {
-    		if (active_rotation_axis == AxisType.Z)	neck_anglez++;
-		}
+
+    if (this.bound_mesh != null) {
+      this.bound_mesh.unbind(gl);
+      this.bound_mesh = null;
     }
   }
-  
+
   /**
-   * Draws the dog on the specified OpenGL object based on the current state.
+   * Draws the mesh of the specified part under the current model view matrix,
+   * which must already include the model matrix of the part unless a shader
+   * applies it, binding the mesh first unless it is already bound.
    * 
    * @param gl
-   *          The GL object with which to draw the dog.
+   *          The OpenGL object with which to draw the part.
+   * @param part
+   *          The part to draw.
    */
-  public void draw(final GL gl) {
-    
-	gl.glPushMatrix();	  
-		gl.glRotatef(this.body_anglex, 1, 0, 0);     
-		gl.glRotatef(this.body_angley, 0, 1, 0); 
-		gl.glRotatef(this.body_anglez, 0, 0, 1); 
-		gl.glCallList(this.dog_object);
-	gl.glPopMatrix();
-    
-    gl.glPushMatrix();
-        gl.glRotatef(this.front_left_upper_anglex, 1, 0, 0);
-        gl.glRotatef(this.front_left_upper_angley, 0, 1, 0);
-        gl.glRotatef(this.front_left_upper_anglez, 0, 0, 1);
-        gl.glTranslatef(this.front_upper_translatex, this.front_upper_translatey, 0);
-        gl.glCallList(this.front_left_upper);	
-    gl.glPopMatrix();
-    
-    gl.glPushMatrix();
-        gl.glRotatef(this.front_left_lower_anglex, 1, 0, 0);
-        gl.glRotatef(this.front_left_lower_angley, 0, 1, 0);
-        gl.glRotatef(this.front_left_lower_anglez, 0, 0, 1);
-        gl.glTranslatef(this.front_lower_translatex, this.front_lower_translatey, 0);
-        gl.glCallList(this.front_left_lower);
-    gl.glPopMatrix();
-    
-    gl.glPushMatrix();
-        gl.glRotatef(this.front_left_paw_anglex, 1, 0, 0);
-        gl.glRotatef(this.front_left_paw_angley, 0, 1, 0);
-        gl.glRotatef(this.front_left_paw_anglez, 0, 0, 1);
-        gl.glTranslatef(this.front_paw_translatex, this.front_paw_translatey, 0);
-        gl.glCallList(this.front_left_paw);
-    gl.glPopMatrix();
-    
-    gl.glPushMatrix();
-	    gl.glRotatef(this.front_right_upper_anglex, 1, 0, 0);    
-	    gl.glRotatef(this.front_right_upper_angley, 0, 1, 0);
-	    gl.glRotatef(this.front_right_upper_anglez, 0, 0, 1);
-	    gl.glTranslatef(this.front_upper_translatex, this.front_upper_translatey, 0);
-	    gl.glCallList(this.front_right_upper);
-    gl.glPopMatrix();    
-    gl.glPushMatrix();
-	    gl.glRotatef(this.front_right_lower_anglex, 1, 0, 0);
-	    gl.glRotatef(this.front_right_lower_angley, 0, 1, 0);
-	    gl.glRotatef(this.front_right_lower_anglez, 0, 0, 1);
-	    gl.glTranslatef(this.front_lower_translatex, this.front_lower_translatey, 0);
-	    gl.glCallList(this.front_right_lower);
-    gl.glPopMatrix();
-    gl.glPushMatrix();
-	    gl.glRotatef(this.front_right_paw_anglex, 1, 0, 0);
-	    gl.glRotatef(this.front_right_paw_angley, 0, 1, 0);
-	    gl.glRotatef(this.front_right_paw_anglez, 0, 0, 1);
-	    gl.glTranslatef(this.front_paw_translatex, this.front_paw_translatey, 0);
-	    gl.glCallList(this.front_right_paw);
-    gl.glPopMatrix();
-    
-    gl.glPushMatrix();
-	    gl.glRotatef(this.rear_left_upper_anglex, 1, 0, 0);
-	    gl.glRotatef(this.rear_left_upper_angley, 0, 1, 0);
-	    gl.glRotatef(this.rear_left_upper_anglez, 0, 0, 1);
-	    gl.glTranslatef(this.rear_upper_translatex, this.rear_upper_translatey, 0);
-	    gl.glCallList(this.rear_left_upper);
-    gl.glPopMatrix();
-    
-    gl.glPushMatrix();
-	    gl.glRotatef(this.rear_left_lower_anglex, 1, 0, 0);
-	    gl.glRotatef(this.rear_left_lower_angley, 0, 1, 0);
-	    gl.glRotatef(this.rear_left_lower_anglez, 0, 0, 1);
-	    gl.glTranslatef(this.rear_lower_translatex, this.rear_lower_translatey, 0);
-	    gl.glCallList(this.rear_left_lower);
-    gl.glPopMatrix();
-    
-    gl.glPushMatrix();
-	    gl.glRotatef(this.rear_left_paw_anglex, 1, 0, 0);
-	    gl.glRotatef(this.rear_left_paw_angley, 0, 1, 0);
-	    gl.glRotatef(this.rear_left_paw_anglez, 0, 0, 1);
-	    gl.glTranslatef(this.rear_paw_translatex, this.rear_paw_translatey, 0);
-	    gl.glCallList(this.rear_left_paw);
-    gl.glPopMatrix();
-    
-    gl.glPushMatrix();
-	    gl.glRotatef(this.rear_right_upper_anglex, 1, 0, 0);  
-	    gl.glRotatef(this.rear_right_upper_angley, 0, 1, 0);
-	    gl.glRotatef(this.rear_right_upper_anglez, 0, 0, 1);
-	    gl.glTranslatef(this.rear_upper_translatex, this.rear_upper_translatey, 0);
-	    gl.glCallList(this.rear_right_upper);
-    gl.glPopMatrix();
-    
-    gl.glPushMatrix();
-	    gl.glRotatef(this.rear_right_lower_anglex, 1, 0, 0);
-	    gl.glRotatef(this.rear_right_lower_angley, 0, 1, 0);
-	    gl.glRotatef(this.rear_right_lower_anglez, 0, 0, 1);
-	    gl.glTranslatef(this.rear_lower_translatex, this.rear_lower_translatey, 0);
-	    gl.glCallList(this.rear_right_lower);
-    gl.glPopMatrix();
-    gl.glPushMatrix();
-	    gl.glRotatef(this.rear_right_paw_anglex, 1, 0, 0);
-	    gl.glRotatef(this.rear_right_paw_angley, 0, 1, 0);
-	    gl.glRotatef(this.rear_right_paw_anglez, 0, 0, 1);
-	    gl.glTranslatef(this.rear_paw_translatex, this.rear_paw_translatey, 0);
-	    gl.glCallList(this.rear_right_paw);
-    gl.glPopMatrix();  
-    
-    gl.glPushMatrix();
-    	gl.glRotatef(this.neck_anglex, 1, 0, 0);    
-    	gl.glRotatef(this.neck_angley, 0, 1, 0);
-    	gl.glRotatef(this.neck_anglez, 0, 0, 1);
-    	gl.glCallList(this.neck);
-    gl.glPopMatrix();
-    
-    gl.glPushMatrix();
-	    gl.glRotatef(this.head_anglex, 1, 0, 0);   
-	    gl.glRotatef(this.head_angley, 0, 1, 0);   
-	    gl.glRotatef(this.head_anglez, 0, 0, 1);
-	    gl.glTranslatef(this.head_translatex, this.head_translatey, 0);
-	    gl.glCallList(this.head);
-    gl.glPopMatrix();    
-    
-    gl.glPushMatrix();
-	    gl.glRotatef(this.tail_anglex, 1, 0, 0); 
-	    gl.glRotatef(this.tail_angley, 0, 1, 0); 
-	    gl.glRotatef(this.tail_anglez, 0, 0, 1);    
-	    gl.glCallList(this.tail);
-	gl.glPopMatrix();
+  private void drawPart(final GL gl, final PartType part) {
+    final int index = part.ordinal();
+    final float models[] = this.skeleton.modelMatrices();
+    final int center = index * Matrix4.SIZE + 12;
+    final float radius = this.camera.projectedRadius(models[center],
+        models[center + 1], models[center + 2], PART_RADII[index]);
+    this.part_levels[index] = LevelOfDetail.select(this.part_levels[index],
+        radius);
+
+    final Mesh mesh = this.geometry.mesh(part.mesh, this.part_levels[index]);
+    if (mesh != this.bound_mesh) {
+      if (this.bound_mesh != null) {
+        this.bound_mesh.unbind(gl);
+      }
+      mesh.bind(gl);
+      this.bound_mesh = mesh;
+    }
+    mesh.draw(gl);
+    this.triangle_count += mesh.triangleCount();
   }
 
   /**
-   * Uses the specified OpenGL object to create a new OpenGL call list on which
-   * to draw the dog's body, legs, tail, head, and neck.
+   * Uses the specified OpenGL object to upload the meshes from which the dog's
+   * body, legs, tail, head, and neck are drawn.
+   * 
+   * This is the only place where the geometry is compiled; afterwards changes
+   * to the pose of the dog only affect the transformations applied in
+   * {@link #draw(GL, Camera)}.
    * 
    * @param gl
-   *          The OpenGL object from which to get a handle (which is just a
-   *          unique integer) for a call list.
+   *          The OpenGL object with which to upload the meshes.
    */
   public void init(final GL gl) {
-    this.dog_object = gl.glGenLists(1);
-    this.front_left_upper = gl.glGenLists(1);
-    this.front_left_lower = gl.glGenLists(1);
-    this.front_left_paw = gl.glGenLists(1);
-    this.front_right_upper = gl.glGenLists(1);
-    this.front_right_lower = gl.glGenLists(1);
-    this.front_right_paw = gl.glGenLists(1);
-    this.rear_left_upper = gl.glGenLists(1);
-    this.rear_left_lower = gl.glGenLists(1);
-    this.rear_left_paw = gl.glGenLists(1);
-    this.rear_right_upper = gl.glGenLists(1);
-    this.rear_right_lower = gl.glGenLists(1);
-    this.rear_right_paw = gl.glGenLists(1);
-    this.neck = gl.glGenLists(1);
-    this.head = gl.glGenLists(1);
-    this.tail = gl.glGenLists(1);
-    
-    this.update(gl);
+    // the context may have been recreated, taking the old lists with it
+    this.geometry.invalidate();
+    this.geometry.build(gl);
+  }
+
+  /**
+   * Returns the number of mesh uploads performed since this dog was created;
+   * this stays constant while the pose is being changed.
+   * 
+   * @return The number of meshes uploaded so far.
+   */
+  public int geometryRebuildCount() {
+    return this.geometry.rebuildCount();
+  }
+
+  /**
+   * Returns the model matrix of every part, 16 floats per part in the order of
+   * their ordinals, as of the last call to {@link #update(GL)}.
+   * 
+   * @return The model matrices of the parts.
+   */
+  public float[] modelMatrices() {
+    return this.skeleton.modelMatrices();
+  }
+
+  /**
+   * Returns the world matrix of every joint, 16 floats per joint in the order
+   * of the ordinals of the parts they move, as of the last call to
+   * {@link #update(GL)}; these deform the mesh built by {@link #buildSkin()}.
+   * 
+   * @return The world matrices of the joints.
+   */
+  public float[] worldMatrices() {
+    return this.skeleton.worldMatrices();
+  }
+
+  /**
+   * Returns the number of parts whose matrices changed in the last call to
+   * {@link #update(GL)}.
+   * 
+   * @return The number of parts which moved.
+   */
+  public int movedPartCount() {
+    return this.moved_part_count;
+  }
+
+  /**
+   * Holds the bottom of the paw of a leg on a target point, by turning the
+   * hip, knee and ankle of the leg within their limits on every evaluation
+   * until the paw is released. The target is reached as nearly as the limits
+   * allow, on top of whatever pose the keys or tricks give the leg.
+   * 
+   * @param leg
+   *          The leg, one of the first four body parts.
+   * @param x
+   *          The x coordinate of the target in the coordinate system of the
+   *          dog, in which its model matrices place its parts.
+   * @param y
+   *          The y coordinate of the target.
+   * @param z
+   *          The z coordinate of the target.
+   */
+  public void placePaw(final BodyPartType leg, final float x, final float y,
+      final float z) {
+    final int l = legIndex(leg);
+    this.paw_targets[l * 3] = x;
+    this.paw_targets[l * 3 + 1] = y;
+    this.paw_targets[l * 3 + 2] = z;
+    this.paw_placed[l] = true;
+    this.state_has_changed = true;
+  }
+
+  /**
+   * Lets the paw of a leg move with the pose again.
+   * 
+   * @param leg
+   *          The leg, one of the first four body parts.
+   */
+  public void releasePaw(final BodyPartType leg) {
+    this.paw_placed[legIndex(leg)] = false;
+  }
+
+  /**
+   * Computes where the bottom of the paw of a leg is in the pose last
+   * evaluated, for example to hold it where it stands.
+   * 
+   * @param leg
+   *          The leg, one of the first four body parts.
+   * @param position
+   *          The array in which to store the position (x, y, z) in the
+   *          coordinate system of the dog.
+   */
+  public void pawPosition(final BodyPartType leg, final float[] position) {
+    final int l = legIndex(leg);
+    Matrix4.transformPoint(position, this.skeleton.worldMatrices(),
+        LEGS[l][LEGS[l].length - 1] * Matrix4.SIZE, SOLES[l * 3],
+        SOLES[l * 3 + 1], SOLES[l * 3 + 2]);
+  }
+
+  /**
+   * Returns the index of a leg in LEGS.
+   * 
+   * @param leg
+   *          The leg.
+   * @return The index of the leg.
+   */
+  private static int legIndex(final BodyPartType leg) {
+    if (leg.ordinal() >= LEGS.length) {
+      throw new IllegalArgumentException(leg + " is not a leg");
+    }
+    return leg.ordinal();
+  }
+
+  /**
+   * Returns the solver which places the paws, so that its number of
+   * iterations and tolerance can be set.
+   * 
+   * @return The solver.
+   */
+  public LimbSolver solver() {
+    return this.solver;
+  }
+
+  /**
+   * Returns the number of iterations the solver took to place the paws in
+   * the last evaluation.
+   * 
+   * @return The number of iterations, over all legs.
+   */
+  public int solverIterationCount() {
+    return this.solver_iteration_count;
+  }
+
+  /**
+   * Returns the radius of the bounding sphere of the specified part, in the
+   * coordinate system of the dog.
+   * 
+   * @param part
+   *          The part.
+   * @return The radius of the bounding sphere of the part.
+   */
+  static float partRadius(final PartType part) {
+    return PART_RADII[part.ordinal()];
+  }
+
+  /**
+   * Returns whether the specified part is drawn as part of the skin built by
+   * {@link #buildSkin()}, rather than as a mesh of its own.
+   * 
+   * @param part
+   *          The part.
+   * @return Whether the part is covered by the skin.
+   */
+  static boolean isSkinned(final PartType part) {
+    return part.mesh == GeometryCache.MeshType.SPHERE;
+  }
+
+  /**
+   * Builds a continuous skin over every part drawn from the sphere: the body
+   * as an ellipsoid, and each leg, the neck and the tail as a tube through
+   * the pivots of their joints and the centers of their parts, which bends
+   * with a blend of the two joints on either side of it.
+   * 
+   * The radius of a tube at the center of a part is the smallest semi-axis
+   * of the part, and at a joint the mean of the parts on either side. The
+   * legs and the tail end at the far side of their last part; the neck ends
+   * inside the head, which is still drawn on its own.
+   * 
+   * @return The skin, deformed by the world matrices of the joints.
+   */
+  static SkinnedMesh buildSkin() {
+    final SkinBuilder skin = new SkinBuilder(PARTS.length);
+    final int body = PartType.BODY.ordinal();
+    skin.ellipsoid(body, PART_SHAPES, body * Matrix4.SIZE, SKIN_BODY_SLICES,
+        SKIN_BODY_STACKS);
+    for (final int[] leg : LEGS) {
+      skinLimb(skin, leg, JointTable.NO_PARENT);
+    }
+    skinLimb(skin, new int[] { PartType.NECK.ordinal() }, PartType.HEAD
+        .ordinal());
+    skinLimb(skin, new int[] { PartType.TAIL.ordinal() },
+        JointTable.NO_PARENT);
+    return skin.build();
+  }
+
+  /**
+   * Adds the tube of a limb to a skin.
+   * 
+   * @param skin
+   *          The skin.
+   * @param chain
+   *          The joints of the limb, each the parent of the next.
+   * @param end
+   *          The joint at whose pivot the tube ends, or
+   *          {@link JointTable#NO_PARENT} to end it at the far side of the
+   *          last part of the limb.
+   */
+  private static void skinLimb(final SkinBuilder skin, final int[] chain,
+      final int end) {
+    final int count = 2 * chain.length + 1;
+    final float nodes[] = new float[4 * count];
+    final int bones[] = new int[2 * (count - 1)];
+    final float weights[] = new float[2 * (count - 1)];
+
+    float previous_radius = 0;
+    for (int i = 0; i < chain.length; ++i) {
+      final int joint = chain[i], m = joint * Matrix4.SIZE;
+      float radius = Float.MAX_VALUE;
+      for (int column = 0; column < 12; column += 4) {
+        radius = Math.min(radius, (float) Math.sqrt(PART_SHAPES[m + column]
+            * PART_SHAPES[m + column] + PART_SHAPES[m + column + 1]
+            * PART_SHAPES[m + column + 1] + PART_SHAPES[m + column + 2]
+            * PART_SHAPES[m + column + 2]));
+      }
+
+      // the pivot of the joint, halfway between it and its parent
+      final int n = 8 * i;
+      System.arraycopy(PIVOTS, joint * 3, nodes, n, 3);
+      nodes[n + 3] = (i == 0) ? radius : 0.5f * (previous_radius + radius);
+      if (i > 0) {
+        bones[4 * i - 2] = chain[i - 1];
+        bones[4 * i - 1] = joint;
+        weights[4 * i - 2] = 1;
+        weights[4 * i - 1] = 0.5f;
+      }
+      bones[4 * i] = joint;
+      bones[4 * i + 1] = PARENTS[joint];
+      weights[4 * i] = 0.5f;
+      weights[4 * i + 1] = 1;
+
+      // the center of the part, which follows its joint alone
+      System.arraycopy(PART_SHAPES, m + 12, nodes, n + 4, 3);
+      nodes[n + 7] = radius;
+      previous_radius = radius;
+    }
+
+    final int last = chain[chain.length - 1], n = 4 * (count - 1);
+    final int s = 2 * (count - 2);
+    bones[s] = last;
+    weights[s] = 1;
+    if (end == JointTable.NO_PARENT) {
+      // the far side of the last part, where its surface meets the line
+      // from the pivot through its center
+      float dx = nodes[n - 4] - nodes[n - 8];
+      float dy = nodes[n - 3] - nodes[n - 7];
+      float dz = nodes[n - 2] - nodes[n - 6];
+      final float length = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+      dx /= length;
+      dy /= length;
+      dz /= length;
+      final int m = last * Matrix4.SIZE;
+      float extent = 0;
+      for (int column = 0; column < 12; column += 4) {
+        final float dot = PART_SHAPES[m + column] * dx
+            + PART_SHAPES[m + column + 1] * dy + PART_SHAPES[m + column + 2]
+            * dz;
+        extent += dot * dot;
+      }
+      extent = (float) Math.sqrt(extent);
+      nodes[n] = nodes[n - 4] + extent * dx;
+      nodes[n + 1] = nodes[n - 3] + extent * dy;
+      nodes[n + 2] = nodes[n - 2] + extent * dz;
+      nodes[n + 3] = 0.5f * previous_radius;
+      bones[s + 1] = last;
+      weights[s + 1] = 1;
+    } else {
+      System.arraycopy(PIVOTS, end * 3, nodes, n, 3);
+      nodes[n + 3] = previous_radius;
+      bones[s + 1] = end;
+      weights[s + 1] = 0.5f;
+    }
+    skin.tube(nodes, bones, weights, SKIN_SIDES, SKIN_RINGS);
+  }
+
+  /**
+   * Returns the number of angles which were found outside of their limits,
+   * and clamped back to them, since this dog was created.
+   * 
+   * @return The number of limit violations corrected.
+   */
+  public int limitViolationCount() {
+    return this.limit_violation_count;
+  }
+
+  /**
+   * Returns the number of triangles submitted by the last call to
+   * {@link #draw(GL, Camera)}.
+   * 
+   * @return The number of triangles in the last frame.
+   */
+  public int triangleCount() {
+    return this.triangle_count;
   }
 
   /**
@@ -728,6 +886,85 @@ private float rear_paw_translatey;
     this.active_joint = joint;
   }
 
+  /**
+   * Selects the specified body part alone to be affected by rotations, and
+   * the type of joint of it to rotate, as picked with the mouse.
+   * 
+   * @param bodyPart
+   *          The body part to select.
+   * @param joint
+   *          The type of joint to rotate.
+   */
+  public void select_part(final BodyPartType bodyPart, final JointType joint) {
+    this.state_has_changed = true;
+    final int row = activeRow(bodyPart);
+    for (int i = 0; i < this.active_parts.length; ++i) {
+      this.active_parts[i] = (i == row);
+    }
+    this.active_joint = joint;
+
+    // the head, neck and tail move as a whole, whatever the type of joint
+    final String name = bodyPart.name().toLowerCase().replace('_', ' ');
+    if (ACTIVE_JOINTS[row][0] == ACTIVE_JOINTS[row][1]) {
+      System.out.println(" Picked " + name);
+    } else {
+      System.out.println(" Picked " + name + ", "
+          + joint.name().toLowerCase() + " joint");
+    }
+  }
+
+  /**
+   * Returns the part of the body whose joint moves the specified part.
+   * 
+   * @param part
+   *          The part.
+   * @return The part of the body, or null if the part has no joint of its
+   *         own, as the body does not.
+   */
+  static BodyPartType bodyPartOf(final PartType part) {
+    for (int i = 0; i < ACTIVE_JOINTS.length; ++i) {
+      for (final PartType joint : ACTIVE_JOINTS[i]) {
+        if (joint == part) {
+          return ACTIVE_BODY_PARTS[i];
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the type of joint which moves the specified part.
+   * 
+   * @param part
+   *          The part.
+   * @return The type of joint, or null if the part has no joint of its own.
+   */
+  static JointType jointOf(final PartType part) {
+    for (final PartType[] row : ACTIVE_JOINTS) {
+      for (int j = 0; j < row.length; ++j) {
+        if (row[j] == part) {
+          return JointType.values()[j];
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the row of ACTIVE_JOINTS which the specified body part moves.
+   * 
+   * @param bodyPart
+   *          The body part.
+   * @return The index of the row.
+   */
+  private static int activeRow(final BodyPartType bodyPart) {
+    int row = 0;
+    while (ACTIVE_BODY_PARTS[row] != bodyPart) {
+      row++;
+    }
+    return row;
+  }
+
   /**
    * Sets the axis around which to rotate.
    * 
@@ -797,434 +1034,526 @@ private float rear_paw_translatey;
   /**
    * Updates the current model of the dog.
    * 
+   * The meshes are uploaded once in {@link #init(GL)} and are independent of
+   * the joint angles, so this does not upload anything after a change of pose;
+   * it only recomputes the matrices of the joints which moved.
+   * 
    * @param gl
    *          The OpenGL object with which to draw the dog.
    */
   public void update(final GL gl) {
+    // in case the model is drawn before init() has been called
+    this.geometry.build(gl);
+    this.evaluate();
+  }
+
+  /**
+   * Recomputes the matrices and bounds of the parts which moved since the
+   * last evaluation.
+   * 
+   * This does not touch OpenGL, so it may be called from a thread other than
+   * the one which draws the dog, provided the two never use the same dog at
+   * the same time.
+   */
+  public void evaluate() {
+    this.evaluate(LimbSolver.deadline(LimbSolver.UNLIMITED_NANOSECONDS));
+  }
+
+  /**
+   * Recomputes the matrices and bounds of the parts which moved since the
+   * last evaluation, placing the paws on their targets until the specified
+   * deadline; a placement cut short carries on in the next evaluation.
+   * 
+   * @param deadline
+   *          The time after which the solver starts no further iteration, as
+   *          made by {@link LimbSolver#deadline(long)}.
+   */
+  public void evaluate(final long deadline) {
+    final PoseEvaluationEvent event = new PoseEvaluationEvent();
+    event.begin();
+
+    // whatever moved the joints, keep them within their limits
+    int corrected = 0;
     if (this.state_has_changed) {
-      gl.glNewList(this.dog_object, GL.GL_COMPILE);
-
-      /**
-       * You will need to rewrite the following code in order to display the
-       * dog with its legs, tail, neck and head.
-       */
-      
-      gl.glColor3f(0.05f, .58f, .78f);
-      
-      gl.glPushMatrix();
-      	// create an ellipsoid by scaling a sphere      	
-      	gl.glScalef(1.1f, 0.5f, 0.5f);
-        this.glut.glutSolidSphere(1, 36, 18);  
-      gl.glPopMatrix();
-      
-      gl.glEndList();
-      	
-      drawFrontRightLeg(gl);
-      
-      drawFrontLeftLeg(gl);	    	    	    	    	    	  
-  	    	  
-      drawRearLeftLeg(gl);
-	  
-      drawRearRightLeg(gl);
-	  
-	  gl.glNewList(this.neck, GL.GL_COMPILE);
-      
-      //neck
-	  gl.glPushMatrix();
-	    gl.glRotatef(60f, 0, 0, 1f);
-	    gl.glScalef(0.15f, 0.2f, 0.2f);
-	    gl.glTranslatef(4.5f, -4f, 0f);  
-	    this.glut.glutSolidSphere(1,36,18);
-	  gl.glPopMatrix();
-	  
-	  gl.glEndList();
-	  
-	  gl.glNewList(this.head, GL.GL_COMPILE);
-	  
-	  //head
-	  gl.glPushMatrix();
-	    gl.glTranslatef(1.35f, .5f, 0f);
-	  	this.glut.glutSolidTeapot(.4);
-	  	//this.glut.glutSolidSphere(.37,36,18);	  	
-	  gl.glPopMatrix();
-	  
-	  gl.glEndList();
-	  
-	  gl.glNewList(this.tail, GL.GL_COMPILE);
-	  
-	  //tail
-	  gl.glPushMatrix();
-	  	gl.glRotatef(-45, 0, 0, 1);
-	    gl.glScalef(.27f, .09f, .09f);    
-	  	gl.glTranslatef(-3.8f, -5.7f, 0f);
-	  	this.glut.glutSolidSphere(1,36,18);
-	  gl.glPopMatrix();
-
-      gl.glEndList();
-
-      // reset the state_has_changed flag
-      this.state_has_changed = false;
-    }      
+      corrected = this.pose.clamp();
+      this.limit_violation_count += corrected;
+    }
+
+    // recompute the matrices of the joints which moved, and their children
+    this.skeleton.evaluate();
+    this.moved_part_count = this.skeleton.evaluatedCount();
+
+    // then turn the legs whose paws are held towards their targets
+    boolean unfinished = false;
+    this.solver_iteration_count = 0;
+    for (int leg = 0; this.state_has_changed && leg < LEGS.length; ++leg) {
+      if (!this.paw_placed[leg]) {
+        continue;
+      }
+      final int s = leg * 3;
+      final boolean reached = this.solver.solve(LEGS[leg], SOLES[s],
+          SOLES[s + 1], SOLES[s + 2], this.paw_targets[s],
+          this.paw_targets[s + 1], this.paw_targets[s + 2], deadline);
+      if (this.solver.iterationCount() > 0) {
+        this.solver_iteration_count += this.solver.iterationCount();
+        this.moved_part_count += LEGS[leg].length;
+      }
+      unfinished |= !reached && this.solver.wasCutShort();
+    }
+
+    if (this.moved_part_count > 0) {
+      this.updateBounds();
+      if (event.shouldCommit()) {
+        event.parts = this.moved_part_count;
+        event.corrected = corrected;
+        event.iterations = this.solver_iteration_count;
+        event.commit();
+      }
+    }
+
+    // reset the state_has_changed flag, unless a paw is still on its way
+    this.state_has_changed = unfinished;
   }
-  
-  public void drawFrontLeftLeg(final GL gl) {
-	  
-	  gl.glNewList(this.front_left_upper, GL.GL_COMPILE);	  
-	  
-	  gl.glPushMatrix();
-      gl.glScalef(0.20f, 0.45f, 0.20f);
-		// front left
-		gl.glPushMatrix();  				
-			gl.glTranslatef(3.0f, -0.8f, -1.0f);
-			this.glut.glutSolidSphere(1, 36, 18);
-		gl.glPopMatrix();
-	  gl.glPopMatrix();
-	  
-	  gl.glEndList();
-	  
-	  gl.glNewList(this.front_left_lower, GL.GL_COMPILE);
- 
-	  gl.glPushMatrix();
-      gl.glScalef(0.11f, 0.20f, 0.11f);
-	   // front left
-	  	gl.glPushMatrix();  				
-		  gl.glTranslatef(5.5f, -4.5f, -2.0f);
-		  this.glut.glutSolidSphere(1, 36, 18);
-	    gl.glPopMatrix();
-	  gl.glPopMatrix();
-	  
-	  gl.glEndList();
-	  
-	  gl.glNewList(this.front_left_paw, GL.GL_COMPILE);
-
-	  gl.glPushMatrix();
-	    gl.glScalef(0.15f, 0.09f, 0.1f);
-	   // front left
-	  	gl.glPushMatrix();  				
-		  gl.glTranslatef(4.8f, -11.9f, -2.1f);
-		  this.glut.glutSolidSphere(1, 36, 18);
-	    gl.glPopMatrix();   
-	  gl.glPopMatrix();  
-	  
-	  gl.glEndList();
+
+  /**
+   * Recomputes the bounding sphere of each part from its model matrix, and the
+   * bounding sphere of the whole dog around the body.
+   * 
+   * The radius of each part is that of the unit sphere under the scale of its
+   * attachment, which does not change with the pose; only the centers move.
+   */
+  private void updateBounds() {
+    final float models[] = this.skeleton.modelMatrices();
+    for (final PartType part : PARTS) {
+      final int m = part.ordinal() * Matrix4.SIZE + 12;
+      final int b = part.ordinal() * 4;
+      this.part_bounds[b] = models[m];
+      this.part_bounds[b + 1] = models[m + 1];
+      this.part_bounds[b + 2] = models[m + 2];
+      this.part_bounds[b + 3] = PART_RADII[part.ordinal()];
+    }
+
+    // a sphere about the center of the body which encloses every part
+    final float x = this.part_bounds[0], y = this.part_bounds[1];
+    final float z = this.part_bounds[2];
+    float radius = 0;
+    for (int b = 0; b < this.part_bounds.length; b += 4) {
+      final float dx = this.part_bounds[b] - x;
+      final float dy = this.part_bounds[b + 1] - y;
+      final float dz = this.part_bounds[b + 2] - z;
+      radius = Math.max(radius, (float) Math.sqrt(dx * dx + dy * dy + dz * dz)
+          + this.part_bounds[b + 3]);
+    }
+    this.bound[0] = x;
+    this.bound[1] = y;
+    this.bound[2] = z;
+    this.bound[3] = radius;
   }
-  
-  public void drawFrontRightLeg(final GL gl) {
-	  
-	  gl.glNewList(this.front_right_upper, GL.GL_COMPILE);
-	  
-	  gl.glPushMatrix();
-      gl.glScalef(0.20f, 0.45f, 0.20f);
-		// Front right
-		gl.glPushMatrix();	
-			gl.glTranslatef(3.0f, -0.8f, 1.0f);
-			this.glut.glutSolidSphere(1, 36, 18);
-		gl.glPopMatrix();
-	  gl.glPopMatrix();
-	  
-	  gl.glEndList();
-	  
-	  gl.glNewList(this.front_right_lower, GL.GL_COMPILE);
-	  
-	  gl.glPushMatrix();
-      gl.glScalef(0.11f, 0.20f, 0.11f);
-		// Front right
-		gl.glPushMatrix();	
-			gl.glTranslatef(5.5f, -4.5f, 2.0f);
-			this.glut.glutSolidSphere(1, 36, 18);
-	    gl.glPopMatrix();
-	  gl.glPopMatrix();
-	  
-	  gl.glEndList();
-	  
-	  gl.glNewList(this.front_right_paw, GL.GL_COMPILE);
-	  
-	  gl.glPushMatrix();
-	    gl.glScalef(0.15f, 0.09f, 0.1f);
-		// Front right
-		gl.glPushMatrix();	
-			gl.glTranslatef(4.8f, -11.9f, 2.1f);
-			this.glut.glutSolidSphere(1, 36, 18);
-	    gl.glPopMatrix();
-	  gl.glPopMatrix();
-	  
-	  gl.glEndList();
+
+  /**
+   * Returns the bounding sphere (x, y, z, radius) of the whole dog in its own
+   * coordinate system, as of the last call to {@link #update(GL)}.
+   * 
+   * @return The bounding sphere of the dog.
+   */
+  public float[] bound() {
+    return this.bound;
   }
-  
-  public void drawRearLeftLeg(final GL gl) {
-	  
-	  gl.glNewList(this.rear_left_upper, GL.GL_COMPILE);
-	  
-	  gl.glPushMatrix();
-	    gl.glScalef(0.29f, 0.4f, 0.29f);
-	  // back left
-	  	gl.glPushMatrix();  				
-	      gl.glTranslatef(-2.5f, -0.8f, -1.0f);
-	  	  this.glut.glutSolidSphere(1, 36, 18);
-	  	gl.glPopMatrix();
-	  gl.glPopMatrix();
-	  
-	  gl.glEndList();
-	  
-	  gl.glNewList(this.rear_left_lower, GL.GL_COMPILE);
-	  
-	  gl.glPushMatrix();
-	  	gl.glScalef(0.19f, 0.4f, 0.19f);
-	  // back left
-	  	gl.glPushMatrix();  				
-	  	  gl.glTranslatef(-3.8f, -1.8f, -1.4f);
-	      this.glut.glutSolidSphere(1, 36, 18);
-	  	gl.glPopMatrix();
-	  gl.glPopMatrix();
-	  
-	  gl.glEndList();
-	  
-	  gl.glNewList(this.rear_left_paw, GL.GL_COMPILE);
-	  
-	  gl.glPushMatrix();
-	  	gl.glScalef(0.15f, 0.09f, 0.1f);
-    // back left
-	    gl.glPushMatrix();  				
-		  gl.glTranslatef(-3.8f, -11.9f, -2.9f);
-		  this.glut.glutSolidSphere(1, 36, 18);
-	    gl.glPopMatrix();
-	  gl.glPopMatrix();
-	  
-	  gl.glEndList();
+
+  /**
+   * Returns the number of parts drawn by the last call to
+   * {@link #draw(GL, Camera)}.
+   * 
+   * @return The number of parts submitted in the last frame.
+   */
+  public int submittedPartCount() {
+    return this.submitted_count;
   }
-  
-  public void drawRearRightLeg(final GL gl) {
-	  
-	  gl.glNewList(this.rear_right_upper, GL.GL_COMPILE);
-	  
-	  gl.glPushMatrix();
-	    gl.glScalef(0.29f, 0.4f, 0.29f);
-	  // back right
-	  	gl.glPushMatrix();     
-	  	  gl.glTranslatef(-2.5f, -0.8f, 1.0f);
-	  	  this.glut.glutSolidSphere(1, 36, 18);
-	  	gl.glPopMatrix();	  			
-	  gl.glPopMatrix();
-	  
-	  gl.glEndList();
-	  
-	  gl.glNewList(this.rear_right_lower, GL.GL_COMPILE);
-  
-	  gl.glPushMatrix();
-	  	gl.glScalef(0.19f, 0.4f, 0.19f);
-	  // back right
-	  	gl.glPushMatrix();     
-	  	  gl.glTranslatef(-3.8f, -1.8f, 1.4f);
-	  	  this.glut.glutSolidSphere(1, 36, 18);
-	  	gl.glPopMatrix();	 
-	  gl.glPopMatrix();
-	  
-	  gl.glEndList();
-	  
-	  gl.glNewList(this.rear_right_paw, GL.GL_COMPILE);
-
-	  gl.glPushMatrix();
-	    gl.glScalef(0.15f, 0.09f, 0.1f);
-    // back right
-	    gl.glPushMatrix();     
-		  gl.glTranslatef(-3.8f, -11.9f, 2.9f);
-		  this.glut.glutSolidSphere(1, 36, 18);
-	    gl.glPopMatrix();	 
-	  gl.glPopMatrix();
-	  
-	  gl.glEndList();
+
+  /**
+   * Returns the number of parts skipped by the last call to
+   * {@link #draw(GL, Camera)} because they were outside of the view.
+   * 
+   * @return The number of parts culled in the last frame.
+   */
+  public int culledPartCount() {
+    return this.culled_count;
   }
 
+  /**
+   * Computes the matrix which places the mesh of the specified part in the
+   * coordinate system of the dog's body.
+   * 
+   * @param part
+   *          The part whose matrix to compute.
+   * @return The model matrix of the mesh of the part.
+   */
+  private static float[] partShape(final PartType part) {
+    final float m[] = new float[Matrix4.SIZE];
+    Matrix4.identity(m);
+
+    switch (part) {
+    case BODY:
+      // create an ellipsoid by scaling a sphere
+      Matrix4.scale(m, 1.1f, 0.5f, 0.5f);
+      break;
+
+    case FRONT_LEFT_UPPER:
+      Matrix4.scale(m, 0.20f, 0.45f, 0.20f);
+      Matrix4.translate(m, 3.0f, -0.8f, -1.0f);
+      break;
+    case FRONT_LEFT_LOWER:
+      Matrix4.scale(m, 0.11f, 0.20f, 0.11f);
+      Matrix4.translate(m, 5.5f, -4.5f, -2.0f);
+      break;
+    case FRONT_LEFT_PAW:
+      Matrix4.scale(m, 0.15f, 0.09f, 0.1f);
+      Matrix4.translate(m, 4.8f, -11.9f, -2.1f);
+      break;
+
+    case FRONT_RIGHT_UPPER:
+      Matrix4.scale(m, 0.20f, 0.45f, 0.20f);
+      Matrix4.translate(m, 3.0f, -0.8f, 1.0f);
+      break;
+    case FRONT_RIGHT_LOWER:
+      Matrix4.scale(m, 0.11f, 0.20f, 0.11f);
+      Matrix4.translate(m, 5.5f, -4.5f, 2.0f);
+      break;
+    case FRONT_RIGHT_PAW:
+      Matrix4.scale(m, 0.15f, 0.09f, 0.1f);
+      Matrix4.translate(m, 4.8f, -11.9f, 2.1f);
+      break;
+
+    case REAR_LEFT_UPPER:
+      Matrix4.scale(m, 0.29f, 0.4f, 0.29f);
+      Matrix4.translate(m, -2.5f, -0.8f, -1.0f);
+      break;
+    case REAR_LEFT_LOWER:
+      Matrix4.scale(m, 0.19f, 0.4f, 0.19f);
+      Matrix4.translate(m, -3.8f, -1.8f, -1.4f);
+      break;
+    case REAR_LEFT_PAW:
+      Matrix4.scale(m, 0.15f, 0.09f, 0.1f);
+      Matrix4.translate(m, -3.8f, -11.9f, -2.9f);
+      break;
+
+    case REAR_RIGHT_UPPER:
+      Matrix4.scale(m, 0.29f, 0.4f, 0.29f);
+      Matrix4.translate(m, -2.5f, -0.8f, 1.0f);
+      break;
+    case REAR_RIGHT_LOWER:
+      Matrix4.scale(m, 0.19f, 0.4f, 0.19f);
+      Matrix4.translate(m, -3.8f, -1.8f, 1.4f);
+      break;
+    case REAR_RIGHT_PAW:
+      Matrix4.scale(m, 0.15f, 0.09f, 0.1f);
+      Matrix4.translate(m, -3.8f, -11.9f, 2.9f);
+      break;
+
+    case NECK:
+      Matrix4.rotate(m, 60f, 0, 0, 1f);
+      Matrix4.scale(m, 0.15f, 0.2f, 0.2f);
+      Matrix4.translate(m, 4.5f, -4f, 0f);
+      break;
+
+    case HEAD:
+      Matrix4.translate(m, 1.35f, .5f, 0f);
+      break;
+
+    case TAIL:
+      Matrix4.rotate(m, -45, 0, 0, 1);
+      Matrix4.scale(m, .27f, .09f, .09f);
+      Matrix4.translate(m, -3.8f, -5.7f, 0f);
+      break;
+    }
+    return m;
+  }
+
+  /**
+   * Returns the part to which the specified part is attached.
+   * 
+   * @param part
+   *          The part whose parent to find.
+   * @return The parent of the part, or null for the body.
+   */
+  private static PartType parentOf(final PartType part) {
+    switch (part) {
+    case FRONT_LEFT_UPPER:
+    case FRONT_RIGHT_UPPER:
+    case REAR_LEFT_UPPER:
+    case REAR_RIGHT_UPPER:
+    case NECK:
+    case TAIL:
+      return PartType.BODY;
+    case FRONT_LEFT_LOWER:
+      return PartType.FRONT_LEFT_UPPER;
+    case FRONT_LEFT_PAW:
+      return PartType.FRONT_LEFT_LOWER;
+    case FRONT_RIGHT_LOWER:
+      return PartType.FRONT_RIGHT_UPPER;
+    case FRONT_RIGHT_PAW:
+      return PartType.FRONT_RIGHT_LOWER;
+    case REAR_LEFT_LOWER:
+      return PartType.REAR_LEFT_UPPER;
+    case REAR_LEFT_PAW:
+      return PartType.REAR_LEFT_LOWER;
+    case REAR_RIGHT_LOWER:
+      return PartType.REAR_RIGHT_UPPER;
+    case REAR_RIGHT_PAW:
+      return PartType.REAR_RIGHT_LOWER;
+    case HEAD:
+      return PartType.NECK;
+    default:
+      return null;
+    }
+  }
+
+  /** Returns every joint of the dog to its rest position. */
   public void reset() {
-		// TODO Auto-generated method stub
-		body_anglex = 0;
-		body_angley = 0;
-		body_anglez = 0;
-		front_left_upper_anglex = 0;
-		front_left_upper_angley = 0;
-		front_left_upper_anglez = 0;
-		front_left_lower_anglex = 0;
-		front_left_lower_angley = 0;
-		front_left_lower_anglez = 0;
-		front_left_paw_anglex = 0;
-		front_left_paw_angley = 0;
-		front_left_paw_anglez = 0;
-		front_right_upper_anglex = 0;
-		front_right_upper_angley = 0;
-		front_right_upper_anglez = 0;
-		front_right_lower_anglex = 0;
-		front_right_lower_angley = 0;
-		front_right_lower_anglez = 0;
-		front_right_paw_anglex = 0;
-		front_right_paw_angley = 0;
-		front_right_paw_anglez = 0;
-		rear_left_upper_anglex = 0;
-		rear_left_upper_angley = 0;
-		rear_left_upper_anglez = 0;
-		rear_left_lower_anglex = 0;
-		rear_left_lower_angley = 0;
-		rear_left_lower_anglez = 0;
-		rear_left_paw_anglex = 0;
-		rear_left_paw_angley = 0;
-		rear_left_paw_anglez = 0;
-		rear_right_upper_anglex = 0;
-		rear_right_upper_angley = 0;
-		rear_right_upper_anglez = 0;
-		rear_right_lower_anglex = 0;
-		rear_right_lower_angley = 0;
-		rear_right_lower_anglez = 0;
-		rear_right_paw_anglex = 0;
-		rear_right_paw_angley = 0;
-		rear_right_paw_anglez = 0;
-		neck_anglex = 0;
-		neck_angley = 0;
-		neck_anglez = 0;
-		head_anglex = 0;
-		head_angley = 0;
-		head_anglez = 0;
-		tail_anglex = 0;
-		tail_angley = 0;
-		tail_anglez = 0;
-		rear_upper_translatex = (float) 0;
-		rear_upper_translatey = (float) 0;
-		rear_lower_translatex = (float) 0;
-		rear_lower_translatey = (float) 0;
-		front_upper_translatex = (float) 0;
-		front_upper_translatey = (float) 0;
-		front_lower_translatex = (float) 0;
-		front_lower_translatey = (float) 0;
-		front_paw_translatex = (float) 0;
-		front_paw_translatey = (float) 0;
-		rear_paw_translatex = 0;
-		rear_paw_translatey = 0;
-		head_translatex = (float) 0;
-		head_translatey = (float) 0;
+    this.state_has_changed = true;
+    this.animation.stop();
+    this.clip = null;
+    this.pose.reset();
   }
 
+  /**
+   * Sets the angle of a joint in a keyframe pose.
+   * 
+   * @param keyframe
+   *          The angles of every joint in the pose.
+   * @param part
+   *          The part moved by the joint.
+   * @param axis
+   *          The axis of rotation.
+   * @param degrees
+   *          The angle in degrees.
+   */
+  private static void setAngle(final float[] keyframe, final PartType part,
+      final AxisType axis, final float degrees) {
+    keyframe[part.ordinal() * JointTable.AXES + axis.ordinal()] = degrees;
+  }
+
+  /**
+   * Moves the dog smoothly into the next of its five tricks: sit, roll over,
+   * shake hands, beg and jump; or, if it has been given a library of clips,
+   * plays the next clip of the library.
+   */
   public void test() {
-		// TODO Auto-generated method stub
-		reset();
-		if (command % 5 == 0) { // sit
-			System.out.println("sit");
-			body_anglez = 40;
-			rear_left_upper_anglez = 65;
-			rear_left_lower_anglez = -60;
-			rear_left_paw_anglez = 10;
-			rear_right_upper_anglez = 65;
-			rear_upper_translatex = (float) 0.1;
-			rear_upper_translatey = (float) 0.35;
-			rear_lower_translatex = (float) 1.35;
-			rear_right_lower_anglez = -60;
-			rear_right_paw_anglez = 10;
-			neck_anglez = 30;
-			head_translatex = (float) -0.2;
-			head_translatey = (float) 0.5;
-			tail_anglez = 40;
-		} else if (command % 5 == 1) { // roll over
-			System.out.println("roll over");
-			body_anglez = 180;
-			front_left_upper_anglez = 150;
-			front_left_lower_anglez = 210;
-			front_left_paw_anglez = 180;
-			front_right_upper_anglez = 150;
-			front_right_lower_anglez = 210;
-			front_right_paw_anglez = 180;
-			rear_left_upper_anglez = 180;
-			rear_left_lower_anglez = 200;
-			rear_left_paw_anglez = 180;
-			rear_right_upper_anglez = 180;
-			rear_right_lower_anglez = 210;
-			rear_right_paw_anglez = 185;
-			neck_anglez = 180;
-			head_anglez = 170;
-			head_anglex = -10;
-			head_angley = -12;
-			tail_anglez = 180;
-			rear_upper_translatex = (float) 0;
-			rear_upper_translatey = (float) 0;
-			rear_lower_translatex = (float) -0.2;
-			rear_lower_translatey = (float) 0.3;
-			front_upper_translatex = (float) 0.2;
-			front_upper_translatey = (float) 0.3;
-			front_lower_translatex = (float) -0.52;
-			front_lower_translatey = (float) -0.2;
-			front_paw_translatex = (float) -0.15;
-			front_paw_translatey = (float) 0;
-			rear_paw_translatex = (float) -0.15;
-			rear_paw_translatey = (float) 0;
-			head_translatex = (float) 0;
-			head_translatey = (float) 0;
-		} else if (command % 5 == 2) { // shake hands
-			System.out.println("shake hands");
-			body_anglez = 40;
-			front_right_upper_anglez = 45;
-			front_right_lower_anglez = 45;
-			front_right_paw_anglez = 45;
-			rear_left_upper_anglez = 65;
-			rear_left_lower_anglez = -60;
-			rear_left_paw_anglez = 10;
-			rear_right_upper_anglez = 65;
-			rear_upper_translatex = (float) 0.1;
-			rear_upper_translatey = (float) 0.35;
-			rear_lower_translatex = (float) 1.35;
-			rear_right_lower_anglez = -60;
-			rear_right_paw_anglez = 10;
-			neck_anglez = 30;
-			head_translatex = (float) -0.2;
-			head_translatey = (float) 0.5;
-			tail_anglez = 40;
-		} else if (command % 5 == 3) { // beg
-			System.out.println("beg");
-			body_anglez = 60;
-			front_left_upper_anglez = 60;
-			front_left_lower_anglez = 58;
-			front_left_paw_anglez = -40;
-			front_right_upper_anglez = 60;
-			front_right_lower_anglez = 58;
-			front_right_paw_anglez = -40;
-			rear_right_upper_anglez = 65;
-			rear_right_lower_anglez = -60;
-			rear_right_paw_anglez = 10;
-			neck_anglez = 50;
-			head_anglez = 20;	
-			head_translatex = (float) -0.1;
-			head_translatey = (float) 0.5;
-			rear_left_upper_anglez = 65;
-			rear_left_lower_anglez = -60;
-			rear_left_paw_anglez = 10;	
-			rear_upper_translatex = (float) 0.1;
-			rear_upper_translatey = (float) 0.30;
-			rear_lower_translatex = (float) 1.35;
-			front_paw_translatex = (float) 0.4;
-			front_paw_translatey = (float) 1.8;
-			tail_anglez = 60;
-		} else if (command % 5 == 4) {
-			System.out.println("jump");
-			front_left_upper_anglez = 60;
-			front_left_lower_anglez = 90;
-			front_right_upper_anglez = 60;
-			front_right_lower_anglez = 90;
-			rear_left_upper_anglez = -70;
-			rear_left_lower_anglez = -67;
-			rear_left_paw_anglez = 10;
-			rear_right_upper_anglez = -70;
-			rear_right_lower_anglez = -67;
-			rear_right_paw_anglez = 10;
-			tail_anglez = 18;
-			rear_upper_translatex = (float) 0.5;
-			rear_upper_translatey = (float) -0.5;
-			rear_lower_translatex = (float) 0.5;
-			rear_lower_translatey = (float) -0.5;
-			front_upper_translatex = (float) -0.2;
-			front_upper_translatey = (float) -0.5;
-			front_lower_translatex = (float) -0.85;
-			front_lower_translatey = (float) -0.5;
-			front_paw_translatex = (float) 0.9;
-			front_paw_translatey = (float) 0.8;
-			rear_paw_translatex = (float) -1.1;
-			rear_paw_translatey = (float) 0.9;
-		}					
-		command++;
-	}
+    if (this.clips != null && this.clips.clipCount() > 0) {
+      final PoseClip next = this.clips.clip(this.command
+          % this.clips.clipCount());
+      System.out.println(next.name());
+      this.play(next);
+    } else {
+      final TrickType trick = TrickType.values()[this.command
+          % TRICK_POSES.length];
+      System.out.println(trick.label);
+      this.perform(trick);
+    }
+    this.command++;
+  }
+
+  /**
+   * Sets the library of clips which test() plays in turn instead of the
+   * built-in tricks.
+   * 
+   * @param clips
+   *          The library, or null to perform the built-in tricks.
+   * @throws IllegalArgumentException
+   *           If the clips of the library pose a different number of joints
+   *           than the dog has.
+   */
+  public void setClipLibrary(final ClipLibrary clips) {
+    if (clips != null && clips.clipCount() > 0
+        && clips.jointCount() != PARTS.length) {
+      throw new IllegalArgumentException("the clips have "
+          + clips.jointCount() + " joints, but the dog has " + PARTS.length);
+    }
+    this.clips = clips;
+  }
+
+  /**
+   * Returns the built-in tricks as clips of one frame each, in the order in
+   * which the dog performs them, so that they can be written to a
+   * {@link ClipLibrary}.
+   * 
+   * @return The clips of the tricks.
+   */
+  static PoseClip[] trickClips() {
+    final PoseClip clips[] = new PoseClip[TRICK_POSES.length];
+    for (final TrickType trick : TrickType.values()) {
+      clips[trick.ordinal()] = PoseClip.of(trick.label, TRICK_SECONDS,
+          TRICK_POSES[trick.ordinal()]);
+    }
+    return clips;
+  }
+
+  /**
+   * Moves the dog smoothly through every frame of a clip in turn.
+   * 
+   * @param clip
+   *          The clip to play, which must have a frame for every joint of
+   *          the dog.
+   */
+  public void play(final PoseClip clip) {
+    if (clip.jointCount() != PARTS.length) {
+      throw new IllegalArgumentException("clip " + clip.name() + " has "
+          + clip.jointCount() + " joints, but the dog has " + PARTS.length);
+    }
+    this.clip = clip;
+    this.clip_frame = 0;
+    this.startClipFrame();
+  }
+
+  /** Starts the transition into the next frame of the clip being played. */
+  private void startClipFrame() {
+    this.state_has_changed = true;
+    this.clip.frame(this.clip_frame, this.clip_keyframe);
+    this.animation.start(this.clip_keyframe, this.clip.secondsPerFrame(),
+        this.clip.name());
+    this.clip_frame++;
+  }
+
+  /**
+   * Moves the dog smoothly into the specified trick.
+   * 
+   * @param trick
+   *          The trick to perform.
+   */
+  public void perform(final TrickType trick) {
+    this.state_has_changed = true;
+    this.clip = null;
+    this.animation.start(TRICK_POSES[trick.ordinal()], TRICK_SECONDS,
+        trick.label);
+  }
+
+  /**
+   * Advances the transition into the current trick, if any, moving on to the
+   * next frame of the clip being played once a frame is reached.
+   * 
+   * @param seconds
+   *          The time elapsed since the last call, in seconds.
+   */
+  public void advance(final float seconds) {
+    if (this.animation.isPlaying()) {
+      this.state_has_changed = true;
+      this.animation.advance(seconds);
+      if (!this.animation.isPlaying() && this.clip != null) {
+        if (this.clip_frame < this.clip.frameCount()) {
+          this.startClipFrame();
+        } else {
+          this.clip = null;
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns whether the pose or the selection of the dog has changed since
+   * it was last evaluated.
+   * 
+   * @return Whether the dog has changed.
+   */
+  public boolean hasChanged() {
+    return this.state_has_changed;
+  }
+
+  /**
+   * Returns whether the dog is moving into a trick.
+   * 
+   * @return Whether a transition is in progress.
+   */
+  public boolean isAnimating() {
+    return this.animation.isPlaying();
+  }
+
+  /**
+   * Builds the keyframe pose of the specified trick.
+   * 
+   * The angles of each joint are relative to its parent, so, for example, the
+   * legs of the sitting dog are rotated back by the tilt of its body.
+   * 
+   * @param trick
+   *          The trick whose pose to build.
+   * @return The angles of every joint in the pose of the trick.
+   */
+  private static float[] trickPose(final TrickType trick) {
+    final float k[] = new float[PartType.values().length * JointTable.AXES];
+    switch (trick) {
+    case SIT:
+      setAngle(k, PartType.BODY, AxisType.Z, 40);
+      setAngle(k, PartType.FRONT_LEFT_UPPER, AxisType.Z, -40);
+      setAngle(k, PartType.FRONT_RIGHT_UPPER, AxisType.Z, -40);
+      setAngle(k, PartType.REAR_LEFT_UPPER, AxisType.Z, 25);
+      setAngle(k, PartType.REAR_LEFT_LOWER, AxisType.Z, -125);
+      setAngle(k, PartType.REAR_LEFT_PAW, AxisType.Z, 70);
+      setAngle(k, PartType.REAR_RIGHT_UPPER, AxisType.Z, 25);
+      setAngle(k, PartType.REAR_RIGHT_LOWER, AxisType.Z, -125);
+      setAngle(k, PartType.REAR_RIGHT_PAW, AxisType.Z, 70);
+      setAngle(k, PartType.NECK, AxisType.Z, -10);
+      setAngle(k, PartType.HEAD, AxisType.Z, -30);
+      break;
+    case ROLL_OVER:
+      setAngle(k, PartType.BODY, AxisType.Z, 180);
+      setAngle(k, PartType.FRONT_LEFT_UPPER, AxisType.Z, -30);
+      setAngle(k, PartType.FRONT_LEFT_LOWER, AxisType.Z, 60);
+      setAngle(k, PartType.FRONT_LEFT_PAW, AxisType.Z, -30);
+      setAngle(k, PartType.FRONT_RIGHT_UPPER, AxisType.Z, -30);
+      setAngle(k, PartType.FRONT_RIGHT_LOWER, AxisType.Z, 60);
+      setAngle(k, PartType.FRONT_RIGHT_PAW, AxisType.Z, -30);
+      setAngle(k, PartType.REAR_LEFT_LOWER, AxisType.Z, 20);
+      setAngle(k, PartType.REAR_LEFT_PAW, AxisType.Z, -20);
+      setAngle(k, PartType.REAR_RIGHT_LOWER, AxisType.Z, 30);
+      setAngle(k, PartType.REAR_RIGHT_PAW, AxisType.Z, -25);
+      setAngle(k, PartType.HEAD, AxisType.Z, -10);
+      setAngle(k, PartType.HEAD, AxisType.X, -10);
+      setAngle(k, PartType.HEAD, AxisType.Y, -12);
+      break;
+    case SHAKE_HANDS:
+      setAngle(k, PartType.BODY, AxisType.Z, 40);
+      setAngle(k, PartType.FRONT_LEFT_UPPER, AxisType.Z, -40);
+      setAngle(k, PartType.FRONT_RIGHT_UPPER, AxisType.Z, 5);
+      setAngle(k, PartType.REAR_LEFT_UPPER, AxisType.Z, 25);
+      setAngle(k, PartType.REAR_LEFT_LOWER, AxisType.Z, -125);
+      setAngle(k, PartType.REAR_LEFT_PAW, AxisType.Z, 70);
+      setAngle(k, PartType.REAR_RIGHT_UPPER, AxisType.Z, 25);
+      setAngle(k, PartType.REAR_RIGHT_LOWER, AxisType.Z, -125);
+      setAngle(k, PartType.REAR_RIGHT_PAW, AxisType.Z, 70);
+      setAngle(k, PartType.NECK, AxisType.Z, -10);
+      setAngle(k, PartType.HEAD, AxisType.Z, -30);
+      break;
+    case BEG:
+      setAngle(k, PartType.BODY, AxisType.Z, 60);
+      setAngle(k, PartType.FRONT_LEFT_LOWER, AxisType.Z, -2);
+      setAngle(k, PartType.FRONT_LEFT_PAW, AxisType.Z, -98);
+      setAngle(k, PartType.FRONT_RIGHT_LOWER, AxisType.Z, -2);
+      setAngle(k, PartType.FRONT_RIGHT_PAW, AxisType.Z, -98);
+      setAngle(k, PartType.REAR_LEFT_UPPER, AxisType.Z, 5);
+      setAngle(k, PartType.REAR_LEFT_LOWER, AxisType.Z, -125);
+      setAngle(k, PartType.REAR_LEFT_PAW, AxisType.Z, 70);
+      setAngle(k, PartType.REAR_RIGHT_UPPER, AxisType.Z, 5);
+      setAngle(k, PartType.REAR_RIGHT_LOWER, AxisType.Z, -125);
+      setAngle(k, PartType.REAR_RIGHT_PAW, AxisType.Z, 70);
+      setAngle(k, PartType.NECK, AxisType.Z, -10);
+      setAngle(k, PartType.HEAD, AxisType.Z, -30);
+      break;
+    case JUMP:
+      setAngle(k, PartType.FRONT_LEFT_UPPER, AxisType.Z, 60);
+      setAngle(k, PartType.FRONT_LEFT_LOWER, AxisType.Z, 30);
+      setAngle(k, PartType.FRONT_LEFT_PAW, AxisType.Z, -90);
+      setAngle(k, PartType.FRONT_RIGHT_UPPER, AxisType.Z, 60);
+      setAngle(k, PartType.FRONT_RIGHT_LOWER, AxisType.Z, 30);
+      setAngle(k, PartType.FRONT_RIGHT_PAW, AxisType.Z, -90);
+      setAngle(k, PartType.REAR_LEFT_UPPER, AxisType.Z, -70);
+      setAngle(k, PartType.REAR_LEFT_LOWER, AxisType.Z, 3);
+      setAngle(k, PartType.REAR_LEFT_PAW, AxisType.Z, 77);
+      setAngle(k, PartType.REAR_RIGHT_UPPER, AxisType.Z, -70);
+      setAngle(k, PartType.REAR_RIGHT_LOWER, AxisType.Z, 3);
+      setAngle(k, PartType.REAR_RIGHT_PAW, AxisType.Z, 77);
+      setAngle(k, PartType.TAIL, AxisType.Z, 18);
+      break;
+    }
+    return k;
+  }
 
 }
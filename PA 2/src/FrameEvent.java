@@ -0,0 +1,58 @@
+/**
+ * FrameEvent.java - a flight recorder event for each frame drawn
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - recorded the state changes made and saved by sorting the parts
+ *
+ * - created so that frame hitches show up in flight recordings
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The drawing of one frame by {@link PA2}, from the start of the drawing to
+ * the end of the swap, so that slow frames can be lined up with garbage
+ * collections and safepoints in the same recording.
+ */
+@Name("creature.Frame")
+@Label("Frame")
+@Category({ "Creature", "Rendering" })
+@Description("Drawing and swapping one frame")
+@StackTrace(false)
+public class FrameEvent extends jdk.jfr.Event {
+
+  /** The number of dogs drawn. */
+  @Label("Dogs")
+  int dogs;
+
+  /** The number of parts submitted to OpenGL. */
+  @Label("Parts Submitted")
+  int submitted_parts;
+
+  /** The number of parts skipped because they were out of view. */
+  @Label("Parts Culled")
+  int culled_parts;
+
+  /** The number of triangles drawn. */
+  @Label("Triangles")
+  int triangles;
+
+  /** The number of programs, colours and meshes set to draw the parts. */
+  @Label("State Changes")
+  int state_changes;
+
+  /** The number of state changes saved by sorting the parts. */
+  @Label("State Changes Saved")
+  int saved_state_changes;
+
+  /** Whether the frame showed the latest step of the simulation in full. */
+  @Label("Settled")
+  boolean settled;
+}
@@ -0,0 +1,191 @@
+/**
+ * FrameTimings.java - how long each phase of a frame takes
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - timed picking a click of the mouse
+ *
+ * - created to see where the time of a frame goes
+ */
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+
+/**
+ * The durations of the phases of each frame drawn by {@link PA2}, and the
+ * latency from input to the frame which shows it, each kept in a
+ * {@link Histogram}.
+ *
+ * Only the rendering thread records timings. They can be summarized as lines
+ * of text for the overlay, or written to a CSV or JSON file.
+ */
+public class FrameTimings {
+
+  /** The phases timed. */
+  public enum Phase {
+    /** Picking the part under a click of the mouse, in the frames with one. */
+    PICK("pick"),
+    /** Taking the latest frame of the simulation. */
+    UPDATE("update"),
+    /** Drawing the dogs. */
+    DRAW("draw"),
+    /** Swapping the buffers. */
+    SWAP("swap"),
+    /** The whole frame, from the start of drawing to the end of the swap. */
+    FRAME("frame"),
+    /**
+     * From a key press or mouse drag to the end of the swap of the first
+     * frame which shows it.
+     */
+    INPUT_LATENCY("input");
+
+    /** The name shown for this phase. */
+    final String label;
+
+    /**
+     * Instantiates a phase.
+     *
+     * @param label
+     *          The name shown for this phase.
+     */
+    private Phase(final String label) {
+      this.label = label;
+    }
+  }
+
+  /** The number of nanoseconds in a millisecond. */
+  private static final double NANOSECONDS_PER_MILLISECOND = 1e6;
+
+  /** The histogram of each phase, by ordinal. */
+  private final Histogram histograms[] = new Histogram[Phase.values().length];
+
+  /** Instantiates empty timings. */
+  public FrameTimings() {
+    for (int i = 0; i < this.histograms.length; ++i) {
+      this.histograms[i] = new Histogram();
+    }
+  }
+
+  /**
+   * Records the duration of a phase.
+   *
+   * @param phase
+   *          The phase.
+   * @param nanoseconds
+   *          How long it took.
+   */
+  public void record(final Phase phase, final long nanoseconds) {
+    this.histograms[phase.ordinal()].record(nanoseconds);
+  }
+
+  /**
+   * Returns the histogram of a phase.
+   *
+   * @param phase
+   *          The phase.
+   * @return The durations of the phase.
+   */
+  public Histogram histogram(final Phase phase) {
+    return this.histograms[phase.ordinal()];
+  }
+
+  /**
+   * Writes one line of text per phase, giving its 50th and 99th percentiles
+   * and its maximum in milliseconds, for example
+   * {@code "draw   p50 0.41 p99 0.87 max 2.10 ms"}.
+   *
+   * @param lines
+   *          The array into which to write the lines, one per phase.
+   */
+  public void summarize(final String[] lines) {
+    for (final Phase phase : Phase.values()) {
+      final Histogram histogram = this.histograms[phase.ordinal()];
+      lines[phase.ordinal()] = String.format(
+          "%-6s p50 %.2f p99 %.2f max %.2f ms", phase.label,
+          milliseconds(histogram.percentile(0.5)),
+          milliseconds(histogram.percentile(0.99)),
+          milliseconds(histogram.max()));
+    }
+  }
+
+  /**
+   * Writes the timings to a file, as JSON if its name ends in {@code .json}
+   * and as CSV otherwise.
+   *
+   * @param path
+   *          The path of the file.
+   * @throws IOException
+   *           If the file cannot be written.
+   */
+  public void write(final String path) throws IOException {
+    final PrintWriter out = new PrintWriter(new FileWriter(path));
+    try {
+      if (path.endsWith(".json")) {
+        this.writeJson(out);
+      } else {
+        this.writeCsv(out);
+      }
+    } finally {
+      out.close();
+    }
+    if (out.checkError()) {
+      throw new IOException("could not write the timings to " + path);
+    }
+  }
+
+  /**
+   * Writes one line per phase of comma-separated values in milliseconds.
+   *
+   * @param out
+   *          The destination.
+   */
+  private void writeCsv(final PrintWriter out) {
+    out.println("phase,count,mean_ms,p50_ms,p99_ms,max_ms");
+    for (final Phase phase : Phase.values()) {
+      final Histogram histogram = this.histograms[phase.ordinal()];
+      out.printf(Locale.ROOT, "%s,%d,%.4f,%.4f,%.4f,%.4f%n", phase.label,
+          histogram.count(), histogram.mean() / NANOSECONDS_PER_MILLISECOND,
+          milliseconds(histogram.percentile(0.5)),
+          milliseconds(histogram.percentile(0.99)),
+          milliseconds(histogram.max()));
+    }
+  }
+
+  /**
+   * Writes one JSON object with a member per phase, in milliseconds.
+   *
+   * @param out
+   *          The destination.
+   */
+  private void writeJson(final PrintWriter out) {
+    out.println("{");
+    final Phase phases[] = Phase.values();
+    for (final Phase phase : phases) {
+      final Histogram histogram = this.histograms[phase.ordinal()];
+      out.printf(Locale.ROOT, "  \"%s\": { \"count\": %d, \"mean_ms\": %.4f, "
+          + "\"p50_ms\": %.4f, \"p99_ms\": %.4f, \"max_ms\": %.4f }%s%n",
+          phase.label, histogram.count(), histogram.mean()
+              / NANOSECONDS_PER_MILLISECOND,
+          milliseconds(histogram.percentile(0.5)),
+          milliseconds(histogram.percentile(0.99)),
+          milliseconds(histogram.max()),
+          (phase.ordinal() < phases.length - 1) ? "," : "");
+    }
+    out.println("}");
+  }
+
+  /**
+   * Converts nanoseconds to milliseconds.
+   *
+   * @param nanoseconds
+   *          The duration in nanoseconds.
+   * @return The duration in milliseconds.
+   */
+  private static double milliseconds(final long nanoseconds) {
+    return nanoseconds / NANOSECONDS_PER_MILLISECOND;
+  }
+}
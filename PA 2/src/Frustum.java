@@ -0,0 +1,96 @@
+/**
+ * Frustum.java - the six clipping planes of a perspective camera
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - created so that parts outside the view are not drawn
+ */
+
+/**
+ * The viewing volume of a camera as six planes in world space, extracted from
+ * the product of the projection and view matrices.
+ *
+ * Each plane is stored as {@code (a, b, c, d)} with a unit normal pointing
+ * into the volume, so a point {@code p} is inside the plane when
+ * {@code a * x + b * y + c * z + d >= 0} and that value is its distance from
+ * the plane.
+ */
+public class Frustum {
+
+  /** The number of planes bounding the volume. */
+  public static final int PLANES = 6;
+
+  /** The planes (a, b, c, d), 4 floats per plane. */
+  private final float planes[] = new float[PLANES * 4];
+
+  /**
+   * Sets the planes of this frustum from a clip matrix.
+   *
+   * @param clip
+   *          The projection matrix times the view matrix, column-major.
+   */
+  public void set(final float[] clip) {
+    // the rows of the clip matrix; row i is clip[i], clip[4 + i], ...
+    for (int i = 0; i < 3; ++i) {
+      // left and right, bottom and top, near and far: w + row i, w - row i
+      this.setPlane(2 * i, clip[3] + clip[i], clip[7] + clip[4 + i], clip[11]
+          + clip[8 + i], clip[15] + clip[12 + i]);
+      this.setPlane(2 * i + 1, clip[3] - clip[i], clip[7] - clip[4 + i],
+          clip[11] - clip[8 + i], clip[15] - clip[12 + i]);
+    }
+  }
+
+  /**
+   * Stores a plane, scaled so that its normal has unit length.
+   *
+   * @param plane
+   *          The index of the plane.
+   * @param a
+   *          The x component of the normal.
+   * @param b
+   *          The y component of the normal.
+   * @param c
+   *          The z component of the normal.
+   * @param d
+   *          The offset.
+   */
+  private void setPlane(final int plane, final float a, final float b,
+      final float c, final float d) {
+    final float length = (float) Math.sqrt(a * a + b * b + c * c);
+    final int index = plane * 4;
+    this.planes[index] = a / length;
+    this.planes[index + 1] = b / length;
+    this.planes[index + 2] = c / length;
+    this.planes[index + 3] = d / length;
+  }
+
+  /**
+   * Returns whether any part of a sphere may be inside this frustum.
+   *
+   * This is conservative: a sphere near a corner of the frustum may be
+   * reported as visible although it is not, but a visible sphere is never
+   * reported as invisible.
+   *
+   * @param x
+   *          The x coordinate of the center of the sphere in world space.
+   * @param y
+   *          The y coordinate of the center of the sphere in world space.
+   * @param z
+   *          The z coordinate of the center of the sphere in world space.
+   * @param radius
+   *          The radius of the sphere.
+   * @return Whether the sphere may be visible.
+   */
+  public boolean intersectsSphere(final float x, final float y,
+      final float z, final float radius) {
+    for (int index = 0; index < PLANES * 4; index += 4) {
+      if (this.planes[index] * x + this.planes[index + 1] * y
+          + this.planes[index + 2] * z + this.planes[index + 3] < -radius) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
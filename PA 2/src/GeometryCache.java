@@ -0,0 +1,165 @@
+/**
+ * GeometryCache.java - uploads the meshes shared by the body parts exactly once
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - added the skin of the dog, which every dog deforms on its own
+ *
+ * - emitted a flight recorder event for each upload
+ *
+ * - exposed the number of levels of each mesh for crowds of dogs
+ *
+ * - added several tessellation levels of the sphere
+ *
+ * - replaced the sixteen per-part display lists with shared meshes
+ *
+ * - created so that pose changes no longer re-tessellate the dog model
+ */
+
+import javax.media.opengl.GL;
+
+import com.sun.opengl.util.GLUT;
+
+/**
+ * The meshes from which every part of the dog is drawn, uploaded once when the
+ * OpenGL context is initialized and then reused for every frame.
+ *
+ * Each ellipsoidal part is the same unit sphere drawn under its own model
+ * matrix, so the sphere is tessellated and uploaded only once no matter how
+ * many parts (or dogs) use it. Changing a joint angle only changes the matrix
+ * applied before a mesh is drawn, never the mesh itself.
+ *
+ * The sphere is tessellated at each of the levels of detail listed in
+ * {@link LevelOfDetail}; the teapot has a single level. The continuous skin
+ * which replaces the spheres when the dogs are drawn skinned only has its
+ * triangles uploaded here; the vertices of each dog are streamed as it is
+ * drawn.
+ */
+public class GeometryCache {
+
+  /** The shapes from which the parts are built. */
+  enum MeshType {
+    SPHERE, TEAPOT
+  }
+
+  /** The size of the teapot used as the head. */
+  public static final double TEAPOT_SIZE = 0.4;
+
+  /** The sphere at each level of detail, finest first. */
+  private final Mesh spheres[];
+  /** The teapot. */
+  private final Mesh teapot;
+  /** The skin over every part drawn from the sphere. */
+  private final SkinnedMesh skin;
+  /** Whether the meshes have been uploaded to the current context. */
+  private boolean built = false;
+  /** The number of times a mesh has been uploaded. */
+  private int rebuild_count = 0;
+
+  /**
+   * Instantiates this cache and tessellates its meshes.
+   *
+   * @param glut
+   *          The OpenGL utility toolkit object which draws the teapot.
+   */
+  public GeometryCache(final GLUT glut) {
+    this.spheres = new Mesh[LevelOfDetail.levelCount()];
+    for (int level = 0; level < this.spheres.length; ++level) {
+      final int size[] = LevelOfDetail.SPHERE_LEVELS[level];
+      this.spheres[level] = new SphereMesh(size[0], size[1]);
+    }
+    this.teapot = new TeapotMesh(glut, TEAPOT_SIZE);
+    this.skin = Dog.buildSkin();
+  }
+
+  /**
+   * Uploads every mesh, unless they have already been uploaded to the current
+   * OpenGL context.
+   *
+   * @param gl
+   *          The OpenGL object with which to upload the meshes.
+   */
+  public void build(final GL gl) {
+    if (this.built) {
+      return;
+    }
+
+    final GeometryUploadEvent event = new GeometryUploadEvent();
+    event.begin();
+    for (final Mesh sphere : this.spheres) {
+      sphere.upload(gl);
+      this.rebuild_count++;
+    }
+    this.teapot.upload(gl);
+    this.rebuild_count++;
+    this.skin.upload(gl);
+    this.rebuild_count++;
+    this.built = true;
+    if (event.shouldCommit()) {
+      event.meshes = this.spheres.length + 2;
+      event.commit();
+    }
+  }
+
+  /**
+   * Returns the mesh of the specified type at the specified level of detail.
+   *
+   * @param type
+   *          The type of mesh.
+   * @param level
+   *          The level of detail, where 0 is the finest; this is ignored for
+   *          meshes with a single level.
+   * @return The mesh of the specified type.
+   */
+  public Mesh mesh(final MeshType type, final int level) {
+    if (type == MeshType.TEAPOT) {
+      return this.teapot;
+    }
+    return this.spheres[level];
+  }
+
+  /**
+   * Returns the continuous skin which covers every part drawn from the
+   * sphere.
+   *
+   * @return The skin.
+   */
+  public SkinnedMesh skin() {
+    return this.skin;
+  }
+
+  /**
+   * Returns the number of levels of detail of the specified type of mesh.
+   *
+   * @param type
+   *          The type of mesh.
+   * @return The number of levels of detail, at least one.
+   */
+  public int levelCount(final MeshType type) {
+    return (type == MeshType.TEAPOT) ? 1 : this.spheres.length;
+  }
+
+  /**
+   * Marks the meshes as invalid, for example because the OpenGL context has
+   * been recreated, so that the next call to {@link #build(GL)} uploads them
+   * again.
+   */
+  public void invalidate() {
+    this.built = false;
+  }
+
+  /**
+   * Returns the number of mesh uploads performed so far.
+   *
+   * This is incremented once per mesh when the cache is first built and never
+   * again unless the cache is invalidated, so it remains constant while the
+   * pose of the model is being changed.
+   *
+   * @return The number of meshes uploaded since this cache was created.
+   */
+  public int rebuildCount() {
+    return this.rebuild_count;
+  }
+}
@@ -0,0 +1,29 @@
+/**
+ * GeometryUploadEvent.java - a flight recorder event for each geometry upload
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - created so that rebuilt display lists and buffers show up in recordings
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The upload of the meshes of a {@link GeometryCache} into display lists and
+ * buffers, which should only happen when an OpenGL context is created.
+ */
+@Name("creature.GeometryUpload")
+@Label("Geometry Upload")
+@Category({ "Creature", "Rendering" })
+@Description("Compiling display lists and filling buffers with the meshes")
+public class GeometryUploadEvent extends jdk.jfr.Event {
+
+  /** The number of meshes uploaded. */
+  @Label("Meshes")
+  int meshes;
+}
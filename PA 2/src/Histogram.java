@@ -0,0 +1,149 @@
+/**
+ * Histogram.java - a fixed-size histogram of durations
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - created for the timing of each frame
+ */
+
+import java.util.Arrays;
+
+/**
+ * A histogram of durations in nanoseconds which never allocates after it is
+ * created, so recording into it costs a few arithmetic operations whatever
+ * the number of values.
+ *
+ * Values are counted in buckets whose width grows with the value: each power
+ * of two is split into {@value #SUB_BUCKETS} equal buckets, so every
+ * percentile is accurate to within about 3%, from one nanosecond to over a
+ * minute. Only one thread may record into a histogram; another may read it,
+ * but then sees the counts as of some recent moment.
+ */
+public class Histogram {
+
+  /** The number of buckets into which each power of two is split. */
+  public static final int SUB_BUCKETS = 32;
+  /** The base two logarithm of {@link #SUB_BUCKETS}. */
+  private static final int SUB_BUCKET_BITS = 5;
+  /** The number of powers of two above the first {@value #SUB_BUCKETS}. */
+  private static final int POWERS = 36;
+
+  /** The number of values in each bucket. */
+  private final long counts[] = new long[(POWERS + 1) * SUB_BUCKETS];
+  /** The number of values recorded. */
+  private long count = 0;
+  /** The sum of the values recorded. */
+  private long sum = 0;
+  /** The largest value recorded. */
+  private long max = 0;
+
+  /**
+   * Records a value; negative values count as zero and values beyond the
+   * last bucket count in the last bucket, though the maximum stays exact.
+   *
+   * @param nanoseconds
+   *          The value to record.
+   */
+  public void record(final long nanoseconds) {
+    final long value = Math.max(0, nanoseconds);
+    this.counts[Math.min(bucketOf(value), this.counts.length - 1)]++;
+    this.count++;
+    this.sum += value;
+    if (value > this.max) {
+      this.max = value;
+    }
+  }
+
+  /**
+   * Returns the bucket in which a value is counted.
+   *
+   * @param value
+   *          The value, which must not be negative.
+   * @return The index of its bucket.
+   */
+  private static int bucketOf(final long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+  }
+
+  /**
+   * Returns the largest value counted in a bucket.
+   *
+   * @param bucket
+   *          The index of the bucket.
+   * @return The upper bound of the bucket.
+   */
+  private static long upperBoundOf(final int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    final int shift = bucket / SUB_BUCKETS - 1;
+    final long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+    return lower + (1L << shift) - 1;
+  }
+
+  /**
+   * Returns the value below which the specified fraction of the recorded
+   * values lie, rounded up to the end of its bucket and never more than the
+   * largest value recorded.
+   *
+   * @param fraction
+   *          The fraction, from 0 to 1; for example 0.99 for the 99th
+   *          percentile.
+   * @return The percentile, or 0 if nothing has been recorded.
+   */
+  public long percentile(final double fraction) {
+    if (this.count == 0) {
+      return 0;
+    }
+    final long rank = Math.max(1, (long) Math.ceil(fraction * this.count));
+    long seen = 0;
+    for (int bucket = 0; bucket < this.counts.length; ++bucket) {
+      seen += this.counts[bucket];
+      if (seen >= rank) {
+        return Math.min(upperBoundOf(bucket), this.max);
+      }
+    }
+    return this.max;
+  }
+
+  /**
+   * Returns the number of values recorded.
+   *
+   * @return The count.
+   */
+  public long count() {
+    return this.count;
+  }
+
+  /**
+   * Returns the mean of the values recorded.
+   *
+   * @return The mean, or 0 if nothing has been recorded.
+   */
+  public double mean() {
+    return (this.count == 0) ? 0 : (double) this.sum / this.count;
+  }
+
+  /**
+   * Returns the largest value recorded.
+   *
+   * @return The maximum, or 0 if nothing has been recorded.
+   */
+  public long max() {
+    return this.max;
+  }
+
+  /** Forgets every value recorded. */
+  public void reset() {
+    Arrays.fill(this.counts, 0);
+    this.count = 0;
+    this.sum = 0;
+    this.max = 0;
+  }
+}
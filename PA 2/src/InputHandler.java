@@ -0,0 +1,402 @@
+/**
+ * InputHandler.java - carries commands from the event thread to their owners
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - counted dropped commands atomically, since two threads push them
+ *
+ * - queued the numbers of drags and clicks beside shared commands
+ *
+ * - carried the parts picked by the renderer back to the dog
+ *
+ * - recorded the commands applied, for replaying sessions
+ *
+ * - emitted a flight recorder event for each command applied to the dog
+ *
+ * - kept the time of the earliest input waiting to be applied
+ *
+ * - created to replace the locks around keyboard and mouse input
+ */
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Queues the {@link Command}s issued on the AWT event thread and applies them
+ * on the threads which own the state they change: commands for the dog on the
+ * simulation thread, and commands for the view on the rendering thread.
+ *
+ * Each destination has its own {@link RingBuffer}, with the event thread as
+ * its only producer, so neither pushing nor applying a command takes a lock.
+ * Runs of rotations of the joints in the same direction, such as those
+ * produced by holding down an arrow key, are applied as one rotation.
+ *
+ * A click is picked by the rendering thread, through the view it shows, so
+ * the part it selects comes back to the dog through a third queue, with the
+ * rendering thread as its only producer, and is logged as a dog command like
+ * any other.
+ *
+ * For measuring the latency of input, each destination also keeps the time of
+ * the earliest input pushed since its commands were last applied. Given an
+ * {@link InputRecorder}, the handler logs every command as it is applied.
+ */
+public class InputHandler {
+
+  /** The largest number of commands waiting for each destination. */
+  public static final int QUEUE_CAPACITY = 256;
+  /** The angle in radians by which each mouse drag rotates the view. */
+  private static final float VIEWING_DELTA = 3.1415927f / 180.0f;
+
+  /** The dog to which the dog commands are applied. */
+  private final Dog dog;
+  /** The commands waiting for the simulation thread. */
+  private final RingBuffer<Command> dog_commands = new RingBuffer<Command>(
+      QUEUE_CAPACITY);
+  /** The commands waiting for the rendering thread. */
+  private final RingBuffer<Command> view_commands = new RingBuffer<Command>(
+      QUEUE_CAPACITY);
+  /** The selections picked by the rendering thread, waiting for the dog. */
+  private final RingBuffer<Command> picked_commands = new RingBuffer<Command>(
+      QUEUE_CAPACITY);
+  /** The position (x, y) of the latest click; used by the renderer. */
+  private final int click[] = new int[2];
+  /** Whether a click is waiting to be picked; used by the renderer. */
+  private boolean clicked = false;
+  /** The axis of the rotation by a mouse drag; used by the renderer. */
+  private final Point3D drag_axis = new Point3D();
+  /** The rotation by a mouse drag; used by the renderer. */
+  private final Quaternion drag_rotation = new Quaternion();
+  /**
+   * The time of the earliest input pushed for the simulation since the last
+   * call to {@link #takeDogInputTime()}, or 0.
+   */
+  private final AtomicLong dog_input_time = new AtomicLong();
+  /**
+   * The time of the earliest input pushed for the renderer since the last
+   * call to {@link #takeViewInputTime()}, or 0.
+   */
+  private final AtomicLong view_input_time = new AtomicLong();
+  /**
+   * The number of commands dropped because their queue was full, counted by
+   * both the event thread and the rendering thread.
+   */
+  private final AtomicInteger dropped_count = new AtomicInteger();
+  /** The log of the commands applied, or null. */
+  private volatile InputRecorder recorder = null;
+  /** The rotation of the view as a matrix, from which it is checksummed. */
+  private final float view_matrix[] = new float[Matrix4.SIZE];
+
+  /**
+   * Instantiates a handler of the input to the specified dog.
+   *
+   * @param dog
+   *          The dog to which the dog commands are applied.
+   */
+  public InputHandler(final Dog dog) {
+    this.dog = dog;
+  }
+
+  /**
+   * Queues a command issued now for the thread which applies it; only the
+   * event thread may call this. If that queue is full, the command is
+   * dropped.
+   *
+   * @param command
+   *          The command.
+   * @return Whether the command was queued.
+   */
+  public boolean push(final Command command) {
+    return this.push(command, System.nanoTime());
+  }
+
+  /**
+   * Queues a command for the thread which applies it; only the event thread
+   * may call this. If that queue is full, the command is dropped.
+   *
+   * @param command
+   *          The command.
+   * @param time
+   *          The time of the input which issued the command, as given by
+   *          {@link System#nanoTime()}.
+   * @return Whether the command was queued.
+   */
+  public boolean push(final Command command, final long time) {
+    return this.push(command, command.x, command.y, time);
+  }
+
+  /**
+   * Queues a shared command with two numbers in place of its own, such as
+   * {@link Command#ROTATE_VIEW} with the motion of a drag, for the thread
+   * which applies it, without allocating; only the event thread may call
+   * this. If that queue is full, the command is dropped.
+   *
+   * @param command
+   *          The command.
+   * @param x
+   *          The number of steps to rotate, the horizontal mouse motion, or
+   *          the horizontal position of a click.
+   * @param y
+   *          The vertical mouse motion, or the vertical position of a click.
+   * @param time
+   *          The time of the input which issued the command, as given by
+   *          {@link System#nanoTime()}.
+   * @return Whether the command was queued.
+   */
+  public boolean push(final Command command, final int x, final int y,
+      final long time) {
+    final boolean view = command.type.isView();
+    final RingBuffer<Command> queue = view ? this.view_commands
+        : this.dog_commands;
+    // stamp the time first, so it is there whenever the command is applied
+    (view ? this.view_input_time : this.dog_input_time).compareAndSet(0, time);
+    if (!queue.offer(command, x, y)) {
+      this.dropped_count.incrementAndGet();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Queues a selection picked by the renderer for the dog; only the rendering
+   * thread may call this. If the queue is full, the command is dropped.
+   *
+   * @param command
+   *          The command selecting the part picked.
+   * @return Whether the command was queued.
+   */
+  public boolean pushPicked(final Command command) {
+    this.dog_input_time.compareAndSet(0, System.nanoTime());
+    if (!this.picked_commands.offer(command)) {
+      this.dropped_count.incrementAndGet();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns the dog to which the dog commands are applied.
+   *
+   * @return The dog.
+   */
+  public Dog dog() {
+    return this.dog;
+  }
+
+  /**
+   * Sets the log to which the commands are written as they are applied.
+   *
+   * @param recorder
+   *          The log, or null to stop logging.
+   */
+  public void setRecorder(final InputRecorder recorder) {
+    this.recorder = recorder;
+  }
+
+  /**
+   * Returns the log to which the commands are written as they are applied.
+   *
+   * @return The log, or null if there is none.
+   */
+  public InputRecorder recorder() {
+    return this.recorder;
+  }
+
+  /**
+   * Returns whether any commands are waiting for the dog.
+   *
+   * @return Whether there is something for the simulation to apply.
+   */
+  public boolean hasDogCommands() {
+    return !this.dog_commands.isEmpty() || !this.picked_commands.isEmpty();
+  }
+
+  /**
+   * Applies every waiting command to the dog; only the simulation thread may
+   * call this.
+   *
+   * @param step
+   *          The number of the simulation step applying the commands.
+   * @return The number of commands applied.
+   */
+  public int applyDogCommands(final long step) {
+    final InputRecorder recorder = this.recorder;
+    int applied = 0;
+    Command command;
+    while ((command = this.dog_commands.poll()) != null
+        || (command = this.picked_commands.poll()) != null) {
+      if (recorder != null) {
+        recorder.command(step, command);
+      }
+      final PoseCommandEvent event = new PoseCommandEvent();
+      event.begin();
+      applied++;
+      int merged = 1;
+      int steps = 0;
+      switch (command.type) {
+      case ROTATE_JOINTS:
+        // a step against a limit is skipped, so only merge one direction
+        steps = command.x;
+        Command next;
+        while ((next = this.dog_commands.peek()) != null
+            && next.type == Command.Type.ROTATE_JOINTS
+            && (next.x > 0) == (steps > 0)) {
+          steps += next.x;
+          this.dog_commands.poll();
+          if (recorder != null) {
+            recorder.command(step, next);
+          }
+          applied++;
+          merged++;
+        }
+        this.dog.rotateActiveJoints(steps);
+        break;
+      case TOGGLE_PART:
+        this.dog.toggle_part(command.part);
+        break;
+      case SELECT_JOINT:
+        this.dog.set_joint(command.joint);
+        break;
+      case SELECT_AXIS:
+        this.dog.set_rotation_axis(command.axis);
+        break;
+      case SELECT_PART:
+        this.dog.select_part(command.part, command.joint);
+        break;
+      case RESET:
+        this.dog.reset();
+        break;
+      case NEXT_TRICK:
+        this.dog.test();
+        break;
+      default:
+        break;
+      }
+      if (event.shouldCommit()) {
+        event.command = command.type.name();
+        event.steps = steps;
+        event.merged = merged;
+        event.commit();
+      }
+    }
+    return applied;
+  }
+
+  /**
+   * Applies every waiting command to the rotation of the view, and keeps the
+   * latest click for {@link #takeClick(int[])}; only the rendering thread may
+   * call this.
+   *
+   * @param view
+   *          The rotation of the view, changed in place.
+   * @param step
+   *          The number of the latest simulation step.
+   * @return The number of commands applied.
+   */
+  public int applyViewCommands(final Quaternion view, final long step) {
+    final InputRecorder recorder = this.recorder;
+    int applied = 0;
+    Command command;
+    while ((command = this.view_commands.poll()) != null) {
+      // the numbers of a drag or click travel beside the shared command
+      final int x = this.view_commands.first();
+      final int y = this.view_commands.second();
+      if (recorder != null) {
+        recorder.command(step, command, x, y);
+      }
+      applied++;
+      if (command.type == Command.Type.RESET_VIEW) {
+        view.reset();
+        continue;
+      } else if (command.type == Command.Type.PICK) {
+        // only the latest click counts, picked through the view of the frame
+        this.click[0] = x;
+        this.click[1] = y;
+        this.clicked = true;
+        continue;
+      }
+
+      // rotate about the unit vector in the direction of (dy, dx, 0)
+      this.drag_axis.set(y, x, 0);
+      this.drag_axis.normalize();
+      this.drag_rotation.setAxisAngle(this.drag_axis, VIEWING_DELTA);
+      this.drag_rotation.multiplyInto(view, view);
+
+      // normalize to counteract accumulating round-off error
+      view.normalize();
+    }
+    if (recorder != null && applied > 0) {
+      recorder.checksum(InputRecorder.VIEW_CHECKSUM, step, this
+          .checksum(view));
+    }
+    return applied;
+  }
+
+  /**
+   * Returns and forgets the position of the latest click applied by
+   * {@link #applyViewCommands(Quaternion, long)}, for the renderer to pick;
+   * only the rendering thread may call this.
+   *
+   * @param position
+   *          The array in which to store the position (x, y) of the click, in
+   *          pixels from the top left of the window.
+   * @return Whether there was a click to pick.
+   */
+  public boolean takeClick(final int[] position) {
+    if (!this.clicked) {
+      return false;
+    }
+    position[0] = this.click[0];
+    position[1] = this.click[1];
+    this.clicked = false;
+    return true;
+  }
+
+  /**
+   * Returns the checksum of a rotation of the view; only the rendering
+   * thread may call this.
+   *
+   * @param view
+   *          The rotation of the view.
+   * @return The checksum of its matrix.
+   */
+  public long checksum(final Quaternion view) {
+    view.toMatrix(this.view_matrix);
+    return InputRecorder.checksum(InputRecorder.CHECKSUM_BASIS,
+        this.view_matrix, 0, Matrix4.SIZE);
+  }
+
+  /**
+   * Returns and forgets the time of the earliest input for the dog pushed
+   * since the last call; call this after {@link #applyDogCommands(long)} has
+   * applied something.
+   *
+   * @return The time of the input, as given by {@link System#nanoTime()}, or
+   *         0 if there was none.
+   */
+  public long takeDogInputTime() {
+    return this.dog_input_time.getAndSet(0);
+  }
+
+  /**
+   * Returns and forgets the time of the earliest input for the view pushed
+   * since the last call; call this after
+   * {@link #applyViewCommands(Quaternion, long)} has applied something.
+   *
+   * @return The time of the input, as given by {@link System#nanoTime()}, or
+   *         0 if there was none.
+   */
+  public long takeViewInputTime() {
+    return this.view_input_time.getAndSet(0);
+  }
+
+  /**
+   * Returns the number of commands dropped because their queue was full.
+   *
+   * @return The number of commands lost.
+   */
+  public int droppedCount() {
+    return this.dropped_count.get();
+  }
+}
@@ -0,0 +1,213 @@
+/**
+ * InputRecorder.java - streams the input applied to the scene to a log
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - recorded the numbers queued beside a shared command
+ *
+ * - created so that sessions can be replayed
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Writes every {@link Command} applied by an {@link InputHandler} to a
+ * compact binary log, together with checksums of the poses of the dogs and
+ * of the rotation of the view, from which an {@link InputReplay} can repeat
+ * the session exactly.
+ *
+ * Commands are logged when they are applied rather than when they are
+ * issued, tagged with the number of the simulation step which applied them,
+ * since the state of the scene depends only on which step each command
+ * reaches and never on the time at which it arrives. The time of each record
+ * is kept as well, so that the session can also be replayed at its original
+ * pace.
+ *
+ * The log is big-endian, as written by a {@link DataOutputStream}: a header
+ * of the int magic "DOGI", the int version and the int number of steps per
+ * second, followed by records which each start with a byte kind, the long
+ * step and the long time in nanoseconds since the recording started:
+ *
+ * <pre>
+ * DOG_COMMAND, VIEW_COMMAND:   byte type, byte argument, int x, int y
+ * DOG_CHECKSUM, VIEW_CHECKSUM: long checksum
+ * </pre>
+ *
+ * The simulation and rendering threads both record, so each record is
+ * written under the monitor of the recorder; there are only ever a few
+ * records per step.
+ */
+public class InputRecorder {
+
+  /** The first four bytes of every log, "DOGI". */
+  public static final int MAGIC = 0x444F4749;
+  /** The version of the format written. */
+  public static final int VERSION = 1;
+  /** The kind of a record of a command applied to the dog. */
+  public static final byte DOG_COMMAND = 0;
+  /** The kind of a record of a command applied to the view. */
+  public static final byte VIEW_COMMAND = 1;
+  /** The kind of a record of the checksum of the dogs after a step. */
+  public static final byte DOG_CHECKSUM = 2;
+  /** The kind of a record of the checksum of the view after its commands. */
+  public static final byte VIEW_CHECKSUM = 3;
+
+  /** The initial value of a checksum, the 64-bit FNV-1a offset basis. */
+  public static final long CHECKSUM_BASIS = 0xcbf29ce484222325L;
+  /** The 64-bit FNV-1a prime. */
+  private static final long CHECKSUM_PRIME = 0x100000001b3L;
+
+  /** The log. */
+  private final DataOutputStream out;
+  /** The time at which the recording started, in nanoseconds. */
+  private final long start = System.nanoTime();
+  /** The first error met while writing, or null. */
+  private IOException error = null;
+
+  /**
+   * Starts a log in the specified file.
+   *
+   * @param path
+   *          The path of the file, which is replaced if it exists.
+   * @throws IOException
+   *           If the file cannot be written.
+   */
+  public InputRecorder(final String path) throws IOException {
+    this.out = new DataOutputStream(new BufferedOutputStream(
+        new FileOutputStream(path)));
+    this.out.writeInt(MAGIC);
+    this.out.writeInt(VERSION);
+    this.out.writeInt(Crowd.TICKS_PER_SECOND);
+  }
+
+  /**
+   * Records a command applied to the dog or to the view.
+   *
+   * @param step
+   *          The number of the simulation step which applied it, or, for
+   *          the view, the number of the latest step.
+   * @param command
+   *          The command.
+   */
+  public void command(final long step, final Command command) {
+    this.command(step, command, command.x, command.y);
+  }
+
+  /**
+   * Records a command applied with two numbers in place of its own, as a
+   * drag or click is queued.
+   *
+   * @param step
+   *          The number of the simulation step which applied it, or, for
+   *          the view, the number of the latest step.
+   * @param command
+   *          The command.
+   * @param x
+   *          The number of steps to rotate, the horizontal mouse motion, or
+   *          the horizontal position of a click.
+   * @param y
+   *          The vertical mouse motion, or the vertical position of a click.
+   */
+  public synchronized void command(final long step, final Command command,
+      final int x, final int y) {
+    try {
+      this.header(command.type.isView() ? VIEW_COMMAND : DOG_COMMAND, step);
+      this.out.writeByte(command.type.ordinal());
+      this.out.writeByte(command.argument());
+      this.out.writeInt(x);
+      this.out.writeInt(y);
+    } catch (final IOException exception) {
+      this.fail(exception);
+    }
+  }
+
+  /**
+   * Records a checksum of the state of the dogs or of the view.
+   *
+   * @param kind
+   *          {@link #DOG_CHECKSUM} or {@link #VIEW_CHECKSUM}.
+   * @param step
+   *          The number of the latest simulation step.
+   * @param checksum
+   *          The checksum.
+   */
+  public synchronized void checksum(final byte kind, final long step,
+      final long checksum) {
+    try {
+      this.header(kind, step);
+      this.out.writeLong(checksum);
+    } catch (final IOException exception) {
+      this.fail(exception);
+    }
+  }
+
+  /**
+   * Writes the fields which start every record.
+   *
+   * @param kind
+   *          The kind of record.
+   * @param step
+   *          The number of the simulation step.
+   * @throws IOException
+   *           If the log cannot be written.
+   */
+  private void header(final byte kind, final long step) throws IOException {
+    this.out.writeByte(kind);
+    this.out.writeLong(step);
+    this.out.writeLong(System.nanoTime() - this.start);
+  }
+
+  /**
+   * Remembers the first error met while writing.
+   *
+   * @param exception
+   *          The error.
+   */
+  private void fail(final IOException exception) {
+    if (this.error == null) {
+      this.error = exception;
+    }
+  }
+
+  /**
+   * Finishes the log.
+   *
+   * @throws IOException
+   *           If any record could not be written.
+   */
+  public synchronized void close() throws IOException {
+    this.out.close();
+    if (this.error != null) {
+      throw this.error;
+    }
+  }
+
+  /**
+   * Folds floats into a checksum, bit for bit, so that any difference in the
+   * values changes it.
+   *
+   * @param checksum
+   *          The checksum so far, starting from {@link #CHECKSUM_BASIS}.
+   * @param values
+   *          The array holding the values.
+   * @param offset
+   *          The index of the first value.
+   * @param length
+   *          The number of values.
+   * @return The new checksum.
+   */
+  public static long checksum(final long checksum, final float[] values,
+      final int offset, final int length) {
+    long hash = checksum;
+    for (int i = offset; i < offset + length; ++i) {
+      hash ^= Float.floatToIntBits(values[i]);
+      hash *= CHECKSUM_PRIME;
+    }
+    return hash;
+  }
+}
@@ -0,0 +1,306 @@
+/**
+ * InputReplay.java - repeats a recorded session without a window
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - bounded the solvers by their iterations alone, as when recording
+ *
+ * - refused clips for a different number of joints before replaying
+ *
+ * - created to reproduce sessions and to drive repeatable workloads
+ */
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import com.sun.opengl.util.GLUT;
+
+/**
+ * Feeds a log written by an {@link InputRecorder} back through an
+ * {@link InputHandler} into a {@link Crowd} of one interactive dog and a
+ * rotation of the view, exactly as {@link PA2} would have applied it, but
+ * without a window, and checks every recorded checksum along the way.
+ *
+ * The simulation is stepped by this thread rather than by the thread of the
+ * crowd: each dog command is queued before the step which applied it in the
+ * recording, and each batch of view commands is applied where the recording
+ * applied it. The session is replayed either as fast as possible, which
+ * makes it a repeatable workload for measuring the simulation, or at the
+ * pace at which it was recorded.
+ */
+public class InputReplay {
+
+  /** The time simulated by each step, in nanoseconds. */
+  private static final long TICK_NANOSECONDS = 1000000000L
+      / Crowd.TICKS_PER_SECOND;
+
+  /** The log being replayed. */
+  private final DataInputStream in;
+  /** Whether records are replayed at the pace at which they were recorded. */
+  private final boolean real_time;
+  /** The dog being replayed. */
+  private final Crowd crowd;
+  /** The handler through which the commands are applied. */
+  private final InputHandler input;
+  /** The rotation of the view. */
+  private final Quaternion view = new Quaternion();
+  /** The time at which the replay started, in nanoseconds. */
+  private long start;
+  /** The time at which the next step is due, in nanoseconds. */
+  private long next_step;
+  /** The number of commands replayed. */
+  private int command_count = 0;
+  /** The number of checksums which matched the recording. */
+  private int match_count = 0;
+  /** The number of checksums which differed from the recording. */
+  private int mismatch_count = 0;
+
+  /**
+   * Opens a log for replaying.
+   *
+   * @param path
+   *          The path of the log.
+   * @param real_time
+   *          Whether to replay at the pace at which it was recorded rather
+   *          than as fast as possible.
+   * @param clips
+   *          The clips the dog played in the recording, or null if it
+   *          performed its built-in tricks.
+   * @throws IOException
+   *           If the file cannot be read or is not a log.
+   * @throws IllegalArgumentException
+   *           If the clips pose a different number of joints than the dog
+   *           has.
+   */
+  public InputReplay(final String path, final boolean real_time,
+      final ClipLibrary clips) throws IOException {
+    this.crowd = new Crowd(new GLUT(), 1, false);
+    this.crowd.dog(0).setClipLibrary(clips);
+    this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(
+        path)));
+    if (this.in.readInt() != InputRecorder.MAGIC) {
+      this.in.close();
+      throw new IOException(path + " is not an input log");
+    }
+    final int version = this.in.readInt();
+    final int ticks = this.in.readInt();
+    if (version != InputRecorder.VERSION || ticks != Crowd.TICKS_PER_SECOND) {
+      this.in.close();
+      throw new IOException(path + " was recorded by version " + version
+          + " at " + ticks + " steps per second, not by version "
+          + InputRecorder.VERSION + " at " + Crowd.TICKS_PER_SECOND);
+    }
+    this.real_time = real_time;
+    this.input = new InputHandler(this.crowd.dog(0));
+    this.crowd.setInputHandler(this.input);
+    this.crowd.setSolverBudget(LimbSolver.UNLIMITED_NANOSECONDS);
+  }
+
+  /**
+   * Replays every record of the log.
+   *
+   * @throws IOException
+   *           If the log cannot be read.
+   */
+  public void run() throws IOException {
+    this.start = System.nanoTime();
+    this.next_step = this.start;
+    try {
+      while (true) {
+        final byte kind;
+        try {
+          kind = this.in.readByte();
+        } catch (final EOFException exception) {
+          break;
+        }
+        final long step = this.in.readLong();
+        final long time = this.in.readLong();
+        if (this.real_time) {
+          sleepUntil(this.start + time);
+          this.next_step = Math.max(this.next_step, System.nanoTime());
+        }
+
+        switch (kind) {
+        case InputRecorder.DOG_COMMAND:
+          // queue it for the step which applied it
+          this.stepTo(step - 1);
+          this.push(this.readCommand());
+          break;
+        case InputRecorder.VIEW_COMMAND:
+          this.push(this.readCommand());
+          break;
+        case InputRecorder.DOG_CHECKSUM:
+          this.stepTo(step);
+          this.check("dogs", step, this.crowd.checksum(), this.in.readLong());
+          break;
+        case InputRecorder.VIEW_CHECKSUM:
+          this.input.applyViewCommands(this.view, step);
+          this.check("view", step, this.input.checksum(this.view), this.in
+              .readLong());
+          break;
+        default:
+          throw new IOException("unknown record " + kind + " at step "
+              + step);
+        }
+      }
+      // let the last command play out
+      while (this.crowd.dog(0).isAnimating() || this.input.hasDogCommands()) {
+        this.step();
+      }
+    } finally {
+      this.in.close();
+    }
+  }
+
+  /**
+   * Reads the fields of a command record.
+   *
+   * @return The command.
+   * @throws IOException
+   *           If the log cannot be read.
+   */
+  private Command readCommand() throws IOException {
+    final int type = this.in.readByte();
+    final int argument = this.in.readByte();
+    final int x = this.in.readInt();
+    final int y = this.in.readInt();
+    if (type < 0 || type >= Command.Type.values().length) {
+      throw new IOException("unknown command " + type);
+    }
+    return Command.decode(Command.Type.values()[type], argument, x, y);
+  }
+
+  /**
+   * Queues a command for the step or frame which applies it.
+   *
+   * @param command
+   *          The command.
+   */
+  private void push(final Command command) {
+    this.input.push(command);
+    this.command_count++;
+  }
+
+  /**
+   * Steps the simulation until it has taken the specified number of steps.
+   *
+   * @param step
+   *          The number of the step to reach.
+   */
+  private void stepTo(final long step) {
+    while (this.crowd.stepCount() < step) {
+      this.step();
+    }
+  }
+
+  /** Takes one step of the simulation, when it is due if in real time. */
+  private void step() {
+    if (this.real_time) {
+      sleepUntil(this.next_step);
+    }
+    this.crowd.simulate(this.next_step);
+    this.next_step += TICK_NANOSECONDS;
+  }
+
+  /**
+   * Compares a checksum with the recording, reporting the first differences.
+   *
+   * @param what
+   *          What was checksummed.
+   * @param step
+   *          The number of the step.
+   * @param actual
+   *          The checksum of the replay.
+   * @param expected
+   *          The checksum of the recording.
+   */
+  private void check(final String what, final long step, final long actual,
+      final long expected) {
+    if (actual == expected) {
+      this.match_count++;
+      return;
+    }
+    if (this.mismatch_count++ < 10) {
+      System.err.println("the " + what + " differ from the recording at step "
+          + step);
+    }
+  }
+
+  /**
+   * Sleeps until the specified time.
+   *
+   * @param time
+   *          The time at which to wake, as given by {@link System#nanoTime()}.
+   */
+  private static void sleepUntil(final long time) {
+    long wait;
+    while ((wait = time - System.nanoTime()) > 0) {
+      try {
+        Thread.sleep(wait / 1000000, (int) (wait % 1000000));
+      } catch (final InterruptedException exception) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  /**
+   * Replays the log named on the command line and prints how many checksums
+   * matched and how fast the simulation stepped; exits with status 1 if any
+   * checksum differed.
+   *
+   * With {@code -realtime} the log is replayed at the pace at which it was
+   * recorded, and with {@code -clips FILE} the dog plays the clips in FILE,
+   * which must be the library it was given while recording.
+   *
+   * @param args
+   *          The command line arguments, {@code [-realtime] [-clips FILE]
+   *          LOG}.
+   */
+  public static void main(final String[] args) {
+    boolean real_time = false;
+    String clips_path = null;
+    String path = null;
+    for (int i = 0; i < args.length; ++i) {
+      if ("-realtime".equals(args[i])) {
+        real_time = true;
+      } else if ("-clips".equals(args[i]) && i + 1 < args.length) {
+        clips_path = args[++i];
+      } else if (path == null && !args[i].startsWith("-")) {
+        path = args[i];
+      } else {
+        path = null;
+        break;
+      }
+    }
+    if (path == null) {
+      System.err.println("usage: java InputReplay [-realtime] [-clips FILE] "
+          + "LOG");
+      System.exit(1);
+    }
+
+    try {
+      final ClipLibrary clips = (clips_path == null) ? null : ClipLibrary
+          .open(clips_path, Dog.PartType.values().length);
+      final InputReplay replay = new InputReplay(path, real_time, clips);
+      replay.run();
+      final long elapsed = System.nanoTime() - replay.start;
+      final long steps = replay.crowd.stepCount();
+      System.out.printf("%d steps, %d commands, %d of %d checksums matched, "
+          + "%.0f steps per second%n", steps, replay.command_count,
+          replay.match_count, replay.match_count + replay.mismatch_count,
+          steps * 1e9 / Math.max(1, elapsed));
+      if (replay.mismatch_count > 0 || replay.input.droppedCount() > 0) {
+        System.exit(1);
+      }
+    } catch (final IOException exception) {
+      System.err.println(exception.getMessage());
+      System.exit(1);
+    }
+  }
+}
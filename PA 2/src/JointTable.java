@@ -0,0 +1,299 @@
+/**
+ * JointTable.java - the pose of a skeleton as flat arrays of joint angles
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - added a pass clamping every angle to its limits
+ *
+ * - added rotation by several steps at once
+ *
+ * - made angles relative to the parent joint and added dirty flags
+ *
+ * - created to replace the individually named angle fields of the dog
+ */
+
+import java.util.Arrays;
+
+/**
+ * The pose of a skeleton, held as flat primitive arrays indexed by
+ * {@code joint * AXES + axis}: the rotation angle about each axis of each
+ * joint relative to its parent, and the range within which it may move.
+ * Rotation stops at the limits, while angles set directly may cross them
+ * until {@link #clamp()} brings the whole pose back within them.
+ *
+ * Joints are numbered so that every joint comes after its parent, which lets
+ * bulk operations visit a whole subtree in a single forward pass. Each joint
+ * also carries a dirty flag, set whenever one of its angles changes, so that
+ * a {@link Skeleton} only recomputes the matrices of the joints that moved.
+ */
+public class JointTable {
+
+  /** The number of axes of rotation of each joint (x, y and z). */
+  public static final int AXES = 3;
+  /** The parent of the root joint. */
+  public static final int NO_PARENT = -1;
+  /**
+   * How far in degrees an angle may stray past its limits before
+   * {@link #clamp()} corrects it, so that round-off in interpolating between
+   * keyframes on a limit does not count as a violation.
+   */
+  public static final float LIMIT_TOLERANCE = 1e-3f;
+
+  /** The parent of each joint, or {@value #NO_PARENT} for the root. */
+  private final int parents[];
+  /** The rotation in degrees about each axis of each joint. */
+  private final float angles[];
+  /** The smallest angle of each joint about each axis. */
+  private final float min_angles[];
+  /** The largest angle of each joint about each axis. */
+  private final float max_angles[];
+  /** Whether each joint has changed since it was last marked clean. */
+  private final boolean dirty[];
+
+  /**
+   * Instantiates a table of joints with the specified parents, every angle
+   * being zero and unconstrained.
+   *
+   * @param parents
+   *          The parent of each joint, where each parent must come before its
+   *          children, or {@value #NO_PARENT} for the root.
+   */
+  public JointTable(final int[] parents) {
+    final int count = parents.length;
+    for (int joint = 0; joint < count; ++joint) {
+      if (parents[joint] >= joint) {
+        throw new IllegalArgumentException("joint " + joint
+            + " comes before its parent " + parents[joint]);
+      }
+    }
+
+    this.parents = parents.clone();
+    this.angles = new float[count * AXES];
+    this.min_angles = new float[count * AXES];
+    this.max_angles = new float[count * AXES];
+    this.dirty = new boolean[count];
+    Arrays.fill(this.dirty, true);
+    Arrays.fill(this.min_angles, Float.NEGATIVE_INFINITY);
+    Arrays.fill(this.max_angles, Float.POSITIVE_INFINITY);
+  }
+
+  /**
+   * Returns the number of joints in this table.
+   *
+   * @return The number of joints.
+   */
+  public int jointCount() {
+    return this.parents.length;
+  }
+
+  /**
+   * Returns the parent of the specified joint.
+   *
+   * @param joint
+   *          The joint.
+   * @return The parent of the joint, or {@value #NO_PARENT} for the root.
+   */
+  public int parent(final int joint) {
+    return this.parents[joint];
+  }
+
+  /**
+   * Returns the rotation of a joint about an axis.
+   *
+   * @param joint
+   *          The joint.
+   * @param axis
+   *          The axis, 0 for x, 1 for y and 2 for z.
+   * @return The angle of rotation in degrees.
+   */
+  public float angle(final int joint, final int axis) {
+    return this.angles[joint * AXES + axis];
+  }
+
+  /**
+   * Sets the rotation of a joint about an axis, regardless of its limits.
+   *
+   * @param joint
+   *          The joint.
+   * @param axis
+   *          The axis, 0 for x, 1 for y and 2 for z.
+   * @param degrees
+   *          The angle of rotation in degrees.
+   */
+  public void setAngle(final int joint, final int axis, final float degrees) {
+    this.angles[joint * AXES + axis] = degrees;
+    this.dirty[joint] = true;
+  }
+
+  /**
+   * Returns the smallest angle of a joint about an axis.
+   *
+   * @param joint
+   *          The joint.
+   * @param axis
+   *          The axis, 0 for x, 1 for y and 2 for z.
+   * @return The lower limit in degrees.
+   */
+  public float minAngle(final int joint, final int axis) {
+    return this.min_angles[joint * AXES + axis];
+  }
+
+  /**
+   * Returns the largest angle of a joint about an axis.
+   *
+   * @param joint
+   *          The joint.
+   * @param axis
+   *          The axis, 0 for x, 1 for y and 2 for z.
+   * @return The upper limit in degrees.
+   */
+  public float maxAngle(final int joint, final int axis) {
+    return this.max_angles[joint * AXES + axis];
+  }
+
+  /**
+   * Sets the range within which a joint may move about an axis.
+   *
+   * @param joint
+   *          The joint.
+   * @param axis
+   *          The axis, 0 for x, 1 for y and 2 for z.
+   * @param min
+   *          The smallest angle in degrees.
+   * @param max
+   *          The largest angle in degrees.
+   */
+  public void setLimits(final int joint, final int axis, final float min,
+      final float max) {
+    this.min_angles[joint * AXES + axis] = min;
+    this.max_angles[joint * AXES + axis] = max;
+  }
+
+  /**
+   * Rotates a joint about an axis by the specified amount, unless that would
+   * move it outside of its limits. Its descendants follow through the
+   * hierarchy without their own angles changing.
+   *
+   * @param joint
+   *          The joint to rotate.
+   * @param axis
+   *          The axis, 0 for x, 1 for y and 2 for z.
+   * @param delta
+   *          The change in angle in degrees.
+   * @return Whether the joint was rotated.
+   */
+  public boolean rotate(final int joint, final int axis, final float delta) {
+    final int index = joint * AXES + axis;
+    final float angle = this.angles[index] + delta;
+    if (angle < this.min_angles[index] || angle > this.max_angles[index]) {
+      return false;
+    }
+    this.angles[index] = angle;
+    this.dirty[joint] = true;
+    return true;
+  }
+
+  /**
+   * Rotates a joint about an axis by up to the specified number of steps,
+   * stopping at the last step which keeps it within its limits; the result is
+   * exactly that of calling {@link #rotate(int, int, float)} once per step.
+   *
+   * @param joint
+   *          The joint to rotate.
+   * @param axis
+   *          The axis, 0 for x, 1 for y and 2 for z.
+   * @param step
+   *          The size of a step in degrees.
+   * @param count
+   *          The number of steps, negative to decrease the angle.
+   * @return The number of steps taken.
+   */
+  public int rotate(final int joint, final int axis, final float step,
+      final int count) {
+    final int index = joint * AXES + axis;
+    final float delta = (count < 0) ? -step : step;
+    float angle = this.angles[index];
+    int taken = 0;
+    while (taken < Math.abs(count)) {
+      final float next = angle + delta;
+      if (next < this.min_angles[index] || next > this.max_angles[index]) {
+        break;
+      }
+      angle = next;
+      taken++;
+    }
+    if (taken > 0) {
+      this.angles[index] = angle;
+      this.dirty[joint] = true;
+    }
+    return taken;
+  }
+
+  /**
+   * Moves every angle which is outside of its limits, by more than
+   * {@value #LIMIT_TOLERANCE} degrees, to the nearest limit, marking its
+   * joint dirty.
+   *
+   * The whole pose is first checked in one branch-free pass over the flat
+   * arrays, which the compiler can vectorize; only if that finds an angle
+   * out of range are the joints visited one by one to correct it.
+   *
+   * @return The number of angles which had to be corrected.
+   */
+  public int clamp() {
+    int violations = 0;
+    for (int i = 0; i < this.angles.length; ++i) {
+      final float angle = this.angles[i];
+      final boolean outside = angle < this.min_angles[i] - LIMIT_TOLERANCE
+          | angle > this.max_angles[i] + LIMIT_TOLERANCE;
+      violations += outside ? 1 : 0;
+    }
+    if (violations == 0) {
+      return 0;
+    }
+
+    for (int joint = 0; joint < this.parents.length; ++joint) {
+      for (int index = joint * AXES; index < (joint + 1) * AXES; ++index) {
+        final float angle = this.angles[index];
+        if (angle >= this.min_angles[index] - LIMIT_TOLERANCE
+            && angle <= this.max_angles[index] + LIMIT_TOLERANCE) {
+          continue;
+        }
+        this.angles[index] = Math.min(Math.max(angle, this.min_angles[index]),
+            this.max_angles[index]);
+        this.dirty[joint] = true;
+      }
+    }
+    return violations;
+  }
+
+  /**
+   * Returns whether any angle of the specified joint has changed since the
+   * joint was last marked clean.
+   *
+   * @param joint
+   *          The joint.
+   * @return Whether the joint is dirty.
+   */
+  public boolean isDirty(final int joint) {
+    return this.dirty[joint];
+  }
+
+  /**
+   * Marks the specified joint as clean.
+   *
+   * @param joint
+   *          The joint.
+   */
+  public void clean(final int joint) {
+    this.dirty[joint] = false;
+  }
+
+  /** Sets every angle back to zero. */
+  public void reset() {
+    Arrays.fill(this.angles, 0);
+    Arrays.fill(this.dirty, true);
+  }
+}
@@ -0,0 +1,73 @@
+/**
+ * LevelOfDetail.java - chooses a tessellation from a part's size on screen
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - created so that small parts are drawn with fewer triangles
+ */
+
+/**
+ * Chooses which of the precomputed tessellation levels to draw a part with,
+ * based on the radius in pixels of its bounding sphere on the screen.
+ *
+ * Level 0 is the finest. A part only moves to a finer level once it is
+ * {@value #HYSTERESIS} (as a fraction) larger than that level's threshold, and
+ * only moves to a coarser level once it is that much smaller than its current
+ * level's threshold, so that a part whose size hovers around a threshold does
+ * not flicker between two levels.
+ */
+public class LevelOfDetail {
+
+  /** The fraction by which a size must cross a threshold to change level. */
+  public static final float HYSTERESIS = 0.15f;
+
+  /**
+   * The slices and stacks of each sphere level, from finest to coarsest; the
+   * finest matches what {@code glutSolidSphere(1, 36, 18)} used to draw.
+   */
+  public static final int SPHERE_LEVELS[][] = { { 36, 18 }, { 24, 12 },
+      { 16, 8 }, { 10, 5 } };
+
+  /**
+   * The smallest radius in pixels at which each level is used; the coarsest
+   * level is used for anything smaller.
+   */
+  private static final float THRESHOLDS[] = { 60, 25, 10, 0 };
+
+  /** This class only has static methods. */
+  private LevelOfDetail() {
+    // intentionally unimplemented
+  }
+
+  /**
+   * Returns the number of levels of detail.
+   *
+   * @return The number of levels of detail.
+   */
+  public static int levelCount() {
+    return SPHERE_LEVELS.length;
+  }
+
+  /**
+   * Chooses the level with which to draw a part.
+   *
+   * @param current
+   *          The level with which the part was drawn in the previous frame.
+   * @param radius
+   *          The radius in pixels of the part on the screen.
+   * @return The level with which to draw the part in this frame.
+   */
+  public static int select(final int current, final float radius) {
+    int level = current;
+    while (level > 0 && radius >= THRESHOLDS[level - 1] * (1 + HYSTERESIS)) {
+      level--;
+    }
+    while (level < THRESHOLDS.length - 1
+        && radius < THRESHOLDS[level] * (1 - HYSTERESIS)) {
+      level++;
+    }
+    return level;
+  }
+}
@@ -0,0 +1,271 @@
+/**
+ * LimbSolver.java - inverse kinematics for a chain of joints
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - compared deadlines by difference, and allowed budgets with no deadline
+ *
+ * - created to place the paws of the dog at target points
+ */
+
+/**
+ * Turns the joints of a chain, such as the hip, knee and ankle of a leg, so
+ * that a point at the end of the chain reaches a target, by cyclic
+ * coordinate descent.
+ *
+ * Each iteration visits the joints from the end of the chain back to its
+ * start and, for each axis of each joint in the order z, x, y, turns the joint
+ * by the angle which best swings the end point towards the target about that
+ * axis, stopping at the joint's limits in the {@link JointTable}. Working one
+ * axis at a time fits the x, y, z angles in which the pose is stored, so the
+ * solver writes ordinary angles which blend, clamp and record like any
+ * other pose.
+ *
+ * Solving never allocates. Each call is bounded both by a number of
+ * iterations and by a deadline, so that a herd can share a budget of time
+ * per step: a solve cut short leaves the chain closer to its target, and the
+ * next call carries on from there. A deadline made by {@link #deadline(long)}
+ * from {@link #UNLIMITED_NANOSECONDS} never passes, so that solves bounded
+ * by their iterations alone never depend on how fast they run.
+ */
+public class LimbSolver {
+
+  /** The default largest number of iterations of one solve. */
+  public static final int DEFAULT_ITERATIONS = 16;
+  /** The default distance from the target which counts as reaching it. */
+  public static final float DEFAULT_TOLERANCE = 0.005f;
+  /** The budget of time of a solve bounded by its iterations alone. */
+  public static final long UNLIMITED_NANOSECONDS = Long.MAX_VALUE;
+  /** The smallest turn in degrees worth making. */
+  private static final float MIN_TURN = 1e-3f;
+  /** The order in which the axes of each joint are visited. */
+  private static final int AXIS_ORDER[] = { 2, 0, 1 };
+
+  /** The pose whose angles are solved for. */
+  private final JointTable pose;
+  /** The matrices evaluated from the pose. */
+  private final Skeleton skeleton;
+  /** The largest number of iterations of one solve. */
+  private int max_iterations = DEFAULT_ITERATIONS;
+  /** The distance from the target which counts as reaching it. */
+  private float tolerance = DEFAULT_TOLERANCE;
+  /** The number of iterations taken by the last solve. */
+  private int iteration_count = 0;
+  /** Whether the last solve ran out of iterations or time. */
+  private boolean cut_short = false;
+  /** Scratch space for the end point of the chain. */
+  private final float end[] = new float[3];
+  /** Scratch space for the pivot of a joint. */
+  private final float pivot[] = new float[3];
+  /** Scratch space for an axis of a joint. */
+  private final float axis[] = new float[3];
+
+  /**
+   * Instantiates a solver for the specified pose.
+   *
+   * @param pose
+   *          The pose whose angles are solved for.
+   * @param skeleton
+   *          The matrices evaluated from the pose.
+   */
+  public LimbSolver(final JointTable pose, final Skeleton skeleton) {
+    this.pose = pose;
+    this.skeleton = skeleton;
+  }
+
+  /**
+   * Sets the largest number of iterations of one solve.
+   *
+   * @param iterations
+   *          The number of iterations, at least 1.
+   */
+  public void setMaxIterations(final int iterations) {
+    this.max_iterations = Math.max(1, iterations);
+  }
+
+  /**
+   * Sets the distance from the target which counts as reaching it.
+   *
+   * @param tolerance
+   *          The distance, in the units of the skeleton.
+   */
+  public void setTolerance(final float tolerance) {
+    this.tolerance = tolerance;
+  }
+
+  /**
+   * Returns the number of iterations taken by the last solve.
+   *
+   * @return The number of iterations, 0 if the end point already reached its
+   *         target.
+   */
+  public int iterationCount() {
+    return this.iteration_count;
+  }
+
+  /**
+   * Returns whether the last solve stopped because it ran out of iterations
+   * or time, rather than because it reached the target or could get no
+   * closer to it within the limits of the joints.
+   *
+   * @return Whether solving again may get closer.
+   */
+  public boolean wasCutShort() {
+    return this.cut_short;
+  }
+
+  /**
+   * Returns the deadline a budget of time from now. Deadlines are compared
+   * with {@link System#nanoTime()} by their difference, so the sum may wrap
+   * around; any budget up to {@link #UNLIMITED_NANOSECONDS} is safe.
+   *
+   * @param nanoseconds
+   *          The budget, in nanoseconds; a negative budget counts as none.
+   * @return The deadline for {@link #solve}.
+   */
+  public static long deadline(final long nanoseconds) {
+    return System.nanoTime() + Math.max(0, nanoseconds);
+  }
+
+  /**
+   * Turns the joints of a chain so that a point carried by its last joint
+   * moves towards a target, leaving the skeleton evaluated.
+   *
+   * @param chain
+   *          The joints of the chain, each the parent of the next.
+   * @param end_x
+   *          The x coordinate of the end point in the root's rest frame.
+   * @param end_y
+   *          The y coordinate of the end point in the root's rest frame.
+   * @param end_z
+   *          The z coordinate of the end point in the root's rest frame.
+   * @param target_x
+   *          The x coordinate of the target in the frame of the world
+   *          matrices of the skeleton.
+   * @param target_y
+   *          The y coordinate of the target in the same frame.
+   * @param target_z
+   *          The z coordinate of the target in the same frame.
+   * @param deadline
+   *          The time after which no further iteration is started, as made
+   *          by {@link #deadline(long)}.
+   * @return Whether the end point is within the tolerance of the target.
+   */
+  public boolean solve(final int[] chain, final float end_x,
+      final float end_y, final float end_z, final float target_x,
+      final float target_y, final float target_z, final long deadline) {
+    final int last = chain[chain.length - 1];
+    this.iteration_count = 0;
+    this.cut_short = false;
+    this.skeleton.evaluate();
+    Matrix4.transformPoint(this.end, this.skeleton.worldMatrices(), last
+        * Matrix4.SIZE, end_x, end_y, end_z);
+    float distance = distance(this.end, target_x, target_y, target_z);
+
+    while (distance > this.tolerance) {
+      if (this.iteration_count == this.max_iterations
+          || System.nanoTime() - deadline >= 0) {
+        this.cut_short = true;
+        break;
+      }
+      this.iteration_count++;
+      for (int link = chain.length - 1; link >= 0; --link) {
+        final int joint = chain[link];
+        this.skeleton.pivot(joint, this.pivot);
+        for (final int a : AXIS_ORDER) {
+          if (!this.turn(joint, a, target_x, target_y, target_z)) {
+            continue;
+          }
+          this.skeleton.evaluate();
+          Matrix4.transformPoint(this.end, this.skeleton.worldMatrices(),
+              last * Matrix4.SIZE, end_x, end_y, end_z);
+        }
+      }
+      final float previous = distance;
+      distance = distance(this.end, target_x, target_y, target_z);
+      if (previous - distance < 0.01f * this.tolerance) {
+        // stuck against the limits; more iterations will not help
+        break;
+      }
+    }
+    return distance <= this.tolerance;
+  }
+
+  /**
+   * Turns a joint about one of its axes by the angle which best swings the
+   * current end point towards the target, within the joint's limits.
+   *
+   * @param joint
+   *          The joint, whose pivot is in the pivot scratch array.
+   * @param a
+   *          The axis, 0 for x, 1 for y and 2 for z.
+   * @param target_x
+   *          The x coordinate of the target.
+   * @param target_y
+   *          The y coordinate of the target.
+   * @param target_z
+   *          The z coordinate of the target.
+   * @return Whether the angle of the joint changed.
+   */
+  private boolean turn(final int joint, final int a, final float target_x,
+      final float target_y, final float target_z) {
+    this.skeleton.axis(joint, a, this.axis);
+    final float ax = this.axis[0], ay = this.axis[1], az = this.axis[2];
+
+    // the directions from the pivot to the end and to the target, projected
+    // onto the plane of the rotation
+    float ux = this.end[0] - this.pivot[0];
+    float uy = this.end[1] - this.pivot[1];
+    float uz = this.end[2] - this.pivot[2];
+    float vx = target_x - this.pivot[0];
+    float vy = target_y - this.pivot[1];
+    float vz = target_z - this.pivot[2];
+    final float u_along = ux * ax + uy * ay + uz * az;
+    final float v_along = vx * ax + vy * ay + vz * az;
+    ux -= u_along * ax;
+    uy -= u_along * ay;
+    uz -= u_along * az;
+    vx -= v_along * ax;
+    vy -= v_along * ay;
+    vz -= v_along * az;
+
+    // the signed angle from u to v about the axis
+    final float cross = ax * (uy * vz - uz * vy) + ay * (uz * vx - ux * vz)
+        + az * (ux * vy - uy * vx);
+    final float dot = ux * vx + uy * vy + uz * vz;
+    if (cross == 0 && dot == 0) {
+      return false;
+    }
+    final float turn = (float) Math.toDegrees(Math.atan2(cross, dot));
+
+    final float angle = this.pose.angle(joint, a);
+    final float turned = Math.min(Math.max(angle + turn, this.pose.minAngle(
+        joint, a)), this.pose.maxAngle(joint, a));
+    if (Math.abs(turned - angle) < MIN_TURN) {
+      return false;
+    }
+    this.pose.setAngle(joint, a, turned);
+    return true;
+  }
+
+  /**
+   * Returns the distance between two points.
+   *
+   * @param p
+   *          The first point (x, y, z).
+   * @param x
+   *          The x coordinate of the second point.
+   * @param y
+   *          The y coordinate of the second point.
+   * @param z
+   *          The z coordinate of the second point.
+   * @return The distance.
+   */
+  private static float distance(final float[] p, final float x,
+      final float y, final float z) {
+    final float dx = p[0] - x, dy = p[1] - y, dz = p[2] - z;
+    return (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+  }
+}
@@ -0,0 +1,278 @@
+/**
+ * Matrix4.java - operations on 4x4 matrices stored as OpenGL float arrays
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - added the normal matrix, for lighting in shaders
+ *
+ * - added the transformation of points and directions
+ *
+ * - created for the per-part model matrices of the dog
+ */
+
+/**
+ * Static operations on 4x4 matrices stored in column-major order, which is
+ * the layout expected by {@code glLoadMatrixf} and {@code glMultMatrixf}.
+ *
+ * None of these methods allocate. The {@code translate}, {@code scale} and
+ * {@code rotate} methods post-multiply their argument, exactly like the
+ * corresponding OpenGL calls do to the current matrix.
+ */
+public final class Matrix4 {
+
+  /** The number of floats in a matrix. */
+  public static final int SIZE = 16;
+  /** The number of floats in the 3x3 normal matrix of a matrix. */
+  public static final int NORMAL_SIZE = 9;
+
+  /** This class only has static methods. */
+  private Matrix4() {
+    // intentionally unimplemented
+  }
+
+  /**
+   * Sets the specified matrix to the identity.
+   *
+   * @param m
+   *          The matrix to set.
+   */
+  public static void identity(final float[] m) {
+    for (int i = 0; i < SIZE; ++i) {
+      m[i] = (i % 5 == 0) ? 1 : 0;
+    }
+  }
+
+  /**
+   * Copies a matrix.
+   *
+   * @param dst
+   *          The matrix to copy into.
+   * @param src
+   *          The matrix to copy from.
+   */
+  public static void copy(final float[] dst, final float[] src) {
+    System.arraycopy(src, 0, dst, 0, SIZE);
+  }
+
+  /**
+   * Computes {@code dst = a * b}. The destination may be the same array as
+   * either of the operands.
+   *
+   * @param dst
+   *          The matrix in which to store the product.
+   * @param a
+   *          The left operand.
+   * @param b
+   *          The right operand.
+   */
+  public static void multiply(final float[] dst, final float[] a,
+      final float[] b) {
+    multiply(dst, 0, a, 0, b, 0);
+  }
+
+  /**
+   * Computes {@code dst = a * b} for matrices stored at the specified offsets
+   * of larger arrays. The destination may overlap either of the operands
+   * exactly.
+   *
+   * @param dst
+   *          The array in which to store the product.
+   * @param dst_offset
+   *          The index of the first element of the product.
+   * @param a
+   *          The array holding the left operand.
+   * @param a_offset
+   *          The index of the first element of the left operand.
+   * @param b
+   *          The array holding the right operand.
+   * @param b_offset
+   *          The index of the first element of the right operand.
+   */
+  public static void multiply(final float[] dst, final int dst_offset,
+      final float[] a, final int a_offset, final float[] b,
+      final int b_offset) {
+    final float a00 = a[a_offset], a10 = a[a_offset + 1];
+    final float a20 = a[a_offset + 2], a30 = a[a_offset + 3];
+    final float a01 = a[a_offset + 4], a11 = a[a_offset + 5];
+    final float a21 = a[a_offset + 6], a31 = a[a_offset + 7];
+    final float a02 = a[a_offset + 8], a12 = a[a_offset + 9];
+    final float a22 = a[a_offset + 10], a32 = a[a_offset + 11];
+    final float a03 = a[a_offset + 12], a13 = a[a_offset + 13];
+    final float a23 = a[a_offset + 14], a33 = a[a_offset + 15];
+
+    for (int j = 0; j < SIZE; j += 4) {
+      final int b_j = b_offset + j, d_j = dst_offset + j;
+      final float b0 = b[b_j], b1 = b[b_j + 1];
+      final float b2 = b[b_j + 2], b3 = b[b_j + 3];
+      dst[d_j] = a00 * b0 + a01 * b1 + a02 * b2 + a03 * b3;
+      dst[d_j + 1] = a10 * b0 + a11 * b1 + a12 * b2 + a13 * b3;
+      dst[d_j + 2] = a20 * b0 + a21 * b1 + a22 * b2 + a23 * b3;
+      dst[d_j + 3] = a30 * b0 + a31 * b1 + a32 * b2 + a33 * b3;
+    }
+  }
+
+  /**
+   * Post-multiplies the specified matrix by a translation.
+   *
+   * @param m
+   *          The matrix to translate.
+   * @param x
+   *          The translation along the x-axis.
+   * @param y
+   *          The translation along the y-axis.
+   * @param z
+   *          The translation along the z-axis.
+   */
+  public static void translate(final float[] m, final float x, final float y,
+      final float z) {
+    for (int i = 0; i < 4; ++i) {
+      m[12 + i] += m[i] * x + m[4 + i] * y + m[8 + i] * z;
+    }
+  }
+
+  /**
+   * Post-multiplies the specified matrix by a scale.
+   *
+   * @param m
+   *          The matrix to scale.
+   * @param x
+   *          The scale factor along the x-axis.
+   * @param y
+   *          The scale factor along the y-axis.
+   * @param z
+   *          The scale factor along the z-axis.
+   */
+  public static void scale(final float[] m, final float x, final float y,
+      final float z) {
+    for (int i = 0; i < 4; ++i) {
+      m[i] *= x;
+      m[4 + i] *= y;
+      m[8 + i] *= z;
+    }
+  }
+
+  /**
+   * Post-multiplies the specified matrix by a rotation about a unit axis.
+   *
+   * @param m
+   *          The matrix to rotate.
+   * @param degrees
+   *          The angle of rotation in degrees.
+   * @param x
+   *          The x component of the unit axis of rotation.
+   * @param y
+   *          The y component of the unit axis of rotation.
+   * @param z
+   *          The z component of the unit axis of rotation.
+   */
+  public static void rotate(final float[] m, final float degrees,
+      final float x, final float y, final float z) {
+    if (degrees == 0) {
+      return;
+    }
+
+    final double radians = Math.toRadians(degrees);
+    final float c = (float) Math.cos(radians);
+    final float s = (float) Math.sin(radians);
+    final float t = 1 - c;
+
+    // the rotation matrix, by rows
+    final float r00 = t * x * x + c, r01 = t * x * y - s * z;
+    final float r02 = t * x * z + s * y;
+    final float r10 = t * x * y + s * z, r11 = t * y * y + c;
+    final float r12 = t * y * z - s * x;
+    final float r20 = t * x * z - s * y, r21 = t * y * z + s * x;
+    final float r22 = t * z * z + c;
+
+    for (int i = 0; i < 4; ++i) {
+      final float m0 = m[i], m1 = m[4 + i], m2 = m[8 + i];
+      m[i] = m0 * r00 + m1 * r10 + m2 * r20;
+      m[4 + i] = m0 * r01 + m1 * r11 + m2 * r21;
+      m[8 + i] = m0 * r02 + m1 * r12 + m2 * r22;
+    }
+  }
+
+  /**
+   * Transforms a point by a matrix stored in an array.
+   *
+   * @param dst
+   *          The array in which to store the transformed point (x, y, z).
+   * @param m
+   *          The array holding the matrix.
+   * @param offset
+   *          The index of the first element of the matrix.
+   * @param x
+   *          The x coordinate of the point.
+   * @param y
+   *          The y coordinate of the point.
+   * @param z
+   *          The z coordinate of the point.
+   */
+  public static void transformPoint(final float[] dst, final float[] m,
+      final int offset, final float x, final float y, final float z) {
+    for (int i = 0; i < 3; ++i) {
+      dst[i] = m[offset + i] * x + m[offset + 4 + i] * y + m[offset + 8 + i]
+          * z + m[offset + 12 + i];
+    }
+  }
+
+  /**
+   * Transforms a direction by a matrix stored in an array, ignoring its
+   * translation.
+   *
+   * @param dst
+   *          The array in which to store the transformed direction (x, y, z).
+   * @param m
+   *          The array holding the matrix.
+   * @param offset
+   *          The index of the first element of the matrix.
+   * @param x
+   *          The x component of the direction.
+   * @param y
+   *          The y component of the direction.
+   * @param z
+   *          The z component of the direction.
+   */
+  public static void transformVector(final float[] dst, final float[] m,
+      final int offset, final float x, final float y, final float z) {
+    for (int i = 0; i < 3; ++i) {
+      dst[i] = m[offset + i] * x + m[offset + 4 + i] * y + m[offset + 8 + i]
+          * z;
+    }
+  }
+
+  /**
+   * Computes the matrix which transforms normals the way a matrix stored in
+   * an array transforms points: the cofactors of its upper 3x3 block, which
+   * are its inverse transpose scaled by its determinant. The normals it
+   * gives point the right way, even under non-uniform scales, but must be
+   * normalized.
+   *
+   * @param dst
+   *          The array in which to store the normal matrix, a 3x3 matrix in
+   *          column-major order.
+   * @param dst_offset
+   *          The index of the first element of the normal matrix.
+   * @param m
+   *          The array holding the matrix.
+   * @param offset
+   *          The index of the first element of the matrix.
+   */
+  public static void normalMatrix(final float[] dst, final int dst_offset,
+      final float[] m, final int offset) {
+    final float m0 = m[offset], m1 = m[offset + 1], m2 = m[offset + 2];
+    final float m4 = m[offset + 4], m5 = m[offset + 5], m6 = m[offset + 6];
+    final float m8 = m[offset + 8], m9 = m[offset + 9], m10 = m[offset + 10];
+    dst[dst_offset] = m5 * m10 - m6 * m9;
+    dst[dst_offset + 1] = m6 * m8 - m4 * m10;
+    dst[dst_offset + 2] = m4 * m9 - m5 * m8;
+    dst[dst_offset + 3] = m9 * m2 - m10 * m1;
+    dst[dst_offset + 4] = m10 * m0 - m8 * m2;
+    dst[dst_offset + 5] = m8 * m1 - m9 * m0;
+    dst[dst_offset + 6] = m1 * m6 - m2 * m5;
+    dst[dst_offset + 7] = m2 * m4 - m0 * m6;
+    dst[dst_offset + 8] = m0 * m5 - m1 * m4;
+  }
+}
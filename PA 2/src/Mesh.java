@@ -0,0 +1,63 @@
+/**
+ * Mesh.java - a piece of geometry which is uploaded once and drawn many times
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - created for the shared meshes of the dog parts
+ */
+
+import javax.media.opengl.GL;
+
+/**
+ * A piece of static geometry which is uploaded to OpenGL once and can then be
+ * drawn any number of times under different model matrices.
+ *
+ * Drawing is split into {@link #bind(GL)}, {@link #draw(GL)} and
+ * {@link #unbind(GL)} so that several parts sharing a mesh can be drawn with a
+ * single bind.
+ */
+public interface Mesh {
+
+  /**
+   * Uploads the geometry using the specified OpenGL object.
+   *
+   * @param gl
+   *          The OpenGL object with which to upload the geometry.
+   */
+  void upload(final GL gl);
+
+  /**
+   * Makes this mesh the source of subsequent calls to {@link #draw(GL)}.
+   *
+   * @param gl
+   *          The OpenGL object with which to bind the mesh.
+   */
+  void bind(final GL gl);
+
+  /**
+   * Draws this mesh under the current model view matrix; the mesh must be
+   * bound.
+   *
+   * @param gl
+   *          The OpenGL object with which to draw the mesh.
+   */
+  void draw(final GL gl);
+
+  /**
+   * Restores the OpenGL state changed by {@link #bind(GL)}.
+   *
+   * @param gl
+   *          The OpenGL object with which to unbind the mesh.
+   */
+  void unbind(final GL gl);
+
+  /**
+   * Returns the number of triangles drawn by a single call to
+   * {@link #draw(GL)}.
+   *
+   * @return The number of triangles in this mesh.
+   */
+  int triangleCount();
+}
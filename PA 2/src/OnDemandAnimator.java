@@ -0,0 +1,151 @@
+/**
+ * OnDemandAnimator.java - redraws a drawable only when something changed
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - created so that an idle viewer uses no CPU
+ */
+
+import javax.media.opengl.GLAutoDrawable;
+
+/**
+ * A replacement for {@code FPSAnimator} which only redraws its drawable after
+ * {@link #requestFrame()} has been called, at most a fixed number of times per
+ * second.
+ *
+ * While no frame has been requested, or while it is paused, its thread waits
+ * without a timeout and so uses no CPU at all. It counts the frames it drew
+ * and the frames it skipped, that is, the frames a fixed-rate animator would
+ * have drawn in the meantime.
+ */
+public class OnDemandAnimator {
+
+  /** The drawable to redraw. */
+  private final GLAutoDrawable drawable;
+  /** The shortest time between two frames, in nanoseconds. */
+  private final long frame_nanoseconds;
+  /** Whether a frame has been requested since the last one was drawn. */
+  private boolean dirty = true;
+  /** Whether drawing is paused, for example because the window is hidden. */
+  private boolean paused = false;
+  /** The thread which draws the frames, or null if it is not running. */
+  private Thread thread = null;
+  /** The number of frames drawn. */
+  private long rendered_count = 0;
+  /** The number of frames a fixed-rate animator would have drawn in vain. */
+  private long skipped_count = 0;
+
+  /**
+   * Instantiates an animator of the specified drawable.
+   *
+   * @param drawable
+   *          The drawable to redraw.
+   * @param fps
+   *          The most frames to draw per second.
+   */
+  public OnDemandAnimator(final GLAutoDrawable drawable, final int fps) {
+    this.drawable = drawable;
+    this.frame_nanoseconds = 1000000000L / Math.max(1, fps);
+  }
+
+  /** Starts the thread which draws the requested frames. */
+  public synchronized void start() {
+    if (this.thread != null) {
+      return;
+    }
+    this.thread = new Thread("on-demand animator") {
+      @Override
+      public void run() {
+        OnDemandAnimator.this.run(this);
+      }
+    };
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  /** Stops the thread which draws the requested frames. */
+  public synchronized void stop() {
+    if (this.thread != null) {
+      this.thread.interrupt();
+      this.thread = null;
+    }
+  }
+
+  /** Asks for the drawable to be redrawn as soon as the frame rate allows. */
+  public synchronized void requestFrame() {
+    this.dirty = true;
+    this.notifyAll();
+  }
+
+  /**
+   * Pauses or resumes drawing; a frame is drawn as soon as drawing resumes.
+   *
+   * @param paused
+   *          Whether to pause drawing.
+   */
+  public synchronized void setPaused(final boolean paused) {
+    this.paused = paused;
+    this.dirty = true;
+    this.notifyAll();
+  }
+
+  /**
+   * Draws each requested frame until the specified thread is interrupted.
+   *
+   * @param self
+   *          The thread running this method.
+   */
+  private void run(final Thread self) {
+    while (!self.isInterrupted()) {
+      final long start;
+      synchronized (this) {
+        final long idle_start = System.nanoTime();
+        try {
+          while (!this.dirty || this.paused) {
+            this.wait();
+          }
+        } catch (final InterruptedException exception) {
+          return;
+        }
+        start = System.nanoTime();
+        // the first frame of the wait would have been drawn anyway
+        this.skipped_count += (start - idle_start) / this.frame_nanoseconds;
+        this.dirty = false;
+        this.rendered_count++;
+      }
+
+      this.drawable.display();
+
+      // do not exceed the frame rate however often frames are requested
+      final long wait = start + this.frame_nanoseconds - System.nanoTime();
+      if (wait > 0) {
+        try {
+          Thread.sleep(wait / 1000000, (int) (wait % 1000000));
+        } catch (final InterruptedException exception) {
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the number of frames drawn so far.
+   *
+   * @return The number of frames rendered.
+   */
+  public synchronized long renderedCount() {
+    return this.rendered_count;
+  }
+
+  /**
+   * Returns the number of frames a fixed-rate animator would have drawn while
+   * nothing changed or drawing was paused.
+   *
+   * @return The number of frames skipped.
+   */
+  public synchronized long skippedCount() {
+    return this.skipped_count;
+  }
+}
@@ -3,6 +3,46 @@
  * 
  * History:
  * 
+ * 18 October 2026
+ *
+ * - queued a pick of the part under each click
+ *
+ * - reported the state changes saved by the render queue in each frame
+ *   event
+ *
+ * - added a key and an option to light the dogs with the shader or the
+ *   fixed-function pipeline
+ *
+ * - added a key and an option to draw the dogs as continuous skins
+ *
+ * - recorded the input to a log, for replaying sessions
+ *
+ * - loaded the tricks from a library of pose clips given on the command
+ *   line, checked against the joints of the dog
+ *
+ * - emitted a flight recorder event for each frame
+ *
+ * - timed each frame into histograms shown in an overlay
+ *
+ * - moved the drawing of the scene into a class shared with the headless
+ *   budgets
+ *
+ * - queued keyboard and mouse input as commands instead of taking locks
+ *
+ * - rotated the view without allocating while dragging or drawing
+ *
+ * - drew frames only on demand, pausing while the window is minimized
+ *
+ * - stepped the simulation at a fixed tick and interpolated the frames
+ *
+ * - evaluated the herd on its own thread and drew its published frames
+ *
+ * - added a crowd mode drawing a herd of dogs
+ *
+ * - drove the tricks by the time elapsed
+ *
+ * - passed the camera to the dog, to tessellate by size on screen
+ *
  * 19 February 2011
  * 
  * - added documentation
@@ -17,11 +57,17 @@
  * 
  */
 
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.InputEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
 
 import javax.media.opengl.GL;
 import javax.media.opengl.GLAutoDrawable;
@@ -31,6 +77,7 @@ import javax.media.opengl.GLEventListener;
 import javax.media.opengl.glu.GLU;
 import javax.swing.JFrame;
 
+import com.sun.opengl.util.Animator;
 import com.sun.opengl.util.FPSAnimator;
 import com.sun.opengl.util.GLUT;
 
@@ -48,15 +95,122 @@ public class PA2 extends JFrame implements GLEventListener, KeyListener,
   /**
    * Runs the dog simulation in a single JFrame.
    * 
+   * With {@code -dogs N} a herd of N dogs performing tricks is drawn instead
+   * of the interactive dog, and its frame rate is printed once it settles;
+   * with {@code -sweep} the frame rate of herds of increasing size is printed.
+   * With {@code -fps N} the scene is drawn at most N times per second, where
+   * 0 means as often as possible; this never changes the speed of the
+   * animation, which is simulated at a fixed rate on its own thread. With
+   * {@code -ondemand} the scene is only drawn when something in it changes,
+   * and not at all while the window is minimized or hidden. With
+   * {@code -stats FILE} the timings of the frames are written to FILE on exit,
+   * as JSON if its name ends in {@code .json} and as CSV otherwise. With
+   * {@code -clips FILE} the interactive dog plays the clips of the
+   * {@link ClipLibrary} in FILE instead of its built-in tricks. With
+   * {@code -record FILE} the input to the interactive dog is logged to FILE,
+   * from which {@link InputReplay} can repeat the session; the paws are then
+   * placed within a number of iterations rather than a time per step. With
+   * {@code -skin} the dogs are drawn as continuous skins rather than as
+   * separate parts; the skins are deformed with the vector API if the JVM
+   * runs with {@code --add-modules jdk.incubator.vector}. With {@code -fixed}
+   * the dogs are lit by the fixed-function pipeline even where the context
+   * supports the shader which otherwise lights them.
+   * 
    * @param args
-   *          This parameter is ignored.
+   *          The command line arguments, {@code [-dogs N] [-sweep] [-fps N]
+   *          [-ondemand] [-stats FILE] [-clips FILE] [-record FILE]
+   *          [-skin] [-fixed]}.
    */
   public static void main(final String[] args) {
-    new PA2().animator.start();
+    int dogs = 0;
+    boolean sweep = false;
+    int fps = -1;
+    boolean on_demand = false;
+    String stats_path = null;
+    String clips_path = null;
+    String record_path = null;
+    boolean skinned = false;
+    boolean fixed = false;
+    for (int i = 0; i < args.length; ++i) {
+      if ("-dogs".equals(args[i]) && i + 1 < args.length) {
+        dogs = Integer.parseInt(args[++i]);
+      } else if ("-sweep".equals(args[i])) {
+        sweep = true;
+      } else if ("-fps".equals(args[i]) && i + 1 < args.length) {
+        fps = Integer.parseInt(args[++i]);
+      } else if ("-ondemand".equals(args[i])) {
+        on_demand = true;
+      } else if ("-stats".equals(args[i]) && i + 1 < args.length) {
+        stats_path = args[++i];
+      } else if ("-clips".equals(args[i]) && i + 1 < args.length) {
+        clips_path = args[++i];
+      } else if ("-record".equals(args[i]) && i + 1 < args.length) {
+        record_path = args[++i];
+      } else if ("-skin".equals(args[i])) {
+        skinned = true;
+      } else if ("-fixed".equals(args[i])) {
+        fixed = true;
+      } else {
+        System.err.println("usage: java PA2 [-dogs N] [-sweep] [-fps N] "
+            + "[-ondemand] [-stats FILE] [-clips FILE] [-record FILE] "
+            + "[-skin] [-fixed]");
+        System.exit(1);
+      }
+    }
+    if (record_path != null && (sweep || dogs > 0)) {
+      System.err.println("only the interactive dog can be recorded");
+      System.exit(1);
+    }
+
+    int counts[] = null;
+    if (sweep) {
+      counts = CrowdSweep.DEFAULT_COUNTS;
+    } else if (dogs > 0) {
+      counts = new int[] { dogs };
+    }
+    if (fps < 0) {
+      // measure herds without a cap, but spare the CPU for a single dog
+      fps = (counts == null) ? DEFAULT_FPS : 0;
+    }
+    final PA2 viewer = new PA2(counts, fps, on_demand);
+    if (stats_path != null) {
+      viewer.writeTimingsOnExit(stats_path);
+    }
+    if (clips_path != null) {
+      try {
+        viewer.dog.setClipLibrary(ClipLibrary.open(clips_path,
+            Dog.PartType.values().length));
+      } catch (final IOException exception) {
+        System.err.println(exception.getMessage());
+        System.exit(1);
+      }
+    }
+    if (skinned) {
+      viewer.toggleSkin();
+    }
+    if (fixed) {
+      viewer.scene.setShaded(false);
+    }
+    if (record_path != null) {
+      try {
+        viewer.recordInput(record_path);
+      } catch (final IOException exception) {
+        System.err.println(exception.getMessage());
+        System.exit(1);
+      }
+    }
+    viewer.start();
   }
 
-  /** The animator which controls the framerate at which the canvas is animated. */
-  final FPSAnimator animator;
+  /**
+   * The animator which controls the framerate at which the canvas is
+   * animated, or null if the canvas is only drawn on demand.
+   */
+  final Animator animator;
+  /** The animator which draws the canvas on demand, or null. */
+  private final OnDemandAnimator on_demand;
+  /** Whether the scene is drawn as often as possible. */
+  private final boolean uncapped;
   /** The canvas on which we draw the scene. */
   private final GLCanvas canvas;
   /** The capabilities of the canvas. */
@@ -69,21 +223,67 @@ public class PA2 extends JFrame implements GLEventListener, KeyListener,
   private final GLU glu = new GLU();
   /** The OpenGL utility toolkit object. */
   private final GLUT glut = new GLUT();
+  /** The number of nanoseconds in a millisecond. */
+  private static final long NANOSECONDS_PER_MILLISECOND = 1000000L;
+  /** The default number of frames drawn per second of the interactive dog. */
+  public static final int DEFAULT_FPS = 60;
+  /**
+   * The dogs being simulated and drawn, which is a herd of one for the
+   * interactive dog.
+   */
+  private final Crowd crowd;
   /** The dog model which will be changed by keyboard and mouse presses. */
-  private final Dog dog = new Dog(this.glut);
+  private final Dog dog;
+  /** The measurement of the frame rate of the herd, or null. */
+  private final CrowdSweep sweep;
+  /** Everything drawn in a frame. */
+  private final Scene scene;
 
   /** The last x and y coordinates of the mouse press. */
   private int last_x = 0, last_y = 0;
   /** Whether the world is being rotated. */
   private boolean rotate_world = false;
 
-  /** The quaternion which controls the rotation of the world. */
-  private Quaternion viewing_quaternion = new Quaternion();
+  /** Carries keyboard and mouse input to the simulation and the display. */
+  private final InputHandler input;
 
   /**
    * Initializes the necessary OpenGL objects and adds a canvas to this JFrame.
    */
   public PA2() {
+    this(null, DEFAULT_FPS, false);
+  }
+
+  /**
+   * Initializes the necessary OpenGL objects and adds a canvas to this JFrame,
+   * drawing a herd of dogs if any sizes are specified.
+   * 
+   * @param crowd_counts
+   *          The numbers of dogs to draw in turn while measuring the frame
+   *          rate, or null to draw the interactive dog.
+   * @param fps
+   *          The most frames to draw per second, or 0 to draw as many as
+   *          possible.
+   * @param on_demand
+   *          Whether to draw only when something has changed.
+   */
+  public PA2(final int[] crowd_counts, final int fps, final boolean on_demand) {
+    if (crowd_counts == null) {
+      this.crowd = new Crowd(this.glut, 1, false);
+      this.sweep = null;
+    } else {
+      int capacity = 1;
+      for (final int count : crowd_counts) {
+        capacity = Math.max(capacity, count);
+      }
+      this.crowd = new Crowd(this.glut, capacity);
+      this.sweep = new CrowdSweep(this.crowd, crowd_counts);
+    }
+    this.dog = this.crowd.dog(0);
+    this.input = new InputHandler(this.dog);
+    this.crowd.setInputHandler(this.input);
+    this.scene = new Scene(this.crowd, this.input, this.sweep);
+
     this.capabilities.setDoubleBuffered(true);
 
     this.canvas = new GLCanvas(this.capabilities);
@@ -91,12 +291,63 @@ public class PA2 extends JFrame implements GLEventListener, KeyListener,
     this.canvas.addMouseListener(this);
     this.canvas.addMouseMotionListener(this);
     this.canvas.addKeyListener(this);
-    // this is true by default, but we just add this line to be explicit
-    this.canvas.setAutoSwapBufferMode(true);
+    // the buffers are swapped in display() so that the swap can be timed
+    this.canvas.setAutoSwapBufferMode(false);
     this.getContentPane().add(this.canvas);
 
-    // refresh the scene at 60 frames per second
-    this.animator = new FPSAnimator(this.canvas, 60);
+    if (on_demand) {
+      // draw a frame after input, after each step of a moving dog, and
+      // after the window has been uncovered, but otherwise sleep
+      this.animator = null;
+      this.on_demand = new OnDemandAnimator(this.canvas, fps > 0 ? fps
+          : DEFAULT_FPS);
+      this.crowd.setStepListener(new Runnable() {
+        @Override
+        public void run() {
+          PA2.this.on_demand.requestFrame();
+        }
+      });
+      this.addWindowListener(new WindowAdapter() {
+        @Override
+        public void windowIconified(final WindowEvent event) {
+          PA2.this.setPaused(true);
+        }
+
+        @Override
+        public void windowDeiconified(final WindowEvent event) {
+          PA2.this.setPaused(false);
+        }
+      });
+      this.addComponentListener(new ComponentAdapter() {
+        @Override
+        public void componentHidden(final ComponentEvent event) {
+          PA2.this.setPaused(true);
+        }
+
+        @Override
+        public void componentShown(final ComponentEvent event) {
+          PA2.this.setPaused(false);
+        }
+      });
+      Runtime.getRuntime().addShutdownHook(new Thread() {
+        @Override
+        public void run() {
+          System.out.println("frames rendered: "
+              + PA2.this.on_demand.renderedCount() + ", skipped: "
+              + PA2.this.on_demand.skippedCount());
+        }
+      });
+    } else if (fps > 0) {
+      this.on_demand = null;
+      // refresh the scene at the specified number of frames per second
+      this.animator = new FPSAnimator(this.canvas, fps);
+    } else {
+      this.on_demand = null;
+      // draw as fast as possible, for example to measure the frame rate
+      this.animator = new Animator(this.canvas);
+      this.animator.setRunAsFastAsPossible(true);
+    }
+    this.uncapped = (fps == 0);
 
     this.setTitle("CS480/CS680 : Dog Simulator");
     this.setSize(DEFAULT_WINDOW_WIDTH, DEFAULT_WINDOW_HEIGHT);
@@ -109,6 +360,128 @@ public class PA2 extends JFrame implements GLEventListener, KeyListener,
      */
   }
 
+  /**
+   * Logs the input applied to the dog and to the view to a file until the
+   * program exits.
+   * 
+   * @param path
+   *          The path of the log, which is replaced if it exists.
+   * @throws IOException
+   *           If the log cannot be created.
+   */
+  public void recordInput(final String path) throws IOException {
+    final InputRecorder recorder = new InputRecorder(path);
+    // a replay can only match poses which never depended on timing
+    this.crowd.setSolverBudget(LimbSolver.UNLIMITED_NANOSECONDS);
+    this.input.setRecorder(recorder);
+    Runtime.getRuntime().addShutdownHook(new Thread() {
+      @Override
+      public void run() {
+        PA2.this.input.setRecorder(null);
+        try {
+          recorder.close();
+        } catch (final IOException exception) {
+          System.err.println(exception.getMessage());
+        }
+      }
+    });
+  }
+
+  /**
+   * Writes the timings of the frames drawn to a file when the program exits.
+   * 
+   * @param path
+   *          The path of the file, which is written as JSON if it ends in
+   *          {@code .json} and as CSV otherwise.
+   */
+  public void writeTimingsOnExit(final String path) {
+    Runtime.getRuntime().addShutdownHook(new Thread() {
+      @Override
+      public void run() {
+        try {
+          PA2.this.scene.timings().write(path);
+        } catch (final IOException exception) {
+          System.err.println(exception.getMessage());
+        }
+      }
+    });
+  }
+
+  /**
+   * Switches between drawing the dogs as continuous skins and as separate
+   * parts.
+   */
+  void toggleSkin() {
+    final boolean skinned = !this.crowd.isSkinned();
+    this.crowd.setSkinned(skinned);
+    System.out.println(skinned ? "Skinned with the "
+        + this.crowd.skinning() + " kernel" : "Drawn as parts");
+    this.requestFrame();
+  }
+
+  /**
+   * Switches between lighting the dogs with the shader and with the
+   * fixed-function pipeline.
+   */
+  void toggleShading() {
+    final boolean shaded = !this.scene.isShaded();
+    this.scene.setShaded(shaded);
+    if (!shaded) {
+      System.out.println("Lit by the fixed-function pipeline");
+    } else if (this.scene.shader().isAvailable()) {
+      System.out.println("Lit by the shader");
+    } else {
+      System.out.println("The shader is unavailable; lit by the "
+          + "fixed-function pipeline");
+    }
+    this.requestFrame();
+  }
+
+  /** Starts simulating the dogs and drawing the scene. */
+  public void start() {
+    this.crowd.start();
+    if (this.on_demand != null) {
+      this.on_demand.start();
+    } else {
+      this.animator.start();
+    }
+  }
+
+  /** Stops drawing the scene. */
+  void stopRendering() {
+    if (this.on_demand != null) {
+      this.on_demand.stop();
+    } else {
+      this.animator.stop();
+    }
+  }
+
+  /**
+   * Asks for the scene to be drawn again, if it is only drawn on demand;
+   * otherwise the animator draws it anyway.
+   */
+  private void requestFrame() {
+    if (this.on_demand != null) {
+      this.on_demand.requestFrame();
+    }
+  }
+
+  /**
+   * Pauses both the simulation and the drawing of the scene, for example
+   * while the window is minimized, or resumes them.
+   * 
+   * @param paused
+   *          Whether to pause.
+   */
+  void setPaused(final boolean paused) {
+    if (paused) {
+      this.crowd.stop();
+    } else {
+      this.crowd.start();
+    }
+    this.on_demand.setPaused(paused);
+  }
+
   /**
    * Redisplays the scene containing the dog model.
    * 
@@ -116,23 +489,39 @@ public class PA2 extends JFrame implements GLEventListener, KeyListener,
    *          The OpenGL drawable object with which to create OpenGL models.
    */
   public void display(final GLAutoDrawable drawable) {
+    final FrameEvent event = new FrameEvent();
+    event.begin();
     final GL gl = drawable.getGL();
+    final long start = System.nanoTime();
+    final boolean settled = this.scene.display(gl);
+    this.scene.drawOverlay(gl, this.glut);
+
+    final long swap_start = System.nanoTime();
+    drawable.swapBuffers();
+    final long end = System.nanoTime();
+    final FrameTimings timings = this.scene.timings();
+    timings.record(FrameTimings.Phase.SWAP, end - swap_start);
+    timings.record(FrameTimings.Phase.FRAME, end - start);
+    if (this.scene.shownInputTime() != 0) {
+      timings.record(FrameTimings.Phase.INPUT_LATENCY, end
+          - this.scene.shownInputTime());
+    }
+    if (event.shouldCommit()) {
+      event.dogs = this.crowd.count();
+      event.submitted_parts = this.crowd.submittedPartCount();
+      event.culled_parts = this.crowd.culledPartCount();
+      event.triangles = this.crowd.triangleCount();
+      event.state_changes = this.crowd.stateChangeCount();
+      event.saved_state_changes = this.crowd.savedStateChangeCount();
+      event.settled = settled;
+      event.commit();
+    }
 
-    // clear the display
-    gl.glClear(GL.GL_COLOR_BUFFER_BIT | GL.GL_DEPTH_BUFFER_BIT);
-
-    // from here on affect the model view
-    gl.glMatrixMode(GL.GL_MODELVIEW);
-
-    // start with the identity matrix initially
-    gl.glLoadIdentity();
-
-    // rotate the world by the appropriate rotation quaternion
-    gl.glMultMatrixf(this.viewing_quaternion.toMatrix(), 0);
-
-    // update the position of the dog if it needs to be updated, and draw it
-    this.dog.update(gl);
-    this.dog.draw(gl);
+    // keep drawing until the interpolation has caught up with the last step,
+    // and keep the overlay up to date
+    if (!settled || this.scene.isOverlayVisible()) {
+      this.requestFrame();
+    }
   }
 
   /**
@@ -159,31 +548,12 @@ public class PA2 extends JFrame implements GLEventListener, KeyListener,
   public void init(final GLAutoDrawable drawable) {
     final GL gl = drawable.getGL();
 
-    // perform any initialization needed by the dog model
-    this.dog.init(gl);
-
-    // set up for shaded display of the dog
-    final float light0_position[] = { 1, 1, 1, 0 };
-    final float light0_ambient_color[] = { 0.25f, 0.25f, 0.25f, 1 };
-    final float light0_diffuse_color[] = { 1, 1, 1, 1 };
-
-    gl.glPolygonMode(GL.GL_FRONT, GL.GL_FILL);
-    gl.glEnable(GL.GL_COLOR_MATERIAL);
-    gl.glColorMaterial(GL.GL_FRONT, GL.GL_AMBIENT_AND_DIFFUSE);
-
-    gl.glClearColor(0.0f, 0.0f, 0.0f, 0.0f);
-    gl.glShadeModel(GL.GL_SMOOTH);
-
-    // set up the light source
-    gl.glLightfv(GL.GL_LIGHT0, GL.GL_POSITION, light0_position, 0);
-    gl.glLightfv(GL.GL_LIGHT0, GL.GL_AMBIENT, light0_ambient_color, 0);
-    gl.glLightfv(GL.GL_LIGHT0, GL.GL_DIFFUSE, light0_diffuse_color, 0);
-
-    // turn lighting and depth buffering on
-    gl.glEnable(GL.GL_LIGHTING);
-    gl.glEnable(GL.GL_LIGHT0);
-    gl.glEnable(GL.GL_DEPTH_TEST);
-    gl.glEnable(GL.GL_NORMALIZE);
+    // perform any initialization needed by the dog model and the lighting
+    this.scene.init(gl);
+    if (this.uncapped) {
+      // do not let the vertical refresh cap the frame rate
+      gl.setSwapInterval(0);
+    }
   }
 
   /**
@@ -198,12 +568,12 @@ public class PA2 extends JFrame implements GLEventListener, KeyListener,
     switch (key.getKeyCode()) {
     case KeyEvent.VK_KP_UP:
     case KeyEvent.VK_UP:
-      this.dog.rotateActiveJointsBackward();
+      this.push(Command.ROTATE_BACKWARD, key);
       break;
 
     case KeyEvent.VK_KP_DOWN:
     case KeyEvent.VK_DOWN:
-      this.dog.rotateActiveJointsForward();
+      this.push(Command.ROTATE_FORWARD, key);
       break;
 
     default:
@@ -211,6 +581,44 @@ public class PA2 extends JFrame implements GLEventListener, KeyListener,
     }
   }
 
+  /**
+   * Queues a command for the thread which applies it, and wakes that thread.
+   * 
+   * @param command
+   *          The command issued by the keyboard or the mouse.
+   * @param event
+   *          The event which issued the command.
+   */
+  private void push(final Command command, final InputEvent event) {
+    this.push(command, command.x, command.y, event);
+  }
+
+  /**
+   * Queues a shared command with two numbers in place of its own, such as a
+   * drag with its motion, for the thread which applies it, and wakes that
+   * thread.
+   * 
+   * @param command
+   *          The command issued by the keyboard or the mouse.
+   * @param x
+   *          The horizontal mouse motion or position.
+   * @param y
+   *          The vertical mouse motion or position.
+   * @param event
+   *          The event which issued the command.
+   */
+  private void push(final Command command, final int x, final int y,
+      final InputEvent event) {
+    // events are stamped with the wall clock; measure latency on nanoTime
+    final long age = System.currentTimeMillis() - event.getWhen();
+    this.input.push(command, x, y, System.nanoTime() - Math.max(0, age)
+        * NANOSECONDS_PER_MILLISECOND);
+    if (!command.type.isView()) {
+      this.crowd.wake();
+    }
+    this.requestFrame();
+  }
+
   /**
    * This method is intentionally unimplemented.
    * 
@@ -252,10 +660,19 @@ public class PA2 extends JFrame implements GLEventListener, KeyListener,
    * 
    * 0 : resets the view to the initial rotation
    * 
+   * F : shows or hides the timings of the frames
+   * 
+   * S : draws the dogs as continuous skins or as separate parts
+   * 
+   * G : lights the dogs with the shader or the fixed-function pipeline
+   * 
    * Q, Esc : exits the program
    * 
+   * Instead of the number keys and P, U and L, a part and its joint can be
+   * selected by clicking on them; see {@link #mouseClicked(MouseEvent)}.
+   * 
    */
-  public void keyTyped(KeyEvent key) {
+  public void keyTyped(final KeyEvent key) {
     switch (key.getKeyChar()) {
     case 'Q':
     case 'q':
@@ -263,7 +680,7 @@ public class PA2 extends JFrame implements GLEventListener, KeyListener,
       new Thread() {
         @Override
         public void run() {
-          PA2.this.animator.stop();
+          PA2.this.stopRendering();
         }
       }.start();
       System.exit(0);
@@ -271,70 +688,89 @@ public class PA2 extends JFrame implements GLEventListener, KeyListener,
 
     // set the viewing quaternion to 0 rotation
     case '0':
-      this.viewing_quaternion.reset();
+      this.push(Command.RESET_VIEW, key);
+      break;
+
+    // show or hide the timings of the frames
+    case 'F':
+    case 'f':
+      this.scene.setOverlayVisible(!this.scene.isOverlayVisible());
+      this.requestFrame();
+      break;
+
+    // draw the dogs skinned or as parts
+    case 'S':
+    case 's':
+      this.toggleSkin();
+      break;
+
+    // light the dogs with the shader or the fixed-function pipeline
+    case 'G':
+    case 'g':
+      this.toggleShading();
       break;
 
     // Toggle which body parts are affected by the current rotation
     case '1':
-      this.dog.toggle_part(Dog.BodyPartType.REAR_LEFT_LEG);
+      this.push(Command.togglePart(Dog.BodyPartType.REAR_LEFT_LEG), key);
       break;
     case '2':
-      this.dog.toggle_part(Dog.BodyPartType.REAR_RIGHT_LEG);
+      this.push(Command.togglePart(Dog.BodyPartType.REAR_RIGHT_LEG), key);
       break;
     case '3':
-      this.dog.toggle_part(Dog.BodyPartType.FRONT_LEFT_LEG);
+      this.push(Command.togglePart(Dog.BodyPartType.FRONT_LEFT_LEG), key);
       break;
     case '4':
-      this.dog.toggle_part(Dog.BodyPartType.FRONT_RIGHT_LEG);
+      this.push(Command.togglePart(Dog.BodyPartType.FRONT_RIGHT_LEG), key);
       break;
     case 'H':
     case 'h':
-      this.dog.toggle_part(Dog.BodyPartType.HEAD);
+      this.push(Command.togglePart(Dog.BodyPartType.HEAD), key);
       break;
     case 'N':
     case 'n':
-      this.dog.toggle_part(Dog.BodyPartType.NECK);
+      this.push(Command.togglePart(Dog.BodyPartType.NECK), key);
       break;
     case 'T':
     case 't':
-      this.dog.toggle_part(Dog.BodyPartType.TAIL);
+      this.push(Command.togglePart(Dog.BodyPartType.TAIL), key);
       break;
 
     // select joint
     case 'P':
     case 'p':
-      this.dog.set_joint(Dog.JointType.PAW);
+      this.push(Command.selectJoint(Dog.JointType.PAW), key);
       break;
     case 'U':
     case 'u':
-      this.dog.set_joint(Dog.JointType.UPPER);
+      this.push(Command.selectJoint(Dog.JointType.UPPER), key);
       break;
     case 'L':
     case 'l':
-      this.dog.set_joint(Dog.JointType.LOWER);
+      this.push(Command.selectJoint(Dog.JointType.LOWER), key);
       break;
 
     // change the axis of rotation at current active joint
     case 'X':
     case 'x':
-      this.dog.set_rotation_axis(Dog.AxisType.X);
+      this.push(Command.selectAxis(Dog.AxisType.X), key);
       break;
     case 'Y':
     case 'y':
-      this.dog.set_rotation_axis(Dog.AxisType.Y);
+      this.push(Command.selectAxis(Dog.AxisType.Y), key);
       break;
     case 'Z':
     case 'z':
-      this.dog.set_rotation_axis(Dog.AxisType.Z);
+      this.push(Command.selectAxis(Dog.AxisType.Z), key);
       break;
     case 'R':
     case 'r':
-    	this.dog.reset();
+    	this.push(Command.RESET, key);
     	break;
     	
     case 'C':
     case 'c':
-    	this.dog.test();
+    	this.push(Command.NEXT_TRICK, key);
     	break;
 
     default:
@@ -343,13 +779,19 @@ public class PA2 extends JFrame implements GLEventListener, KeyListener,
   }
 
   /**
-   * This method is intentionally unimplemented.
+   * Selects the leg, head, neck or tail under a click of the left mouse
+   * button, alone, and the joint of it which was clicked: the hip for the
+   * upper leg, the knee for the lower leg, and the paw for the paw. The
+   * display picks the click through the view it shows, so only clicks on the
+   * dog under control select anything.
    * 
    * @param mouse
-   *          This parameter is ignored.
+   *          The mouse click event object.
    */
-  public void mouseClicked(MouseEvent mouse) {
-    // intentionally unimplemented
+  public void mouseClicked(final MouseEvent mouse) {
+    if (mouse.getButton() == MouseEvent.BUTTON1) {
+      this.push(Command.PICK, mouse.getX(), mouse.getY(), mouse);
+    }
   }
 
   /**
@@ -371,21 +813,8 @@ public class PA2 extends JFrame implements GLEventListener, KeyListener,
       if (dx == 0 || dy == 0)
     	   return;
 
-      // create a unit vector in the direction of the vector (dy, dx, 0)
-      final double magnitude = Math.sqrt(dx * dx + dy * dy);
-      final float[] axis = new float[] { (float) (dy / magnitude),
-          (float) (dx / magnitude), 0 };
-
-      // calculate appropriate quaternion
-      final float viewing_delta = 3.1415927f / 180.0f;
-      final float s = (float) Math.sin(0.5f * viewing_delta);
-      final float c = (float) Math.cos(0.5f * viewing_delta);
-      final Quaternion Q = new Quaternion(c, s * axis[0], s * axis[1], s
-          * axis[2]);
-      this.viewing_quaternion = Q.multiply(this.viewing_quaternion);
-
-      // normalize to counteract acccumulating round-off error
-      this.viewing_quaternion.normalize();
+      // the display turns the motion into a rotation of the world
+      this.push(Command.ROTATE_VIEW, dx, dy, mouse);
 
       // save x, y as last x, y
       this.last_x = x;
@@ -481,10 +910,13 @@ public class PA2 extends JFrame implements GLEventListener, KeyListener,
     gl.glViewport(0, 0, width, newHeight);
 
     // set the clipping volume
-    this.glu.gluPerspective(25, ratio, 0.1, 100);
+    this.glu.gluPerspective(Camera.FIELD_OF_VIEW, ratio, Camera.NEAR,
+        Camera.FAR);
 
-    // camera positioned at (0,0,6), look at point (0,0,0), up vector (0,1,0)
-    this.glu.gluLookAt(0, 0, 12, 0, 0, 0, 0, 1, 0);
+    // camera positioned at (0,0,12), look at point (0,0,0), up vector (0,1,0)
+    this.glu.gluLookAt(0, 0, Camera.EYE_DISTANCE, 0, 0, 0, 0, 1, 0);
+    this.scene.camera().setViewport(width, newHeight);
+    this.requestFrame();
 
     // switch back to model coordinate system
     gl.glMatrixMode(GL.GL_MODELVIEW);
@@ -0,0 +1,276 @@
+/**
+ * PartShader.java - the GLSL program which places and lights the dog parts
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - uploaded the matrices of the parts drawn in turn, not of a whole dog
+ *
+ * - created to light the dogs without GL_NORMALIZE
+ */
+
+import javax.media.opengl.GL;
+
+/**
+ * A small GLSL program which does the work of the fixed-function pipeline
+ * for the dogs: it places each vertex by the model matrix of its part and
+ * lights it by the first light of the scene, with the colour of the part as
+ * its ambient and diffuse material, as {@code GL_COLOR_MATERIAL} does.
+ *
+ * The model matrices and the matching normal matrices of up to
+ * {@link #MAX_PARTS} parts are uniform arrays, so the matrices of the next
+ * parts to be drawn, whichever dogs they belong to, are uploaded by one call
+ * for each array, and each part then only selects its own by index. Since
+ * the normal matrix of a part undoes its scale, the normals need not be
+ * renormalized per vertex by {@code GL_NORMALIZE}; they are normalized once
+ * per fragment instead, which lighting per fragment needs anyway. The view
+ * stays in the model view matrix of OpenGL, and the light is read from the
+ * state set up for the fixed-function pipeline, so both pipelines draw the
+ * same scene.
+ *
+ * JOGL 1.1 predates uniform buffer objects, so the arrays are uploaded with
+ * {@code glUniformMatrix4fv} and {@code glUniformMatrix3fv}, which move the
+ * same matrices in the same single call per run of parts. The program is
+ * only built if the context supports GLSL and it compiles; otherwise
+ * {@link #isAvailable()} is false and the scene keeps the fixed-function
+ * pipeline.
+ */
+public class PartShader {
+
+  /** The most parts whose matrices are uploaded at once. */
+  public static final int MAX_PARTS = Dog.PartType.values().length;
+
+  /** The vertex shader. */
+  private static final String VERTEX_SOURCE = "#version 110\n"
+      + "uniform mat4 models[" + MAX_PARTS + "];\n"
+      + "uniform mat3 normals[" + MAX_PARTS + "];\n"
+      + "uniform int part;\n"
+      + "varying vec3 normal;\n"
+      + "void main() {\n"
+      + "  normal = gl_NormalMatrix * (normals[part] * gl_Normal);\n"
+      + "  gl_FrontColor = gl_Color;\n"
+      + "  gl_Position = gl_ModelViewProjectionMatrix\n"
+      + "      * (models[part] * gl_Vertex);\n"
+      + "}\n";
+
+  /** The fragment shader, one directional light with its ambient term. */
+  private static final String FRAGMENT_SOURCE = "#version 110\n"
+      + "varying vec3 normal;\n"
+      + "void main() {\n"
+      + "  vec3 n = normalize(normal);\n"
+      + "  vec3 l = normalize(gl_LightSource[0].position.xyz);\n"
+      + "  vec3 light = gl_LightModel.ambient.rgb\n"
+      + "      + gl_LightSource[0].ambient.rgb\n"
+      + "      + gl_LightSource[0].diffuse.rgb * max(dot(n, l), 0.0);\n"
+      + "  gl_FragColor = vec4(gl_Color.rgb * light, gl_Color.a);\n"
+      + "}\n";
+
+  /** The model and normal matrices which leave a mesh where it is. */
+  private static final float IDENTITY[] = new float[Matrix4.SIZE];
+  static {
+    Matrix4.identity(IDENTITY);
+  }
+
+  /** The OpenGL handle of the program, or 0 if it has not been built. */
+  private int program = 0;
+  /** The location of the model matrices. */
+  private int models_location = -1;
+  /** The location of the normal matrices. */
+  private int normals_location = -1;
+  /** The location of the index of the part being drawn. */
+  private int part_location = -1;
+  /** The index of the part last selected, or -1 if none is. */
+  private int part = -1;
+  /** The normal matrices of the parts last uploaded. */
+  private final float normals[] = new float[MAX_PARTS * Matrix4.NORMAL_SIZE];
+  /** Whether the program was built; read by the event thread. */
+  private volatile boolean available = false;
+
+  /**
+   * Compiles and links the program in the specified context, if it supports
+   * GLSL; a program which fails to compile is reported on the standard error
+   * and left unavailable.
+   *
+   * @param gl
+   *          The OpenGL object with which to build the program.
+   */
+  public void upload(final GL gl) {
+    // the context may have been recreated, taking the old program with it
+    this.program = 0;
+    this.available = false;
+    if (!gl.isFunctionAvailable("glCreateProgram")
+        || !gl.isFunctionAvailable("glUseProgram")
+        || !gl.isFunctionAvailable("glUniformMatrix4fv")) {
+      return;
+    }
+
+    final int vertex = compile(gl, GL.GL_VERTEX_SHADER, VERTEX_SOURCE);
+    final int fragment = compile(gl, GL.GL_FRAGMENT_SHADER, FRAGMENT_SOURCE);
+    final int program = (vertex == 0 || fragment == 0) ? 0 : gl
+        .glCreateProgram();
+    if (program == 0) {
+      for (final int shader : new int[] { vertex, fragment }) {
+        if (shader != 0) {
+          gl.glDeleteShader(shader);
+        }
+      }
+      return;
+    }
+    gl.glAttachShader(program, vertex);
+    gl.glAttachShader(program, fragment);
+    gl.glLinkProgram(program);
+    gl.glDeleteShader(vertex);
+    gl.glDeleteShader(fragment);
+    final int status[] = new int[1];
+    gl.glGetProgramiv(program, GL.GL_LINK_STATUS, status, 0);
+    if (status[0] == 0) {
+      System.err.println("could not link the shaders of the dogs: "
+          + programLog(gl, program));
+      gl.glDeleteProgram(program);
+      return;
+    }
+
+    this.program = program;
+    this.models_location = gl.glGetUniformLocation(program, "models");
+    this.normals_location = gl.glGetUniformLocation(program, "normals");
+    this.part_location = gl.glGetUniformLocation(program, "part");
+    this.available = true;
+  }
+
+  /**
+   * Compiles one shader.
+   *
+   * @param gl
+   *          The OpenGL object with which to compile the shader.
+   * @param type
+   *          The type of shader, vertex or fragment.
+   * @param source
+   *          The GLSL source of the shader.
+   * @return The OpenGL handle of the shader, or 0 if it could not be
+   *         compiled.
+   */
+  private static int compile(final GL gl, final int type,
+      final String source) {
+    final int shader = gl.glCreateShader(type);
+    if (shader == 0) {
+      return 0;
+    }
+    gl.glShaderSource(shader, 1, new String[] { source },
+        new int[] { source.length() }, 0);
+    gl.glCompileShader(shader);
+    final int status[] = new int[1];
+    gl.glGetShaderiv(shader, GL.GL_COMPILE_STATUS, status, 0);
+    if (status[0] == 0) {
+      final int length[] = new int[1];
+      gl.glGetShaderiv(shader, GL.GL_INFO_LOG_LENGTH, length, 0);
+      final byte log[] = new byte[Math.max(1, length[0])];
+      gl.glGetShaderInfoLog(shader, log.length, length, 0, log, 0);
+      System.err.println("could not compile the shaders of the dogs: "
+          + new String(log, 0, Math.max(0, length[0])));
+      gl.glDeleteShader(shader);
+      return 0;
+    }
+    return shader;
+  }
+
+  /**
+   * Returns the log of linking a program.
+   *
+   * @param gl
+   *          The OpenGL object which linked the program.
+   * @param program
+   *          The program.
+   * @return The log.
+   */
+  private static String programLog(final GL gl, final int program) {
+    final int length[] = new int[1];
+    gl.glGetProgramiv(program, GL.GL_INFO_LOG_LENGTH, length, 0);
+    final byte log[] = new byte[Math.max(1, length[0])];
+    gl.glGetProgramInfoLog(program, log.length, length, 0, log, 0);
+    return new String(log, 0, Math.max(0, length[0]));
+  }
+
+  /**
+   * Returns whether the program was built by the last call to
+   * {@link #upload(GL)}.
+   *
+   * @return Whether the program can be used.
+   */
+  public boolean isAvailable() {
+    return this.available;
+  }
+
+  /**
+   * Draws with the program from here on, with the matrices of part 0
+   * selected; the program must be available.
+   *
+   * @param gl
+   *          The OpenGL object with which to draw.
+   */
+  public void begin(final GL gl) {
+    gl.glUseProgram(this.program);
+    this.part = -1;
+    this.selectPart(gl, 0);
+  }
+
+  /**
+   * Returns to the fixed-function pipeline.
+   *
+   * @param gl
+   *          The OpenGL object with which to draw.
+   */
+  public void end(final GL gl) {
+    gl.glUseProgram(0);
+  }
+
+  /**
+   * Uploads the model matrices of a run of parts, and their normal matrices,
+   * with one call for each.
+   *
+   * @param gl
+   *          The OpenGL object with which to draw.
+   * @param models
+   *          The array holding the model matrices, 16 floats each.
+   * @param offset
+   *          The index of the first float of the first matrix.
+   * @param count
+   *          The number of matrices, at most {@link #MAX_PARTS}.
+   */
+  public void setMatrices(final GL gl, final float[] models, final int offset,
+      final int count) {
+    for (int i = 0; i < count; ++i) {
+      Matrix4.normalMatrix(this.normals, i * Matrix4.NORMAL_SIZE, models,
+          offset + i * Matrix4.SIZE);
+    }
+    gl.glUniformMatrix4fv(this.models_location, count, false, models, offset);
+    gl.glUniformMatrix3fv(this.normals_location, count, false, this.normals,
+        0);
+  }
+
+  /**
+   * Sets the matrices of part 0 to the identity, for meshes whose vertices
+   * are already where they are drawn.
+   *
+   * @param gl
+   *          The OpenGL object with which to draw.
+   */
+  public void setIdentity(final GL gl) {
+    this.setMatrices(gl, IDENTITY, 0, 1);
+  }
+
+  /**
+   * Selects the matrices by which the following meshes are drawn.
+   *
+   * @param gl
+   *          The OpenGL object with which to draw.
+   * @param part
+   *          The index of the matrices among those last uploaded.
+   */
+  public void selectPart(final GL gl, final int part) {
+    if (part != this.part) {
+      gl.glUniform1i(this.part_location, part);
+      this.part = part;
+    }
+  }
+}
@@ -0,0 +1,483 @@
+/**
+ * Picker.java - finds the part of a herd under a ray
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - created to select joints by clicking on them
+ */
+
+/**
+ * Casts a ray against every part of every dog of a {@link CrowdFrame} and
+ * finds the nearest part it hits, on the CPU, without asking OpenGL.
+ *
+ * Each part drawn from the unit sphere is an ellipsoid whose instance matrix
+ * maps the unit sphere onto it, so the ray is intersected exactly with the
+ * unit sphere after being taken into the frame of the part by the inverse of
+ * that matrix. The head, a teapot, is tested as the ellipsoid around the body
+ * of the teapot, without its spout and handle, which would otherwise reach
+ * over the neck.
+ *
+ * The dogs are organised in a bounding volume hierarchy of axis-aligned boxes
+ * around their bounding spheres, so a ray only reaches the parts of the few
+ * dogs it passes near. The tree is built by splitting the dogs at the middle
+ * of their longest extent, once for each number of dogs; since each dog stays
+ * near its place in the herd, later frames only refit the boxes to their
+ * bounds, bottom up, in one pass over the dogs. The nodes are visited nearest
+ * first, and a node no nearer than the nearest hit so far is skipped.
+ */
+public class Picker {
+
+  /** The most dogs in a leaf of the hierarchy. */
+  public static final int LEAF_SIZE = 4;
+
+  /** Every part of a dog. */
+  private static final Dog.PartType PARTS[] = Dog.PartType.values();
+  /**
+   * The semi-axes of the ellipsoid around the body of the GLUT teapot, which
+   * is twice its size across and 1.6 times its size high, in its size.
+   */
+  private static final float TEAPOT_AXES[] = { 1, 0.8f, 1 };
+
+  /** The number of dogs whose instances each part of a frame holds. */
+  private final int capacity;
+  /** The dogs, in the order of the leaves which hold them. */
+  private final int order[];
+  /** The box (min x, y, z, max x, y, z) of each node, 6 floats per node. */
+  private final float boxes[];
+  /**
+   * The first dog of each leaf, as an index into the order, or the first of
+   * the two children of each inner node, the second following it.
+   */
+  private final int firsts[];
+  /** The number of dogs of each leaf, or 0 for an inner node. */
+  private final int counts[];
+  /** The number of nodes; every child comes after its parent. */
+  private int node_count = 0;
+  /** The number of dogs the hierarchy was built for, or -1 if none. */
+  private int built_count = -1;
+  /** The nodes still to visit. */
+  private final int stack[];
+  /** Scratch space for the cofactors of an instance matrix. */
+  private final float cofactors[] = new float[Matrix4.NORMAL_SIZE];
+  /** Scratch space for the matrix mapping the unit sphere onto a teapot. */
+  private final float teapot[] = new float[Matrix4.SIZE];
+
+  /** The dog hit by the last pick, or -1 if none was. */
+  private int dog = -1;
+  /** The part hit by the last pick, or null if none was. */
+  private Dog.PartType part = null;
+  /** The distance along the ray of the last hit. */
+  private float distance = Float.POSITIVE_INFINITY;
+  /** The number of parts intersected by the last pick. */
+  private int part_test_count = 0;
+
+  /**
+   * Instantiates a picker for the frames of a herd.
+   *
+   * @param capacity
+   *          The largest number of dogs in the herd.
+   */
+  public Picker(final int capacity) {
+    this.capacity = capacity;
+    this.order = new int[capacity];
+    this.boxes = new float[2 * capacity * 6];
+    this.firsts = new int[2 * capacity];
+    this.counts = new int[2 * capacity];
+    this.stack = new int[2 * capacity];
+  }
+
+  /**
+   * Finds the nearest part of the dogs of a frame hit by a ray.
+   *
+   * @param frame
+   *          The frame whose instances and bounds to test.
+   * @param origin
+   *          The start (x, y, z) of the ray.
+   * @param direction
+   *          The unit direction (x, y, z) of the ray.
+   * @return Whether any part was hit; if so, {@link #dog()} and
+   *         {@link #part()} say which.
+   */
+  public boolean pick(final CrowdFrame frame, final float[] origin,
+      final float[] direction) {
+    this.dog = -1;
+    this.part = null;
+    this.distance = Float.POSITIVE_INFINITY;
+    this.part_test_count = 0;
+    final int count = frame.count;
+    if (count == 0) {
+      return false;
+    }
+    if (count != this.built_count) {
+      for (int i = 0; i < count; ++i) {
+        this.order[i] = i;
+      }
+      this.node_count = 1;
+      this.build(0, 0, count, frame.bounds);
+      this.built_count = count;
+    }
+    this.refit(frame.bounds);
+
+    // a zero component makes an infinite inverse, which the slabs handle
+    final float ix = 1 / direction[0];
+    final float iy = 1 / direction[1];
+    final float iz = 1 / direction[2];
+    int top = 0;
+    this.stack[top++] = 0;
+    while (top > 0) {
+      final int node = this.stack[--top];
+      if (this.enter(node, origin, ix, iy, iz) >= this.distance) {
+        continue;
+      }
+      if (this.counts[node] > 0) {
+        final int end = this.firsts[node] + this.counts[node];
+        for (int i = this.firsts[node]; i < end; ++i) {
+          this.pickDog(frame, this.order[i], origin, direction);
+        }
+        continue;
+      }
+
+      // push the farther child first, so the nearer is visited first
+      int near = this.firsts[node], far = near + 1;
+      float near_t = this.enter(near, origin, ix, iy, iz);
+      float far_t = this.enter(far, origin, ix, iy, iz);
+      if (far_t < near_t) {
+        final int swap = near;
+        near = far;
+        far = swap;
+        final float swap_t = near_t;
+        near_t = far_t;
+        far_t = swap_t;
+      }
+      if (far_t < this.distance) {
+        this.stack[top++] = far;
+      }
+      if (near_t < this.distance) {
+        this.stack[top++] = near;
+      }
+    }
+    return this.part != null;
+  }
+
+  /**
+   * Builds the subtree of a node over a range of the order, splitting it at
+   * the middle of the longest extent of the centers of its dogs.
+   *
+   * @param node
+   *          The node.
+   * @param first
+   *          The first dog of the range, as an index into the order.
+   * @param end
+   *          The index after the last dog of the range.
+   * @param bounds
+   *          The bounding sphere (x, y, z, radius) of each dog.
+   */
+  private void build(final int node, final int first, final int end,
+      final float[] bounds) {
+    if (end - first <= LEAF_SIZE) {
+      this.firsts[node] = first;
+      this.counts[node] = end - first;
+      return;
+    }
+
+    // the extent of the centers along each axis
+    final float min[] = { Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+        Float.POSITIVE_INFINITY };
+    final float max[] = { Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY,
+        Float.NEGATIVE_INFINITY };
+    for (int i = first; i < end; ++i) {
+      for (int k = 0; k < 3; ++k) {
+        final float center = bounds[this.order[i] * 4 + k];
+        min[k] = Math.min(min[k], center);
+        max[k] = Math.max(max[k], center);
+      }
+    }
+    int axis = 0;
+    for (int k = 1; k < 3; ++k) {
+      if (max[k] - min[k] > max[axis] - min[axis]) {
+        axis = k;
+      }
+    }
+
+    // move the dogs before the middle to the front of the range
+    final float middle = 0.5f * (min[axis] + max[axis]);
+    int split = first;
+    for (int i = first; i < end; ++i) {
+      if (bounds[this.order[i] * 4 + axis] < middle) {
+        final int swap = this.order[i];
+        this.order[i] = this.order[split];
+        this.order[split++] = swap;
+      }
+    }
+    if (split == first || split == end) {
+      // every center is in the same place; any halves will do
+      split = (first + end) >>> 1;
+    }
+
+    final int children = this.node_count;
+    this.node_count += 2;
+    this.firsts[node] = children;
+    this.counts[node] = 0;
+    this.build(children, first, split, bounds);
+    this.build(children + 1, split, end, bounds);
+  }
+
+  /**
+   * Fits the box of every node around the current bounds of its dogs.
+   *
+   * @param bounds
+   *          The bounding sphere (x, y, z, radius) of each dog.
+   */
+  private void refit(final float[] bounds) {
+    final float boxes[] = this.boxes;
+    // children come after their parents, so go backwards
+    for (int node = this.node_count - 1; node >= 0; --node) {
+      final int box = node * 6;
+      for (int k = 0; k < 3; ++k) {
+        boxes[box + k] = Float.POSITIVE_INFINITY;
+        boxes[box + 3 + k] = Float.NEGATIVE_INFINITY;
+      }
+      if (this.counts[node] > 0) {
+        final int end = this.firsts[node] + this.counts[node];
+        for (int i = this.firsts[node]; i < end; ++i) {
+          final int sphere = this.order[i] * 4;
+          final float radius = bounds[sphere + 3];
+          for (int k = 0; k < 3; ++k) {
+            final float center = bounds[sphere + k];
+            boxes[box + k] = Math.min(boxes[box + k], center - radius);
+            boxes[box + 3 + k] = Math.max(boxes[box + 3 + k], center + radius);
+          }
+        }
+      } else {
+        final int left = this.firsts[node] * 6, right = left + 6;
+        for (int k = 0; k < 3; ++k) {
+          boxes[box + k] = Math.min(boxes[left + k], boxes[right + k]);
+          boxes[box + 3 + k] = Math.max(boxes[left + 3 + k],
+              boxes[right + 3 + k]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the distance along a ray at which it enters the box of a node.
+   *
+   * @param node
+   *          The node.
+   * @param origin
+   *          The start (x, y, z) of the ray.
+   * @param ix
+   *          The inverse of the x component of the direction of the ray.
+   * @param iy
+   *          The inverse of the y component of the direction of the ray.
+   * @param iz
+   *          The inverse of the z component of the direction of the ray.
+   * @return The distance, 0 if the ray starts inside the box, or infinity if
+   *         it misses the box.
+   */
+  private float enter(final int node, final float[] origin, final float ix,
+      final float iy, final float iz) {
+    final int box = node * 6;
+    final float x0 = (this.boxes[box] - origin[0]) * ix;
+    final float x1 = (this.boxes[box + 3] - origin[0]) * ix;
+    float near = Math.max(0, Math.min(x0, x1));
+    float far = Math.max(x0, x1);
+    final float y0 = (this.boxes[box + 1] - origin[1]) * iy;
+    final float y1 = (this.boxes[box + 4] - origin[1]) * iy;
+    near = Math.max(near, Math.min(y0, y1));
+    far = Math.min(far, Math.max(y0, y1));
+    final float z0 = (this.boxes[box + 2] - origin[2]) * iz;
+    final float z1 = (this.boxes[box + 5] - origin[2]) * iz;
+    near = Math.max(near, Math.min(z0, z1));
+    far = Math.min(far, Math.max(z0, z1));
+    return (near <= far) ? near : Float.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Intersects a ray with the parts of one dog, if it passes through the
+   * bounding sphere of the dog nearer than the nearest hit so far, and keeps
+   * any nearer hit.
+   *
+   * @param frame
+   *          The frame holding the instances and bounds of the dog.
+   * @param dog
+   *          The dog.
+   * @param origin
+   *          The start (x, y, z) of the ray.
+   * @param direction
+   *          The unit direction (x, y, z) of the ray.
+   */
+  private void pickDog(final CrowdFrame frame, final int dog,
+      final float[] origin, final float[] direction) {
+    final float bounds[] = frame.bounds;
+    if (sphere(origin, direction, bounds[dog * 4], bounds[dog * 4 + 1],
+        bounds[dog * 4 + 2], bounds[dog * 4 + 3]) >= this.distance) {
+      return;
+    }
+
+    final float instances[] = frame.instances;
+    for (final Dog.PartType part : PARTS) {
+      final int m = (part.ordinal() * this.capacity + dog) * Matrix4.SIZE;
+      final float t;
+      if (part.mesh == GeometryCache.MeshType.TEAPOT) {
+        // stretch the unit sphere around the teapot, then place it
+        final float size = (float) GeometryCache.TEAPOT_SIZE;
+        for (int column = 0; column < 3; ++column) {
+          for (int row = 0; row < 3; ++row) {
+            this.teapot[column * 4 + row] = instances[m + column * 4 + row]
+                * TEAPOT_AXES[column] * size;
+          }
+        }
+        this.teapot[12] = instances[m + 12];
+        this.teapot[13] = instances[m + 13];
+        this.teapot[14] = instances[m + 14];
+        t = this.ellipsoid(origin, direction, this.teapot, 0);
+      } else {
+        t = this.ellipsoid(origin, direction, instances, m);
+      }
+      this.part_test_count++;
+      if (t < this.distance) {
+        this.distance = t;
+        this.dog = dog;
+        this.part = part;
+      }
+    }
+  }
+
+  /**
+   * Returns the distance along a ray at which it first hits the image of the
+   * unit sphere under a matrix.
+   *
+   * @param origin
+   *          The start (x, y, z) of the ray.
+   * @param direction
+   *          The unit direction (x, y, z) of the ray.
+   * @param m
+   *          The array holding the matrix.
+   * @param offset
+   *          The index of the first element of the matrix.
+   * @return The distance, or infinity if the ray misses the ellipsoid.
+   */
+  private float ellipsoid(final float[] origin, final float[] direction,
+      final float[] m, final int offset) {
+    // the inverse of the upper 3x3 block is its cofactors, transposed, over
+    // its determinant
+    final float c[] = this.cofactors;
+    Matrix4.normalMatrix(c, 0, m, offset);
+    final float det = m[offset] * c[0] + m[offset + 1] * c[1]
+        + m[offset + 2] * c[2];
+    if (det == 0) {
+      return Float.POSITIVE_INFINITY;
+    }
+    final float inverse = 1 / det;
+
+    // the ray in the frame of the unit sphere
+    final float px = origin[0] - m[offset + 12];
+    final float py = origin[1] - m[offset + 13];
+    final float pz = origin[2] - m[offset + 14];
+    final float ux = (c[0] * px + c[1] * py + c[2] * pz) * inverse;
+    final float uy = (c[3] * px + c[4] * py + c[5] * pz) * inverse;
+    final float uz = (c[6] * px + c[7] * py + c[8] * pz) * inverse;
+    final float dx = direction[0], dy = direction[1], dz = direction[2];
+    final float wx = (c[0] * dx + c[1] * dy + c[2] * dz) * inverse;
+    final float wy = (c[3] * dx + c[4] * dy + c[5] * dz) * inverse;
+    final float wz = (c[6] * dx + c[7] * dy + c[8] * dz) * inverse;
+
+    // solve |u + t w| = 1; the matrix is linear, so t is unchanged
+    final float a = wx * wx + wy * wy + wz * wz;
+    final float b = ux * wx + uy * wy + uz * wz;
+    final float k = ux * ux + uy * uy + uz * uz - 1;
+    return nearestRoot(a, b, k);
+  }
+
+  /**
+   * Returns the distance along a ray at which it first hits a sphere.
+   *
+   * @param origin
+   *          The start (x, y, z) of the ray.
+   * @param direction
+   *          The unit direction (x, y, z) of the ray.
+   * @param x
+   *          The x coordinate of the center of the sphere.
+   * @param y
+   *          The y coordinate of the center of the sphere.
+   * @param z
+   *          The z coordinate of the center of the sphere.
+   * @param radius
+   *          The radius of the sphere.
+   * @return The distance, 0 if the ray starts inside the sphere, or infinity
+   *         if it misses the sphere.
+   */
+  private static float sphere(final float[] origin, final float[] direction,
+      final float x, final float y, final float z, final float radius) {
+    final float ux = origin[0] - x, uy = origin[1] - y, uz = origin[2] - z;
+    final float b = ux * direction[0] + uy * direction[1] + uz * direction[2];
+    final float k = ux * ux + uy * uy + uz * uz - radius * radius;
+    return nearestRoot(1, b, k);
+  }
+
+  /**
+   * Returns the smallest root which is not negative of
+   * {@code a t^2 + 2 b t + k}.
+   *
+   * @param a
+   *          The coefficient of {@code t^2}, which must be positive.
+   * @param b
+   *          Half the coefficient of {@code t}.
+   * @param k
+   *          The constant term.
+   * @return The root, 0 if the quadratic is negative at 0, or infinity if
+   *         there is no such root.
+   */
+  private static float nearestRoot(final float a, final float b,
+      final float k) {
+    if (k <= 0) {
+      // the ray starts inside
+      return 0;
+    }
+    final float discriminant = b * b - a * k;
+    if (discriminant < 0 || b >= 0) {
+      return Float.POSITIVE_INFINITY;
+    }
+    return (-b - (float) Math.sqrt(discriminant)) / a;
+  }
+
+  /**
+   * Returns the dog hit by the last pick.
+   *
+   * @return The index of the dog, or -1 if nothing was hit.
+   */
+  public int dog() {
+    return this.dog;
+  }
+
+  /**
+   * Returns the part hit by the last pick.
+   *
+   * @return The part, or null if nothing was hit.
+   */
+  public Dog.PartType part() {
+    return this.part;
+  }
+
+  /**
+   * Returns the distance along the ray of the part hit by the last pick.
+   *
+   * @return The distance, or infinity if nothing was hit.
+   */
+  public float distance() {
+    return this.distance;
+  }
+
+  /**
+   * Returns the number of parts the last pick intersected, which the
+   * hierarchy keeps to the parts of the few dogs near the ray.
+   *
+   * @return The number of parts tested.
+   */
+  public int partTestCount() {
+    return this.part_test_count;
+  }
+}
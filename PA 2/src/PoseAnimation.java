@@ -0,0 +1,180 @@
+/**
+ * PoseAnimation.java - timed transitions between keyframe poses
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - emitted a flight recorder event for each transition
+ *
+ * - created so that the dog moves smoothly into its tricks
+ */
+
+/**
+ * A timed transition of a {@link JointTable} from the pose it is in to a
+ * keyframe pose, interpolating the rotation of every joint with
+ * {@link Quaternion#slerp}.
+ *
+ * All of the quaternions are allocated up front, so starting and sampling a
+ * transition never allocates, except for an {@link AnimationTransitionEvent}
+ * while a flight recording is taking them.
+ */
+public class PoseAnimation {
+
+  /** The pose being animated. */
+  private final JointTable pose;
+  /** The rotation of each joint at the start of the transition. */
+  private final Quaternion from[];
+  /** The rotation of each joint at the end of the transition. */
+  private final Quaternion to[];
+  /** The angles of the target pose, written exactly at the end. */
+  private final float target[];
+  /** Scratch space for the interpolated rotation of a joint. */
+  private final Quaternion current = new Quaternion();
+  /** Scratch space for the interpolated angles of a joint. */
+  private final float angles[] = new float[JointTable.AXES];
+  /** The length of the transition in seconds. */
+  private float duration = 0;
+  /** The time elapsed since the transition started, in seconds. */
+  private float elapsed = 0;
+  /** Whether a transition is in progress. */
+  private boolean playing = false;
+  /** The event recording the transition in progress, or null. */
+  private AnimationTransitionEvent transition = null;
+
+  /**
+   * Instantiates an animation of the specified pose.
+   *
+   * @param pose
+   *          The pose to animate.
+   */
+  public PoseAnimation(final JointTable pose) {
+    this.pose = pose;
+    final int count = pose.jointCount();
+    this.target = new float[count * JointTable.AXES];
+    this.from = new Quaternion[count];
+    this.to = new Quaternion[count];
+    for (int joint = 0; joint < count; ++joint) {
+      this.from[joint] = new Quaternion();
+      this.to[joint] = new Quaternion();
+    }
+  }
+
+  /**
+   * Starts a transition from the current pose to a keyframe.
+   *
+   * @param keyframe
+   *          The angles of the target pose, indexed by
+   *          {@code joint * JointTable.AXES + axis}.
+   * @param seconds
+   *          The length of the transition in seconds.
+   */
+  public void start(final float[] keyframe, final float seconds) {
+    this.start(keyframe, seconds, null);
+  }
+
+  /**
+   * Starts a transition from the current pose to a named keyframe.
+   *
+   * @param keyframe
+   *          The angles of the target pose, indexed by
+   *          {@code joint * JointTable.AXES + axis}.
+   * @param seconds
+   *          The length of the transition in seconds.
+   * @param name
+   *          The name of the keyframe, such as a trick, or null.
+   */
+  public void start(final float[] keyframe, final float seconds,
+      final String name) {
+    this.finishTransition(false);
+    final int count = this.pose.jointCount();
+    for (int joint = 0; joint < count; ++joint) {
+      final int index = joint * JointTable.AXES;
+      this.from[joint].setAngles(this.pose.angle(joint, 0),
+          this.pose.angle(joint, 1), this.pose.angle(joint, 2));
+      this.to[joint].setAngles(keyframe[index], keyframe[index + 1],
+          keyframe[index + 2]);
+    }
+    System.arraycopy(keyframe, 0, this.target, 0, this.target.length);
+    this.duration = Math.max(seconds, 0);
+    this.elapsed = 0;
+    this.playing = true;
+
+    final AnimationTransitionEvent event = new AnimationTransitionEvent();
+    if (event.isEnabled()) {
+      event.keyframe = name;
+      event.simulated_duration = (long) (this.duration * 1e9);
+      event.begin();
+      this.transition = event;
+    }
+  }
+
+  /** Stops the transition in progress, leaving the pose where it is. */
+  public void stop() {
+    this.playing = false;
+    this.finishTransition(false);
+  }
+
+  /**
+   * Commits the event recording the transition in progress, if any.
+   *
+   * @param completed
+   *          Whether the transition reached its keyframe.
+   */
+  private void finishTransition(final boolean completed) {
+    if (this.transition != null) {
+      this.transition.completed = completed;
+      this.transition.commit();
+      this.transition = null;
+    }
+  }
+
+  /**
+   * Returns whether a transition is in progress.
+   *
+   * @return Whether a transition is in progress.
+   */
+  public boolean isPlaying() {
+    return this.playing;
+  }
+
+  /**
+   * Advances the transition in progress, if any, and writes the interpolated
+   * rotation of every joint into the pose.
+   *
+   * @param seconds
+   *          The time elapsed since the last call, in seconds.
+   */
+  public void advance(final float seconds) {
+    if (!this.playing) {
+      return;
+    }
+
+    this.elapsed += seconds;
+    final int count = this.pose.jointCount();
+    if (this.elapsed >= this.duration) {
+      // land exactly on the keyframe rather than on its round trip through
+      // quaternions, which may differ by multiples of 360 degrees
+      for (int joint = 0; joint < count; ++joint) {
+        final int index = joint * JointTable.AXES;
+        this.pose.setAngle(joint, 0, this.target[index]);
+        this.pose.setAngle(joint, 1, this.target[index + 1]);
+        this.pose.setAngle(joint, 2, this.target[index + 2]);
+      }
+      this.playing = false;
+      this.finishTransition(true);
+      return;
+    }
+
+    // ease in and out so the dog does not jerk into and out of the trick
+    float t = this.elapsed / this.duration;
+    t = t * t * (3 - 2 * t);
+    for (int joint = 0; joint < count; ++joint) {
+      Quaternion.slerp(this.from[joint], this.to[joint], t, this.current);
+      this.current.getAngles(this.angles, 0);
+      this.pose.setAngle(joint, 0, this.angles[0]);
+      this.pose.setAngle(joint, 1, this.angles[1]);
+      this.pose.setAngle(joint, 2, this.angles[2]);
+    }
+  }
+}
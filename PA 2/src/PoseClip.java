@@ -0,0 +1,151 @@
+/**
+ * PoseClip.java - a named sequence of keyframe poses
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - created for the library of tricks read from files
+ */
+
+import java.nio.FloatBuffer;
+
+/**
+ * A named sequence of keyframe poses which a {@link Dog} moves through one
+ * after another, taking the same time to move into each.
+ *
+ * Each frame holds the x, y and z angles of every joint, so frames have a
+ * fixed stride of {@code jointCount() * JointTable.AXES} floats and are read
+ * straight out of their buffer, which may be memory-mapped from a
+ * {@link ClipLibrary} file; reading a frame never allocates.
+ */
+public class PoseClip {
+
+  /** The longest name of a clip in bytes, when encoded as UTF-8. */
+  public static final int MAX_NAME_BYTES = 32;
+
+  /** The name of this clip. */
+  private final String name;
+  /** The number of joints in each frame. */
+  private final int joint_count;
+  /** The number of frames. */
+  private final int frame_count;
+  /** The time taken to move into each frame, in seconds. */
+  private final float seconds_per_frame;
+  /** The angles of every frame, one frame after another. */
+  private final FloatBuffer frames;
+
+  /**
+   * Instantiates a clip whose frames are read from the specified buffer.
+   *
+   * @param name
+   *          The name of the clip.
+   * @param joint_count
+   *          The number of joints in each frame.
+   * @param frame_count
+   *          The number of frames.
+   * @param seconds_per_frame
+   *          The time taken to move into each frame, in seconds.
+   * @param frames
+   *          The angles of every frame from its position onwards, which must
+   *          hold at least {@code frame_count * joint_count * 3} floats.
+   */
+  public PoseClip(final String name, final int joint_count,
+      final int frame_count, final float seconds_per_frame,
+      final FloatBuffer frames) {
+    if (joint_count < 1 || frame_count < 1) {
+      throw new IllegalArgumentException("clip " + name + " has "
+          + frame_count + " frames of " + joint_count + " joints");
+    }
+    if (frames.remaining() < frame_count * joint_count * JointTable.AXES) {
+      throw new IllegalArgumentException("clip " + name
+          + " is shorter than its frames");
+    }
+    this.name = name;
+    this.joint_count = joint_count;
+    this.frame_count = frame_count;
+    this.seconds_per_frame = seconds_per_frame;
+    this.frames = frames.slice();
+  }
+
+  /**
+   * Instantiates a clip of the specified keyframes.
+   *
+   * @param name
+   *          The name of the clip.
+   * @param seconds_per_frame
+   *          The time taken to move into each frame, in seconds.
+   * @param keyframes
+   *          The angles of every joint in each frame, indexed by
+   *          {@code joint * JointTable.AXES + axis}.
+   * @return The clip.
+   */
+  public static PoseClip of(final String name, final float seconds_per_frame,
+      final float[]... keyframes) {
+    final int stride = keyframes[0].length;
+    final FloatBuffer frames = FloatBuffer.allocate(keyframes.length * stride);
+    for (final float keyframe[] : keyframes) {
+      if (keyframe.length != stride) {
+        throw new IllegalArgumentException("the frames of clip " + name
+            + " differ in length");
+      }
+      frames.put(keyframe);
+    }
+    frames.flip();
+    return new PoseClip(name, stride / JointTable.AXES, keyframes.length,
+        seconds_per_frame, frames);
+  }
+
+  /**
+   * Returns the name of this clip.
+   *
+   * @return The name.
+   */
+  public String name() {
+    return this.name;
+  }
+
+  /**
+   * Returns the number of joints in each frame.
+   *
+   * @return The number of joints.
+   */
+  public int jointCount() {
+    return this.joint_count;
+  }
+
+  /**
+   * Returns the number of frames.
+   *
+   * @return The number of frames.
+   */
+  public int frameCount() {
+    return this.frame_count;
+  }
+
+  /**
+   * Returns the time taken to move into each frame.
+   *
+   * @return The time in seconds.
+   */
+  public float secondsPerFrame() {
+    return this.seconds_per_frame;
+  }
+
+  /**
+   * Copies the angles of a frame.
+   *
+   * @param frame
+   *          The index of the frame.
+   * @param angles
+   *          The destination, indexed by {@code joint * JointTable.AXES +
+   *          axis}, which must hold at least {@code jointCount() * 3} floats.
+   */
+  public void frame(final int frame, final float[] angles) {
+    final int stride = this.joint_count * JointTable.AXES;
+    final int start = frame * stride;
+    for (int i = 0; i < stride; ++i) {
+      angles[i] = this.frames.get(start + i);
+    }
+  }
+}
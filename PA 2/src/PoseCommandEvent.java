@@ -0,0 +1,39 @@
+/**
+ * PoseCommandEvent.java - a flight recorder event for each pose command
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - created so that input shows up in flight recordings
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The application of a {@link Command} to the dog, such as toggling a part,
+ * rotating the selected joints or starting the next trick.
+ */
+@Name("creature.PoseCommand")
+@Label("Pose Command")
+@Category({ "Creature", "Input" })
+@Description("Applying a command from the keyboard to the dog")
+@StackTrace(false)
+public class PoseCommandEvent extends jdk.jfr.Event {
+
+  /** The kind of command. */
+  @Label("Command")
+  String command;
+
+  /** The number of steps of a rotation, after merging repeated keys. */
+  @Label("Steps")
+  int steps;
+
+  /** The number of commands merged into this one. */
+  @Label("Merged")
+  int merged;
+}
@@ -0,0 +1,48 @@
+/**
+ * PoseEvaluationEvent.java - a flight recorder event for each evaluated pose
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - added the number of iterations of the solver placing the paws
+ *
+ * - added the number of angles clamped to their limits
+ *
+ * - created so that the cost of posing each dog shows up in recordings
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The recomputation of the matrices of the parts of one {@link Dog} which
+ * moved since it was last evaluated.
+ *
+ * A herd evaluates thousands of dogs in every step, so this event is off
+ * unless a recording enables it.
+ */
+@Name("creature.PoseEvaluation")
+@Label("Pose Evaluation")
+@Category({ "Creature", "Simulation" })
+@Description("Recomputing the matrices of the moved parts of one dog")
+@StackTrace(false)
+@Enabled(false)
+public class PoseEvaluationEvent extends jdk.jfr.Event {
+
+  /** The number of parts whose matrices were recomputed. */
+  @Label("Parts Evaluated")
+  int parts;
+
+  /** The number of angles which were outside of their limits. */
+  @Label("Limit Violations Corrected")
+  int corrected;
+
+  /** The number of iterations of the solver placing the paws. */
+  @Label("Solver Iterations")
+  int iterations;
+}
@@ -0,0 +1,303 @@
+/**
+ * Quaternion.java - a unit quaternion representing a rotation
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - added in-place variants of multiplication and conversion to a matrix
+ *
+ * - added conversion to and from joint angles and spherical interpolation
+ *
+ * - implemented the operations used by the viewing rotation in PA2
+ */
+
+/**
+ * A quaternion {@code s + xi + yj + zk}, used to represent rotations in three
+ * dimensions.
+ *
+ * Besides the operations used to rotate the world with the mouse, this class
+ * converts to and from the x, y and z joint angles of the dog model (applied in
+ * that order, as in {@code Rx * Ry * Rz}) and interpolates between rotations.
+ * Those operations write into existing objects or arrays so that they can be
+ * called every frame without allocating.
+ */
+public class Quaternion {
+
+  /** Below this, two rotations are close enough to interpolate linearly. */
+  private static final float SLERP_EPSILON = 1e-4f;
+
+  /** The scalar part. */
+  private float s;
+  /** The coefficient of i. */
+  private float x;
+  /** The coefficient of j. */
+  private float y;
+  /** The coefficient of k. */
+  private float z;
+
+  /** Instantiates the identity rotation. */
+  public Quaternion() {
+    this.reset();
+  }
+
+  /**
+   * Instantiates a quaternion with the specified components.
+   *
+   * @param s
+   *          The scalar part.
+   * @param x
+   *          The coefficient of i.
+   * @param y
+   *          The coefficient of j.
+   * @param z
+   *          The coefficient of k.
+   */
+  public Quaternion(final float s, final float x, final float y,
+      final float z) {
+    this.s = s;
+    this.x = x;
+    this.y = y;
+    this.z = z;
+  }
+
+  /** Sets this quaternion to the identity rotation. */
+  public void reset() {
+    this.s = 1;
+    this.x = 0;
+    this.y = 0;
+    this.z = 0;
+  }
+
+  /**
+   * Sets this quaternion to the value of another.
+   *
+   * @param q
+   *          The quaternion to copy.
+   */
+  public void set(final Quaternion q) {
+    this.s = q.s;
+    this.x = q.x;
+    this.y = q.y;
+    this.z = q.z;
+  }
+
+  /**
+   * Sets the components of this quaternion.
+   *
+   * @param s
+   *          The scalar part.
+   * @param x
+   *          The coefficient of i.
+   * @param y
+   *          The coefficient of j.
+   * @param z
+   *          The coefficient of k.
+   */
+  public void set(final float s, final float x, final float y, final float z) {
+    this.s = s;
+    this.x = x;
+    this.y = y;
+    this.z = z;
+  }
+
+  /**
+   * Sets this quaternion to the rotation by the specified angle about the
+   * specified unit axis.
+   *
+   * @param axis
+   *          The unit axis of rotation.
+   * @param radians
+   *          The angle of rotation in radians.
+   */
+  public void setAxisAngle(final Point3D axis, final float radians) {
+    final float sin = (float) Math.sin(0.5f * radians);
+    this.set((float) Math.cos(0.5f * radians), sin * axis.x(), sin
+        * axis.y(), sin * axis.z());
+  }
+
+  /**
+   * Returns the product of this quaternion and the specified one, which is the
+   * rotation by {@code q} followed by the rotation by this quaternion.
+   *
+   * @param q
+   *          The right operand.
+   * @return The product {@code this * q}.
+   */
+  public Quaternion multiply(final Quaternion q) {
+    final Quaternion product = new Quaternion();
+    this.multiplyInto(q, product);
+    return product;
+  }
+
+  /**
+   * Stores the product {@code this * q} in {@code out}, which may be this
+   * quaternion or {@code q}.
+   *
+   * @param q
+   *          The right operand.
+   * @param out
+   *          The quaternion in which to store the product.
+   */
+  public void multiplyInto(final Quaternion q, final Quaternion out) {
+    out.set(this.s * q.s - this.x * q.x - this.y * q.y - this.z * q.z, this.s
+        * q.x + this.x * q.s + this.y * q.z - this.z * q.y, this.s * q.y
+        - this.x * q.z + this.y * q.s + this.z * q.x, this.s * q.z + this.x
+        * q.y - this.y * q.x + this.z * q.s);
+  }
+
+  /** Scales this quaternion to unit length. */
+  public void normalize() {
+    final float length = (float) Math.sqrt(this.s * this.s + this.x * this.x
+        + this.y * this.y + this.z * this.z);
+    if (length > 0) {
+      this.s /= length;
+      this.x /= length;
+      this.y /= length;
+      this.z /= length;
+    }
+  }
+
+  /**
+   * Returns the rotation matrix of this unit quaternion.
+   *
+   * @return The rotation as a column-major 4x4 matrix.
+   */
+  public float[] toMatrix() {
+    final float m[] = new float[Matrix4.SIZE];
+    this.toMatrix(m);
+    return m;
+  }
+
+  /**
+   * Stores the rotation matrix of this unit quaternion in an existing array.
+   *
+   * @param m
+   *          The array in which to store the rotation as a column-major 4x4
+   *          matrix.
+   */
+  public void toMatrix(final float[] m) {
+    final float xx = this.x * this.x, yy = this.y * this.y, zz = this.z
+        * this.z;
+    final float xy = this.x * this.y, xz = this.x * this.z, yz = this.y
+        * this.z;
+    final float sx = this.s * this.x, sy = this.s * this.y, sz = this.s
+        * this.z;
+
+    m[0] = 1 - 2 * (yy + zz);
+    m[1] = 2 * (xy + sz);
+    m[2] = 2 * (xz - sy);
+    m[4] = 2 * (xy - sz);
+    m[5] = 1 - 2 * (xx + zz);
+    m[6] = 2 * (yz + sx);
+    m[8] = 2 * (xz + sy);
+    m[9] = 2 * (yz - sx);
+    m[10] = 1 - 2 * (xx + yy);
+    m[3] = m[7] = m[11] = m[12] = m[13] = m[14] = 0;
+    m[15] = 1;
+  }
+
+  /**
+   * Sets this quaternion to the rotation {@code Rx * Ry * Rz} by the specified
+   * joint angles.
+   *
+   * @param angle_x
+   *          The rotation about the x-axis in degrees.
+   * @param angle_y
+   *          The rotation about the y-axis in degrees.
+   * @param angle_z
+   *          The rotation about the z-axis in degrees.
+   */
+  public void setAngles(final float angle_x, final float angle_y,
+      final float angle_z) {
+    final double half_x = Math.toRadians(angle_x) / 2;
+    final double half_y = Math.toRadians(angle_y) / 2;
+    final double half_z = Math.toRadians(angle_z) / 2;
+    final float cx = (float) Math.cos(half_x), sx = (float) Math.sin(half_x);
+    final float cy = (float) Math.cos(half_y), sy = (float) Math.sin(half_y);
+    final float cz = (float) Math.cos(half_z), sz = (float) Math.sin(half_z);
+
+    // the product (cx + sx i) * (cy + sy j) * (cz + sz k)
+    this.s = cx * cy * cz - sx * sy * sz;
+    this.x = sx * cy * cz + cx * sy * sz;
+    this.y = cx * sy * cz - sx * cy * sz;
+    this.z = cx * cy * sz + sx * sy * cz;
+  }
+
+  /**
+   * Writes the joint angles x, y and z such that {@code Rx * Ry * Rz} is the
+   * rotation of this unit quaternion.
+   *
+   * @param angles
+   *          The array in which to store the angles in degrees.
+   * @param offset
+   *          The index at which to store the x angle, followed by y and z.
+   */
+  public void getAngles(final float[] angles, final int offset) {
+    // the entries of the rotation matrix needed to recover the angles
+    final float r02 = 2 * (this.x * this.z + this.s * this.y);
+    final float r12 = 2 * (this.y * this.z - this.s * this.x);
+    final float r22 = 1 - 2 * (this.x * this.x + this.y * this.y);
+    final float r01 = 2 * (this.x * this.y - this.s * this.z);
+    final float r00 = 1 - 2 * (this.y * this.y + this.z * this.z);
+
+    if (Math.abs(r02) < 0.99999f) {
+      angles[offset] = (float) Math.toDegrees(Math.atan2(-r12, r22));
+      angles[offset + 1] = (float) Math.toDegrees(Math.asin(r02));
+      angles[offset + 2] = (float) Math.toDegrees(Math.atan2(-r01, r00));
+    } else {
+      // gimbal lock: only x + z (or x - z) is determined, so put it all in x
+      final float r21 = 2 * (this.y * this.z + this.s * this.x);
+      final float r11 = 1 - 2 * (this.x * this.x + this.z * this.z);
+      angles[offset] = (float) Math.toDegrees(Math.atan2(r21, r11));
+      angles[offset + 1] = (r02 > 0) ? 90 : -90;
+      angles[offset + 2] = 0;
+    }
+  }
+
+  /**
+   * Spherically interpolates between two unit quaternions along the shorter
+   * arc, storing the result in {@code out}, which may be either operand.
+   *
+   * @param a
+   *          The rotation at {@code t = 0}.
+   * @param b
+   *          The rotation at {@code t = 1}.
+   * @param t
+   *          The fraction of the way from {@code a} to {@code b}.
+   * @param out
+   *          The quaternion in which to store the result.
+   */
+  public static void slerp(final Quaternion a, final Quaternion b,
+      final float t, final Quaternion out) {
+    float cos = a.s * b.s + a.x * b.x + a.y * b.y + a.z * b.z;
+    float sign = 1;
+    if (cos < 0) {
+      // q and -q are the same rotation; take the shorter way around
+      cos = -cos;
+      sign = -1;
+    }
+
+    float wa, wb;
+    if (1 - cos < SLERP_EPSILON) {
+      wa = 1 - t;
+      wb = t;
+    } else {
+      final double theta = Math.acos(cos);
+      final double sin = Math.sin(theta);
+      wa = (float) (Math.sin((1 - t) * theta) / sin);
+      wb = (float) (Math.sin(t * theta) / sin);
+    }
+    wb *= sign;
+
+    final float s = wa * a.s + wb * b.s;
+    final float x = wa * a.x + wb * b.x;
+    final float y = wa * a.y + wb * b.y;
+    final float z = wa * a.z + wb * b.z;
+    out.s = s;
+    out.x = x;
+    out.y = y;
+    out.z = z;
+    out.normalize();
+  }
+}
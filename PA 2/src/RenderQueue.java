@@ -0,0 +1,438 @@
+/**
+ * RenderQueue.java - draws the meshes of a frame sorted by the state they need
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - uploaded the matrices of runs of shaded items with one call per array
+ *
+ * - created so that the state changes of a frame grow with the number of
+ *   meshes and materials rather than with the number of dogs
+ */
+
+import java.util.Arrays;
+
+import javax.media.opengl.GL;
+
+/**
+ * Collects everything drawn in a frame as items, each a mesh drawn with a
+ * program, a material and a model matrix, and then draws the items sorted
+ * so that each change of state is made once for every run of items which
+ * share it.
+ *
+ * Each item is given a 64-bit key which packs, from the most significant
+ * bits down, its program, its material, its mesh, its depth in front of the
+ * camera and finally its index among the items of the frame. Sorting the
+ * keys as plain longs therefore orders the items by the most expensive state
+ * first, without allocating, and the index in the low bits leads back to
+ * the matrix of each item. Items drawn with the same state are drawn front
+ * to back, so that the depth test discards the hidden fragments of the ones
+ * behind.
+ *
+ * The programs, materials and meshes are registered as they are first
+ * used, which gives each a small number for the keys; the queue keeps them
+ * from frame to frame, while the items are cleared at the start of each.
+ *
+ * Items drawn with a {@link PartShader} are gathered into runs of up to
+ * {@link PartShader#MAX_PARTS} consecutive items of the same program,
+ * whose matrices are uploaded together; each item then only selects its
+ * own by index, whatever colour or mesh it is drawn with.
+ *
+ * Submitting counts the state changes it makes (program switches, colours
+ * set and meshes bound) and the number saved by sorting: how many more
+ * drawing the same items in the order they were added would have made.
+ */
+public class RenderQueue {
+
+  /** The number of bits of the key holding the index of an item. */
+  private static final int INDEX_BITS = 24;
+  /** The number of bits of the key holding the depth of an item. */
+  private static final int DEPTH_BITS = 16;
+  /** The number of bits of the key holding the mesh of an item. */
+  private static final int MESH_BITS = 10;
+  /** The number of bits of the key holding the material of an item. */
+  private static final int MATERIAL_BITS = 8;
+  /** The number of bits of the key holding the program of an item. */
+  private static final int PROGRAM_BITS = 4;
+  /** The lowest bit of the depth in the key. */
+  private static final int DEPTH_SHIFT = INDEX_BITS;
+  /** The lowest bit of the mesh in the key. */
+  private static final int MESH_SHIFT = DEPTH_SHIFT + DEPTH_BITS;
+  /** The lowest bit of the material in the key. */
+  private static final int MATERIAL_SHIFT = MESH_SHIFT + MESH_BITS;
+  /** The lowest bit of the program in the key. */
+  private static final int PROGRAM_SHIFT = MATERIAL_SHIFT + MATERIAL_BITS;
+  /** The largest depth in the key, for items at the far clipping plane. */
+  private static final int MAX_DEPTH = (1 << DEPTH_BITS) - 1;
+
+  /** The most items which can be drawn in one frame. */
+  public static final int MAX_ITEMS = 1 << INDEX_BITS;
+  /** The number of the fixed-function pipeline among the programs. */
+  public static final int FIXED_FUNCTION = 0;
+
+  /** The programs registered, the fixed-function pipeline (null) first. */
+  private PartShader programs[] = new PartShader[] { null };
+  /** The number of programs registered. */
+  private int program_count = 1;
+  /** The red, green and blue of each material registered. */
+  private float colors[] = new float[3 * 4];
+  /** The number of materials registered. */
+  private int material_count = 0;
+  /** The meshes registered. */
+  private Mesh meshes[] = new Mesh[8];
+  /** The number of meshes registered. */
+  private int mesh_count = 0;
+
+  /** The key of each item of the frame, sorted when submitted. */
+  private long keys[] = new long[256];
+  /** The model matrix of each item, 16 floats each, in the order added. */
+  private float matrices[] = new float[256 * Matrix4.SIZE];
+  /** The number of items of the frame. */
+  private int count = 0;
+  /** The model matrices of the run of shaded items being drawn. */
+  private final float run[] = new float[PartShader.MAX_PARTS * Matrix4.SIZE];
+
+  /** The number of state changes made by the last submission. */
+  private int state_change_count = 0;
+  /** The number of state changes saved by sorting the last submission. */
+  private int saved_state_change_count = 0;
+  /** The number of meshes bound by the last submission. */
+  private int bind_count = 0;
+  /** The number of triangles drawn by the last submission. */
+  private int triangle_count = 0;
+
+  /**
+   * Returns the number of a program, registering it if it is new.
+   *
+   * @param shader
+   *          The program, or null for the fixed-function pipeline.
+   * @return The number of the program.
+   * @throws IllegalStateException
+   *           If there are too many programs for the keys.
+   */
+  public int program(final PartShader shader) {
+    for (int i = 0; i < this.program_count; ++i) {
+      if (this.programs[i] == shader) {
+        return i;
+      }
+    }
+    if (this.program_count == 1 << PROGRAM_BITS) {
+      throw new IllegalStateException("more than " + (1 << PROGRAM_BITS)
+          + " programs");
+    }
+    if (this.program_count == this.programs.length) {
+      this.programs = Arrays.copyOf(this.programs, this.program_count * 2);
+    }
+    this.programs[this.program_count] = shader;
+    return this.program_count++;
+  }
+
+  /**
+   * Returns the number of a material, registering it if it is new. A
+   * material is the colour which {@code GL_COLOR_MATERIAL} makes the ambient
+   * and diffuse colour of the surface.
+   *
+   * @param red
+   *          The red component of the colour.
+   * @param green
+   *          The green component of the colour.
+   * @param blue
+   *          The blue component of the colour.
+   * @return The number of the material.
+   * @throws IllegalStateException
+   *           If there are too many materials for the keys.
+   */
+  public int material(final float red, final float green, final float blue) {
+    for (int i = 0; i < this.material_count; ++i) {
+      if (this.colors[i * 3] == red && this.colors[i * 3 + 1] == green
+          && this.colors[i * 3 + 2] == blue) {
+        return i;
+      }
+    }
+    if (this.material_count == 1 << MATERIAL_BITS) {
+      throw new IllegalStateException("more than " + (1 << MATERIAL_BITS)
+          + " materials");
+    }
+    if (this.material_count * 3 == this.colors.length) {
+      this.colors = Arrays.copyOf(this.colors, this.colors.length * 2);
+    }
+    this.colors[this.material_count * 3] = red;
+    this.colors[this.material_count * 3 + 1] = green;
+    this.colors[this.material_count * 3 + 2] = blue;
+    return this.material_count++;
+  }
+
+  /**
+   * Returns the number of a mesh, registering it if it is new.
+   *
+   * @param mesh
+   *          The mesh.
+   * @return The number of the mesh.
+   * @throws IllegalStateException
+   *           If there are too many meshes for the keys.
+   */
+  public int mesh(final Mesh mesh) {
+    for (int i = 0; i < this.mesh_count; ++i) {
+      if (this.meshes[i] == mesh) {
+        return i;
+      }
+    }
+    if (this.mesh_count == 1 << MESH_BITS) {
+      throw new IllegalStateException("more than " + (1 << MESH_BITS)
+          + " meshes");
+    }
+    if (this.mesh_count == this.meshes.length) {
+      this.meshes = Arrays.copyOf(this.meshes, this.mesh_count * 2);
+    }
+    this.meshes[this.mesh_count] = mesh;
+    return this.mesh_count++;
+  }
+
+  /** Removes every item, to start collecting those of a new frame. */
+  public void clear() {
+    this.count = 0;
+  }
+
+  /**
+   * Adds an item to the frame.
+   *
+   * @param program
+   *          The number of the program with which the item is drawn.
+   * @param material
+   *          The number of its material.
+   * @param mesh
+   *          The number of its mesh.
+   * @param matrix
+   *          The array holding its model matrix.
+   * @param offset
+   *          The index of the first element of the matrix.
+   * @param depth
+   *          The distance of the item in front of the camera.
+   * @throws IllegalStateException
+   *           If the frame already has {@value #MAX_ITEMS} items.
+   */
+  public void add(final int program, final int material, final int mesh,
+      final float[] matrix, final int offset, final float depth) {
+    if (this.count == MAX_ITEMS) {
+      throw new IllegalStateException("more than " + MAX_ITEMS
+          + " items in a frame");
+    }
+    if (this.count == this.keys.length) {
+      this.keys = Arrays.copyOf(this.keys, this.count * 2);
+      this.matrices = Arrays.copyOf(this.matrices, this.count * 2
+          * Matrix4.SIZE);
+    }
+
+    final double fraction = (depth - Camera.NEAR)
+        / (Camera.FAR - Camera.NEAR);
+    final long quantized = (long) (Math.max(0, Math.min(fraction, 1))
+        * MAX_DEPTH);
+    this.keys[this.count] = ((long) program << PROGRAM_SHIFT)
+        | ((long) material << MATERIAL_SHIFT) | ((long) mesh << MESH_SHIFT)
+        | (quantized << DEPTH_SHIFT) | this.count;
+    System.arraycopy(matrix, offset, this.matrices, this.count
+        * Matrix4.SIZE, Matrix4.SIZE);
+    this.count++;
+  }
+
+  /**
+   * Draws the items of the frame sorted by their keys, changing the program,
+   * the colour and the bound mesh only when they differ from the previous
+   * item's. The fixed-function pipeline must be in use, with no mesh bound,
+   * and is left so.
+   *
+   * @param gl
+   *          The OpenGL object with which to draw the items.
+   */
+  public void submit(final GL gl) {
+    this.bind_count = 0;
+    this.triangle_count = 0;
+    final int unsorted = stateChanges(this.keys, this.count);
+    Arrays.sort(this.keys, 0, this.count);
+    this.state_change_count = stateChanges(this.keys, this.count);
+    this.saved_state_change_count = unsorted - this.state_change_count;
+
+    int program = FIXED_FUNCTION, material = -1;
+    // the first item of the run of shaded items, and the item after the run
+    int run_first = 0, run_end = 0;
+    Mesh bound = null;
+    for (int i = 0; i < this.count; ++i) {
+      final long key = this.keys[i];
+      final int item_program = (int) (key >>> PROGRAM_SHIFT);
+      final int item_material = field(key, MATERIAL_SHIFT, MATERIAL_BITS);
+      final Mesh mesh = this.meshes[field(key, MESH_SHIFT, MESH_BITS)];
+      final int item = field(key, 0, INDEX_BITS);
+
+      if (item_program != program) {
+        if (program != FIXED_FUNCTION) {
+          this.programs[program].end(gl);
+        }
+        if (item_program != FIXED_FUNCTION) {
+          this.programs[item_program].begin(gl);
+        }
+        program = item_program;
+        run_end = i;
+      }
+      if (item_material != material) {
+        gl.glColor3f(this.colors[item_material * 3],
+            this.colors[item_material * 3 + 1],
+            this.colors[item_material * 3 + 2]);
+        material = item_material;
+      }
+      if (mesh != bound) {
+        if (bound != null) {
+          bound.unbind(gl);
+        }
+        mesh.bind(gl);
+        this.bind_count++;
+        bound = mesh;
+      }
+
+      final PartShader shader = this.programs[program];
+      if (shader != null) {
+        if (i == run_end) {
+          run_first = i;
+          run_end = this.gatherRun(i);
+          shader.setMatrices(gl, this.run, 0, run_end - run_first);
+        }
+        shader.selectPart(gl, i - run_first);
+        mesh.draw(gl);
+      } else {
+        gl.glPushMatrix();
+          gl.glMultMatrixf(this.matrices, item * Matrix4.SIZE);
+          mesh.draw(gl);
+        gl.glPopMatrix();
+      }
+      this.triangle_count += mesh.triangleCount();
+    }
+
+    if (bound != null) {
+      bound.unbind(gl);
+    }
+    if (program != FIXED_FUNCTION) {
+      this.programs[program].end(gl);
+    }
+  }
+
+  /**
+   * Copies the model matrices of the run of items starting at a sorted item
+   * which share its program, at most {@link PartShader#MAX_PARTS} of them,
+   * into the matrices of the run.
+   *
+   * @param first
+   *          The index of the first item of the run among the sorted keys.
+   * @return The index of the item after the last of the run.
+   */
+  private int gatherRun(final int first) {
+    final long program = this.keys[first] >>> PROGRAM_SHIFT;
+    final int end = Math.min(this.count, first + PartShader.MAX_PARTS);
+    int i = first;
+    for (; i < end && this.keys[i] >>> PROGRAM_SHIFT == program; ++i) {
+      System.arraycopy(this.matrices, field(this.keys[i], 0, INDEX_BITS)
+          * Matrix4.SIZE, this.run, (i - first) * Matrix4.SIZE,
+          Matrix4.SIZE);
+    }
+    return i;
+  }
+
+  /**
+   * Counts the state changes made by drawing items in the order of their
+   * keys, starting from the fixed-function pipeline with no colour set and
+   * no mesh bound.
+   *
+   * @param keys
+   *          The keys of the items, in the order in which they are drawn.
+   * @param count
+   *          The number of items.
+   * @return The number of programs switched to, colours set and meshes
+   *         bound.
+   */
+  private static int stateChanges(final long[] keys, final int count) {
+    int changes = 0;
+    long program = FIXED_FUNCTION, material = -1, mesh = -1;
+    for (int i = 0; i < count; ++i) {
+      final long key = keys[i];
+      final long item_program = key >>> PROGRAM_SHIFT;
+      final long item_material = field(key, MATERIAL_SHIFT, MATERIAL_BITS);
+      final long item_mesh = field(key, MESH_SHIFT, MESH_BITS);
+      if (item_program != program) {
+        changes++;
+        program = item_program;
+      }
+      if (item_material != material) {
+        changes++;
+        material = item_material;
+      }
+      if (item_mesh != mesh) {
+        changes++;
+        mesh = item_mesh;
+      }
+    }
+    return changes;
+  }
+
+  /**
+   * Extracts a field of a key.
+   *
+   * @param key
+   *          The key.
+   * @param shift
+   *          The lowest bit of the field.
+   * @param bits
+   *          The number of bits of the field.
+   * @return The value of the field.
+   */
+  private static int field(final long key, final int shift, final int bits) {
+    return (int) ((key >>> shift) & ((1L << bits) - 1));
+  }
+
+  /**
+   * Returns the number of items of the frame.
+   *
+   * @return The number of items.
+   */
+  public int itemCount() {
+    return this.count;
+  }
+
+  /**
+   * Returns the number of state changes made by the last call to
+   * {@link #submit(GL)}: programs switched to, colours set and meshes bound.
+   *
+   * @return The number of state changes.
+   */
+  public int stateChangeCount() {
+    return this.state_change_count;
+  }
+
+  /**
+   * Returns how many more state changes drawing the items of the last call
+   * to {@link #submit(GL)} in the order they were added would have made.
+   *
+   * @return The number of state changes saved by sorting.
+   */
+  public int savedStateChangeCount() {
+    return this.saved_state_change_count;
+  }
+
+  /**
+   * Returns the number of meshes bound by the last call to
+   * {@link #submit(GL)}.
+   *
+   * @return The number of binds.
+   */
+  public int bindCount() {
+    return this.bind_count;
+  }
+
+  /**
+   * Returns the number of triangles drawn by the last call to
+   * {@link #submit(GL)}.
+   *
+   * @return The number of triangles.
+   */
+  public int triangleCount() {
+    return this.triangle_count;
+  }
+}
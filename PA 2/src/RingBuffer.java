@@ -0,0 +1,169 @@
+/**
+ * RingBuffer.java - a bounded lock-free queue for one producer and one consumer
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - carried two numbers with each element, so drags need no objects
+ *
+ * - created to pass input from the event thread without locks
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded first-in first-out queue which one thread may add to while
+ * another removes from, without either ever taking a lock or waiting.
+ *
+ * The elements live in a fixed array whose length is a power of two. The
+ * producer only writes the tail and the consumer only writes the head; each
+ * publishes its progress with an ordered store, which makes the element
+ * written before it visible to the other thread.
+ *
+ * Each element may carry two numbers in the queue's own arrays, such as the
+ * motion of a mouse drag, so that a shared element with different numbers
+ * need not be allocated anew for each offer.
+ *
+ * @param <E>
+ *          The type of the elements.
+ */
+public class RingBuffer<E> {
+
+  /** The elements, indexed by position modulo the capacity. */
+  private final Object elements[];
+  /** The first number carried with each element. */
+  private final int firsts[];
+  /** The second number carried with each element. */
+  private final int seconds[];
+  /** The first number of the element last removed; the consumer's. */
+  private int first = 0;
+  /** The second number of the element last removed; the consumer's. */
+  private int second = 0;
+  /** The capacity minus one, for reducing positions to indices. */
+  private final int mask;
+  /** The position of the next element to remove; written by the consumer. */
+  private final AtomicLong head = new AtomicLong();
+  /** The position of the next element to add; written by the producer. */
+  private final AtomicLong tail = new AtomicLong();
+
+  /**
+   * Instantiates an empty queue.
+   *
+   * @param capacity
+   *          The largest number of elements held at once, which must be a
+   *          power of two.
+   */
+  public RingBuffer(final int capacity) {
+    if (capacity < 1 || (capacity & (capacity - 1)) != 0) {
+      throw new IllegalArgumentException("capacity " + capacity
+          + " is not a power of two");
+    }
+    this.elements = new Object[capacity];
+    this.firsts = new int[capacity];
+    this.seconds = new int[capacity];
+    this.mask = capacity - 1;
+  }
+
+  /**
+   * Adds an element to the tail of this queue unless it is full; only the
+   * producer may call this.
+   *
+   * @param element
+   *          The element to add, which must not be null.
+   * @return Whether the element was added.
+   */
+  public boolean offer(final E element) {
+    return this.offer(element, 0, 0);
+  }
+
+  /**
+   * Adds an element to the tail of this queue with two numbers carried
+   * beside it, unless the queue is full; only the producer may call this.
+   *
+   * @param element
+   *          The element to add, which must not be null.
+   * @param first
+   *          The first number.
+   * @param second
+   *          The second number.
+   * @return Whether the element was added.
+   */
+  public boolean offer(final E element, final int first, final int second) {
+    final long tail = this.tail.get();
+    if (tail - this.head.get() > this.mask) {
+      return false;
+    }
+    final int index = (int) tail & this.mask;
+    this.elements[index] = element;
+    this.firsts[index] = first;
+    this.seconds[index] = second;
+    this.tail.lazySet(tail + 1);
+    return true;
+  }
+
+  /**
+   * Returns the element at the head of this queue without removing it; only
+   * the consumer may call this.
+   *
+   * @return The element at the head, or null if the queue is empty.
+   */
+  @SuppressWarnings("unchecked")
+  public E peek() {
+    final long head = this.head.get();
+    if (head == this.tail.get()) {
+      return null;
+    }
+    return (E) this.elements[(int) head & this.mask];
+  }
+
+  /**
+   * Removes and returns the element at the head of this queue, keeping the
+   * numbers carried with it for {@link #first()} and {@link #second()}; only
+   * the consumer may call this.
+   *
+   * @return The element removed, or null if the queue is empty.
+   */
+  public E poll() {
+    final E element = this.peek();
+    if (element != null) {
+      final long head = this.head.get();
+      final int index = (int) head & this.mask;
+      this.elements[index] = null;
+      this.first = this.firsts[index];
+      this.second = this.seconds[index];
+      this.head.lazySet(head + 1);
+    }
+    return element;
+  }
+
+  /**
+   * Returns the first number carried with the element last removed by
+   * {@link #poll()}; only the consumer may call this.
+   *
+   * @return The first number.
+   */
+  public int first() {
+    return this.first;
+  }
+
+  /**
+   * Returns the second number carried with the element last removed by
+   * {@link #poll()}; only the consumer may call this.
+   *
+   * @return The second number.
+   */
+  public int second() {
+    return this.second;
+  }
+
+  /**
+   * Returns whether this queue is empty; either thread may call this, though
+   * the answer may be out of date by the time it is used.
+   *
+   * @return Whether there is nothing to remove.
+   */
+  public boolean isEmpty() {
+    return this.head.get() == this.tail.get();
+  }
+}
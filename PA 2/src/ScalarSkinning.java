@@ -0,0 +1,105 @@
+/**
+ * ScalarSkinning.java - deforms a skinned mesh one vertex at a time
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - created as the portable kernel of the skinned mesh of the dog
+ */
+
+/**
+ * The {@link Skinning} kernel which deforms one vertex at a time, on any JVM.
+ *
+ * The two matrices of each vertex are blended first, so that the position
+ * and the normal are each transformed once by the blend rather than twice.
+ * The vector kernel finishes the vertices which do not fill its lanes with
+ * {@link #skinVertex(SkinnedMesh, int, float[], int, float[], int)}, so both
+ * kernels give the same results for the same vertex.
+ */
+public class ScalarSkinning implements Skinning {
+
+  /**
+   * {@inheritDoc}
+   *
+   * @param mesh
+   *          {@inheritDoc}
+   * @param first
+   *          {@inheritDoc}
+   * @param end
+   *          {@inheritDoc}
+   * @param bones
+   *          {@inheritDoc}
+   * @param bone_offset
+   *          {@inheritDoc}
+   * @param out
+   *          {@inheritDoc}
+   * @param out_offset
+   *          {@inheritDoc}
+   */
+  public void skin(final SkinnedMesh mesh, final int first, final int end,
+      final float[] bones, final int bone_offset, final float[] out,
+      final int out_offset) {
+    for (int v = first; v < end; ++v) {
+      skinVertex(mesh, v, bones, bone_offset, out, out_offset);
+    }
+  }
+
+  /**
+   * Deforms one vertex of a mesh.
+   *
+   * @param mesh
+   *          The mesh.
+   * @param v
+   *          The vertex.
+   * @param bones
+   *          The array holding the world matrices of the instance.
+   * @param bone_offset
+   *          The index of the first matrix of the instance in the array.
+   * @param out
+   *          The array in which to store the deformed vertices.
+   * @param out_offset
+   *          The index in the output of the first float of vertex 0.
+   */
+  static void skinVertex(final SkinnedMesh mesh, final int v,
+      final float[] bones, final int bone_offset, final float[] out,
+      final int out_offset) {
+    final int a = bone_offset + mesh.first_bones[v];
+    final int b = bone_offset + mesh.second_bones[v];
+    final float w = mesh.weights[v];
+
+    // the blended matrix, b + w * (a - b), column by column
+    final float m0 = bones[b] + w * (bones[a] - bones[b]);
+    final float m1 = bones[b + 1] + w * (bones[a + 1] - bones[b + 1]);
+    final float m2 = bones[b + 2] + w * (bones[a + 2] - bones[b + 2]);
+    final float m4 = bones[b + 4] + w * (bones[a + 4] - bones[b + 4]);
+    final float m5 = bones[b + 5] + w * (bones[a + 5] - bones[b + 5]);
+    final float m6 = bones[b + 6] + w * (bones[a + 6] - bones[b + 6]);
+    final float m8 = bones[b + 8] + w * (bones[a + 8] - bones[b + 8]);
+    final float m9 = bones[b + 9] + w * (bones[a + 9] - bones[b + 9]);
+    final float m10 = bones[b + 10] + w * (bones[a + 10] - bones[b + 10]);
+    final float m12 = bones[b + 12] + w * (bones[a + 12] - bones[b + 12]);
+    final float m13 = bones[b + 13] + w * (bones[a + 13] - bones[b + 13]);
+    final float m14 = bones[b + 14] + w * (bones[a + 14] - bones[b + 14]);
+
+    final float x = mesh.x[v], y = mesh.y[v], z = mesh.z[v];
+    final float nx = mesh.nx[v], ny = mesh.ny[v], nz = mesh.nz[v];
+    final int o = out_offset + v * SkinnedMesh.STRIDE;
+    out[o] = m0 * x + m4 * y + m8 * z + m12;
+    out[o + 1] = m1 * x + m5 * y + m9 * z + m13;
+    out[o + 2] = m2 * x + m6 * y + m10 * z + m14;
+    out[o + 3] = m0 * nx + m4 * ny + m8 * nz;
+    out[o + 4] = m1 * nx + m5 * ny + m9 * nz;
+    out[o + 5] = m2 * nx + m6 * ny + m10 * nz;
+  }
+
+  /**
+   * Returns the name of this kernel.
+   *
+   * @return The name.
+   */
+  @Override
+  public String toString() {
+    return "scalar";
+  }
+}
@@ -0,0 +1,349 @@
+/**
+ * Scene.java - the lit, rotatable scene of dogs drawn by each frame
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - picked the joint under a click of the mouse
+ *
+ * - lit the dogs with a shader wherever the context supports one
+ *
+ * - timed the phases of each frame and added an overlay showing the timings
+ *
+ * - created from the drawing code of PA2 so that frames can be drawn without
+ *   a window
+ */
+
+import javax.media.opengl.GL;
+
+import com.sun.opengl.util.GLUT;
+
+/**
+ * Everything drawn in a frame of the simulator: the herd of dogs, lit by one
+ * light and seen through a camera whose view of the world is rotated with the
+ * mouse.
+ *
+ * {@link PA2} owns the window and calls {@link #init(GL)} and
+ * {@link #display(GL)} from its OpenGL callbacks; this class only ever talks
+ * to the {@link GL} object it is given, so the same frames can be drawn
+ * through a stand-in for OpenGL without a display.
+ *
+ * The dogs are placed and lit by a {@link PartShader} if the context
+ * supports GLSL and the shader is not turned off, and otherwise by the
+ * fixed-function pipeline, whose light the shader reads; only the
+ * fixed-function pipeline needs {@code GL_NORMALIZE}.
+ *
+ * A click is picked through the view of the frame which applies it: if its
+ * ray first hits a part of the dog under control which has a joint, that
+ * part alone and its joint are selected, as if chosen with the keys.
+ *
+ * The scene times the phases of each frame it draws into its
+ * {@link FrameTimings}, and can draw a summary of them over the dogs.
+ */
+public class Scene {
+
+  /** The time between refreshes of the overlay text, in nanoseconds. */
+  public static final long OVERLAY_REFRESH_NANOSECONDS = 250000000L;
+  /** The distance of the overlay text from the edges, in pixels. */
+  private static final int OVERLAY_MARGIN = 8;
+  /** The distance between lines of the overlay text, in pixels. */
+  private static final int OVERLAY_LINE_HEIGHT = 14;
+
+  /** The dogs being simulated and drawn. */
+  private final Crowd crowd;
+  /** The input whose view commands are applied at the start of each frame. */
+  private final InputHandler input;
+  /** The measurement of the frame rate of the herd, or null. */
+  private final CrowdSweep sweep;
+  /** The timings of the frames drawn. */
+  private final FrameTimings timings = new FrameTimings();
+  /** The lines of text shown by the overlay, one per phase. */
+  private final String overlay_lines[] = new String[FrameTimings.Phase
+      .values().length];
+  /** The time at which the overlay text was last refreshed, in nanoseconds. */
+  private long overlay_time = 0;
+  /** Whether the timings are drawn over the dogs; set by the event thread. */
+  private volatile boolean overlay_visible = false;
+  /** The time of the earliest input shown by the last frame, or 0. */
+  private long shown_input_time = 0;
+  /** The camera through which the scene is viewed. */
+  private final Camera camera = new Camera();
+  /**
+   * The quaternion which controls the rotation of the world; it is only
+   * touched by the display, which applies the queued mouse drags to it.
+   */
+  private final Quaternion viewing_quaternion = new Quaternion();
+  /** The rotation of the world as a matrix, reused by every frame. */
+  private final float view[] = new float[Matrix4.SIZE];
+  /** The shader which places and lights the dogs where it is available. */
+  private final PartShader shader = new PartShader();
+  /** Whether the dogs are drawn with the shader; set by the event thread. */
+  private volatile boolean shaded = true;
+  /** The position (x, y) of the click to pick, reused by every frame. */
+  private final int click[] = new int[2];
+
+  /**
+   * Instantiates a scene of the specified dogs.
+   *
+   * @param crowd
+   *          The dogs to draw.
+   * @param input
+   *          The input which rotates the view.
+   * @param sweep
+   *          The measurement told about every frame drawn, or null.
+   */
+  public Scene(final Crowd crowd, final InputHandler input,
+      final CrowdSweep sweep) {
+    this.crowd = crowd;
+    this.input = input;
+    this.sweep = sweep;
+  }
+
+  /**
+   * Returns the camera through which the scene is viewed.
+   *
+   * @return The camera.
+   */
+  public Camera camera() {
+    return this.camera;
+  }
+
+  /**
+   * Returns the timings of the frames drawn.
+   *
+   * @return The timings.
+   */
+  public FrameTimings timings() {
+    return this.timings;
+  }
+
+  /**
+   * Returns the shader which places and lights the dogs.
+   *
+   * @return The shader.
+   */
+  public PartShader shader() {
+    return this.shader;
+  }
+
+  /**
+   * Chooses whether the dogs are drawn with the shader, where it is
+   * available, or with the fixed-function pipeline.
+   *
+   * @param shaded
+   *          Whether to use the shader.
+   */
+  public void setShaded(final boolean shaded) {
+    this.shaded = shaded;
+  }
+
+  /**
+   * Returns whether the dogs are drawn with the shader where it is
+   * available.
+   *
+   * @return Whether the shader is chosen.
+   */
+  public boolean isShaded() {
+    return this.shaded;
+  }
+
+  /**
+   * Shows or hides the timings drawn over the dogs.
+   *
+   * @param visible
+   *          Whether to draw the overlay.
+   */
+  public void setOverlayVisible(final boolean visible) {
+    this.overlay_visible = visible;
+  }
+
+  /**
+   * Returns whether the timings are drawn over the dogs.
+   *
+   * @return Whether the overlay is shown.
+   */
+  public boolean isOverlayVisible() {
+    return this.overlay_visible;
+  }
+
+  /**
+   * Returns the time of the earliest input first shown by the last frame
+   * drawn, so that its latency can be measured once the frame is on the
+   * screen.
+   *
+   * @return The time of the input, as given by {@link System#nanoTime()}, or
+   *         0 if the frame showed no new input.
+   */
+  public long shownInputTime() {
+    return this.shown_input_time;
+  }
+
+  /**
+   * Uploads the meshes of the dogs, sets up the lighting and builds the
+   * shader.
+   *
+   * @param gl
+   *          The OpenGL object with which to set up the scene.
+   */
+  public void init(final GL gl) {
+    // perform any initialization needed by the dog model
+    this.crowd.init(gl);
+
+    // set up for shaded display of the dog
+    final float light0_position[] = { 1, 1, 1, 0 };
+    final float light0_ambient_color[] = { 0.25f, 0.25f, 0.25f, 1 };
+    final float light0_diffuse_color[] = { 1, 1, 1, 1 };
+
+    gl.glPolygonMode(GL.GL_FRONT, GL.GL_FILL);
+    gl.glEnable(GL.GL_COLOR_MATERIAL);
+    gl.glColorMaterial(GL.GL_FRONT, GL.GL_AMBIENT_AND_DIFFUSE);
+
+    gl.glClearColor(0.0f, 0.0f, 0.0f, 0.0f);
+    gl.glShadeModel(GL.GL_SMOOTH);
+
+    // set up the light source
+    gl.glLightfv(GL.GL_LIGHT0, GL.GL_POSITION, light0_position, 0);
+    gl.glLightfv(GL.GL_LIGHT0, GL.GL_AMBIENT, light0_ambient_color, 0);
+    gl.glLightfv(GL.GL_LIGHT0, GL.GL_DIFFUSE, light0_diffuse_color, 0);
+
+    // turn lighting and depth buffering on
+    gl.glEnable(GL.GL_LIGHTING);
+    gl.glEnable(GL.GL_LIGHT0);
+    gl.glEnable(GL.GL_DEPTH_TEST);
+
+    // the parts are scaled spheres, whose normals the fixed-function pipeline
+    // must renormalize; the shader corrects them with its normal matrices
+    gl.glEnable(GL.GL_NORMALIZE);
+    this.shader.upload(gl);
+  }
+
+  /**
+   * Draws one frame of the scene.
+   *
+   * @param gl
+   *          The OpenGL object with which to draw the frame.
+   * @return Whether the frame showed the latest step of the simulation in
+   *         full, so that drawing again would show nothing new.
+   */
+  public boolean display(final GL gl) {
+    // clear the display
+    gl.glClear(GL.GL_COLOR_BUFFER_BIT | GL.GL_DEPTH_BUFFER_BIT);
+
+    // from here on affect the model view
+    gl.glMatrixMode(GL.GL_MODELVIEW);
+
+    // start with the identity matrix initially
+    gl.glLoadIdentity();
+
+    // rotate the world by the appropriate rotation quaternion
+    long input_time = 0;
+    if (this.input.applyViewCommands(this.viewing_quaternion, this.crowd
+        .stepCount()) > 0) {
+      input_time = this.input.takeViewInputTime();
+    }
+    this.viewing_quaternion.toMatrix(this.view);
+    gl.glMultMatrixf(this.view, 0);
+    this.camera.setView(this.view);
+    if (this.input.takeClick(this.click)) {
+      final long pick_start = System.nanoTime();
+      this.pick(this.click[0], this.click[1]);
+      this.timings.record(FrameTimings.Phase.PICK, System.nanoTime()
+          - pick_start);
+    }
+
+    // the dogs are animated on their own thread; draw their latest state
+    final long start = System.nanoTime();
+    this.crowd.update(gl);
+    final long updated = System.nanoTime();
+    final boolean shaded = this.shaded && this.shader.isAvailable();
+    this.crowd.draw(gl, this.camera, shaded ? this.shader : null);
+    final long drawn = System.nanoTime();
+    this.timings.record(FrameTimings.Phase.UPDATE, updated - start);
+    this.timings.record(FrameTimings.Phase.DRAW, drawn - updated);
+    if (this.sweep != null) {
+      this.sweep.frameDrawn(drawn);
+    }
+
+    final long dog_input_time = this.crowd.takeShownInputTime();
+    if (input_time == 0
+        || (dog_input_time != 0 && dog_input_time < input_time)) {
+      input_time = dog_input_time;
+    }
+    this.shown_input_time = input_time;
+    return this.crowd.isSettled();
+  }
+
+  /**
+   * Selects the part of the dog under control, and its joint, under a pixel
+   * of the viewport, if that is the nearest part of any dog there.
+   *
+   * @param x
+   *          The horizontal position of the pixel, from the left.
+   * @param y
+   *          The vertical position of the pixel, from the top.
+   */
+  private void pick(final int x, final int y) {
+    if (!this.crowd.pick(this.camera, x, y)
+        || this.crowd.dog(this.crowd.pickedDog()) != this.input.dog()) {
+      return;
+    }
+    final Dog.PartType part = this.crowd.pickedPart();
+    final Dog.BodyPartType body_part = Dog.bodyPartOf(part);
+    if (body_part == null) {
+      // the body has no joint of its own to rotate
+      return;
+    }
+    this.input.pushPicked(Command.selectPart(body_part, Dog.jointOf(part)));
+    this.crowd.wake();
+  }
+
+  /**
+   * Draws the 50th and 99th percentiles and the maximum of the timings of
+   * each phase in the top left corner of the window, if the overlay is
+   * shown; the text is refreshed a few times a second.
+   *
+   * @param gl
+   *          The OpenGL object with which to draw the text.
+   * @param glut
+   *          The OpenGL utility toolkit object which draws the text.
+   */
+  public void drawOverlay(final GL gl, final GLUT glut) {
+    if (!this.overlay_visible) {
+      return;
+    }
+    final long now = System.nanoTime();
+    if (this.overlay_lines[0] == null
+        || now - this.overlay_time > OVERLAY_REFRESH_NANOSECONDS) {
+      this.timings.summarize(this.overlay_lines);
+      this.overlay_time = now;
+    }
+
+    // draw in window coordinates, unlit and over everything
+    final int width = this.camera.width();
+    final int height = this.camera.height();
+    gl.glMatrixMode(GL.GL_PROJECTION);
+    gl.glPushMatrix();
+    gl.glLoadIdentity();
+    gl.glOrtho(0, width, 0, height, -1, 1);
+    gl.glMatrixMode(GL.GL_MODELVIEW);
+    gl.glPushMatrix();
+    gl.glLoadIdentity();
+    gl.glDisable(GL.GL_LIGHTING);
+    gl.glDisable(GL.GL_DEPTH_TEST);
+
+    gl.glColor3f(1, 1, 0);
+    for (int i = 0; i < this.overlay_lines.length; ++i) {
+      gl.glRasterPos2i(OVERLAY_MARGIN, height - OVERLAY_MARGIN
+          - (i + 1) * OVERLAY_LINE_HEIGHT);
+      glut.glutBitmapString(GLUT.BITMAP_HELVETICA_12, this.overlay_lines[i]);
+    }
+
+    gl.glEnable(GL.GL_DEPTH_TEST);
+    gl.glEnable(GL.GL_LIGHTING);
+    gl.glPopMatrix();
+    gl.glMatrixMode(GL.GL_PROJECTION);
+    gl.glPopMatrix();
+    gl.glMatrixMode(GL.GL_MODELVIEW);
+  }
+}
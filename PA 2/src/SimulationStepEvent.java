@@ -0,0 +1,39 @@
+/**
+ * SimulationStepEvent.java - a flight recorder event for each step
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - created so that slow steps show up in flight recordings
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One step of the simulation of a {@link Crowd}: applying the queued input,
+ * advancing the tricks and evaluating the pose of every dog.
+ */
+@Name("creature.SimulationStep")
+@Label("Simulation Step")
+@Category({ "Creature", "Simulation" })
+@Description("Applying input to, advancing and evaluating every dog")
+@StackTrace(false)
+public class SimulationStepEvent extends jdk.jfr.Event {
+
+  /** The number of the step. */
+  @Label("Sequence")
+  long sequence;
+
+  /** The number of dogs evaluated. */
+  @Label("Dogs")
+  int dogs;
+
+  /** The number of commands from the keyboard applied. */
+  @Label("Commands")
+  int commands;
+}
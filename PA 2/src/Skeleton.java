@@ -0,0 +1,219 @@
+/**
+ * Skeleton.java - forward kinematics over a joint table
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - exposed the positions and axes of the joints for inverse kinematics
+ *
+ * - created so that child parts follow their parents through real joints
+ */
+
+/**
+ * Evaluates the matrices of a hierarchy of joints from the angles in a
+ * {@link JointTable}.
+ *
+ * Each joint rotates about a fixed pivot point, given in the coordinate system
+ * of the root at rest, by its x, y and z angles in that order (the same order
+ * in which the dog used to call {@code glRotatef}). Its local matrix is
+ * therefore {@code T(pivot) * Rx * Ry * Rz * T(-pivot)}, and its world matrix
+ * is its parent's world matrix times its local matrix.
+ *
+ * Every joint also has an attachment matrix placing its mesh, so the model
+ * matrix with which the mesh is drawn is its world matrix times its
+ * attachment. All three kinds of matrices are cached in flat arrays, 16 floats
+ * per joint, and only the joints whose angles (or whose ancestors' angles)
+ * changed are recomputed by {@link #evaluate()}.
+ */
+public class Skeleton {
+
+  /** The pose from which the matrices are evaluated. */
+  private final JointTable pose;
+  /** The pivot point (x, y, z) of each joint in the root's rest frame. */
+  private final float pivots[];
+  /** The matrix placing the mesh of each joint, 16 floats per joint. */
+  private final float attachments[];
+  /** The matrix of each joint relative to its parent, 16 floats per joint. */
+  private final float locals[];
+  /** The matrix of each joint relative to the root, 16 floats per joint. */
+  private final float worlds[];
+  /** The world matrix times the attachment of each joint. */
+  private final float models[];
+  /** Whether the world matrix of each joint changed in the last evaluation. */
+  private final boolean changed[];
+  /** Scratch space for building a local matrix. */
+  private final float scratch[] = new float[Matrix4.SIZE];
+  /** The number of joints recomputed by the last evaluation. */
+  private int evaluated_count = 0;
+
+  /**
+   * Instantiates a skeleton for the specified pose.
+   *
+   * @param pose
+   *          The pose from which the matrices are evaluated.
+   * @param pivots
+   *          The pivot point (x, y, z) of each joint in the root's rest frame.
+   * @param attachments
+   *          The matrix placing the mesh of each joint, 16 floats per joint.
+   */
+  public Skeleton(final JointTable pose, final float[] pivots,
+      final float[] attachments) {
+    final int count = pose.jointCount();
+    if (pivots.length != count * JointTable.AXES
+        || attachments.length != count * Matrix4.SIZE) {
+      throw new IllegalArgumentException("expected pivots and attachments for "
+          + count + " joints");
+    }
+
+    this.pose = pose;
+    this.pivots = pivots.clone();
+    this.attachments = attachments.clone();
+    this.locals = new float[count * Matrix4.SIZE];
+    this.worlds = new float[count * Matrix4.SIZE];
+    this.models = new float[count * Matrix4.SIZE];
+    this.changed = new boolean[count];
+  }
+
+  /**
+   * Recomputes the matrices of every joint which is dirty in the pose, and of
+   * all of their descendants, then marks those joints clean.
+   */
+  public void evaluate() {
+    final int count = this.pose.jointCount();
+    this.evaluated_count = 0;
+
+    // parents come before their children, so one pass covers every subtree
+    for (int joint = 0; joint < count; ++joint) {
+      final int parent = this.pose.parent(joint);
+      final boolean dirty = this.pose.isDirty(joint);
+      final boolean moved = dirty
+          || (parent != JointTable.NO_PARENT && this.changed[parent]);
+      this.changed[joint] = moved;
+      if (!moved) {
+        continue;
+      }
+
+      final int offset = joint * Matrix4.SIZE;
+      if (dirty) {
+        this.computeLocal(joint);
+        System.arraycopy(this.scratch, 0, this.locals, offset, Matrix4.SIZE);
+        this.pose.clean(joint);
+      }
+      if (parent == JointTable.NO_PARENT) {
+        System.arraycopy(this.locals, offset, this.worlds, offset,
+            Matrix4.SIZE);
+      } else {
+        Matrix4.multiply(this.worlds, offset, this.worlds, parent
+            * Matrix4.SIZE, this.locals, offset);
+      }
+      Matrix4.multiply(this.models, offset, this.worlds, offset,
+          this.attachments, offset);
+      this.evaluated_count++;
+    }
+  }
+
+  /**
+   * Builds the local matrix of the specified joint in the scratch matrix.
+   *
+   * @param joint
+   *          The joint whose local matrix to build.
+   */
+  private void computeLocal(final int joint) {
+    final float x = this.pivots[joint * JointTable.AXES];
+    final float y = this.pivots[joint * JointTable.AXES + 1];
+    final float z = this.pivots[joint * JointTable.AXES + 2];
+
+    Matrix4.identity(this.scratch);
+    Matrix4.translate(this.scratch, x, y, z);
+    Matrix4.rotate(this.scratch, this.pose.angle(joint, 0), 1, 0, 0);
+    Matrix4.rotate(this.scratch, this.pose.angle(joint, 1), 0, 1, 0);
+    Matrix4.rotate(this.scratch, this.pose.angle(joint, 2), 0, 0, 1);
+    Matrix4.translate(this.scratch, -x, -y, -z);
+  }
+
+  /**
+   * Returns the cached model matrices, 16 floats per joint; these are only
+   * up to date after {@link #evaluate()}.
+   *
+   * @return The model matrix of every joint.
+   */
+  public float[] modelMatrices() {
+    return this.models;
+  }
+
+  /**
+   * Returns the cached world matrices, 16 floats per joint; these are only up
+   * to date after {@link #evaluate()}.
+   *
+   * @return The world matrix of every joint.
+   */
+  public float[] worldMatrices() {
+    return this.worlds;
+  }
+
+  /**
+   * Computes where the pivot of a joint is in the current pose; this is only
+   * up to date after {@link #evaluate()}.
+   *
+   * @param joint
+   *          The joint.
+   * @param position
+   *          The array in which to store the position (x, y, z) in the root's
+   *          rest frame.
+   */
+  public void pivot(final int joint, final float[] position) {
+    final int p = joint * JointTable.AXES;
+    Matrix4.transformPoint(position, this.worlds, joint * Matrix4.SIZE,
+        this.pivots[p], this.pivots[p + 1], this.pivots[p + 2]);
+  }
+
+  /**
+   * Computes the direction of the axis about which changing one angle of a
+   * joint rotates it in the current pose; this is only up to date after
+   * {@link #evaluate()}.
+   *
+   * The angles are applied in the order x, y, z, so the z-axis is carried
+   * along by the x and y rotations of the joint, the y-axis only by its x
+   * rotation, and the x-axis by neither.
+   *
+   * @param joint
+   *          The joint.
+   * @param axis
+   *          The axis, 0 for x, 1 for y and 2 for z.
+   * @param direction
+   *          The array in which to store the unit direction (x, y, z) in the
+   *          root's rest frame.
+   */
+  public void axis(final int joint, final int axis, final float[] direction) {
+    // undo the rotations applied after the axis, then apply the world matrix
+    float dx = 0, dy = 0, dz = 1;
+    if (axis < 2) {
+      final double z = Math.toRadians(this.pose.angle(joint, 2));
+      final float cz = (float) Math.cos(z), sz = (float) Math.sin(z);
+      if (axis == 1) {
+        dx = sz;
+        dy = cz;
+        dz = 0;
+      } else {
+        final double y = Math.toRadians(this.pose.angle(joint, 1));
+        final float cy = (float) Math.cos(y), sy = (float) Math.sin(y);
+        dx = cz * cy;
+        dy = -sz * cy;
+        dz = sy;
+      }
+    }
+    Matrix4.transformVector(direction, this.worlds, joint * Matrix4.SIZE, dx,
+        dy, dz);
+  }
+
+  /**
+   * Returns the number of joints whose matrices were recomputed by the last
+   * call to {@link #evaluate()}.
+   *
+   * @return The number of joints recomputed.
+   */
+  public int evaluatedCount() {
+    return this.evaluated_count;
+  }
+}
@@ -0,0 +1,339 @@
+/**
+ * SkinBuilder.java - tessellates the surface of a skinned mesh
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - created to build the skin of the dog from its parts and joints
+ */
+
+import java.util.Arrays;
+
+/**
+ * Builds a {@link SkinnedMesh} out of ellipsoids, which follow one joint, and
+ * tubes, which run through the joints of a limb and blend between them along
+ * their length, so that a limb bends as one surface.
+ *
+ * Everything is given in the coordinate system of the root at rest, in which
+ * the world matrices of the skeleton are all the identity, so the mesh needs
+ * no bind matrices.
+ */
+public class SkinBuilder {
+
+  /** The number of joints of the skeleton. */
+  private final int bone_count;
+  /** The position (x, y, z) of each vertex. */
+  private float positions[] = new float[3 * 256];
+  /** The normal (x, y, z) of each vertex. */
+  private float normals[] = new float[3 * 256];
+  /** The two joints each vertex follows. */
+  private int bones[] = new int[2 * 256];
+  /** The weight of the first joint of each vertex. */
+  private float weights[] = new float[256];
+  /** The number of vertices so far. */
+  private int vertex_count = 0;
+  /** The indices of the vertices of each triangle. */
+  private int triangles[] = new int[3 * 512];
+  /** The number of indices so far. */
+  private int index_count = 0;
+
+  /**
+   * Instantiates a builder of a mesh for a skeleton of the specified size.
+   *
+   * @param bone_count
+   *          The number of joints of the skeleton.
+   */
+  public SkinBuilder(final int bone_count) {
+    this.bone_count = bone_count;
+  }
+
+  /**
+   * Adds a unit sphere transformed by a matrix, such as the attachment which
+   * places the mesh of a part, which follows a single joint.
+   *
+   * @param bone
+   *          The joint.
+   * @param shape
+   *          The array holding the matrix.
+   * @param offset
+   *          The index of the first entry of the matrix.
+   * @param slices
+   *          The number of subdivisions around the z-axis of the sphere.
+   * @param stacks
+   *          The number of subdivisions along the z-axis of the sphere.
+   */
+  public void ellipsoid(final int bone, final float[] shape, final int offset,
+      final int slices, final int stacks) {
+    final float m[] = Arrays.copyOfRange(shape, offset, offset
+        + Matrix4.SIZE);
+    final float c[] = new float[Matrix4.NORMAL_SIZE];
+    Matrix4.normalMatrix(c, 0, m, 0);
+
+    final int base = this.vertex_count;
+    final float p[] = new float[3], n[] = new float[3];
+    for (int i = 0; i <= stacks; ++i) {
+      final double phi = Math.PI * i / stacks;
+      for (int j = 0; j <= slices; ++j) {
+        final double theta = 2 * Math.PI * j / slices;
+        final float sx = (float) (Math.sin(phi) * Math.cos(theta));
+        final float sy = (float) (Math.sin(phi) * Math.sin(theta));
+        final float sz = (float) Math.cos(phi);
+        Matrix4.transformPoint(p, m, 0, sx, sy, sz);
+        n[0] = c[0] * sx + c[3] * sy + c[6] * sz;
+        n[1] = c[1] * sx + c[4] * sy + c[7] * sz;
+        n[2] = c[2] * sx + c[5] * sy + c[8] * sz;
+        normalize(n);
+        this.vertex(p[0], p[1], p[2], n[0], n[1], n[2], bone, bone, 1);
+      }
+    }
+    for (int i = 0; i < stacks; ++i) {
+      for (int j = 0; j < slices; ++j) {
+        final int a = base + i * (slices + 1) + j;
+        final int b = a + slices + 1;
+        this.triangle(a, b, a + 1);
+        this.triangle(a + 1, b, b + 1);
+      }
+    }
+  }
+
+  /**
+   * Adds a closed tube through a sequence of nodes, each a point on its axis
+   * with a radius; between two nodes the tube follows a blend of two joints,
+   * with a weight which changes linearly from one node to the next.
+   *
+   * @param nodes
+   *          The point (x, y, z) and radius of each node, 4 floats per node.
+   * @param segment_bones
+   *          The two joints followed between each node and the next, 2 per
+   *          segment.
+   * @param segment_weights
+   *          The weight of the first joint of each segment at its start and
+   *          at its end, 2 per segment.
+   * @param sides
+   *          The number of vertices around each ring of the tube.
+   * @param rings
+   *          The number of rings from the start of each segment to its end.
+   */
+  public void tube(final float[] nodes, final int[] segment_bones,
+      final float[] segment_weights, final int sides, final int rings) {
+    final int segments = nodes.length / 4 - 1;
+    if (segments < 1 || segment_bones.length != 2 * segments
+        || segment_weights.length != 2 * segments) {
+      throw new IllegalArgumentException("expected two joints and weights "
+          + "for each of the segments between " + nodes.length / 4 + " nodes");
+    }
+
+    // a frame around the axis which turns as little as possible along it
+    final float t[] = new float[3], u[] = new float[3], v[] = new float[3];
+    direction(t, nodes, 0);
+    perpendicular(u, t);
+
+    // the cap at the start, which faces backwards along the axis
+    final int start = this.vertex_count;
+    this.vertex(nodes[0], nodes[1], nodes[2], -t[0], -t[1], -t[2],
+        segment_bones[0], segment_bones[1], segment_weights[0]);
+
+    int ring = -1;
+    for (int s = 0; s < segments; ++s) {
+      final int a = s * 4, b = a + 4;
+      direction(t, nodes, s);
+      // carry the frame along to the new direction
+      final float along = u[0] * t[0] + u[1] * t[1] + u[2] * t[2];
+      u[0] -= along * t[0];
+      u[1] -= along * t[1];
+      u[2] -= along * t[2];
+      normalize(u);
+      v[0] = t[1] * u[2] - t[2] * u[1];
+      v[1] = t[2] * u[0] - t[0] * u[2];
+      v[2] = t[0] * u[1] - t[1] * u[0];
+
+      for (int r = (s == 0) ? 0 : 1; r <= rings; ++r) {
+        final float f = (float) r / rings;
+        final float cx = nodes[a] + f * (nodes[b] - nodes[a]);
+        final float cy = nodes[a + 1] + f * (nodes[b + 1] - nodes[a + 1]);
+        final float cz = nodes[a + 2] + f * (nodes[b + 2] - nodes[a + 2]);
+        final float radius = nodes[a + 3] + f * (nodes[b + 3] - nodes[a + 3]);
+        final float weight = segment_weights[2 * s] + f
+            * (segment_weights[2 * s + 1] - segment_weights[2 * s]);
+        final int first = this.vertex_count;
+        for (int side = 0; side < sides; ++side) {
+          final double theta = 2 * Math.PI * side / sides;
+          final float cos = (float) Math.cos(theta);
+          final float sin = (float) Math.sin(theta);
+          final float nx = cos * u[0] + sin * v[0];
+          final float ny = cos * u[1] + sin * v[1];
+          final float nz = cos * u[2] + sin * v[2];
+          this.vertex(cx + radius * nx, cy + radius * ny, cz + radius * nz,
+              nx, ny, nz, segment_bones[2 * s], segment_bones[2 * s + 1],
+              weight);
+        }
+
+        if (ring < 0) {
+          // a fan from the cap at the start
+          for (int side = 0; side < sides; ++side) {
+            this.triangle(start, first + (side + 1) % sides, first + side);
+          }
+        } else {
+          for (int side = 0; side < sides; ++side) {
+            final int next = (side + 1) % sides;
+            this.triangle(ring + side, ring + next, first + side);
+            this.triangle(ring + next, first + next, first + side);
+          }
+        }
+        ring = first;
+      }
+    }
+
+    // the cap at the end, which faces forwards along the axis
+    final int last = nodes.length - 4, s = segments - 1;
+    final int end = this.vertex_count;
+    this.vertex(nodes[last], nodes[last + 1], nodes[last + 2], t[0], t[1],
+        t[2], segment_bones[2 * s], segment_bones[2 * s + 1],
+        segment_weights[2 * s + 1]);
+    for (int side = 0; side < sides; ++side) {
+      this.triangle(end, ring + side, ring + (side + 1) % sides);
+    }
+  }
+
+  /**
+   * Returns the mesh built so far.
+   *
+   * @return The mesh.
+   */
+  public SkinnedMesh build() {
+    return new SkinnedMesh(Arrays.copyOf(this.positions,
+        this.vertex_count * 3), Arrays.copyOf(this.normals,
+        this.vertex_count * 3), Arrays.copyOf(this.bones,
+        this.vertex_count * 2), Arrays.copyOf(this.weights,
+        this.vertex_count), this.bone_count, Arrays.copyOf(this.triangles,
+        this.index_count));
+  }
+
+  /**
+   * Adds a vertex.
+   *
+   * @param x
+   *          The x coordinate of the vertex.
+   * @param y
+   *          The y coordinate of the vertex.
+   * @param z
+   *          The z coordinate of the vertex.
+   * @param nx
+   *          The x component of the unit normal.
+   * @param ny
+   *          The y component of the unit normal.
+   * @param nz
+   *          The z component of the unit normal.
+   * @param first
+   *          The first joint the vertex follows.
+   * @param second
+   *          The second joint the vertex follows.
+   * @param weight
+   *          The weight of the first joint.
+   */
+  private void vertex(final float x, final float y, final float z,
+      final float nx, final float ny, final float nz, final int first,
+      final int second, final float weight) {
+    if (this.vertex_count == this.weights.length) {
+      final int capacity = 2 * this.weights.length;
+      this.positions = Arrays.copyOf(this.positions, 3 * capacity);
+      this.normals = Arrays.copyOf(this.normals, 3 * capacity);
+      this.bones = Arrays.copyOf(this.bones, 2 * capacity);
+      this.weights = Arrays.copyOf(this.weights, capacity);
+    }
+    final int v = this.vertex_count++;
+    this.positions[3 * v] = x;
+    this.positions[3 * v + 1] = y;
+    this.positions[3 * v + 2] = z;
+    this.normals[3 * v] = nx;
+    this.normals[3 * v + 1] = ny;
+    this.normals[3 * v + 2] = nz;
+    this.bones[2 * v] = first;
+    this.bones[2 * v + 1] = second;
+    this.weights[v] = weight;
+  }
+
+  /**
+   * Adds a triangle.
+   *
+   * @param a
+   *          The first vertex.
+   * @param b
+   *          The second vertex.
+   * @param c
+   *          The third vertex, counterclockwise from the others when seen
+   *          from outside.
+   */
+  private void triangle(final int a, final int b, final int c) {
+    if (this.index_count + 3 > this.triangles.length) {
+      this.triangles = Arrays.copyOf(this.triangles,
+          2 * this.triangles.length);
+    }
+    this.triangles[this.index_count++] = a;
+    this.triangles[this.index_count++] = b;
+    this.triangles[this.index_count++] = c;
+  }
+
+  /**
+   * Computes the unit direction from one node of a tube to the next.
+   *
+   * @param t
+   *          The array in which to store the direction.
+   * @param nodes
+   *          The nodes of the tube.
+   * @param segment
+   *          The segment starting at the first of the two nodes.
+   */
+  private static void direction(final float[] t, final float[] nodes,
+      final int segment) {
+    final int a = segment * 4;
+    t[0] = nodes[a + 4] - nodes[a];
+    t[1] = nodes[a + 5] - nodes[a + 1];
+    t[2] = nodes[a + 6] - nodes[a + 2];
+    normalize(t);
+  }
+
+  /**
+   * Computes a unit vector perpendicular to another.
+   *
+   * @param u
+   *          The array in which to store the perpendicular.
+   * @param t
+   *          The unit vector.
+   */
+  private static void perpendicular(final float[] u, final float[] t) {
+    // cross with the axis along which t is shortest
+    final float ax = Math.abs(t[0]), ay = Math.abs(t[1]), az = Math.abs(t[2]);
+    if (ax <= ay && ax <= az) {
+      u[0] = 0;
+      u[1] = t[2];
+      u[2] = -t[1];
+    } else if (ay <= az) {
+      u[0] = -t[2];
+      u[1] = 0;
+      u[2] = t[0];
+    } else {
+      u[0] = t[1];
+      u[1] = -t[0];
+      u[2] = 0;
+    }
+    normalize(u);
+  }
+
+  /**
+   * Scales a vector to unit length, unless it has none.
+   *
+   * @param n
+   *          The vector (x, y, z).
+   */
+  private static void normalize(final float[] n) {
+    final float length = (float) Math.sqrt(n[0] * n[0] + n[1] * n[1] + n[2]
+        * n[2]);
+    if (length > 0) {
+      n[0] /= length;
+      n[1] /= length;
+      n[2] /= length;
+    }
+  }
+}
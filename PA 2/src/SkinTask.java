@@ -0,0 +1,199 @@
+/**
+ * SkinTask.java - deforms many instances of a skinned mesh on several cores
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - deformed small runs without creating a task, so a frame allocates nothing
+ *
+ * - created for drawing herds of skinned dogs
+ */
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Deforms a list of instances of a {@link SkinnedMesh} with a
+ * {@link Skinning} kernel, splitting the work across the threads of a
+ * {@link ForkJoinPool} once there is enough of it: a range of instances is
+ * split in two while it holds more than {@value #VERTICES_PER_TASK}
+ * vertices, and so is the range of vertices of a single instance, so that a
+ * large mesh is shared out as well as a large herd.
+ *
+ * Each instance is deformed into its own slot of the output, one after
+ * another, so the instances of a batch can then be drawn in turn.
+ */
+public class SkinTask extends RecursiveAction {
+  /** Randomly generated serial version UID. */
+  private static final long serialVersionUID = -2516924869314420517L;
+
+  /**
+   * The fewest vertices worth a task of their own; a multiple of the widest
+   * vector, so that split ranges fill whole vectors.
+   */
+  public static final int VERTICES_PER_TASK = 4096;
+
+  /** The kernel. */
+  private final Skinning kernel;
+  /** The mesh. */
+  private final SkinnedMesh mesh;
+  /** The world matrices of the skeleton of each instance. */
+  private final float bones[];
+  /** The index of the matrices of each instance in the bones. */
+  private final int instances[];
+  /** The deformed vertices of each instance, in the order of the list. */
+  private final float out[];
+  /** The instance of the list whose vertices start the output. */
+  private final int origin;
+  /** The first instance of the range, as an index into the list. */
+  private final int first;
+  /** The instance after the last of the range. */
+  private final int end;
+  /** The first vertex of the range. */
+  private final int first_vertex;
+  /** The vertex after the last of the range. */
+  private final int end_vertex;
+
+  /**
+   * Instantiates a task deforming a range of vertices of a range of
+   * instances.
+   *
+   * @param kernel
+   *          The kernel.
+   * @param mesh
+   *          The mesh.
+   * @param bones
+   *          The world matrices of the skeleton of each instance.
+   * @param instances
+   *          The index of the matrices of each instance in the bones.
+   * @param out
+   *          The array in which to store the deformed vertices.
+   * @param origin
+   *          The instance of the list whose vertices start the output.
+   * @param first
+   *          The first instance of the range, as an index into the list.
+   * @param end
+   *          The instance after the last of the range.
+   * @param first_vertex
+   *          The first vertex of the range.
+   * @param end_vertex
+   *          The vertex after the last of the range.
+   */
+  private SkinTask(final Skinning kernel, final SkinnedMesh mesh,
+      final float[] bones, final int[] instances, final float[] out,
+      final int origin, final int first, final int end,
+      final int first_vertex, final int end_vertex) {
+    this.kernel = kernel;
+    this.mesh = mesh;
+    this.bones = bones;
+    this.instances = instances;
+    this.out = out;
+    this.origin = origin;
+    this.first = first;
+    this.end = end;
+    this.first_vertex = first_vertex;
+    this.end_vertex = end_vertex;
+  }
+
+  /**
+   * Deforms a run of a list of instances of a mesh, on the threads of a pool
+   * if there are enough vertices, and otherwise on the calling thread.
+   *
+   * @param pool
+   *          The threads among which to share the work.
+   * @param kernel
+   *          The kernel.
+   * @param mesh
+   *          The mesh.
+   * @param bones
+   *          The world matrices of the skeletons of the instances; those of
+   *          instance {@code i} start at
+   *          {@code i * mesh.boneCount() * 16}.
+   * @param instances
+   *          The list of instances.
+   * @param first
+   *          The first instance of the list to deform.
+   * @param count
+   *          The number of instances to deform.
+   * @param out
+   *          The array in which to store the deformed vertices of the
+   *          {@code k}th instance deformed, starting at
+   *          {@code k * mesh.vertexCount() * }{@value SkinnedMesh#STRIDE}.
+   */
+  public static void skin(final ForkJoinPool pool, final Skinning kernel,
+      final SkinnedMesh mesh, final float[] bones, final int[] instances,
+      final int first, final int count, final float[] out) {
+    if ((long) count * mesh.vertexCount() > VERTICES_PER_TASK) {
+      pool.invoke(new SkinTask(kernel, mesh, bones, instances, out, first,
+          first, first + count, 0, mesh.vertexCount()));
+    } else {
+      deform(kernel, mesh, bones, instances, out, first, first, first + count,
+          0, mesh.vertexCount());
+    }
+  }
+
+  @Override
+  protected void compute() {
+    final int vertices = this.end_vertex - this.first_vertex;
+    if (this.end - this.first > 1
+        && (this.end - this.first) * vertices > VERTICES_PER_TASK) {
+      final int middle = (this.first + this.end) >>> 1;
+      invokeAll(new SkinTask(this.kernel, this.mesh, this.bones,
+          this.instances, this.out, this.origin, this.first, middle,
+          this.first_vertex, this.end_vertex), new SkinTask(this.kernel,
+          this.mesh, this.bones, this.instances, this.out, this.origin,
+          middle, this.end, this.first_vertex, this.end_vertex));
+      return;
+    }
+    if (vertices > 2 * VERTICES_PER_TASK) {
+      final int middle = this.first_vertex
+          + (vertices / 2 / VERTICES_PER_TASK) * VERTICES_PER_TASK;
+      invokeAll(new SkinTask(this.kernel, this.mesh, this.bones,
+          this.instances, this.out, this.origin, this.first, this.end,
+          this.first_vertex, middle), new SkinTask(this.kernel, this.mesh,
+          this.bones, this.instances, this.out, this.origin, this.first,
+          this.end, middle, this.end_vertex));
+      return;
+    }
+    deform(this.kernel, this.mesh, this.bones, this.instances, this.out,
+        this.origin, this.first, this.end, this.first_vertex, this.end_vertex);
+  }
+
+  /**
+   * Deforms a range of vertices of a range of instances on the calling
+   * thread.
+   *
+   * @param kernel
+   *          The kernel.
+   * @param mesh
+   *          The mesh.
+   * @param bones
+   *          The world matrices of the skeleton of each instance.
+   * @param instances
+   *          The index of the matrices of each instance in the bones.
+   * @param out
+   *          The array in which to store the deformed vertices.
+   * @param origin
+   *          The instance of the list whose vertices start the output.
+   * @param first
+   *          The first instance of the range, as an index into the list.
+   * @param end
+   *          The instance after the last of the range.
+   * @param first_vertex
+   *          The first vertex of the range.
+   * @param end_vertex
+   *          The vertex after the last of the range.
+   */
+  private static void deform(final Skinning kernel, final SkinnedMesh mesh,
+      final float[] bones, final int[] instances, final float[] out,
+      final int origin, final int first, final int end,
+      final int first_vertex, final int end_vertex) {
+    final int bone_stride = mesh.boneCount() * Matrix4.SIZE;
+    final int out_stride = mesh.vertexCount() * SkinnedMesh.STRIDE;
+    for (int k = first; k < end; ++k) {
+      kernel.skin(mesh, first_vertex, end_vertex, bones, instances[k]
+          * bone_stride, out, (k - origin) * out_stride);
+    }
+  }
+}
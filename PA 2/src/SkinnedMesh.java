@@ -0,0 +1,301 @@
+/**
+ * SkinnedMesh.java - one continuous mesh deformed by the joints of a skeleton
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - created so that the dog can be drawn as a single skin without gaps at
+ *   its joints
+ */
+
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+
+import javax.media.opengl.GL;
+
+import com.sun.opengl.util.BufferUtil;
+
+/**
+ * An indexed triangle mesh whose vertices each follow a blend of two joints
+ * of a {@link Skeleton}, so that the surface bends smoothly where the joints
+ * turn instead of separating into rigid pieces.
+ *
+ * The vertices are stored at rest, in the coordinate system of the root at
+ * rest, as a structure of arrays: one array for each coordinate of the
+ * positions and normals, one for each of the two joints a vertex follows and
+ * one for the weight of the first joint. The vertices are grouped into runs
+ * which follow the same two joints, so that a kernel can fetch the two
+ * matrices once for a whole run rather than once for each vertex. Deforming
+ * them by the world matrices of the skeleton (linear-blend skinning) is done
+ * by a {@link Skinning} kernel, which writes the positions and normals of
+ * one instance of the mesh interleaved, {@value #STRIDE} floats per vertex,
+ * as OpenGL draws them.
+ *
+ * Only the triangles are uploaded once; the deformed vertices of each
+ * instance are streamed into a vertex buffer object, if the context supports
+ * them, just before the instance is drawn.
+ */
+public class SkinnedMesh implements Mesh {
+
+  /** The number of floats of each deformed vertex: a position and a normal. */
+  public static final int STRIDE = 6;
+
+  /** The x coordinate of each vertex at rest. */
+  final float x[];
+  /** The y coordinate of each vertex at rest. */
+  final float y[];
+  /** The z coordinate of each vertex at rest. */
+  final float z[];
+  /** The x component of the normal of each vertex at rest. */
+  final float nx[];
+  /** The y component of the normal of each vertex at rest. */
+  final float ny[];
+  /** The z component of the normal of each vertex at rest. */
+  final float nz[];
+  /** The offset of the matrix of the first joint of each vertex. */
+  final int first_bones[];
+  /** The offset of the matrix of the second joint of each vertex. */
+  final int second_bones[];
+  /** The weight of the first joint of each vertex; the second has the rest. */
+  final float weights[];
+  /**
+   * The vertex after the last of each run of consecutive vertices which
+   * follow the same two joints, in order.
+   */
+  final int run_ends[];
+  /** The number of joints of the skeleton which deforms the mesh. */
+  private final int bone_count;
+  /** The indices of the vertices of each triangle. */
+  private final ShortBuffer indices;
+  /** The deformed vertices being drawn, interleaved. */
+  private final FloatBuffer vertices;
+  /** The normals of the vertices being drawn, a view of the vertices. */
+  private final FloatBuffer normals;
+  /** The OpenGL handles of the vertex and index buffer objects. */
+  private final int buffers[] = new int[2];
+  /** Whether the geometry lives in vertex buffer objects. */
+  private boolean use_vbo = false;
+
+  /**
+   * Instantiates a mesh from its vertices at rest and its triangles.
+   *
+   * @param positions
+   *          The position (x, y, z) of each vertex at rest.
+   * @param normals
+   *          The unit normal (x, y, z) of each vertex at rest.
+   * @param bones
+   *          The two joints each vertex follows.
+   * @param weights
+   *          The weight of the first joint of each vertex, from 0 to 1.
+   * @param bone_count
+   *          The number of joints of the skeleton which deforms the mesh.
+   * @param triangles
+   *          The indices of the three vertices of each triangle,
+   *          counterclockwise when seen from outside.
+   */
+  public SkinnedMesh(final float[] positions, final float[] normals,
+      final int[] bones, final float[] weights, final int bone_count,
+      final int[] triangles) {
+    final int count = weights.length;
+    if (positions.length != count * 3 || normals.length != count * 3
+        || bones.length != count * 2) {
+      throw new IllegalArgumentException("expected positions, normals and "
+          + "bones for " + count + " vertices");
+    }
+    if (count > 0xffff) {
+      throw new IllegalArgumentException(count + " vertices cannot be "
+          + "indexed by unsigned shorts");
+    }
+
+    this.x = new float[count];
+    this.y = new float[count];
+    this.z = new float[count];
+    this.nx = new float[count];
+    this.ny = new float[count];
+    this.nz = new float[count];
+    this.first_bones = new int[count];
+    this.second_bones = new int[count];
+    this.weights = weights.clone();
+    this.bone_count = bone_count;
+    for (int v = 0; v < count; ++v) {
+      this.x[v] = positions[v * 3];
+      this.y[v] = positions[v * 3 + 1];
+      this.z[v] = positions[v * 3 + 2];
+      this.nx[v] = normals[v * 3];
+      this.ny[v] = normals[v * 3 + 1];
+      this.nz[v] = normals[v * 3 + 2];
+      for (int i = 0; i < 2; ++i) {
+        final int bone = bones[v * 2 + i];
+        if (bone < 0 || bone >= bone_count) {
+          throw new IllegalArgumentException("vertex " + v
+              + " follows joint " + bone + " of " + bone_count);
+        }
+      }
+      this.first_bones[v] = bones[v * 2] * Matrix4.SIZE;
+      this.second_bones[v] = bones[v * 2 + 1] * Matrix4.SIZE;
+    }
+
+    int runs = 0;
+    final int ends[] = new int[count];
+    for (int v = 1; v <= count; ++v) {
+      if (v == count || this.first_bones[v] != this.first_bones[v - 1]
+          || this.second_bones[v] != this.second_bones[v - 1]) {
+        ends[runs++] = v;
+      }
+    }
+    this.run_ends = Arrays.copyOf(ends, runs);
+
+    this.indices = BufferUtil.newShortBuffer(triangles.length);
+    for (final int index : triangles) {
+      if (index < 0 || index >= count) {
+        throw new IllegalArgumentException("a triangle refers to vertex "
+            + index + " of " + count);
+      }
+      this.indices.put((short) index);
+    }
+    this.indices.rewind();
+
+    // at rest until the first instance is drawn
+    this.vertices = BufferUtil.newFloatBuffer(count * STRIDE);
+    for (int v = 0; v < count; ++v) {
+      this.vertices.put(positions, v * 3, 3).put(normals, v * 3, 3);
+    }
+    this.vertices.position(3);
+    this.normals = this.vertices.slice();
+    this.vertices.rewind();
+  }
+
+  /**
+   * Returns the number of vertices of this mesh.
+   *
+   * @return The number of vertices.
+   */
+  public int vertexCount() {
+    return this.weights.length;
+  }
+
+  /**
+   * Returns the number of joints of the skeleton which deforms this mesh, so
+   * that each instance has that many matrices, 16 floats each.
+   *
+   * @return The number of joints.
+   */
+  public int boneCount() {
+    return this.bone_count;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @param gl
+   *          {@inheritDoc}
+   */
+  public void upload(final GL gl) {
+    this.use_vbo = gl.isFunctionAvailable("glGenBuffers")
+        && gl.isFunctionAvailable("glBindBuffer")
+        && gl.isFunctionAvailable("glBufferData")
+        && gl.isFunctionAvailable("glBufferSubData");
+    if (!this.use_vbo) {
+      return;
+    }
+
+    gl.glGenBuffers(2, this.buffers, 0);
+    gl.glBindBuffer(GL.GL_ARRAY_BUFFER, this.buffers[0]);
+    gl.glBufferData(GL.GL_ARRAY_BUFFER, this.vertices.capacity()
+        * BufferUtil.SIZEOF_FLOAT, this.vertices, GL.GL_STREAM_DRAW);
+    gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, this.buffers[1]);
+    gl.glBufferData(GL.GL_ELEMENT_ARRAY_BUFFER, this.indices.capacity()
+        * BufferUtil.SIZEOF_SHORT, this.indices, GL.GL_STATIC_DRAW);
+    gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+    gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 0);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @param gl
+   *          {@inheritDoc}
+   */
+  public void bind(final GL gl) {
+    final int stride = STRIDE * BufferUtil.SIZEOF_FLOAT;
+    gl.glEnableClientState(GL.GL_VERTEX_ARRAY);
+    gl.glEnableClientState(GL.GL_NORMAL_ARRAY);
+    if (this.use_vbo) {
+      gl.glBindBuffer(GL.GL_ARRAY_BUFFER, this.buffers[0]);
+      gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, this.buffers[1]);
+      gl.glVertexPointer(3, GL.GL_FLOAT, stride, 0L);
+      gl.glNormalPointer(GL.GL_FLOAT, stride, 3L * BufferUtil.SIZEOF_FLOAT);
+    } else {
+      gl.glVertexPointer(3, GL.GL_FLOAT, stride, this.vertices);
+      gl.glNormalPointer(GL.GL_FLOAT, stride, this.normals);
+    }
+  }
+
+  /**
+   * Draws the vertices last given to {@link #draw(GL, float[], int)}, or the
+   * mesh at rest if none have been; the mesh must be bound.
+   *
+   * @param gl
+   *          The OpenGL object with which to draw the mesh.
+   */
+  public void draw(final GL gl) {
+    if (this.use_vbo) {
+      gl.glDrawElements(GL.GL_TRIANGLES, this.indices.capacity(),
+          GL.GL_UNSIGNED_SHORT, 0L);
+    } else {
+      gl.glDrawElements(GL.GL_TRIANGLES, this.indices.capacity(),
+          GL.GL_UNSIGNED_SHORT, this.indices);
+    }
+  }
+
+  /**
+   * Streams the deformed vertices of one instance to OpenGL and draws them
+   * under the current model view matrix; the mesh must be bound.
+   *
+   * @param gl
+   *          The OpenGL object with which to draw the instance.
+   * @param deformed
+   *          The array holding the deformed vertices, as written by a
+   *          {@link Skinning} kernel.
+   * @param offset
+   *          The index of the first float of the instance in the array.
+   */
+  public void draw(final GL gl, final float[] deformed, final int offset) {
+    this.vertices.clear();
+    this.vertices.put(deformed, offset, this.vertices.capacity());
+    this.vertices.rewind();
+    if (this.use_vbo) {
+      // orphan the buffer so the driver need not wait for the last draw
+      final int size = this.vertices.capacity() * BufferUtil.SIZEOF_FLOAT;
+      gl.glBufferData(GL.GL_ARRAY_BUFFER, size, null, GL.GL_STREAM_DRAW);
+      gl.glBufferSubData(GL.GL_ARRAY_BUFFER, 0, size, this.vertices);
+    }
+    this.draw(gl);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @param gl
+   *          {@inheritDoc}
+   */
+  public void unbind(final GL gl) {
+    if (this.use_vbo) {
+      gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+      gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 0);
+    }
+    gl.glDisableClientState(GL.GL_NORMAL_ARRAY);
+    gl.glDisableClientState(GL.GL_VERTEX_ARRAY);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return {@inheritDoc}
+   */
+  public int triangleCount() {
+    return this.indices.capacity() / 3;
+  }
+}
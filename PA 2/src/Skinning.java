@@ -0,0 +1,74 @@
+/**
+ * Skinning.java - the kernel which deforms the vertices of a skinned mesh
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - loaded the vector kernel from a source root of its own
+ *
+ * - created for the skinned mesh of the dog
+ */
+
+/**
+ * Deforms a range of the vertices of a {@link SkinnedMesh} by the world
+ * matrices of one instance of its skeleton, by linear-blend skinning: each
+ * vertex is transformed by the weighted sum of the matrices of its two
+ * joints, and so is its normal, which is left for OpenGL to normalize.
+ *
+ * There is a scalar kernel, {@link ScalarSkinning}, and one written with the
+ * incubating vector API, {@code VectorSkinning}, which processes as many
+ * vertices at once as the processor has lanes. The vector API is only
+ * present when the JVM runs with {@code --add-modules jdk.incubator.vector},
+ * so the vector kernel is loaded by name in {@link #create()} and never
+ * otherwise referred to; without the module, or without the kernel, the
+ * scalar kernel is used. The vector kernel lives in {@code src-vector}, which
+ * is compiled only with the module, so {@code javac src/*.java} needs
+ * nothing more.
+ */
+public interface Skinning {
+
+  /**
+   * Deforms a range of the vertices of a mesh.
+   *
+   * @param mesh
+   *          The mesh.
+   * @param first
+   *          The first vertex of the range.
+   * @param end
+   *          The vertex after the last of the range.
+   * @param bones
+   *          The array holding the world matrices of the instance, 16 floats
+   *          per joint of the mesh.
+   * @param bone_offset
+   *          The index of the first matrix of the instance in the array.
+   * @param out
+   *          The array in which to store the deformed vertices, position and
+   *          normal interleaved, {@value SkinnedMesh#STRIDE} floats each.
+   * @param out_offset
+   *          The index in the output of the first float of vertex 0 of the
+   *          instance, whether or not it is in the range.
+   */
+  void skin(SkinnedMesh mesh, int first, int end, float[] bones,
+      int bone_offset, float[] out, int out_offset);
+
+  /**
+   * Returns the vector kernel if the vector API is present, and otherwise
+   * the scalar kernel.
+   *
+   * @return The fastest kernel available.
+   */
+  static Skinning create() {
+    if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+      try {
+        return (Skinning) Class.forName("VectorSkinning").getConstructor()
+            .newInstance();
+      } catch (final ReflectiveOperationException exception) {
+        // fall back to the scalar kernel below
+      } catch (final LinkageError error) {
+        // the vector API of this JVM is not the one compiled against
+      }
+    }
+    return new ScalarSkinning();
+  }
+}
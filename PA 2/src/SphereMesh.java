@@ -0,0 +1,166 @@
+/**
+ * SphereMesh.java - an indexed unit sphere shared by all ellipsoidal parts
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - created to replace the per-part glutSolidSphere display lists
+ */
+
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+import javax.media.opengl.GL;
+
+import com.sun.opengl.util.BufferUtil;
+
+/**
+ * An indexed unit sphere, tessellated like {@code glutSolidSphere} into
+ * slices around the z-axis and stacks along it.
+ *
+ * On a unit sphere the normal at each vertex equals its position, so a single
+ * array of floats serves as both the vertex and the normal array. The arrays
+ * are stored in vertex buffer objects if the OpenGL context supports them, and
+ * are otherwise drawn from client-side vertex arrays.
+ */
+public class SphereMesh implements Mesh {
+
+  /** The number of subdivisions around the z-axis. */
+  private final int slices;
+  /** The number of subdivisions along the z-axis. */
+  private final int stacks;
+  /** The vertex positions, which double as the normals. */
+  private final FloatBuffer vertices;
+  /** The indices of the vertices of each triangle. */
+  private final ShortBuffer indices;
+  /** The OpenGL handles of the vertex and index buffer objects. */
+  private final int buffers[] = new int[2];
+  /** Whether the geometry lives in vertex buffer objects. */
+  private boolean use_vbo = false;
+
+  /**
+   * Instantiates and tessellates a unit sphere.
+   *
+   * @param slices
+   *          The number of subdivisions around the z-axis.
+   * @param stacks
+   *          The number of subdivisions along the z-axis.
+   */
+  public SphereMesh(final int slices, final int stacks) {
+    this.slices = slices;
+    this.stacks = stacks;
+
+    this.vertices = BufferUtil.newFloatBuffer(3 * (slices + 1) * (stacks + 1));
+    for (int i = 0; i <= stacks; ++i) {
+      final double phi = Math.PI * i / stacks;
+      final double z = Math.cos(phi);
+      final double r = Math.sin(phi);
+      for (int j = 0; j <= slices; ++j) {
+        final double theta = 2 * Math.PI * j / slices;
+        this.vertices.put((float) (r * Math.cos(theta)));
+        this.vertices.put((float) (r * Math.sin(theta)));
+        this.vertices.put((float) z);
+      }
+    }
+    this.vertices.rewind();
+
+    this.indices = BufferUtil.newShortBuffer(6 * slices * stacks);
+    for (int i = 0; i < stacks; ++i) {
+      for (int j = 0; j < slices; ++j) {
+        final short a = (short) (i * (slices + 1) + j);
+        final short b = (short) (a + slices + 1);
+        // counterclockwise when seen from outside the sphere
+        this.indices.put(a).put(b).put((short) (a + 1));
+        this.indices.put((short) (a + 1)).put(b).put((short) (b + 1));
+      }
+    }
+    this.indices.rewind();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @param gl
+   *          {@inheritDoc}
+   */
+  public void upload(final GL gl) {
+    this.use_vbo = gl.isFunctionAvailable("glGenBuffers")
+        && gl.isFunctionAvailable("glBindBuffer")
+        && gl.isFunctionAvailable("glBufferData");
+    if (!this.use_vbo) {
+      // the client-side arrays are already in place
+      return;
+    }
+
+    gl.glGenBuffers(2, this.buffers, 0);
+    gl.glBindBuffer(GL.GL_ARRAY_BUFFER, this.buffers[0]);
+    gl.glBufferData(GL.GL_ARRAY_BUFFER, this.vertices.capacity()
+        * BufferUtil.SIZEOF_FLOAT, this.vertices, GL.GL_STATIC_DRAW);
+    gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, this.buffers[1]);
+    gl.glBufferData(GL.GL_ELEMENT_ARRAY_BUFFER, this.indices.capacity()
+        * BufferUtil.SIZEOF_SHORT, this.indices, GL.GL_STATIC_DRAW);
+    gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+    gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 0);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @param gl
+   *          {@inheritDoc}
+   */
+  public void bind(final GL gl) {
+    gl.glEnableClientState(GL.GL_VERTEX_ARRAY);
+    gl.glEnableClientState(GL.GL_NORMAL_ARRAY);
+    if (this.use_vbo) {
+      gl.glBindBuffer(GL.GL_ARRAY_BUFFER, this.buffers[0]);
+      gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, this.buffers[1]);
+      gl.glVertexPointer(3, GL.GL_FLOAT, 0, 0L);
+      gl.glNormalPointer(GL.GL_FLOAT, 0, 0L);
+    } else {
+      gl.glVertexPointer(3, GL.GL_FLOAT, 0, this.vertices);
+      gl.glNormalPointer(GL.GL_FLOAT, 0, this.vertices);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @param gl
+   *          {@inheritDoc}
+   */
+  public void draw(final GL gl) {
+    if (this.use_vbo) {
+      gl.glDrawElements(GL.GL_TRIANGLES, this.indices.capacity(),
+          GL.GL_UNSIGNED_SHORT, 0L);
+    } else {
+      gl.glDrawElements(GL.GL_TRIANGLES, this.indices.capacity(),
+          GL.GL_UNSIGNED_SHORT, this.indices);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @param gl
+   *          {@inheritDoc}
+   */
+  public void unbind(final GL gl) {
+    if (this.use_vbo) {
+      gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+      gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 0);
+    }
+    gl.glDisableClientState(GL.GL_NORMAL_ARRAY);
+    gl.glDisableClientState(GL.GL_VERTEX_ARRAY);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return {@inheritDoc}
+   */
+  public int triangleCount() {
+    return 2 * this.slices * this.stacks;
+  }
+}
@@ -0,0 +1,95 @@
+/**
+ * TeapotMesh.java - the GLUT teapot compiled once into a display list
+ *
+ * History:
+ *
+ * 18 October 2026
+ *
+ * - created for the head of the dog
+ */
+
+import javax.media.opengl.GL;
+
+import com.sun.opengl.util.GLUT;
+
+/**
+ * The GLUT teapot, which is compiled into a display list once since GLUT does
+ * not expose its vertex data.
+ */
+public class TeapotMesh implements Mesh {
+
+  /** The approximate number of triangles in a GLUT teapot. */
+  private static final int TRIANGLE_COUNT = 2048;
+
+  /** The OpenGL utility toolkit object which draws the teapot. */
+  private final GLUT glut;
+  /** The size of the teapot. */
+  private final double size;
+  /** The OpenGL handle for the display list holding the teapot. */
+  private int list;
+
+  /**
+   * Instantiates a teapot of the specified size.
+   *
+   * @param glut
+   *          The OpenGL utility toolkit object which draws the teapot.
+   * @param size
+   *          The size of the teapot.
+   */
+  public TeapotMesh(final GLUT glut, final double size) {
+    this.glut = glut;
+    this.size = size;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @param gl
+   *          {@inheritDoc}
+   */
+  public void upload(final GL gl) {
+    this.list = gl.glGenLists(1);
+    gl.glNewList(this.list, GL.GL_COMPILE);
+    this.glut.glutSolidTeapot(this.size);
+    gl.glEndList();
+  }
+
+  /**
+   * This method is intentionally unimplemented.
+   *
+   * @param gl
+   *          This parameter is ignored.
+   */
+  public void bind(final GL gl) {
+    // intentionally unimplemented
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @param gl
+   *          {@inheritDoc}
+   */
+  public void draw(final GL gl) {
+    gl.glCallList(this.list);
+  }
+
+  /**
+   * This method is intentionally unimplemented.
+   *
+   * @param gl
+   *          This parameter is ignored.
+   */
+  public void unbind(final GL gl) {
+    // intentionally unimplemented
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return {@inheritDoc}
+   */
+  public int triangleCount() {
+    return TRIANGLE_COUNT;
+  }
+}